@@ -0,0 +1,98 @@
+package cm.guce.common.application.dto;
+
+import cm.guce.common.domain.exception.ValidationException;
+import cm.guce.common.domain.model.BaseEntity;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Page de résultats en pagination par curseur (keyset / seek).
+ *
+ * Les lignes sont triées par (createdAt DESC, id DESC) et la page suivante est obtenue
+ * en repartant du dernier couple lu, sans OFFSET: le coût d'une page est constant quelle
+ * que soit sa profondeur. Le total n'est calculé que sur demande.
+ *
+ * @param <T> Type des éléments retournés
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    private static final int DEFAULT_SIZE = 20;
+    private static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+
+    /**
+     * Borne la taille de page demandée.
+     */
+    public static int normalizeSize(Integer size) {
+        if (size == null || size <= 0) return DEFAULT_SIZE;
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Construit une page à partir de lignes lues avec une limite de size + 1:
+     * la ligne excédentaire indique l'existence d'une page suivante.
+     */
+    public static <E extends BaseEntity, T> CursorPage<T> of(List<E> rows, int size,
+                                                             Function<E, T> mapper, Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            E last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(pageRows.stream().map(mapper).toList(), size, hasNext, nextCursor, totalElements);
+    }
+
+    /**
+     * Position (createdAt, id) de la dernière ligne lue.
+     */
+    public record Cursor(LocalDateTime createdAt, UUID id) {
+
+        /** Position de départ: précède toutes les lignes en ordre décroissant. */
+        public static final Cursor START = new Cursor(
+                LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+                new UUID(-1L, -1L));
+
+        public String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Décode un curseur opaque; un curseur absent désigne la première page.
+         */
+        public static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return START;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        UUID.fromString(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new ValidationException("Curseur de pagination invalide")
+                        .addFieldError("cursor", "Format de curseur invalide");
+            }
+        }
+    }
+}
@@ -24,7 +24,7 @@ import java.util.UUID;
 public abstract class BaseEntity implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @EntityUuid
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
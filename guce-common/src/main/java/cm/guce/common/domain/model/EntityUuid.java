@@ -0,0 +1,20 @@
+package cm.guce.common.domain.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Identifiant UUID des entités {@link BaseEntity}.
+ *
+ * Aléatoire (version 4) par défaut; ordonné dans le temps (version 7) pour les entités
+ * annotées {@link TimeOrderedIds}.
+ */
+@IdGeneratorType(EntityUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface EntityUuid {
+}
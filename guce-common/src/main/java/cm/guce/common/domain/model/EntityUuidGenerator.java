@@ -0,0 +1,33 @@
+package cm.guce.common.domain.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+/**
+ * Générateur des identifiants {@link BaseEntity}: UUID version 7 si l'entité est annotée
+ * {@link TimeOrderedIds}, UUID aléatoire sinon.
+ */
+public class EntityUuidGenerator implements BeforeExecutionGenerator {
+
+    private static final ClassValue<Boolean> TIME_ORDERED = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isAnnotationPresent(TimeOrderedIds.class);
+        }
+    };
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner,
+                           Object currentValue, EventType eventType) {
+        return TIME_ORDERED.get(owner.getClass()) ? TimeOrderedUuidGenerator.next() : UUID.randomUUID();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+}
@@ -0,0 +1,19 @@
+package cm.guce.common.domain.model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Active les identifiants UUID version 7 sur une entité {@link BaseEntity}.
+ *
+ * Réservé aux tables à fort volume d'insertion: chaque service choisit ses entités,
+ * les autres conservent des UUID aléatoires.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TimeOrderedIds {
+}
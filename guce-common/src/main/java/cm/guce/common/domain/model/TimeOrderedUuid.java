@@ -0,0 +1,21 @@
+package cm.guce.common.domain.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Identifiant UUID ordonné dans le temps (UUID version 7), généré en mémoire.
+ *
+ * Les nouvelles lignes s'insèrent en fin d'index de clé primaire au lieu d'être
+ * dispersées aléatoirement, et aucun aller-retour base n'est nécessaire: les insertions
+ * restent éligibles au batching JDBC.
+ */
+@IdGeneratorType(TimeOrderedUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedUuid {
+}
@@ -0,0 +1,61 @@
+package cm.guce.common.domain.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+
+/**
+ * Générateur d'UUID version 7 (RFC 9562).
+ *
+ * 48 bits d'horodatage en millisecondes, puis un compteur de 12 bits qui garantit
+ * l'ordre croissant des identifiants générés dans la même milliseconde, puis 62 bits aléatoires.
+ */
+public class TimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Object LOCK = new Object();
+
+    private static long lastTimestamp;
+    private static int sequence;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner,
+                           Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+
+    /**
+     * Génère un nouvel identifiant.
+     */
+    public static UUID next() {
+        long timestamp;
+        int counter;
+        synchronized (LOCK) {
+            timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+            if (timestamp == lastTimestamp) {
+                sequence = (sequence + 1) & 0x0FFF;
+                if (sequence == 0) {
+                    // Compteur épuisé: on emprunte la milliseconde suivante
+                    timestamp++;
+                }
+            } else {
+                sequence = RANDOM.nextInt(0x0400);
+            }
+            lastTimestamp = timestamp;
+            counter = sequence;
+        }
+
+        long msb = (timestamp << 16) | 0x7000L | counter;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
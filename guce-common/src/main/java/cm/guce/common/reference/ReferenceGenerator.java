@@ -0,0 +1,199 @@
+package cm.guce.common.reference;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Générateur de numéros de référence uniques.
+ * Format: PREFIX-YYYYMMDD-NNNNNN
+ *
+ * Chaque couple (préfixe, jour) dispose d'une séquence monotone en base (table
+ * reference_sequence). Les valeurs sont réservées par blocs (hi/lo) dans une transaction
+ * indépendante puis distribuées en mémoire sans verrou; seul l'épuisement d'un bloc
+ * déclenche un aller-retour base. Un seul appelant renouvelle le bloc d'une clé, les autres
+ * attendent ce renouvellement (au plus guce.reference.refill-wait-ms) puis réservent leur
+ * propre bloc. Les valeurs d'un bloc non consommé sont perdues au redémarrage: la séquence
+ * peut présenter des trous mais jamais de doublon.
+ *
+ * Actif uniquement dans les services qui déclarent leur table (guce.reference.table).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "guce.reference", name = "table")
+public class ReferenceGenerator {
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate allocationTransaction;
+    private final String allocateSql;
+    private final int blockSize;
+    private final long refillWaitMillis;
+
+    private final ConcurrentMap<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    public ReferenceGenerator(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${guce.reference.table}") String table,
+                              @Value("${guce.reference.block-size:50}") int blockSize,
+                              @Value("${guce.reference.refill-wait-ms:500}") long refillWaitMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.allocationTransaction = new TransactionTemplate(transactionManager);
+        this.allocationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.allocateSql = "INSERT INTO " + table + " (prefix, sequence_day, next_value) VALUES (?, ?, ?) " +
+                "ON CONFLICT (prefix, sequence_day) DO UPDATE SET next_value = " +
+                table + ".next_value + EXCLUDED.next_value RETURNING next_value";
+        this.blockSize = Math.max(1, blockSize);
+        this.refillWaitMillis = Math.max(0, refillWaitMillis);
+    }
+
+    /**
+     * Retourne la prochaine référence pour un préfixe (ex: "DI", "FIMEX").
+     */
+    public String next(String prefix) {
+        LocalDate day = LocalDate.now();
+        String dayKey = day.format(DAY_FORMAT);
+        long value = nextValue(prefix, day, prefix + '|' + dayKey);
+        return format(prefix, dayKey, value);
+    }
+
+    private long nextValue(String prefix, LocalDate day, String key) {
+        Sequence sequence = sequences.computeIfAbsent(key, k -> new Sequence());
+        while (true) {
+            // Chemin rapide: sans verrou tant que le bloc courant n'est pas épuisé
+            Block observed = sequence.current.get();
+            long value = observed.take();
+            if (value > 0) {
+                return value;
+            }
+
+            CompletableFuture<Void> pending = sequence.refill.get();
+            if (pending == null) {
+                CompletableFuture<Void> refill = new CompletableFuture<>();
+                if (sequence.refill.compareAndSet(null, refill)) {
+                    refill(sequence, observed, refill, prefix, day, key);
+                }
+                continue;
+            }
+
+            // Attente bornée: un appelant qui attend tient sa connexion, le renouvellement en
+            // demande une seconde (REQUIRES_NEW). Si le pool est saturé, chacun réserve son
+            // propre bloc plutôt que d'attendre indéfiniment (trous, sans doublon).
+            try {
+                pending.get(refillWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                Block own = allocate(prefix, day);
+                value = own.take();
+                sequence.current.updateAndGet(current -> current.isExhausted() ? own : current);
+                return value;
+            } catch (ExecutionException e) {
+                // Échec du renouvellement partagé: nouvelle tentative, éventuellement par cet appelant
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Allocation de séquence interrompue pour le préfixe " + prefix, e);
+            }
+        }
+    }
+
+    /**
+     * Renouvelle le bloc de la clé; exécuté par un seul appelant à la fois.
+     */
+    private void refill(Sequence sequence, Block observed, CompletableFuture<Void> refill,
+                        String prefix, LocalDate day, String key) {
+        try {
+            // Un renouvellement a pu aboutir entre la lecture du bloc et la prise du jeton
+            if (sequence.current.get() == observed) {
+                sequence.current.set(allocate(prefix, day));
+                evictPastDays(key);
+            }
+            refill.complete(null);
+        } catch (RuntimeException e) {
+            refill.completeExceptionally(e);
+            throw e;
+        } finally {
+            sequence.refill.set(null);
+        }
+    }
+
+    private Block allocate(String prefix, LocalDate day) {
+        Long high = allocationTransaction.execute(status ->
+                jdbcTemplate.queryForObject(allocateSql, Long.class, prefix, day, (long) blockSize));
+        if (high == null) {
+            throw new IllegalStateException("Allocation de séquence impossible pour le préfixe " + prefix);
+        }
+        log.debug("Allocated reference block {}-{} for prefix {} on {}", high - blockSize + 1, high, prefix, day);
+        return new Block(high - blockSize + 1, high);
+    }
+
+    /**
+     * Les blocs des jours précédents ne seront plus jamais utilisés.
+     */
+    private void evictPastDays(String currentKey) {
+        String suffix = currentKey.substring(currentKey.indexOf('|'));
+        sequences.keySet().removeIf(k -> !k.endsWith(suffix));
+    }
+
+    private static String format(String prefix, String dayKey, long value) {
+        StringBuilder sb = new StringBuilder(prefix.length() + 17)
+                .append(prefix).append('-').append(dayKey).append('-');
+        String digits = Long.toString(value);
+        for (int i = digits.length(); i < 6; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    /**
+     * État d'une clé (préfixe, jour): bloc courant et renouvellement en cours.
+     */
+    private static final class Sequence {
+
+        final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+        final AtomicReference<CompletableFuture<Void>> refill = new AtomicReference<>();
+    }
+
+    /**
+     * Plage [next, max] réservée en base pour ce processus.
+     */
+    private static final class Block {
+
+        static final Block EMPTY = new Block(1, 0);
+
+        private final AtomicLong next;
+        private final long max;
+
+        Block(long first, long max) {
+            this.next = new AtomicLong(first);
+            this.max = max;
+        }
+
+        /**
+         * Retourne la valeur suivante, ou 0 si le bloc est épuisé.
+         */
+        long take() {
+            long value = next.getAndIncrement();
+            return value <= max ? value : 0;
+        }
+
+        boolean isExhausted() {
+            return next.get() > max;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package cm.guce.common.util;
 
 import java.text.Normalizer;
-import java.util.Random;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Pattern;
 
 /**
@@ -10,7 +12,8 @@ import java.util.regex.Pattern;
 public final class StringUtils {
 
     private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
-    private static final Random RANDOM = new Random();
+    private static final DateTimeFormatter REFERENCE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String CODE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
 
     private StringUtils() {
         // Utility class
@@ -54,10 +57,10 @@ public final class StringUtils {
      * Génère un code alphanumérique aléatoire.
      */
     public static String generateCode(int length) {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         StringBuilder sb = new StringBuilder(length);
         for (int i = 0; i < length; i++) {
-            sb.append(chars.charAt(RANDOM.nextInt(chars.length())));
+            sb.append(CODE_CHARS.charAt(random.nextInt(CODE_CHARS.length())));
         }
         return sb.toString();
     }
@@ -65,11 +68,25 @@ public final class StringUtils {
     /**
      * Génère un numéro de référence avec préfixe et horodatage.
      * Format: PREFIX-YYYYMMDD-XXXXXX
+     *
+     * L'unicité n'est pas garantie: pour une référence persistée sous contrainte d'unicité,
+     * utiliser ReferenceGenerator.
      */
     public static String generateReference(String prefix) {
-        String date = java.time.LocalDate.now().format(
-                java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
-        return String.format("%s-%s-%s", prefix, date, generateCode(6));
+        return prefix + '-' + LocalDate.now().format(REFERENCE_DATE) + '-' + generateCode(6);
+    }
+
+    /**
+     * Normalise un terme de recherche pour un motif LIKE:
+     * minuscules, espaces superflus supprimés, caractères spéciaux (\, %, _) échappés.
+     */
+    public static String toSearchTerm(String query) {
+        if (query == null) return "";
+        return query.trim()
+                .toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
     /**
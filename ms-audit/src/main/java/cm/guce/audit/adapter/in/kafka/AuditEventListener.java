@@ -0,0 +1,130 @@
+package cm.guce.audit.adapter.in.kafka;
+
+import cm.guce.audit.adapter.out.persistence.AuditLogBatchWriter;
+import cm.guce.audit.application.AuditEventMapper;
+import cm.guce.audit.application.AuditEventMapper.AuditEventMappingException;
+import cm.guce.audit.domain.model.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch listener for audit events.
+ *
+ * Each poll is mapped and written with one JDBC batch; the container commits the offsets
+ * once the listener returns. On a poison event, the events before it are flushed and the
+ * event is reported by index so that it goes to the dead-letter topic and the rest of the
+ * batch is redelivered. An event may also be rejected by the database (value too long,
+ * invalid JSON content): the batch is then written event by event to find it.
+ */
+@Component
+@Slf4j
+public class AuditEventListener {
+
+    private final AuditEventMapper eventMapper;
+    private final AuditLogBatchWriter batchWriter;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSize;
+    private final Counter poisonCounter;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public AuditEventListener(AuditEventMapper eventMapper, AuditLogBatchWriter batchWriter,
+                              MeterRegistry meterRegistry) {
+        this.eventMapper = eventMapper;
+        this.batchWriter = batchWriter;
+        this.flushTimer = Timer.builder("audit.ingestion.flush")
+            .description("Time to write one batch of audit events")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("audit.ingestion.batch.size")
+            .description("Number of audit events per batch")
+            .register(meterRegistry);
+        this.poisonCounter = Counter.builder("audit.ingestion.dead.lettered")
+            .description("Audit events sent to the dead-letter topic")
+            .register(meterRegistry);
+        Gauge.builder("audit.ingestion.lag", lagMillis, AtomicLong::get)
+            .description("Age of the oldest event of the last batch, in milliseconds")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "${audit.kafka.topic:audit-events}", groupId = "ms-audit",
+                   containerFactory = "auditBatchListenerContainerFactory")
+    public void onAuditEvents(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long oldest = records.stream().mapToLong(ConsumerRecord::timestamp).min().getAsLong();
+        lagMillis.set(Math.max(0, System.currentTimeMillis() - oldest));
+
+        List<AuditLog> logs = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                logs.add(eventMapper.toAuditLog(records.get(i).value()));
+            } catch (AuditEventMappingException e) {
+                write(records, logs);
+                throw poison(records.get(i), i, e);
+            }
+        }
+        write(records, logs);
+    }
+
+    /**
+     * Writes the mapped events, which are the first logs.size() records of the batch.
+     */
+    private void write(List<ConsumerRecord<String, Map<String, Object>>> records, List<AuditLog> logs) {
+        try {
+            flush(logs);
+        } catch (DataIntegrityViolationException | IllegalArgumentException e) {
+            log.warn("Batch of {} audit events rejected ({}), writing them one by one", logs.size(), e.getMessage());
+            writeOneByOne(records, logs);
+        }
+    }
+
+    /**
+     * Commits the events one by one until the rejected one, which is reported by index. Any
+     * other failure is reported at its index too, so that only the events not yet written
+     * are retried.
+     */
+    private void writeOneByOne(List<ConsumerRecord<String, Map<String, Object>>> records, List<AuditLog> logs) {
+        for (int i = 0; i < logs.size(); i++) {
+            try {
+                flush(List.of(logs.get(i)));
+            } catch (DataIntegrityViolationException | IllegalArgumentException e) {
+                throw poison(records.get(i), i, e);
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException(e.getMessage(), e, i);
+            }
+        }
+    }
+
+    private BatchListenerFailedException poison(ConsumerRecord<String, Map<String, Object>> record, int index,
+                                                RuntimeException cause) {
+        poisonCounter.increment();
+        log.warn("Poison audit event at {}-{}@{}: {}", record.topic(), record.partition(), record.offset(),
+            cause.getMessage());
+        return new BatchListenerFailedException(cause.getMessage(), cause, index);
+    }
+
+    private void flush(List<AuditLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> batchWriter.write(logs));
+        batchSize.record(logs.size());
+        log.debug("Flushed {} audit events", logs.size());
+    }
+}
@@ -1,6 +1,10 @@
 package cm.guce.audit.adapter.in.web;
 
+import cm.guce.audit.application.AuditIntegrityService;
+import cm.guce.audit.application.AuditIntegrityService.IntegrityReport;
 import cm.guce.audit.application.AuditService;
+import cm.guce.audit.application.export.AuditExportService;
+import cm.guce.audit.application.export.ExportFormat;
 import cm.guce.audit.domain.model.AuditLog;
 import cm.guce.audit.domain.model.AuditLog.*;
 import cm.guce.audit.domain.port.AuditLogRepository;
@@ -11,11 +15,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,6 +42,8 @@ public class AuditController {
 
     private final AuditService auditService;
     private final AuditLogRepository auditLogRepository;
+    private final AuditExportService auditExportService;
+    private final AuditIntegrityService auditIntegrityService;
 
     @PostMapping
     @Operation(summary = "Record an audit event")
@@ -85,6 +95,53 @@ public class AuditController {
         return ResponseEntity.ok(logs);
     }
 
+    @GetMapping("/export/{tenantId}")
+    @Operation(summary = "Stream the audit trail of a tenant over a period (NDJSON, CSV or Arrow, optionally gzipped)")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @PathVariable UUID tenantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // The export itself is part of the audit trail
+        auditService.recordAction(tenantId,
+            jwt != null ? UUID.fromString(jwt.getSubject()) : null,
+            jwt != null ? jwt.getClaimAsString("preferred_username") : null,
+            jwt != null ? jwt.getClaimAsString("email") : null,
+            AuditAction.EXPORT, AuditCategory.DATA_ACCESS, "AuditLog", null, null, "ms-audit",
+            "Audit trail export", null,
+            Map.of("from", from.toString(), "to", to.toString(), "format", format.name()),
+            null, null);
+
+        String filename = "audit-" + tenantId + "-" + from.toLocalDate() + "-" + to.toLocalDate() + "."
+            + format.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> auditExportService.export(tenantId, from, to, format, gzip, out);
+        return ResponseEntity.ok()
+            .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+
+    @GetMapping("/integrity/{tenantId}")
+    @Operation(summary = "Verify the hash chain of a tenant over a period")
+    public ResponseEntity<IntegrityReport> verifyIntegrity(
+            @PathVariable UUID tenantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return auditIntegrityService.verify(tenantId, from, to)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get audit logs for a user")
     public ResponseEntity<Page<AuditLog>> getAuditLogsByUser(
@@ -0,0 +1,253 @@
+package cm.guce.audit.adapter.out.persistence;
+
+import cm.guce.audit.domain.model.AuditLog;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SHA-256 hashing of audit entries for the tenant hash chains.
+ *
+ * The hash covers the previous hash of the chain, the sequence number and every column
+ * of the entry, each length-prefixed. JSON values are hashed in canonical form (sorted
+ * keys, normalized numbers) so that an entry read back from jsonb hashes the same as
+ * the entry that was written.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditEntryHasher {
+
+    /**
+     * Previous hash of the first entry of a chain
+     */
+    public static final String GENESIS = "0".repeat(64);
+
+    /**
+     * Columns read by {@link #hash(ResultSet)}
+     */
+    public static final String ENTRY_COLUMNS = "id, tenant_id, user_id, user_email, user_name, action, category, " +
+        "entity_type, entity_id, entity_name, service_name, description, old_value, new_value, changes, metadata, " +
+        "ip_address, user_agent, request_id, session_id, status, error_message, timestamp, duration, " +
+        "chain_seq, prev_hash, entry_hash";
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Hash of an entry about to be written (chainSeq and prevHash set)
+     */
+    public String hash(AuditLog auditLog) {
+        List<String> fields = new ArrayList<>(25);
+        fields.add(auditLog.getPrevHash());
+        fields.add(String.valueOf(auditLog.getChainSeq()));
+        fields.add(toString(auditLog.getId()));
+        fields.add(toString(auditLog.getTenantId()));
+        fields.add(toString(auditLog.getUserId()));
+        fields.add(auditLog.getUserEmail());
+        fields.add(auditLog.getUserName());
+        fields.add(auditLog.getAction().name());
+        fields.add(auditLog.getCategory().name());
+        fields.add(auditLog.getEntityType());
+        fields.add(auditLog.getEntityId());
+        fields.add(auditLog.getEntityName());
+        fields.add(auditLog.getServiceName());
+        fields.add(auditLog.getDescription());
+        fields.add(canonicalJson(auditLog.getOldValue()));
+        fields.add(canonicalJson(auditLog.getNewValue()));
+        fields.add(canonicalJson(auditLog.getChanges()));
+        fields.add(canonicalJson(auditLog.getMetadata()));
+        fields.add(auditLog.getIpAddress());
+        fields.add(auditLog.getUserAgent());
+        fields.add(auditLog.getRequestId());
+        fields.add(auditLog.getSessionId());
+        fields.add(auditLog.getStatus() != null ? auditLog.getStatus().name() : null);
+        fields.add(auditLog.getErrorMessage());
+        fields.add(TIMESTAMP.format(auditLog.getTimestamp()));
+        fields.add(auditLog.getDuration() != null ? auditLog.getDuration().toString() : null);
+        return digest(fields);
+    }
+
+    /**
+     * Recompute the hash of a stored entry, read with {@link #ENTRY_COLUMNS}
+     */
+    public String hash(ResultSet rs) throws SQLException {
+        List<String> fields = new ArrayList<>(25);
+        fields.add(rs.getString("prev_hash"));
+        fields.add(String.valueOf(rs.getLong("chain_seq")));
+        fields.add(rs.getString("id"));
+        fields.add(rs.getString("tenant_id"));
+        fields.add(rs.getString("user_id"));
+        fields.add(rs.getString("user_email"));
+        fields.add(rs.getString("user_name"));
+        fields.add(rs.getString("action"));
+        fields.add(rs.getString("category"));
+        fields.add(rs.getString("entity_type"));
+        fields.add(rs.getString("entity_id"));
+        fields.add(rs.getString("entity_name"));
+        fields.add(rs.getString("service_name"));
+        fields.add(rs.getString("description"));
+        fields.add(canonicalJson(rs.getString("old_value")));
+        fields.add(canonicalJson(rs.getString("new_value")));
+        fields.add(canonicalJson(rs.getString("changes")));
+        fields.add(canonicalJson(rs.getString("metadata")));
+        fields.add(rs.getString("ip_address"));
+        fields.add(rs.getString("user_agent"));
+        fields.add(rs.getString("request_id"));
+        fields.add(rs.getString("session_id"));
+        fields.add(rs.getString("status"));
+        fields.add(rs.getString("error_message"));
+        Timestamp timestamp = rs.getTimestamp("timestamp");
+        fields.add(TIMESTAMP.format(timestamp.toLocalDateTime()));
+        long duration = rs.getLong("duration");
+        fields.add(rs.wasNull() ? null : Long.toString(duration));
+        return digest(fields);
+    }
+
+    /**
+     * Merkle root of entry hashes, in chain order: nodes are SHA-256(0x01 || left || right),
+     * an odd node is promoted to the next level
+     */
+    public static String merkleRoot(List<String> leaves) {
+        if (leaves.isEmpty()) {
+            throw new IllegalArgumentException("Merkle root of an empty batch");
+        }
+        List<byte[]> level = new ArrayList<>(leaves.size());
+        for (String leaf : leaves) {
+            level.add(HEX.parseHex(leaf));
+        }
+        MessageDigest digest = sha256();
+        while (level.size() > 1) {
+            List<byte[]> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                if (i + 1 == level.size()) {
+                    next.add(level.get(i));
+                    continue;
+                }
+                digest.update((byte) 1);
+                digest.update(level.get(i));
+                digest.update(level.get(i + 1));
+                next.add(digest.digest());
+            }
+            level = next;
+        }
+        return HEX.formatHex(level.get(0));
+    }
+
+    /**
+     * Timestamps are stored with microsecond precision: entries must be hashed with the stored value
+     */
+    public static LocalDateTime storedPrecision(LocalDateTime timestamp) {
+        return timestamp.withNano(timestamp.getNano() / 1000 * 1000);
+    }
+
+    private static String digest(List<String> fields) {
+        MessageDigest digest = sha256();
+        ByteBuffer length = ByteBuffer.allocate(4);
+        for (String field : fields) {
+            if (field == null) {
+                digest.update((byte) 0);
+                continue;
+            }
+            byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+            digest.update((byte) 1);
+            digest.update(length.clear().putInt(bytes.length).array());
+            digest.update(bytes);
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toString(UUID value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private String canonicalJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        JsonNode tree = objectMapper.valueToTree(value);
+        return canonicalJson(tree);
+    }
+
+    private String canonicalJson(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return canonicalJson(objectMapper.readTree(value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String canonicalJson(JsonNode node) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            writeCanonical(generator, node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static void writeCanonical(JsonGenerator generator, JsonNode node) throws IOException {
+        if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+                names.add(it.next());
+            }
+            names.sort(null);
+            generator.writeStartObject();
+            for (String name : names) {
+                generator.writeFieldName(name);
+                writeCanonical(generator, node.get(name));
+            }
+            generator.writeEndObject();
+        } else if (node.isArray()) {
+            generator.writeStartArray();
+            for (JsonNode element : node) {
+                writeCanonical(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (node.isNumber()) {
+            // jsonb keeps numbers as numeric: 1, 1.0 and 1e0 must hash the same
+            generator.writeNumber(node.decimalValue().stripTrailingZeros().toPlainString());
+        } else if (node.isBoolean()) {
+            generator.writeBoolean(node.booleanValue());
+        } else if (node.isNull()) {
+            generator.writeNull();
+        } else {
+            generator.writeString(node.asText());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package cm.guce.audit.adapter.out.persistence;
+
+import cm.guce.audit.domain.model.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Per-tenant hash chains of audit logs.
+ *
+ * Each written batch extends the chain of every tenant it contains: the head of the chain
+ * is locked (tenants in a fixed order, as for the rollups), the entries are numbered and
+ * hashed in batch order, and the Merkle root of the entries of the tenant is recorded in
+ * audit_chain_batch. Hashing happens once per batch in the writer, not per recorded event.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditHashChain {
+
+    private static final String BATCH_COLUMNS = "first_seq, last_seq, first_timestamp, last_timestamp, merkle_root";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditEntryHasher hasher;
+
+    /**
+     * Head of a tenant chain
+     */
+    public record ChainHead(long lastSeq, String lastHash) {
+    }
+
+    /**
+     * Merkle root of the entries of a tenant written by one batch, with the timestamp range of the entries
+     */
+    public record ChainBatch(long firstSeq, long lastSeq, LocalDateTime firstTimestamp, LocalDateTime lastTimestamp,
+                             String merkleRoot) {
+    }
+
+    /**
+     * Set chainSeq, prevHash and entryHash on the logs and record the batch roots (caller's transaction).
+     * Logs must have their id and timestamp (stored precision) assigned.
+     */
+    public void link(List<AuditLog> logs) {
+        Map<UUID, List<AuditLog>> byTenant = new TreeMap<>(Comparator.naturalOrder());
+        for (AuditLog auditLog : logs) {
+            byTenant.computeIfAbsent(chainKey(auditLog.getTenantId()), key -> new ArrayList<>()).add(auditLog);
+        }
+
+        for (Map.Entry<UUID, List<AuditLog>> entry : byTenant.entrySet()) {
+            UUID tenantId = entry.getKey();
+            ChainHead head = lockHead(tenantId);
+            long seq = head.lastSeq();
+            String prevHash = head.lastHash();
+            List<String> leaves = new ArrayList<>(entry.getValue().size());
+            LocalDateTime firstTimestamp = null;
+            LocalDateTime lastTimestamp = null;
+            for (AuditLog auditLog : entry.getValue()) {
+                auditLog.setChainSeq(++seq);
+                auditLog.setPrevHash(prevHash);
+                auditLog.setEntryHash(hasher.hash(auditLog));
+                prevHash = auditLog.getEntryHash();
+                leaves.add(prevHash);
+                if (firstTimestamp == null || auditLog.getTimestamp().isBefore(firstTimestamp)) {
+                    firstTimestamp = auditLog.getTimestamp();
+                }
+                if (lastTimestamp == null || auditLog.getTimestamp().isAfter(lastTimestamp)) {
+                    lastTimestamp = auditLog.getTimestamp();
+                }
+            }
+
+            jdbcTemplate.update(
+                "UPDATE audit_chain_head SET last_seq = ?, last_hash = ?, updated_at = now() WHERE tenant_id = ?",
+                seq, prevHash, tenantId);
+            jdbcTemplate.update(
+                "INSERT INTO audit_chain_batch (id, tenant_id, first_seq, last_seq, first_timestamp, last_timestamp, " +
+                "merkle_root) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), tenantId, head.lastSeq() + 1, seq, Timestamp.valueOf(firstTimestamp),
+                Timestamp.valueOf(lastTimestamp), AuditEntryHasher.merkleRoot(leaves));
+        }
+    }
+
+    /**
+     * Current head of a tenant chain, or null if the tenant has no chain yet
+     */
+    public ChainHead findHead(UUID tenantId) {
+        List<ChainHead> heads = jdbcTemplate.query(
+            "SELECT last_seq, last_hash FROM audit_chain_head WHERE tenant_id = ?",
+            (rs, rowNum) -> new ChainHead(rs.getLong(1), rs.getString(2)), tenantId);
+        return heads.isEmpty() ? null : heads.get(0);
+    }
+
+    /**
+     * Batches of a tenant overlapping the sequence range [fromSeq, toSeq]
+     */
+    public List<ChainBatch> findBatches(UUID tenantId, long fromSeq, long toSeq) {
+        return jdbcTemplate.query(
+            "SELECT " + BATCH_COLUMNS + " FROM audit_chain_batch " +
+            "WHERE tenant_id = ? AND first_seq <= ? AND last_seq >= ? ORDER BY first_seq",
+            this::mapBatch, tenantId, toSeq, fromSeq);
+    }
+
+    /**
+     * Batches of a tenant holding entries timestamped in [from, to)
+     */
+    public List<ChainBatch> findBatchesBetween(UUID tenantId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+            "SELECT " + BATCH_COLUMNS + " FROM audit_chain_batch " +
+            "WHERE tenant_id = ? AND last_timestamp >= ? AND first_timestamp < ? ORDER BY first_seq",
+            this::mapBatch, tenantId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Oldest batch of a tenant still recorded, or null if none remains
+     */
+    public ChainBatch findFirstBatch(UUID tenantId) {
+        List<ChainBatch> batches = jdbcTemplate.query(
+            "SELECT " + BATCH_COLUMNS + " FROM audit_chain_batch WHERE tenant_id = ? ORDER BY first_seq LIMIT 1",
+            this::mapBatch, tenantId);
+        return batches.isEmpty() ? null : batches.get(0);
+    }
+
+    /**
+     * Remove the batch roots whose entries are all older than the cutoff (retention)
+     */
+    public void deleteBatchesBefore(LocalDateTime cutoff) {
+        jdbcTemplate.update("DELETE FROM audit_chain_batch WHERE last_timestamp < ?", Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * Chain key of a tenant: events without tenant are chained under the nil UUID
+     */
+    public static UUID chainKey(UUID tenantId) {
+        return tenantId != null ? tenantId : AuditRollupStore.NO_TENANT;
+    }
+
+    private ChainBatch mapBatch(ResultSet rs, int rowNum) throws SQLException {
+        return new ChainBatch(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toLocalDateTime(),
+            rs.getTimestamp(4).toLocalDateTime(), rs.getString(5));
+    }
+
+    private ChainHead lockHead(UUID tenantId) {
+        jdbcTemplate.update(
+            "INSERT INTO audit_chain_head (tenant_id, last_seq, last_hash) VALUES (?, 0, ?) " +
+            "ON CONFLICT (tenant_id) DO NOTHING",
+            tenantId, AuditEntryHasher.GENESIS);
+        return jdbcTemplate.queryForObject(
+            "SELECT last_seq, last_hash FROM audit_chain_head WHERE tenant_id = ? FOR UPDATE",
+            (rs, rowNum) -> new ChainHead(rs.getLong(1), rs.getString(2)), tenantId);
+    }
+}
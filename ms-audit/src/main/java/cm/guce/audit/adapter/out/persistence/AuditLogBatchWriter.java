@@ -0,0 +1,112 @@
+package cm.guce.audit.adapter.out.persistence;
+
+import cm.guce.audit.domain.model.AuditLog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes audit logs with JDBC batch inserts, bypassing the persistence context.
+ * With reWriteBatchedInserts enabled on the PostgreSQL driver, each JDBC batch is
+ * sent as multi-row INSERT statements. The tenant hash chains and the activity rollups are
+ * updated in the same transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditLogBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs (" +
+        "id, tenant_id, user_id, user_email, user_name, action, category, entity_type, entity_id, " +
+        "entity_name, service_name, description, old_value, new_value, changes, metadata, ip_address, " +
+        "user_agent, request_id, session_id, status, error_message, timestamp, duration, chain_seq, prev_hash, " +
+        "entry_hash) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb), CAST(? AS jsonb), " +
+        "CAST(? AS jsonb), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditRollupStore rollupStore;
+    private final AuditHashChain hashChain;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    /**
+     * Chain, insert and count all logs in a single transaction; ids and timestamps are assigned if missing
+     */
+    @Transactional
+    public void write(List<AuditLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (AuditLog auditLog : logs) {
+            if (auditLog.getId() == null) {
+                auditLog.setId(UUID.randomUUID());
+            }
+            auditLog.setTimestamp(AuditEntryHasher.storedPrecision(
+                auditLog.getTimestamp() != null ? auditLog.getTimestamp() : now));
+        }
+        hashChain.link(logs);
+        jdbcTemplate.batchUpdate(INSERT_SQL, logs, jdbcBatchSize, this::bind);
+        rollupStore.record(logs);
+    }
+
+    private void bind(PreparedStatement ps, AuditLog auditLog) throws SQLException {
+        ps.setObject(1, auditLog.getId());
+        ps.setObject(2, auditLog.getTenantId());
+        ps.setObject(3, auditLog.getUserId());
+        ps.setString(4, auditLog.getUserEmail());
+        ps.setString(5, auditLog.getUserName());
+        ps.setString(6, auditLog.getAction().name());
+        ps.setString(7, auditLog.getCategory().name());
+        ps.setString(8, auditLog.getEntityType());
+        ps.setString(9, auditLog.getEntityId());
+        ps.setString(10, auditLog.getEntityName());
+        ps.setString(11, auditLog.getServiceName());
+        ps.setString(12, auditLog.getDescription());
+        ps.setString(13, toJson(auditLog.getOldValue()));
+        ps.setString(14, toJson(auditLog.getNewValue()));
+        ps.setString(15, toJson(auditLog.getChanges()));
+        ps.setString(16, toJson(auditLog.getMetadata()));
+        ps.setString(17, auditLog.getIpAddress());
+        ps.setString(18, auditLog.getUserAgent());
+        ps.setString(19, auditLog.getRequestId());
+        ps.setString(20, auditLog.getSessionId());
+        ps.setString(21, auditLog.getStatus() != null ? auditLog.getStatus().name() : null);
+        ps.setString(22, auditLog.getErrorMessage());
+        ps.setTimestamp(23, Timestamp.valueOf(auditLog.getTimestamp()));
+        if (auditLog.getDuration() != null) {
+            ps.setLong(24, auditLog.getDuration());
+        } else {
+            ps.setNull(24, Types.BIGINT);
+        }
+        ps.setLong(25, auditLog.getChainSeq());
+        ps.setString(26, auditLog.getPrevHash());
+        ps.setString(27, auditLog.getEntryHash());
+    }
+
+    private String toJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Audit value is not serializable to JSON", e);
+        }
+    }
+}
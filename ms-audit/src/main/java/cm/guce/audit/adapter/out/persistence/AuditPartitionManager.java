@@ -0,0 +1,125 @@
+package cm.guce.audit.adapter.out.persistence;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly range partitions of audit_logs.
+ *
+ * Partitions are created ahead of time (at startup and daily), so that inserts never
+ * miss a partition. Retention detaches and drops whole partitions instead of deleting rows.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditPartitionManager {
+
+    private static final String PARENT_TABLE = "audit_logs";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    private static final Pattern BOUND = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${audit.retention.detach-only:false}")
+    private boolean detachOnly;
+
+    /**
+     * Partition of audit_logs; from or to is null for MINVALUE / MAXVALUE
+     */
+    public record Partition(String name, LocalDateTime from, LocalDateTime to) {
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            if (from == null && to == null) {
+                // Default partition: never blocks the creation of a monthly partition
+                return false;
+            }
+            return (from == null || from.isBefore(end)) && (to == null || to.isAfter(start));
+        }
+    }
+
+    /**
+     * Create the partitions of the current month and the next months-ahead months
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${audit.partitioning.cron:0 30 1 * * ?}")
+    public void ensurePartitions() {
+        List<Partition> existing = partitions();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            LocalDateTime start = month.atDay(1).atStartOfDay();
+            LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+            if (existing.stream().noneMatch(partition -> partition.overlaps(start, end))) {
+                String name = PARENT_TABLE + "_" + month.format(PARTITION_SUFFIX);
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + PARENT_TABLE +
+                    " FOR VALUES FROM ('" + start + "') TO ('" + end + "')");
+                log.info("Created audit partition {} [{}, {})", name, start, end);
+            }
+        }
+    }
+
+    /**
+     * Detach (and drop, unless detach-only) every partition entirely older than the cutoff
+     *
+     * @return the number of partitions removed
+     */
+    public int dropPartitionsBefore(LocalDateTime cutoff) {
+        int removed = 0;
+        for (Partition partition : partitions()) {
+            if (partition.to() == null || partition.to().isAfter(cutoff)) {
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition.name());
+            if (!detachOnly) {
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+            }
+            log.info("{} audit partition {} (upper bound {})",
+                detachOnly ? "Detached" : "Dropped", partition.name(), partition.to());
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Current partitions with their bounds
+     */
+    public List<Partition> partitions() {
+        return jdbcTemplate.query(
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass ORDER BY c.relname",
+            (rs, rowNum) -> toPartition(rs.getString(1), rs.getString(2)),
+            PARENT_TABLE);
+    }
+
+    private static Partition toPartition(String name, String bound) {
+        Matcher matcher = BOUND.matcher(bound);
+        if (!matcher.find()) {
+            // Default partition: no bounds
+            return new Partition(name, null, null);
+        }
+        return new Partition(name, parseBound(matcher.group(1)), parseBound(matcher.group(2)));
+    }
+
+    private static LocalDateTime parseBound(String value) {
+        if (value.equalsIgnoreCase("MINVALUE") || value.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return LocalDateTime.parse(value.replace("'", "").trim().replace(' ', 'T'));
+    }
+}
@@ -0,0 +1,217 @@
+package cm.guce.audit.adapter.out.persistence;
+
+import cm.guce.audit.domain.model.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Hourly activity rollups and per-user daily counters of audit events.
+ *
+ * Counters are incremented in the ingestion transaction, one upsert per distinct key of
+ * the batch. Keys are written in a fixed order so that concurrent consumers lock rows
+ * in the same order and cannot deadlock.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditRollupStore {
+
+    /**
+     * Tenant key of events recorded without tenant
+     */
+    public static final UUID NO_TENANT = new UUID(0L, 0L);
+
+    private static final String NO_STATUS = "";
+
+    private static final String USER_TRIM_WATERMARK = "user_activity_trim";
+
+    private static final String INCREMENT_HOURLY_SQL =
+        "INSERT INTO audit_activity_hourly (tenant_id, bucket, action, category, status, event_count) " +
+        "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (tenant_id, bucket, action, category, status) " +
+        "DO UPDATE SET event_count = audit_activity_hourly.event_count + EXCLUDED.event_count";
+
+    private static final String INCREMENT_USER_SQL =
+        "INSERT INTO audit_user_activity_daily (tenant_id, day, user_id, user_name, event_count) " +
+        "VALUES (?, ?, ?, ?, ?) ON CONFLICT (tenant_id, day, user_id) " +
+        "DO UPDATE SET event_count = audit_user_activity_daily.event_count + EXCLUDED.event_count, " +
+        "user_name = COALESCE(EXCLUDED.user_name, audit_user_activity_daily.user_name)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record HourlyKey(UUID tenantId, LocalDateTime bucket, String action, String category, String status) {
+    }
+
+    private record UserKey(UUID tenantId, LocalDate day, UUID userId) {
+    }
+
+    /**
+     * Activity count of one day for an action, category and status
+     */
+    public record ActivityRow(LocalDate day, String action, String category, String status, long count) {
+    }
+
+    /**
+     * Event count of a user over a window
+     */
+    public record UserActivity(UUID userId, String userName, long count) {
+    }
+
+    // ========== INGESTION ==========
+
+    /**
+     * Add a batch of audit logs to the rollups (caller's transaction)
+     */
+    public void record(List<AuditLog> logs) {
+        Comparator<HourlyKey> hourlyOrder = Comparator.comparing(HourlyKey::tenantId)
+            .thenComparing(HourlyKey::bucket)
+            .thenComparing(HourlyKey::action)
+            .thenComparing(HourlyKey::category)
+            .thenComparing(HourlyKey::status);
+        Comparator<UserKey> userOrder = Comparator.comparing(UserKey::tenantId)
+            .thenComparing(UserKey::day)
+            .thenComparing(UserKey::userId);
+
+        Map<HourlyKey, Long> hourly = new TreeMap<>(hourlyOrder);
+        Map<UserKey, Long> users = new TreeMap<>(userOrder);
+        Map<UserKey, String> userNames = new TreeMap<>(userOrder);
+        for (AuditLog auditLog : logs) {
+            UUID tenantId = auditLog.getTenantId() != null ? auditLog.getTenantId() : NO_TENANT;
+            hourly.merge(new HourlyKey(tenantId, auditLog.getTimestamp().truncatedTo(ChronoUnit.HOURS),
+                auditLog.getAction().name(), auditLog.getCategory().name(),
+                auditLog.getStatus() != null ? auditLog.getStatus().name() : NO_STATUS), 1L, Long::sum);
+            if (auditLog.getUserId() != null) {
+                UserKey key = new UserKey(tenantId, auditLog.getTimestamp().toLocalDate(), auditLog.getUserId());
+                users.merge(key, 1L, Long::sum);
+                if (auditLog.getUserName() != null) {
+                    userNames.put(key, auditLog.getUserName());
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INCREMENT_HOURLY_SQL, new ArrayList<>(hourly.entrySet()), hourly.size(),
+            (ps, entry) -> {
+                HourlyKey key = entry.getKey();
+                ps.setObject(1, key.tenantId());
+                ps.setTimestamp(2, Timestamp.valueOf(key.bucket()));
+                ps.setString(3, key.action());
+                ps.setString(4, key.category());
+                ps.setString(5, key.status());
+                ps.setLong(6, entry.getValue());
+            });
+        if (!users.isEmpty()) {
+            jdbcTemplate.batchUpdate(INCREMENT_USER_SQL, new ArrayList<>(users.entrySet()), users.size(),
+                (ps, entry) -> {
+                    UserKey key = entry.getKey();
+                    ps.setObject(1, key.tenantId());
+                    ps.setDate(2, Date.valueOf(key.day()));
+                    ps.setObject(3, key.userId());
+                    ps.setString(4, userNames.get(key));
+                    ps.setLong(5, entry.getValue());
+                });
+        }
+    }
+
+    // ========== STATISTICS ==========
+
+    /**
+     * Daily activity per action, category and status since the start of the given hour
+     */
+    public List<ActivityRow> findActivity(UUID tenantId, LocalDateTime since) {
+        return jdbcTemplate.query(
+            "SELECT CAST(bucket AS date), action, category, status, SUM(event_count) FROM audit_activity_hourly " +
+            "WHERE tenant_id = ? AND bucket >= ? GROUP BY 1, 2, 3, 4 ORDER BY 1",
+            (rs, rowNum) -> new ActivityRow(rs.getDate(1).toLocalDate(), rs.getString(2), rs.getString(3),
+                rs.getString(4), rs.getLong(5)),
+            tenantId, Timestamp.valueOf(since.truncatedTo(ChronoUnit.HOURS)));
+    }
+
+    /**
+     * Most active users since a day (summed daily counters)
+     */
+    public List<UserActivity> findTopUsers(UUID tenantId, LocalDate since, int limit) {
+        return jdbcTemplate.query(
+            "SELECT user_id, MAX(user_name), SUM(event_count) FROM audit_user_activity_daily " +
+            "WHERE tenant_id = ? AND day >= ? GROUP BY user_id ORDER BY SUM(event_count) DESC, user_id LIMIT ?",
+            (rs, rowNum) -> new UserActivity(rs.getObject(1, UUID.class), rs.getString(2), rs.getLong(3)),
+            tenantId, Date.valueOf(since), limit);
+    }
+
+    /**
+     * Upper bound of the count missed for any user over trimmed days since a day
+     */
+    public long findTopUsersMaxError(UUID tenantId, LocalDate since) {
+        Long error = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(floor_count), 0) FROM audit_user_activity_floor WHERE tenant_id = ? AND day >= ?",
+            Long.class, tenantId, Date.valueOf(since));
+        return error != null ? error : 0;
+    }
+
+    // ========== COMPACTION ==========
+
+    /**
+     * First day whose per-user counters have not been trimmed yet: the watermark of the last
+     * compaction, or the oldest day with counters if none ran
+     */
+    public Optional<LocalDate> findUntrimmedSince() {
+        Date day = jdbcTemplate.queryForObject(
+            "SELECT COALESCE((SELECT day FROM audit_rollup_watermark WHERE name = ?), " +
+            "(SELECT MIN(day) FROM audit_user_activity_daily))",
+            Date.class, USER_TRIM_WATERMARK);
+        return Optional.ofNullable(day).map(Date::toLocalDate);
+    }
+
+    /**
+     * Record that every day before the given one has been trimmed
+     */
+    public void markTrimmedUntil(LocalDate day) {
+        jdbcTemplate.update(
+            "INSERT INTO audit_rollup_watermark (name, day) VALUES (?, ?) ON CONFLICT (name) " +
+            "DO UPDATE SET day = GREATEST(audit_rollup_watermark.day, EXCLUDED.day)",
+            USER_TRIM_WATERMARK, Date.valueOf(day));
+    }
+
+    /**
+     * Keep only the top users of each day in [from, to); the largest removed count of a
+     * day becomes its floor (error bound of the top-K over that day)
+     *
+     * @return the number of days trimmed
+     */
+    public int trimUserActivity(LocalDate from, LocalDate to, int keepPerDay) {
+        return jdbcTemplate.update(
+            "WITH ranked AS (" +
+            "  SELECT tenant_id, day, user_id, row_number() OVER " +
+            "    (PARTITION BY tenant_id, day ORDER BY event_count DESC, user_id) AS rn " +
+            "  FROM audit_user_activity_daily WHERE day >= ? AND day < ?), " +
+            "trimmed AS (" +
+            "  DELETE FROM audit_user_activity_daily d USING ranked r " +
+            "  WHERE d.tenant_id = r.tenant_id AND d.day = r.day AND d.user_id = r.user_id AND r.rn > ? " +
+            "  RETURNING d.tenant_id, d.day, d.event_count) " +
+            "INSERT INTO audit_user_activity_floor (tenant_id, day, floor_count) " +
+            "SELECT tenant_id, day, MAX(event_count) FROM trimmed GROUP BY tenant_id, day " +
+            "ON CONFLICT (tenant_id, day) DO UPDATE SET " +
+            "floor_count = GREATEST(audit_user_activity_floor.floor_count, EXCLUDED.floor_count)",
+            Date.valueOf(from), Date.valueOf(to), keepPerDay);
+    }
+
+    /**
+     * Remove rollups older than the retention cutoff
+     */
+    public void deleteBefore(LocalDateTime cutoff) {
+        jdbcTemplate.update("DELETE FROM audit_activity_hourly WHERE bucket < ?", Timestamp.valueOf(cutoff));
+        jdbcTemplate.update("DELETE FROM audit_user_activity_daily WHERE day < ?", Date.valueOf(cutoff.toLocalDate()));
+        jdbcTemplate.update("DELETE FROM audit_user_activity_floor WHERE day < ?", Date.valueOf(cutoff.toLocalDate()));
+    }
+}
@@ -0,0 +1,65 @@
+package cm.guce.audit.application;
+
+import cm.guce.audit.domain.model.AuditLog;
+import cm.guce.audit.domain.model.AuditLog.*;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maps audit events received from Kafka to AuditLog entries
+ */
+@Component
+public class AuditEventMapper {
+
+    /**
+     * Map a Kafka event to an AuditLog
+     *
+     * @throws AuditEventMappingException if the event is empty or malformed (poison event)
+     */
+    @SuppressWarnings("unchecked")
+    public AuditLog toAuditLog(Map<String, Object> event) {
+        if (event == null) {
+            throw new AuditEventMappingException("Empty or undeserializable audit event", null);
+        }
+        if (event.get("entityType") == null || event.get("serviceName") == null) {
+            throw new AuditEventMappingException("Audit event without entityType or serviceName", null);
+        }
+        try {
+            return AuditLog.builder()
+                .tenantId(event.get("tenantId") != null ? UUID.fromString(event.get("tenantId").toString()) : null)
+                .userId(event.get("userId") != null ? UUID.fromString(event.get("userId").toString()) : null)
+                .userName((String) event.get("userName"))
+                .userEmail((String) event.get("userEmail"))
+                .action(AuditAction.valueOf((String) event.get("action")))
+                .category(AuditCategory.valueOf((String) event.get("category")))
+                .entityType((String) event.get("entityType"))
+                .entityId((String) event.get("entityId"))
+                .entityName((String) event.get("entityName"))
+                .serviceName((String) event.get("serviceName"))
+                .description((String) event.get("description"))
+                .oldValue((Map<String, Object>) event.get("oldValue"))
+                .newValue((Map<String, Object>) event.get("newValue"))
+                .ipAddress((String) event.get("ipAddress"))
+                .requestId((String) event.get("requestId"))
+                .status(event.get("status") != null ? AuditStatus.valueOf((String) event.get("status")) : AuditStatus.SUCCESS)
+                .errorMessage((String) event.get("errorMessage"))
+                .timestamp(LocalDateTime.now())
+                .build();
+        } catch (RuntimeException e) {
+            throw new AuditEventMappingException("Malformed audit event: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Raised for events that can never be mapped; they are not retried
+     */
+    public static class AuditEventMappingException extends RuntimeException {
+
+        public AuditEventMappingException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package cm.guce.audit.application;
+
+import cm.guce.audit.adapter.out.persistence.AuditEntryHasher;
+import cm.guce.audit.adapter.out.persistence.AuditHashChain;
+import cm.guce.audit.adapter.out.persistence.AuditHashChain.ChainBatch;
+import cm.guce.audit.adapter.out.persistence.AuditHashChain.ChainHead;
+import cm.guce.audit.adapter.out.persistence.AuditPartitionManager;
+import cm.guce.audit.adapter.out.persistence.AuditPartitionManager.Partition;
+import cm.guce.audit.adapter.out.persistence.AuditRollupStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Verification of the tenant hash chains over a time range.
+ *
+ * The batch roots recorded for the time range (and the entries timestamped in it) determine
+ * the sequence range of the chain, so that entries deleted at either end of the range are
+ * reported missing. That sequence range is split into chunks verified in parallel (one
+ * connection per worker): every entry hash is recomputed, sequence numbers must be contiguous
+ * and each prev_hash must equal the hash of the preceding entry. Chunk boundaries are then
+ * linked, the Merkle root of each overlapping batch is recomputed, and the last entry is
+ * checked against the chain head, or against the entry following it.
+ *
+ * A missing preceding entry is accepted only when retention removed it: its batch root was
+ * purged as well, or its batch started before the oldest remaining partition.
+ *
+ * Workers hold database connections shared with the ingestion path: the pool is capped
+ * (4 by default) and verifications beyond max-concurrent are rejected, not queued.
+ */
+@Service
+@Slf4j
+public class AuditIntegrityService {
+
+    private static final int MAX_VIOLATIONS = 100;
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditEntryHasher hasher;
+    private final AuditHashChain hashChain;
+    private final AuditPartitionManager partitionManager;
+    private final ExecutorService verifyExecutor;
+    private final Semaphore verifications;
+
+    @Value("${audit.integrity.chunk-size:20000}")
+    private int chunkSize;
+
+    public AuditIntegrityService(JdbcTemplate jdbcTemplate, AuditEntryHasher hasher, AuditHashChain hashChain,
+                                 AuditPartitionManager partitionManager,
+                                 @Value("${audit.integrity.parallelism:0}") int parallelism,
+                                 @Value("${audit.integrity.max-concurrent:1}") int maxConcurrent) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hasher = hasher;
+        this.hashChain = hashChain;
+        this.partitionManager = partitionManager;
+        this.verifyExecutor = Executors.newFixedThreadPool(parallelism > 0
+            ? parallelism : Math.min(DEFAULT_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+        this.verifications = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verifyExecutor.shutdownNow();
+    }
+
+    /**
+     * Integrity violation; seq is null when it concerns a batch or the chain head
+     */
+    public record Violation(Long seq, String reason) {
+    }
+
+    /**
+     * Result of a verification; firstSeq and lastSeq are null when the range has no chained entry
+     */
+    public record IntegrityReport(UUID tenantId, LocalDateTime from, LocalDateTime to, Long firstSeq, Long lastSeq,
+                                  long verifiedEntries, int verifiedBatches, boolean valid,
+                                  List<Violation> violations) {
+    }
+
+    private record ChunkResult(long fromSeq, long toSeq, String firstPrevHash, String lastHash, long entries,
+                               List<Violation> violations) {
+    }
+
+    /**
+     * Verify the chain of a tenant over the entries timestamped in [from, to).
+     * The nil UUID designates the chain of events recorded without tenant.
+     *
+     * @return the report, or empty when max-concurrent verifications are already running
+     */
+    public Optional<IntegrityReport> verify(UUID tenantId, LocalDateTime from, LocalDateTime to) {
+        if (!verifications.tryAcquire()) {
+            log.warn("Audit chain verification of tenant {} rejected: too many verifications running", tenantId);
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(verifyChain(tenantId, from, to));
+        } finally {
+            verifications.release();
+        }
+    }
+
+    private IntegrityReport verifyChain(UUID tenantId, LocalDateTime from, LocalDateTime to) {
+        UUID chainKey = AuditHashChain.chainKey(tenantId);
+        String tenantCondition = chainKey.equals(AuditRollupStore.NO_TENANT) ? "tenant_id IS NULL" : "tenant_id = ?";
+        Object[] tenantArgs = chainKey.equals(AuditRollupStore.NO_TENANT) ? new Object[0] : new Object[]{chainKey};
+
+        long[] range = jdbcTemplate.queryForObject(
+            "SELECT MIN(chain_seq), MAX(chain_seq) FROM audit_logs WHERE " + tenantCondition +
+            " AND timestamp >= ? AND timestamp < ? AND chain_seq IS NOT NULL",
+            (rs, rowNum) -> {
+                long min = rs.getLong(1);
+                return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+            },
+            args(tenantArgs, Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        // The batch roots cover the entries of the range that were deleted since
+        for (ChainBatch batch : hashChain.findBatchesBetween(chainKey, from, to)) {
+            range = range == null ? new long[]{batch.firstSeq(), batch.lastSeq()}
+                : new long[]{Math.min(range[0], batch.firstSeq()), Math.max(range[1], batch.lastSeq())};
+        }
+        if (range == null) {
+            return new IntegrityReport(chainKey, from, to, null, null, 0, 0, true, List.of());
+        }
+        long firstSeq = range[0];
+        long lastSeq = range[1];
+
+        List<Violation> violations = new ArrayList<>();
+        LocalDateTime retainedFrom = retainedFrom();
+        Long oldestSeq = findOldestSeq(tenantCondition, tenantArgs);
+        if (isBefore(firstSeq, oldestSeq) && removedByRetention(chainKey, firstSeq, retainedFrom)) {
+            // Start of the range removed by retention: verify from the oldest remaining entry
+            if (oldestSeq == null || oldestSeq > lastSeq) {
+                return new IntegrityReport(chainKey, from, to, null, null, 0, 0, true, List.of());
+            }
+            firstSeq = oldestSeq;
+        }
+
+        List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+        for (long start = firstSeq; start <= lastSeq; start += chunkSize) {
+            long chunkFrom = start;
+            long chunkTo = Math.min(lastSeq, start + chunkSize - 1);
+            chunks.add(CompletableFuture.supplyAsync(
+                () -> verifyChunk(tenantCondition, tenantArgs, chunkFrom, chunkTo), verifyExecutor));
+        }
+        String expectedPrevHash = firstSeq == 1
+            ? AuditEntryHasher.GENESIS : findEntryColumn(tenantCondition, tenantArgs, firstSeq - 1, "entry_hash");
+        boolean predecessorRemoved = expectedPrevHash == null;
+        if (predecessorRemoved && !(isBefore(firstSeq - 1, oldestSeq)
+                && removedByRetention(chainKey, firstSeq - 1, retainedFrom))) {
+            violations.add(new Violation(firstSeq - 1, "Preceding entry is missing"));
+        }
+        // Without the preceding entry, a batch starting before the range is incomplete
+        long verifiedFrom = firstSeq;
+        List<ChainBatch> batches = hashChain.findBatches(chainKey, firstSeq, lastSeq).stream()
+            .filter(batch -> !predecessorRemoved || batch.firstSeq() >= verifiedFrom)
+            .toList();
+        List<CompletableFuture<Violation>> batchChecks = batches.stream()
+            .map(batch -> CompletableFuture.supplyAsync(
+                () -> verifyBatch(tenantCondition, tenantArgs, batch), verifyExecutor))
+            .toList();
+
+        long entries = 0;
+        for (CompletableFuture<ChunkResult> future : chunks) {
+            ChunkResult chunk = future.join();
+            entries += chunk.entries();
+            violations.addAll(chunk.violations());
+            if (expectedPrevHash != null && chunk.firstPrevHash() != null
+                    && !expectedPrevHash.equals(chunk.firstPrevHash())) {
+                violations.add(new Violation(chunk.fromSeq(), "prev_hash does not match the preceding entry"));
+            }
+            expectedPrevHash = chunk.lastHash();
+        }
+        for (CompletableFuture<Violation> future : batchChecks) {
+            Violation violation = future.join();
+            if (violation != null) {
+                violations.add(violation);
+            }
+        }
+
+        ChainHead head = hashChain.findHead(chainKey);
+        if (head == null || head.lastSeq() < lastSeq) {
+            violations.add(new Violation(lastSeq, "Entry beyond the chain head"));
+        } else if (head.lastSeq() == lastSeq) {
+            if (!head.lastHash().equals(expectedPrevHash)) {
+                violations.add(new Violation(lastSeq, "Last entry does not match the chain head"));
+            }
+        } else {
+            // The chain continues after the range: the following entry must link to the last one
+            String nextPrevHash = findEntryColumn(tenantCondition, tenantArgs, lastSeq + 1, "prev_hash");
+            if (nextPrevHash == null) {
+                violations.add(new Violation(lastSeq + 1, "Following entry is missing"));
+            } else if (!nextPrevHash.equals(expectedPrevHash)) {
+                violations.add(new Violation(lastSeq + 1, "prev_hash does not match the preceding entry"));
+            }
+        }
+
+        violations.sort(Comparator.comparing(Violation::seq, Comparator.nullsLast(Comparator.naturalOrder())));
+        boolean valid = violations.isEmpty();
+        if (!valid) {
+            log.warn("Audit chain of tenant {} invalid over [{}, {}): {} violation(s), first: {}",
+                chainKey, from, to, violations.size(), violations.get(0));
+        }
+        log.info("Verified {} audit entries ({} batches) of tenant {} [{}, {}): {}",
+            entries, batches.size(), chainKey, from, to, valid ? "valid" : "INVALID");
+        return new IntegrityReport(chainKey, from, to, firstSeq, lastSeq, entries, batches.size(), valid,
+            violations.size() > MAX_VIOLATIONS ? List.copyOf(violations.subList(0, MAX_VIOLATIONS)) : violations);
+    }
+
+    private ChunkResult verifyChunk(String tenantCondition, Object[] tenantArgs, long fromSeq, long toSeq) {
+        List<Violation> violations = new ArrayList<>();
+        String[] firstPrevHash = {null};
+        String[] lastHash = {null};
+        long[] expectedSeq = {fromSeq};
+        long[] entries = {0};
+        jdbcTemplate.query(
+            "SELECT " + AuditEntryHasher.ENTRY_COLUMNS + " FROM audit_logs WHERE " + tenantCondition +
+            " AND chain_seq BETWEEN ? AND ? ORDER BY chain_seq",
+            rs -> {
+                long seq = rs.getLong("chain_seq");
+                String prevHash = rs.getString("prev_hash");
+                String entryHash = rs.getString("entry_hash");
+                if (seq < expectedSeq[0]) {
+                    addViolation(violations, seq, "Duplicate sequence number");
+                } else if (seq > expectedSeq[0]) {
+                    addViolation(violations, expectedSeq[0], "Missing entries up to " + (seq - 1));
+                }
+                if (entries[0] == 0) {
+                    firstPrevHash[0] = seq == fromSeq ? prevHash : null;
+                } else if (!Objects.equals(prevHash, lastHash[0])) {
+                    addViolation(violations, seq, "prev_hash does not match the preceding entry");
+                }
+                if (!hasher.hash(rs).equals(entryHash)) {
+                    addViolation(violations, seq, "Entry content does not match its hash");
+                }
+                lastHash[0] = entryHash;
+                expectedSeq[0] = seq + 1;
+                entries[0]++;
+            },
+            args(tenantArgs, fromSeq, toSeq));
+        if (expectedSeq[0] <= toSeq) {
+            addViolation(violations, expectedSeq[0], "Missing entries up to " + toSeq);
+        }
+        return new ChunkResult(fromSeq, toSeq, firstPrevHash[0], lastHash[0], entries[0], violations);
+    }
+
+    private Violation verifyBatch(String tenantCondition, Object[] tenantArgs, ChainBatch batch) {
+        List<String> leaves = jdbcTemplate.queryForList(
+            "SELECT entry_hash FROM audit_logs WHERE " + tenantCondition +
+            " AND chain_seq BETWEEN ? AND ? ORDER BY chain_seq",
+            String.class, args(tenantArgs, batch.firstSeq(), batch.lastSeq()));
+        if (leaves.size() != batch.lastSeq() - batch.firstSeq() + 1
+                || !AuditEntryHasher.merkleRoot(leaves).equals(batch.merkleRoot())) {
+            return new Violation(null,
+                "Merkle root mismatch for batch [" + batch.firstSeq() + ", " + batch.lastSeq() + "]");
+        }
+        return null;
+    }
+
+    private String findEntryColumn(String tenantCondition, Object[] tenantArgs, long seq, String column) {
+        List<String> values = jdbcTemplate.queryForList(
+            "SELECT " + column + " FROM audit_logs WHERE " + tenantCondition + " AND chain_seq = ?",
+            String.class, args(tenantArgs, seq));
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    private Long findOldestSeq(String tenantCondition, Object[] tenantArgs) {
+        return jdbcTemplate.queryForObject(
+            "SELECT MIN(chain_seq) FROM audit_logs WHERE " + tenantCondition, Long.class, tenantArgs);
+    }
+
+    /**
+     * Whether seq precedes every remaining entry of the chain (oldestSeq null: none remains)
+     */
+    private static boolean isBefore(long seq, Long oldestSeq) {
+        return oldestSeq == null || seq < oldestSeq;
+    }
+
+    /**
+     * Whether a missing entry, older than every remaining entry, was removed by retention:
+     * its batch root was purged too, or its batch started before the oldest remaining partition
+     */
+    private boolean removedByRetention(UUID chainKey, long seq, LocalDateTime retainedFrom) {
+        if (retainedFrom == null) {
+            return false;
+        }
+        List<ChainBatch> batches = hashChain.findBatches(chainKey, seq, seq);
+        if (batches.isEmpty()) {
+            ChainBatch first = hashChain.findFirstBatch(chainKey);
+            return first == null || first.firstSeq() > seq;
+        }
+        return batches.get(0).firstTimestamp().isBefore(retainedFrom);
+    }
+
+    /**
+     * Lower bound of the oldest remaining partition, or null when retention removed none
+     */
+    private LocalDateTime retainedFrom() {
+        LocalDateTime oldest = null;
+        for (Partition partition : partitionManager.partitions()) {
+            if (partition.to() == null) {
+                // Default or open-ended partition
+                continue;
+            }
+            if (partition.from() == null) {
+                // Partition from MINVALUE: nothing older was dropped
+                return null;
+            }
+            if (oldest == null || partition.from().isBefore(oldest)) {
+                oldest = partition.from();
+            }
+        }
+        return oldest;
+    }
+
+    private static void addViolation(List<Violation> violations, long seq, String reason) {
+        if (violations.size() < MAX_VIOLATIONS) {
+            violations.add(new Violation(seq, reason));
+        }
+    }
+
+    private static Object[] args(Object[] tenantArgs, Object... others) {
+        Object[] args = new Object[tenantArgs.length + others.length];
+        System.arraycopy(tenantArgs, 0, args, 0, tenantArgs.length);
+        System.arraycopy(others, 0, args, tenantArgs.length, others.length);
+        return args;
+    }
+}
@@ -1,19 +1,24 @@
 package cm.guce.audit.application;
 
+import cm.guce.audit.adapter.out.persistence.AuditHashChain;
+import cm.guce.audit.adapter.out.persistence.AuditLogBatchWriter;
+import cm.guce.audit.adapter.out.persistence.AuditPartitionManager;
+import cm.guce.audit.adapter.out.persistence.AuditRollupStore;
 import cm.guce.audit.domain.model.AuditLog;
 import cm.guce.audit.domain.model.AuditLog.*;
 import cm.guce.audit.domain.port.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -26,19 +31,32 @@ import java.util.*;
 public class AuditService {
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditPartitionManager partitionManager;
+    private final AuditLogBatchWriter batchWriter;
+    private final AuditRollupStore rollupStore;
+    private final AuditHashChain hashChain;
+
+    @Value("${audit.retention.enabled:true}")
+    private boolean retentionEnabled;
+
+    @Value("${audit.retention.years:2}")
+    private int retentionYears;
+
+    @Value("${audit.rollup.user-detail-days:35}")
+    private int userDetailDays;
+
+    @Value("${audit.rollup.top-users-per-day:100}")
+    private int topUsersPerDay;
 
     /**
-     * Record an audit event
+     * Record an audit event (same write path and rollups as Kafka ingestion)
      */
     @Transactional
     public AuditLog record(AuditLog auditLog) {
-        if (auditLog.getTimestamp() == null) {
-            auditLog.setTimestamp(LocalDateTime.now());
-        }
-        AuditLog saved = auditLogRepository.save(auditLog);
+        batchWriter.write(List.of(auditLog));
         log.debug("Audit log recorded: {} - {} on {}",
             auditLog.getAction(), auditLog.getEntityType(), auditLog.getEntityId());
-        return saved;
+        return auditLog;
     }
 
     /**
@@ -131,19 +149,6 @@ public class AuditService {
         return record(auditLog);
     }
 
-    /**
-     * Listen for audit events from Kafka
-     */
-    @KafkaListener(topics = "audit-events", groupId = "ms-audit")
-    public void handleAuditEvent(Map<String, Object> event) {
-        try {
-            AuditLog auditLog = mapEventToAuditLog(event);
-            record(auditLog);
-        } catch (Exception e) {
-            log.error("Failed to process audit event", e);
-        }
-    }
-
     /**
      * Get audit logs for a tenant
      */
@@ -188,50 +193,50 @@ public class AuditService {
     }
 
     /**
-     * Get audit statistics
+     * Get audit statistics from the rollups (hour granularity; users by day)
      */
     public Map<String, Object> getStatistics(UUID tenantId, int daysBack) {
         LocalDateTime since = LocalDateTime.now().minusDays(daysBack);
         Map<String, Object> stats = new HashMap<>();
 
-        // Count by action
+        // Count by action, category, status and day in one pass over the hourly rollups
         Map<String, Long> byAction = new HashMap<>();
-        auditLogRepository.countByAction(tenantId, since).forEach(row ->
-            byAction.put(((AuditAction) row[0]).name(), (Long) row[1]));
-        stats.put("byAction", byAction);
-
-        // Count by category
         Map<String, Long> byCategory = new HashMap<>();
-        auditLogRepository.countByCategory(tenantId, since).forEach(row ->
-            byCategory.put(((AuditCategory) row[0]).name(), (Long) row[1]));
-        stats.put("byCategory", byCategory);
-
-        // Count by status
         Map<String, Long> byStatus = new HashMap<>();
-        auditLogRepository.countByStatus(tenantId, since).forEach(row ->
-            byStatus.put(((AuditStatus) row[0]).name(), (Long) row[1]));
+        Map<LocalDate, Long> byDay = new TreeMap<>();
+        for (AuditRollupStore.ActivityRow row : rollupStore.findActivity(tenantId, since)) {
+            byAction.merge(row.action(), row.count(), Long::sum);
+            byCategory.merge(row.category(), row.count(), Long::sum);
+            if (!row.status().isEmpty()) {
+                byStatus.merge(row.status(), row.count(), Long::sum);
+            }
+            byDay.merge(row.day(), row.count(), Long::sum);
+        }
+        stats.put("byAction", byAction);
+        stats.put("byCategory", byCategory);
         stats.put("byStatus", byStatus);
 
         // Daily activity
         List<Map<String, Object>> dailyActivity = new ArrayList<>();
-        auditLogRepository.getDailyActivityCount(tenantId, since).forEach(row -> {
+        byDay.forEach((date, count) -> {
             Map<String, Object> day = new HashMap<>();
-            day.put("date", row[0].toString());
-            day.put("count", row[1]);
+            day.put("date", date.toString());
+            day.put("count", count);
             dailyActivity.add(day);
         });
         stats.put("dailyActivity", dailyActivity);
 
-        // Most active users
+        // Most active users (counts of trimmed days may be underestimated by at most the max error)
         List<Map<String, Object>> activeUsers = new ArrayList<>();
-        auditLogRepository.findMostActiveUsers(tenantId, since, PageRequest.of(0, 10)).forEach(row -> {
+        rollupStore.findTopUsers(tenantId, since.toLocalDate(), 10).forEach(row -> {
             Map<String, Object> user = new HashMap<>();
-            user.put("userId", row[0]);
-            user.put("userName", row[1]);
-            user.put("actionCount", row[2]);
+            user.put("userId", row.userId());
+            user.put("userName", row.userName());
+            user.put("actionCount", row.count());
             activeUsers.add(user);
         });
         stats.put("mostActiveUsers", activeUsers);
+        stats.put("mostActiveUsersMaxError", rollupStore.findTopUsersMaxError(tenantId, since.toLocalDate()));
 
         stats.put("period", daysBack + " days");
         stats.put("since", since.toString());
@@ -240,15 +245,37 @@ public class AuditService {
     }
 
     /**
-     * Cleanup old audit logs
+     * Trim per-user daily counters of closed days to the top users of each day, from the
+     * first day not trimmed yet (catches up after missed runs)
      */
-    @Scheduled(cron = "0 0 2 * * ?") // Daily at 2 AM
+    @Scheduled(cron = "${audit.rollup.compaction-cron:0 15 3 * * ?}")
     @Transactional
+    public void compactRollups() {
+        LocalDate to = LocalDate.now().minusDays(userDetailDays);
+        LocalDate from = rollupStore.findUntrimmedSince().orElse(to);
+        if (!from.isBefore(to)) {
+            log.debug("No user activity rollups to trim before {}", to);
+            return;
+        }
+        int days = rollupStore.trimUserActivity(from, to, topUsersPerDay);
+        rollupStore.markTrimmedUntil(to);
+        log.info("Trimmed user activity rollups of {} tenant-days in [{}, {})", days, from, to);
+    }
+
+    /**
+     * Cleanup old audit logs by dropping whole monthly partitions
+     */
+    @Scheduled(cron = "0 0 2 * * ?") // Daily at 2 AM
     public void cleanupOldLogs() {
-        // Keep logs for 2 years by default
-        LocalDateTime cutoff = LocalDateTime.now().minusYears(2);
-        int deleted = auditLogRepository.deleteOldAuditLogs(cutoff);
-        log.info("Deleted {} old audit logs older than {}", deleted, cutoff);
+        if (!retentionEnabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusYears(retentionYears);
+        int removed = partitionManager.dropPartitionsBefore(cutoff);
+        rollupStore.deleteBefore(cutoff);
+        // Dropped partitions hold whole months: keep the roots of batches of the cutoff month
+        hashChain.deleteBatchesBefore(cutoff.toLocalDate().withDayOfMonth(1).atStartOfDay());
+        log.info("Removed {} audit partitions older than {}", removed, cutoff);
     }
 
     /**
@@ -278,31 +305,4 @@ public class AuditService {
 
         return changes.isEmpty() ? null : changes;
     }
-
-    /**
-     * Map Kafka event to AuditLog
-     */
-    @SuppressWarnings("unchecked")
-    private AuditLog mapEventToAuditLog(Map<String, Object> event) {
-        return AuditLog.builder()
-            .tenantId(event.get("tenantId") != null ? UUID.fromString(event.get("tenantId").toString()) : null)
-            .userId(event.get("userId") != null ? UUID.fromString(event.get("userId").toString()) : null)
-            .userName((String) event.get("userName"))
-            .userEmail((String) event.get("userEmail"))
-            .action(AuditAction.valueOf((String) event.get("action")))
-            .category(AuditCategory.valueOf((String) event.get("category")))
-            .entityType((String) event.get("entityType"))
-            .entityId((String) event.get("entityId"))
-            .entityName((String) event.get("entityName"))
-            .serviceName((String) event.get("serviceName"))
-            .description((String) event.get("description"))
-            .oldValue((Map<String, Object>) event.get("oldValue"))
-            .newValue((Map<String, Object>) event.get("newValue"))
-            .ipAddress((String) event.get("ipAddress"))
-            .requestId((String) event.get("requestId"))
-            .status(event.get("status") != null ? AuditStatus.valueOf((String) event.get("status")) : AuditStatus.SUCCESS)
-            .errorMessage((String) event.get("errorMessage"))
-            .timestamp(LocalDateTime.now())
-            .build();
-    }
 }
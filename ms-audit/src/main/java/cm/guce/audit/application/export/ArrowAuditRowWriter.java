@@ -0,0 +1,128 @@
+package cm.guce.audit.application.export;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Apache Arrow IPC stream: rows are buffered column by column and written as one
+ * record batch every BATCH_ROWS rows, so memory stays bounded by a single batch.
+ * Readable with pyarrow.ipc.open_stream, DuckDB or Spark, and convertible to Parquet.
+ */
+class ArrowAuditRowWriter implements AuditRowWriter {
+
+    static final int BATCH_ROWS = 4096;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final Schema SCHEMA = schema();
+
+    private final BufferAllocator allocator = new RootAllocator();
+    private final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator);
+    private final ArrowStreamWriter writer;
+    private int rows;
+
+    ArrowAuditRowWriter(OutputStream out) {
+        this.writer = new ArrowStreamWriter(root, null, Channels.newChannel(out));
+        try {
+            writer.start();
+        } catch (IOException e) {
+            close(root, allocator);
+            throw new UncheckedIOException(e);
+        }
+        root.allocateNew();
+    }
+
+    private static Schema schema() {
+        List<Field> fields = new ArrayList<>(COLUMNS.size());
+        for (int column = 1; column <= COLUMNS.size(); column++) {
+            ArrowType type;
+            if (column == TIMESTAMP_COLUMN) {
+                type = new ArrowType.Timestamp(TimeUnit.MICROSECOND, null);
+            } else if (AuditRowWriter.isInteger(column)) {
+                type = new ArrowType.Int(64, true);
+            } else {
+                type = ArrowType.Utf8.INSTANCE;
+            }
+            fields.add(new Field(COLUMNS.get(column - 1), FieldType.nullable(type), null));
+        }
+        return new Schema(fields);
+    }
+
+    @Override
+    public void write(ResultSet rs) throws SQLException, IOException {
+        List<FieldVector> vectors = root.getFieldVectors();
+        for (int column = 1; column <= COLUMNS.size(); column++) {
+            FieldVector vector = vectors.get(column - 1);
+            if (column == TIMESTAMP_COLUMN) {
+                Timestamp timestamp = rs.getTimestamp(column);
+                if (timestamp != null) {
+                    ((TimeStampMicroVector) vector).setSafe(rows,
+                        ChronoUnit.MICROS.between(EPOCH, timestamp.toLocalDateTime()));
+                }
+            } else if (AuditRowWriter.isInteger(column)) {
+                long value = rs.getLong(column);
+                if (!rs.wasNull()) {
+                    ((BigIntVector) vector).setSafe(rows, value);
+                }
+            } else {
+                String value = rs.getString(column);
+                if (value != null) {
+                    ((VarCharVector) vector).setSafe(rows, value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        rows++;
+        if (rows == BATCH_ROWS) {
+            flushBatch();
+        }
+    }
+
+    private void flushBatch() throws IOException {
+        root.setRowCount(rows);
+        writer.writeBatch();
+        rows = 0;
+        // Reuses the allocator: released buffers of the previous batch back the next one
+        root.allocateNew();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rows > 0) {
+                flushBatch();
+            }
+            writer.end();
+        } finally {
+            close(root, allocator);
+        }
+    }
+
+    private static void close(VectorSchemaRoot root, BufferAllocator allocator) {
+        root.close();
+        allocator.close();
+    }
+}
@@ -0,0 +1,114 @@
+package cm.guce.audit.application.export;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the audit trail of a tenant over a period, for regulator requests.
+ *
+ * Rows are read through a server-side cursor (fetch size set inside a transaction, so the
+ * PostgreSQL driver fetches them block by block) and written to the output as they arrive:
+ * memory use does not depend on the size of the period, and no count or offset is needed.
+ * The range on timestamp prunes the monthly partitions outside the period.
+ */
+@Service
+@Slf4j
+public class AuditExportService {
+
+    private static final String EXPORT_SQL = "SELECT " + String.join(", ", AuditRowWriter.COLUMNS) +
+        " FROM audit_logs WHERE tenant_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp, id";
+
+    private final JdbcTemplate cursorTemplate;
+    private final Counter exportedRows;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${audit.export.gzip-buffer-size:65536}")
+    private int gzipBufferSize;
+
+    public AuditExportService(DataSource dataSource, MeterRegistry meterRegistry,
+                              @Value("${audit.export.fetch-size:1000}") int fetchSize) {
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.meterRegistry = meterRegistry;
+        this.exportedRows = Counter.builder("audit.export.rows")
+            .description("Audit logs written by exports")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Write the audit logs of a tenant in [from, to), ordered by timestamp
+     *
+     * @return the number of exported rows
+     */
+    @Transactional(readOnly = true)
+    public long export(UUID tenantId, LocalDateTime from, LocalDateTime to, ExportFormat format,
+                       boolean gzip, OutputStream out) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AtomicLong rows = new AtomicLong();
+        ExportGzipStream gzipStream = gzip ? new ExportGzipStream(out, gzipBufferSize) : null;
+        OutputStream target = gzipStream != null ? gzipStream : out;
+        try {
+            try (AuditRowWriter writer = format.open(target)) {
+                cursorTemplate.query(EXPORT_SQL, rs -> {
+                    try {
+                        writer.write(rs);
+                    } catch (IOException e) {
+                        // Client gone: stop reading the cursor
+                        throw new UncheckedIOException(e);
+                    }
+                    rows.incrementAndGet();
+                }, tenantId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+            target.flush();
+        } finally {
+            if (gzipStream != null) {
+                gzipStream.release();
+            }
+        }
+
+        exportedRows.increment(rows.get());
+        sample.stop(Timer.builder("audit.export")
+            .tag("format", format.name().toLowerCase())
+            .description("Duration of audit exports")
+            .register(meterRegistry));
+        log.info("Exported {} audit logs of tenant {} [{}, {}) as {}{}", rows.get(), tenantId, from, to,
+            format, gzip ? " (gzip)" : "");
+        return rows.get();
+    }
+
+    /**
+     * GZIP stream whose native Deflater is released without closing the response stream,
+     * which belongs to the servlet container
+     */
+    private static final class ExportGzipStream extends GZIPOutputStream {
+
+        ExportGzipStream(OutputStream out, int bufferSize) throws IOException {
+            super(out, bufferSize);
+        }
+
+        void release() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package cm.guce.audit.application.export;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes exported audit rows, read from a cursor positioned on the current row
+ */
+interface AuditRowWriter extends AutoCloseable {
+
+    /**
+     * Exported columns, in the order of the export query
+     */
+    List<String> COLUMNS = List.of(
+        "id", "tenant_id", "user_id", "user_email", "user_name", "action", "category", "entity_type",
+        "entity_id", "entity_name", "service_name", "description", "old_value", "new_value", "changes",
+        "metadata", "ip_address", "user_agent", "request_id", "session_id", "status", "error_message",
+        "timestamp", "duration", "chain_seq", "prev_hash", "entry_hash");
+
+    /**
+     * JSON (jsonb) columns, by 1-based position
+     */
+    static boolean isJson(int column) {
+        return column >= 13 && column <= 16;
+    }
+
+    int TIMESTAMP_COLUMN = 23;
+
+    int DURATION_COLUMN = 24;
+
+    int CHAIN_SEQ_COLUMN = 25;
+
+    /**
+     * BIGINT columns, by 1-based position
+     */
+    static boolean isInteger(int column) {
+        return column == DURATION_COLUMN || column == CHAIN_SEQ_COLUMN;
+    }
+
+    void write(ResultSet rs) throws SQLException, IOException;
+
+    /**
+     * Flush pending rows and write the trailer; the underlying stream is left open
+     */
+    @Override
+    void close() throws IOException;
+}
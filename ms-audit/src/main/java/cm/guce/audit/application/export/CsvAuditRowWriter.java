@@ -0,0 +1,71 @@
+package cm.guce.audit.application.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * RFC 4180 CSV with a header line; jsonb columns are written as their JSON text
+ */
+class CsvAuditRowWriter implements AuditRowWriter {
+
+    private final Writer writer;
+
+    CsvAuditRowWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(ResultSet rs) throws SQLException, IOException {
+        for (int column = 1; column <= COLUMNS.size(); column++) {
+            if (column > 1) {
+                writer.write(',');
+            }
+            if (column == TIMESTAMP_COLUMN) {
+                Timestamp timestamp = rs.getTimestamp(column);
+                if (timestamp != null) {
+                    writer.write(timestamp.toLocalDateTime().toString());
+                }
+            } else {
+                String value = rs.getString(column);
+                if (value != null) {
+                    writeField(value);
+                }
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+}
@@ -0,0 +1,37 @@
+package cm.guce.audit.application.export;
+
+import java.io.OutputStream;
+
+/**
+ * Audit export formats
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv"),
+    /** Columnar: Apache Arrow IPC stream, one record batch per block of rows */
+    ARROW("application/vnd.apache.arrow.stream", "arrows");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    AuditRowWriter open(OutputStream out) {
+        return switch (this) {
+            case NDJSON -> new NdjsonAuditRowWriter(out);
+            case CSV -> new CsvAuditRowWriter(out);
+            case ARROW -> new ArrowAuditRowWriter(out);
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package cm.guce.audit.application.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * One JSON object per line; jsonb columns are embedded as JSON values, not strings
+ */
+class NdjsonAuditRowWriter implements AuditRowWriter {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .build();
+
+    private final JsonGenerator generator;
+
+    NdjsonAuditRowWriter(OutputStream out) {
+        try {
+            this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+    }
+
+    @Override
+    public void write(ResultSet rs) throws SQLException, IOException {
+        generator.writeStartObject();
+        for (int column = 1; column <= COLUMNS.size(); column++) {
+            String name = COLUMNS.get(column - 1);
+            if (column == TIMESTAMP_COLUMN) {
+                Timestamp timestamp = rs.getTimestamp(column);
+                generator.writeStringField(name, timestamp != null ? timestamp.toLocalDateTime().toString() : null);
+            } else if (AuditRowWriter.isInteger(column)) {
+                long value = rs.getLong(column);
+                if (rs.wasNull()) {
+                    generator.writeNullField(name);
+                } else {
+                    generator.writeNumberField(name, value);
+                }
+            } else {
+                String value = rs.getString(column);
+                generator.writeFieldName(name);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (AuditRowWriter.isJson(column)) {
+                    generator.writeRawValue(value);
+                } else {
+                    generator.writeString(value);
+                }
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.writeRaw('\n');
+        generator.close();
+    }
+}
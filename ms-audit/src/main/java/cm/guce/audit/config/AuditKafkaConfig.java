@@ -0,0 +1,95 @@
+package cm.guce.audit.config;
+
+import cm.guce.audit.application.AuditEventMapper.AuditEventMappingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Kafka configuration for batched audit ingestion.
+ *
+ * Offsets are committed once per batch, after the listener has flushed it to the
+ * database. Poison events (unmappable, or rejected by the database) go to the dead-letter
+ * topic without retry; any other failure (e.g. database unavailable) retries the batch
+ * with exponential back-off, without limit.
+ */
+@Configuration
+public class AuditKafkaConfig {
+
+    @Value("${audit.kafka.dead-letter-topic:audit-events.DLT}")
+    private String deadLetterTopic;
+
+    @Value("${audit.kafka.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.kafka.concurrency:3}")
+    private int concurrency;
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Map<String, Object>> auditBatchListenerContainerFactory(
+            KafkaProperties kafkaProperties, KafkaTemplate<Object, Object> deadLetterTemplate,
+            MeterRegistry meterRegistry) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties(null);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        DefaultKafkaConsumerFactory<String, Map<String, Object>> consumerFactory = new DefaultKafkaConsumerFactory<>(props);
+        // Kafka client metrics, including kafka.consumer.fetch.manager.records.lag.max
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+
+        ConcurrentKafkaListenerContainerFactory<String, Map<String, Object>> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(AckMode.BATCH);
+        factory.getContainerProperties().setMicrometerEnabled(true);
+        factory.setCommonErrorHandler(errorHandler(deadLetterTemplate));
+        return factory;
+    }
+
+    /**
+     * Producer for the dead-letter topic: raw bytes for undeserializable records, JSON otherwise
+     */
+    @Bean
+    public KafkaTemplate<Object, Object> deadLetterTemplate(KafkaProperties kafkaProperties) {
+        Map<Class<?>, org.apache.kafka.common.serialization.Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(byte[].class, new ByteArraySerializer());
+        delegates.put(Object.class, new JsonSerializer<>());
+        DefaultKafkaProducerFactory<Object, Object> producerFactory = new DefaultKafkaProducerFactory<>(
+            kafkaProperties.buildProducerProperties(null), null, new DelegatingByTypeSerializer(delegates, true));
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    DefaultErrorHandler errorHandler(KafkaTemplate<Object, Object> deadLetterTemplate) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(deadLetterTemplate,
+            (record, exception) -> new TopicPartition(deadLetterTopic, -1));
+
+        ExponentialBackOff backOff = new ExponentialBackOff(1000, 2.0);
+        backOff.setMaxInterval(60_000);
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(AuditEventMappingException.class,
+            IllegalArgumentException.class, DataIntegrityViolationException.class);
+        return errorHandler;
+    }
+}
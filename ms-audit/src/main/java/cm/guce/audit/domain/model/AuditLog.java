@@ -12,16 +12,17 @@ import java.util.UUID;
 
 /**
  * Audit log entry for tracking all platform activities
+ * Stored in audit_logs, range-partitioned by month on timestamp (primary key id, timestamp)
  */
 @Entity
 @Table(name = "audit_logs", indexes = {
-    @Index(name = "idx_audit_tenant", columnList = "tenant_id"),
-    @Index(name = "idx_audit_user", columnList = "user_id"),
-    @Index(name = "idx_audit_action", columnList = "action"),
-    @Index(name = "idx_audit_entity", columnList = "entity_type, entity_id"),
-    @Index(name = "idx_audit_timestamp", columnList = "timestamp"),
-    @Index(name = "idx_audit_service", columnList = "service_name"),
-    @Index(name = "idx_audit_category", columnList = "category")
+    @Index(name = "idx_audit_tenant_timestamp", columnList = "tenant_id, timestamp"),
+    @Index(name = "idx_audit_user_timestamp", columnList = "user_id, timestamp"),
+    @Index(name = "idx_audit_entity", columnList = "entity_type, entity_id, timestamp"),
+    @Index(name = "idx_audit_service_timestamp", columnList = "service_name, timestamp"),
+    @Index(name = "idx_audit_tenant_category_timestamp", columnList = "tenant_id, category, timestamp"),
+    @Index(name = "idx_audit_tenant_action_timestamp", columnList = "tenant_id, action, timestamp"),
+    @Index(name = "idx_audit_tenant_chain_seq", columnList = "tenant_id, chain_seq")
 })
 @Data
 @NoArgsConstructor
@@ -110,6 +111,17 @@ public class AuditLog {
     @Column
     private Long duration; // milliseconds
 
+    // Hash chain of the tenant (set by the batch writer)
+
+    @Column(name = "chain_seq", updatable = false)
+    private Long chainSeq;
+
+    @Column(name = "prev_hash", length = 64, updatable = false)
+    private String prevHash;
+
+    @Column(name = "entry_hash", length = 64, updatable = false)
+    private String entryHash;
+
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
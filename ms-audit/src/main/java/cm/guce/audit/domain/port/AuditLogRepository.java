@@ -17,6 +17,9 @@ import java.util.UUID;
 
 /**
  * Repository for AuditLog entity operations
+ *
+ * audit_logs is partitioned by month on timestamp: queries bounded on timestamp only
+ * scan the matching partitions. Retention is handled by AuditPartitionManager.
  */
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
@@ -101,47 +104,4 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
            "AND a.action IN ('LOGIN', 'LOGIN_FAILED', 'LOGOUT') " +
            "ORDER BY a.timestamp DESC")
     List<AuditLog> findLoginHistory(@Param("userId") UUID userId, Pageable pageable);
-
-    /**
-     * Count actions by type for statistics
-     */
-    @Query("SELECT a.action, COUNT(a) FROM AuditLog a WHERE a.tenantId = :tenantId " +
-           "AND a.timestamp >= :since GROUP BY a.action")
-    List<Object[]> countByAction(@Param("tenantId") UUID tenantId, @Param("since") LocalDateTime since);
-
-    /**
-     * Count by category
-     */
-    @Query("SELECT a.category, COUNT(a) FROM AuditLog a WHERE a.tenantId = :tenantId " +
-           "AND a.timestamp >= :since GROUP BY a.category")
-    List<Object[]> countByCategory(@Param("tenantId") UUID tenantId, @Param("since") LocalDateTime since);
-
-    /**
-     * Count by status
-     */
-    @Query("SELECT a.status, COUNT(a) FROM AuditLog a WHERE a.tenantId = :tenantId " +
-           "AND a.timestamp >= :since GROUP BY a.status")
-    List<Object[]> countByStatus(@Param("tenantId") UUID tenantId, @Param("since") LocalDateTime since);
-
-    /**
-     * Get daily activity count
-     */
-    @Query("SELECT CAST(a.timestamp AS date), COUNT(a) FROM AuditLog a " +
-           "WHERE a.tenantId = :tenantId AND a.timestamp >= :since " +
-           "GROUP BY CAST(a.timestamp AS date) ORDER BY CAST(a.timestamp AS date)")
-    List<Object[]> getDailyActivityCount(@Param("tenantId") UUID tenantId, @Param("since") LocalDateTime since);
-
-    /**
-     * Find most active users
-     */
-    @Query("SELECT a.userId, a.userName, COUNT(a) FROM AuditLog a " +
-           "WHERE a.tenantId = :tenantId AND a.timestamp >= :since AND a.userId IS NOT NULL " +
-           "GROUP BY a.userId, a.userName ORDER BY COUNT(a) DESC")
-    List<Object[]> findMostActiveUsers(@Param("tenantId") UUID tenantId, @Param("since") LocalDateTime since, Pageable pageable);
-
-    /**
-     * Delete old audit logs
-     */
-    @Query("DELETE FROM AuditLog a WHERE a.timestamp < :before")
-    int deleteOldAuditLogs(@Param("before") LocalDateTime before);
 }
@@ -0,0 +1,139 @@
+package cm.guce.audit.adapter.in.kafka;
+
+import cm.guce.audit.adapter.out.persistence.AuditLogBatchWriter;
+import cm.guce.audit.application.AuditEventMapper;
+import cm.guce.audit.domain.model.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Batch ingestion: what is written before a poison event, and which index is reported.
+ */
+class AuditEventListenerTest {
+
+    private static final String TOPIC = "audit-events";
+
+    private final AuditLogBatchWriter batchWriter = mock(AuditLogBatchWriter.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AuditEventListener listener;
+
+    /**
+     * Copies of the lists passed to the writer, in call order
+     */
+    private final List<List<String>> writes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        listener = new AuditEventListener(new AuditEventMapper(), batchWriter, meterRegistry);
+        doAnswer(invocation -> {
+            List<AuditLog> logs = invocation.getArgument(0);
+            writes.add(logs.stream().map(AuditLog::getEntityId).toList());
+            return null;
+        }).when(batchWriter).write(anyList());
+    }
+
+    @Test
+    void writesTheWholeBatchOnce() {
+        listener.onAuditEvents(List.of(record(0, event("a")), record(1, event("b")), record(2, event("c"))));
+
+        assertThat(writes).containsExactly(List.of("a", "b", "c"));
+        assertThat(deadLettered()).isZero();
+    }
+
+    @Test
+    void flushesTheEventsBeforeAnUnmappableEventAndReportsItsIndex() {
+        Map<String, Object> poison = event("poison");
+        poison.remove("serviceName");
+
+        assertThatThrownBy(() -> listener.onAuditEvents(List.of(
+                record(0, event("a")), record(1, event("b")), record(2, poison), record(3, event("d")))))
+            .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                e -> assertThat(e.getIndex()).isEqualTo(2));
+
+        assertThat(writes).containsExactly(List.of("a", "b"));
+        assertThat(deadLettered()).isEqualTo(1);
+    }
+
+    @Test
+    void isolatesAnEventRejectedByTheDatabase() {
+        doAnswer(invocation -> {
+            List<AuditLog> logs = invocation.getArgument(0);
+            writes.add(logs.stream().map(AuditLog::getEntityId).toList());
+            if (logs.stream().anyMatch(log -> "too-long".equals(log.getEntityId()))) {
+                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+            }
+            return null;
+        }).when(batchWriter).write(anyList());
+
+        assertThatThrownBy(() -> listener.onAuditEvents(List.of(
+                record(0, event("a")), record(1, event("too-long")), record(2, event("c")))))
+            .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                assertThat(e.getIndex()).isEqualTo(1);
+                assertThat(e.getCause()).isInstanceOf(DataIntegrityViolationException.class);
+            });
+
+        // Whole batch (rolled back), then one by one until the rejected event
+        assertThat(writes).containsExactly(List.of("a", "too-long", "c"), List.of("a"), List.of("too-long"));
+        assertThat(deadLettered()).isEqualTo(1);
+    }
+
+    @Test
+    void propagatesADatabaseOutageForTheWholeBatch() {
+        doAnswer(invocation -> {
+            throw new CannotGetJdbcConnectionException("connection refused");
+        }).when(batchWriter).write(anyList());
+
+        assertThatThrownBy(() -> listener.onAuditEvents(List.of(record(0, event("a")), record(1, event("b")))))
+            .isInstanceOf(CannotGetJdbcConnectionException.class);
+
+        ArgumentCaptor<List<AuditLog>> batches = ArgumentCaptor.captor();
+        verify(batchWriter, times(1)).write(batches.capture());
+        assertThat(batches.getValue()).hasSize(2);
+        assertThat(deadLettered()).isZero();
+    }
+
+    @Test
+    void ignoresAnEmptyPoll() {
+        listener.onAuditEvents(List.of());
+
+        verify(batchWriter, never()).write(anyList());
+    }
+
+    private double deadLettered() {
+        return meterRegistry.get("audit.ingestion.dead.lettered").counter().count();
+    }
+
+    private static ConsumerRecord<String, Map<String, Object>> record(long offset, Map<String, Object> event) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, null, event);
+    }
+
+    private static Map<String, Object> event(String entityId) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("action", "CREATE");
+        event.put("category", "DATA_MODIFICATION");
+        event.put("entityType", "ImportDeclaration");
+        event.put("entityId", entityId);
+        event.put("serviceName", "ms-procedure");
+        return event;
+    }
+}
@@ -0,0 +1,182 @@
+package cm.guce.audit.adapter.out.persistence;
+
+import cm.guce.audit.domain.model.AuditLog;
+import cm.guce.audit.domain.model.AuditLog.AuditAction;
+import cm.guce.audit.domain.model.AuditLog.AuditCategory;
+import cm.guce.audit.domain.model.AuditLog.AuditStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Entry hashes recomputed from stored rows, and Merkle roots of batches.
+ */
+class AuditEntryHasherTest {
+
+    private final AuditEntryHasher hasher = new AuditEntryHasher(new ObjectMapper());
+
+    @Test
+    void storedRowHashesLikeTheWrittenEntry() throws SQLException {
+        AuditLog auditLog = entry();
+        Map<String, Object> row = row(auditLog);
+        // jsonb normalizes key order and keeps numbers as numeric, with the written scale
+        row.put("metadata", "{\"amount\": 12.50, \"count\": 3, \"nested\": {\"a\": true, \"b\": [1, 2.0]}}");
+        row.put("new_value", "{\"status\": \"VALIDATED\"}");
+
+        assertThat(hasher.hash(resultSet(row))).isEqualTo(hasher.hash(auditLog));
+    }
+
+    @Test
+    void timestampIsHashedAtTheStoredMicrosecondPrecision() throws SQLException {
+        AuditLog auditLog = entry();
+        auditLog.setTimestamp(LocalDateTime.of(2024, 3, 11, 9, 30, 15, 123456789));
+        String written = hasher.hash(auditLog);
+
+        auditLog.setTimestamp(AuditEntryHasher.storedPrecision(auditLog.getTimestamp()));
+        Map<String, Object> row = row(auditLog);
+
+        assertThat(auditLog.getTimestamp().getNano()).isEqualTo(123456000);
+        assertThat(hasher.hash(resultSet(row))).isEqualTo(written);
+        row.put("timestamp", Timestamp.valueOf(auditLog.getTimestamp().plusNanos(1000)));
+        assertThat(hasher.hash(resultSet(row))).isNotEqualTo(written);
+    }
+
+    @Test
+    void anyChangedColumnChangesTheHash() throws SQLException {
+        AuditLog auditLog = entry();
+        String hash = hasher.hash(auditLog);
+
+        for (String column : List.of("prev_hash", "user_name", "description", "status", "duration")) {
+            Map<String, Object> row = row(auditLog);
+            row.put(column, column.equals("duration") ? 43L : "tampered");
+            assertThat(hasher.hash(resultSet(row))).as(column).isNotEqualTo(hash);
+        }
+        Map<String, Object> row = row(auditLog);
+        row.put("metadata", "{\"amount\": 12.51, \"count\": 3, \"nested\": {\"a\": true, \"b\": [1, 2]}}");
+        assertThat(hasher.hash(resultSet(row))).isNotEqualTo(hash);
+        // A null column differs from an empty one
+        row = row(auditLog);
+        row.put("user_email", "");
+        assertThat(hasher.hash(resultSet(row))).isNotEqualTo(hash);
+    }
+
+    @Test
+    void merkleRootDetectsChangedDeletedAndReorderedEntries() {
+        List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            AuditLog auditLog = entry();
+            auditLog.setChainSeq((long) i + 1);
+            leaves.add(hasher.hash(auditLog));
+        }
+        String root = AuditEntryHasher.merkleRoot(leaves);
+
+        assertThat(AuditEntryHasher.merkleRoot(List.copyOf(leaves))).isEqualTo(root);
+        assertThat(AuditEntryHasher.merkleRoot(List.of(leaves.get(0)))).isEqualTo(leaves.get(0));
+
+        List<String> changed = new ArrayList<>(leaves);
+        changed.set(4, AuditEntryHasher.GENESIS);
+        assertThat(AuditEntryHasher.merkleRoot(changed)).isNotEqualTo(root);
+
+        for (int i = 0; i < leaves.size(); i++) {
+            List<String> deleted = new ArrayList<>(leaves);
+            deleted.remove(i);
+            assertThat(AuditEntryHasher.merkleRoot(deleted)).as("without leaf %d", i).isNotEqualTo(root);
+        }
+
+        List<String> reordered = new ArrayList<>(leaves);
+        reordered.set(1, leaves.get(2));
+        reordered.set(2, leaves.get(1));
+        assertThat(AuditEntryHasher.merkleRoot(reordered)).isNotEqualTo(root);
+    }
+
+    private static AuditLog entry() {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("b", List.of(1, 2.0));
+        nested.put("a", true);
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("nested", nested);
+        metadata.put("count", 3);
+        metadata.put("amount", 12.5);
+        return AuditLog.builder()
+            .id(UUID.fromString("0b6f4a52-0000-4000-8000-000000000001"))
+            .tenantId(UUID.fromString("5f0c9a3e-0000-4000-8000-000000000001"))
+            .userId(UUID.fromString("7a1d2c44-0000-4000-8000-000000000001"))
+            .userName("alice")
+            .action(AuditAction.UPDATE)
+            .category(AuditCategory.DATA_MODIFICATION)
+            .entityType("ImportDeclaration")
+            .entityId("DI-2024-000042")
+            .serviceName("ms-procedure")
+            .description("Validation")
+            .newValue(Map.of("status", "VALIDATED"))
+            .metadata(metadata)
+            .status(AuditStatus.SUCCESS)
+            .timestamp(LocalDateTime.of(2024, 3, 11, 9, 30, 15, 123456000))
+            .duration(42L)
+            .chainSeq(7L)
+            .prevHash("ab".repeat(32))
+            .build();
+    }
+
+    /**
+     * Columns of the entry as the PostgreSQL driver returns them
+     */
+    private static Map<String, Object> row(AuditLog auditLog) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("prev_hash", auditLog.getPrevHash());
+        row.put("chain_seq", auditLog.getChainSeq());
+        row.put("id", auditLog.getId().toString());
+        row.put("tenant_id", auditLog.getTenantId().toString());
+        row.put("user_id", auditLog.getUserId().toString());
+        row.put("user_name", auditLog.getUserName());
+        row.put("action", auditLog.getAction().name());
+        row.put("category", auditLog.getCategory().name());
+        row.put("entity_type", auditLog.getEntityType());
+        row.put("entity_id", auditLog.getEntityId());
+        row.put("service_name", auditLog.getServiceName());
+        row.put("description", auditLog.getDescription());
+        row.put("new_value", "{\"status\": \"VALIDATED\"}");
+        row.put("metadata", "{\"count\": 3, \"amount\": 12.5, \"nested\": {\"a\": true, \"b\": [1, 2.0]}}");
+        row.put("status", auditLog.getStatus().name());
+        row.put("timestamp", Timestamp.valueOf(auditLog.getTimestamp()));
+        row.put("duration", auditLog.getDuration());
+        return row;
+    }
+
+    private static ResultSet resultSet(Map<String, Object> row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        boolean[] wasNull = new boolean[1];
+        when(rs.getString(anyString())).thenAnswer(invocation -> {
+            Object value = row.get(invocation.<String>getArgument(0));
+            wasNull[0] = value == null;
+            return value == null ? null : value.toString();
+        });
+        when(rs.getLong(anyString())).thenAnswer(invocation -> {
+            Object value = row.get(invocation.<String>getArgument(0));
+            wasNull[0] = value == null;
+            return value == null ? 0L : (Long) value;
+        });
+        when(rs.getTimestamp(anyString())).thenAnswer(invocation -> {
+            Object value = row.get(invocation.<String>getArgument(0));
+            wasNull[0] = value == null;
+            return value;
+        });
+        when(rs.wasNull()).thenAnswer(invocation -> wasNull[0]);
+        return rs;
+    }
+}
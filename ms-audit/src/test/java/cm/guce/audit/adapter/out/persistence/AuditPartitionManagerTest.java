@@ -0,0 +1,127 @@
+package cm.guce.audit.adapter.out.persistence;
+
+import cm.guce.audit.adapter.out.persistence.AuditPartitionManager.Partition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Partition bounds as returned by pg_get_expr, and retention by partition.
+ */
+class AuditPartitionManagerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AuditPartitionManager manager = new AuditPartitionManager(jdbcTemplate);
+    private final List<String[]> catalog = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(manager, "monthsAhead", 3);
+        ReflectionTestUtils.setField(manager, "detachOnly", false);
+        doAnswer(invocation -> {
+            RowMapper<Partition> mapper = invocation.getArgument(1);
+            List<Partition> partitions = new ArrayList<>();
+            for (String[] row : catalog) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(row[0]);
+                when(rs.getString(2)).thenReturn(row[1]);
+                partitions.add(mapper.mapRow(rs, partitions.size()));
+            }
+            return partitions;
+        }).when(jdbcTemplate).query(anyString(), any(RowMapper.class), eq("audit_logs"));
+    }
+
+    @Test
+    void parsesRangeMinMaxAndDefaultBounds() {
+        partition("audit_logs_legacy", "FOR VALUES FROM (MINVALUE) TO ('2024-01-01 00:00:00')");
+        partition("audit_logs_y2024m01", "FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00')");
+        partition("audit_logs_future", "FOR VALUES FROM ('2024-02-01 00:00:00') TO (MAXVALUE)");
+        partition("audit_logs_default", "DEFAULT");
+
+        assertThat(manager.partitions()).containsExactly(
+            new Partition("audit_logs_legacy", null, LocalDateTime.of(2024, 1, 1, 0, 0)),
+            new Partition("audit_logs_y2024m01", LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0)),
+            new Partition("audit_logs_future", LocalDateTime.of(2024, 2, 1, 0, 0), null),
+            new Partition("audit_logs_default", null, null));
+    }
+
+    @Test
+    void dropsOnlyPartitionsEntirelyBeforeTheCutoff() {
+        partition("audit_logs_legacy", "FOR VALUES FROM (MINVALUE) TO ('2024-01-01 00:00:00')");
+        partition("audit_logs_y2024m01", "FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00')");
+        partition("audit_logs_y2024m02", "FOR VALUES FROM ('2024-02-01 00:00:00') TO ('2024-03-01 00:00:00')");
+        partition("audit_logs_future", "FOR VALUES FROM ('2024-03-01 00:00:00') TO (MAXVALUE)");
+        partition("audit_logs_default", "DEFAULT");
+
+        int removed = manager.dropPartitionsBefore(LocalDateTime.of(2024, 2, 15, 0, 0));
+
+        assertThat(removed).isEqualTo(2);
+        verify(jdbcTemplate).execute("ALTER TABLE audit_logs DETACH PARTITION audit_logs_legacy");
+        verify(jdbcTemplate).execute("DROP TABLE audit_logs_legacy");
+        verify(jdbcTemplate).execute("ALTER TABLE audit_logs DETACH PARTITION audit_logs_y2024m01");
+        verify(jdbcTemplate).execute("DROP TABLE audit_logs_y2024m01");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE audit_logs DETACH PARTITION audit_logs_y2024m02");
+    }
+
+    @Test
+    void detachOnlyKeepsTheDetachedTables() {
+        ReflectionTestUtils.setField(manager, "detachOnly", true);
+        partition("audit_logs_y2024m01", "FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00')");
+
+        assertThat(manager.dropPartitionsBefore(LocalDateTime.of(2024, 2, 1, 0, 0))).isEqualTo(1);
+
+        verify(jdbcTemplate).execute("ALTER TABLE audit_logs DETACH PARTITION audit_logs_y2024m01");
+        verify(jdbcTemplate, never()).execute("DROP TABLE audit_logs_y2024m01");
+    }
+
+    @Test
+    void createsOnlyTheMissingMonthlyPartitions() {
+        YearMonth current = YearMonth.now();
+        partition("audit_logs_" + suffix(current), "FOR VALUES FROM ('" + start(current) + "') TO ('"
+            + start(current.plusMonths(1)) + "')");
+        partition("audit_logs_default", "DEFAULT");
+
+        manager.ensurePartitions();
+
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq("audit_logs"));
+        for (int i = 1; i <= 3; i++) {
+            YearMonth month = current.plusMonths(i);
+            verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS audit_logs_" + suffix(month) +
+                " PARTITION OF audit_logs FOR VALUES FROM ('" + month.atDay(1).atStartOfDay() + "') TO ('" +
+                month.plusMonths(1).atDay(1).atStartOfDay() + "')");
+        }
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    private void partition(String name, String bound) {
+        catalog.add(new String[] {name, bound});
+    }
+
+    private static String suffix(YearMonth month) {
+        return String.format("y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static String start(YearMonth month) {
+        return month.atDay(1) + " 00:00:00";
+    }
+}
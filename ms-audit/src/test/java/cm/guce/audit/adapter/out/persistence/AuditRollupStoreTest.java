@@ -0,0 +1,129 @@
+package cm.guce.audit.adapter.out.persistence;
+
+import cm.guce.audit.adapter.out.persistence.AuditRollupStore.ActivityRow;
+import cm.guce.audit.adapter.out.persistence.AuditRollupStore.UserActivity;
+import cm.guce.audit.domain.model.AuditLog;
+import cm.guce.audit.domain.model.AuditLog.AuditAction;
+import cm.guce.audit.domain.model.AuditLog.AuditCategory;
+import cm.guce.audit.domain.model.AuditLog.AuditStatus;
+import cm.guce.audit.support.PostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rollup counters: upserts of the ingestion path, top-K trimming and its watermark.
+ */
+@PostgresTest
+@Import(AuditRollupStore.class)
+class AuditRollupStoreTest {
+
+    private static final UUID TENANT = UUID.fromString("5f0c9a3e-0000-4000-8000-000000000001");
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 12);
+
+    @Autowired
+    private AuditRollupStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recordAddsEachBatchToTheHourlyAndDailyCounters() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        store.record(List.of(
+            log(TENANT, alice, "alice", DAY.atTime(9, 5), AuditAction.CREATE, AuditStatus.SUCCESS),
+            log(TENANT, alice, "alice", DAY.atTime(9, 55), AuditAction.CREATE, AuditStatus.SUCCESS),
+            log(TENANT, bob, "bob", DAY.atTime(10, 0), AuditAction.DELETE, null),
+            log(null, alice, "alice", DAY.atTime(9, 0), AuditAction.CREATE, AuditStatus.SUCCESS)));
+        store.record(List.of(log(TENANT, alice, null, DAY.atTime(9, 30), AuditAction.CREATE, AuditStatus.SUCCESS)));
+
+        assertThat(store.findActivity(TENANT, DAY.atStartOfDay())).containsExactlyInAnyOrder(
+            new ActivityRow(DAY, "CREATE", "DATA_MODIFICATION", "SUCCESS", 3),
+            new ActivityRow(DAY, "DELETE", "DATA_MODIFICATION", "", 1));
+        assertThat(store.findActivity(AuditRollupStore.NO_TENANT, DAY.atStartOfDay()))
+            .containsExactly(new ActivityRow(DAY, "CREATE", "DATA_MODIFICATION", "SUCCESS", 1));
+        // The user name of a later batch without name is kept
+        assertThat(store.findTopUsers(TENANT, DAY, 10)).containsExactly(
+            new UserActivity(alice, "alice", 3),
+            new UserActivity(bob, "bob", 1));
+        assertThat(store.findActivity(TENANT, DAY.plusDays(1).atStartOfDay())).isEmpty();
+    }
+
+    @Test
+    void trimKeepsTheTopUsersOfEachDayAndRecordsTheLargestRemovedCount() {
+        List<UUID> users = new ArrayList<>();
+        List<AuditLog> logs = new ArrayList<>();
+        for (int rank = 0; rank < 4; rank++) {
+            UUID user = UUID.randomUUID();
+            users.add(user);
+            for (int i = 0; i < 5 - rank; i++) {
+                logs.add(log(TENANT, user, "user" + rank, DAY.atTime(8, i), AuditAction.READ, AuditStatus.SUCCESS));
+                // Following day, outside of the trimmed range
+                logs.add(log(TENANT, user, "user" + rank, DAY.plusDays(1).atTime(8, i), AuditAction.READ,
+                    AuditStatus.SUCCESS));
+            }
+        }
+        store.record(logs);
+
+        assertThat(store.trimUserActivity(DAY, DAY.plusDays(1), 2)).isEqualTo(1);
+
+        assertThat(userCount(DAY)).isEqualTo(2);
+        assertThat(userCount(DAY.plusDays(1))).isEqualTo(4);
+        assertThat(store.findTopUsers(TENANT, DAY, 2)).extracting(UserActivity::userId)
+            .containsExactly(users.get(0), users.get(1));
+        // Removed counts were 3 and 2 on the trimmed day
+        assertThat(store.findTopUsersMaxError(TENANT, DAY)).isEqualTo(3);
+        assertThat(store.findTopUsersMaxError(TENANT, DAY.plusDays(1))).isZero();
+
+        // Trimming again is a no-op
+        assertThat(store.trimUserActivity(DAY, DAY.plusDays(1), 2)).isZero();
+        assertThat(store.findTopUsersMaxError(TENANT, DAY)).isEqualTo(3);
+    }
+
+    @Test
+    void watermarkStartsAtTheOldestCounterAndOnlyMovesForward() {
+        assertThat(store.findUntrimmedSince()).isEmpty();
+
+        store.record(List.of(
+            log(TENANT, UUID.randomUUID(), "alice", DAY.atTime(12, 0), AuditAction.READ, AuditStatus.SUCCESS),
+            log(TENANT, UUID.randomUUID(), "bob", DAY.plusDays(3).atTime(12, 0), AuditAction.READ, AuditStatus.SUCCESS)));
+        assertThat(store.findUntrimmedSince()).contains(DAY);
+
+        store.markTrimmedUntil(DAY.plusDays(2));
+        assertThat(store.findUntrimmedSince()).contains(DAY.plusDays(2));
+
+        store.markTrimmedUntil(DAY.plusDays(1));
+        assertThat(store.findUntrimmedSince()).contains(DAY.plusDays(2));
+    }
+
+    private Integer userCount(LocalDate day) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM audit_user_activity_daily WHERE tenant_id = ? AND day = ?",
+            Integer.class, TENANT, day);
+    }
+
+    private static AuditLog log(UUID tenantId, UUID userId, String userName, LocalDateTime timestamp,
+                                AuditAction action, AuditStatus status) {
+        return AuditLog.builder()
+            .tenantId(tenantId)
+            .userId(userId)
+            .userName(userName)
+            .action(action)
+            .category(AuditCategory.DATA_MODIFICATION)
+            .entityType("ImportDeclaration")
+            .serviceName("ms-procedure")
+            .status(status)
+            .timestamp(timestamp)
+            .build();
+    }
+}
@@ -0,0 +1,196 @@
+package cm.guce.audit.application;
+
+import cm.guce.audit.adapter.out.persistence.AuditEntryHasher;
+import cm.guce.audit.adapter.out.persistence.AuditHashChain;
+import cm.guce.audit.adapter.out.persistence.AuditLogBatchWriter;
+import cm.guce.audit.adapter.out.persistence.AuditPartitionManager;
+import cm.guce.audit.adapter.out.persistence.AuditRollupStore;
+import cm.guce.audit.application.AuditIntegrityService.IntegrityReport;
+import cm.guce.audit.application.AuditIntegrityService.Violation;
+import cm.guce.audit.domain.model.AuditLog;
+import cm.guce.audit.domain.model.AuditLog.AuditAction;
+import cm.guce.audit.domain.model.AuditLog.AuditCategory;
+import cm.guce.audit.domain.model.AuditLog.AuditStatus;
+import cm.guce.audit.support.PostgresTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chain verification over a time range, on three written batches of four entries
+ * (sequences 1-4, 5-8 and 9-12, one hour apart). Chunks are verified on other threads
+ * and connections: the data is committed and removed after each test.
+ */
+@PostgresTest
+@Import({AuditIntegrityService.class, AuditLogBatchWriter.class, AuditHashChain.class, AuditEntryHasher.class,
+    AuditRollupStore.class, AuditPartitionManager.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditIntegrityServiceTest {
+
+    // Within the current month, whose partition is created by the migrations
+    private static final LocalDateTime START = YearMonth.now().atDay(1).atTime(8, 0);
+
+    private final UUID tenant = UUID.randomUUID();
+
+    @Autowired
+    private AuditIntegrityService service;
+
+    @Autowired
+    private AuditLogBatchWriter writer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Chunks smaller than a batch, so that chunk boundaries are linked too
+        ReflectionTestUtils.setField(service, "chunkSize", 3);
+        for (int batch = 0; batch < 3; batch++) {
+            List<AuditLog> logs = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                logs.add(log(START.plusHours(batch).plusMinutes(i).plusNanos(123456789)));
+            }
+            writer.write(logs);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (String table : List.of("audit_logs", "audit_chain_head", "audit_chain_batch", "audit_activity_hourly",
+                "audit_user_activity_daily", "audit_user_activity_floor")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE tenant_id = ?", tenant);
+        }
+    }
+
+    @Test
+    void intactChainIsValid() {
+        IntegrityReport report = verify(START, START.plusHours(3));
+
+        assertThat(report.violations()).isEmpty();
+        assertThat(report.valid()).isTrue();
+        assertThat(report.firstSeq()).isEqualTo(1);
+        assertThat(report.lastSeq()).isEqualTo(12);
+        assertThat(report.verifiedEntries()).isEqualTo(12);
+        assertThat(report.verifiedBatches()).isEqualTo(3);
+
+        IntegrityReport middle = verify(START.plusHours(1), START.plusHours(2));
+        assertThat(middle.valid()).isTrue();
+        assertThat(middle.firstSeq()).isEqualTo(5);
+        assertThat(middle.lastSeq()).isEqualTo(8);
+    }
+
+    @Test
+    void deletedEntriesAtTheStartOfTheRangeAreReported() {
+        delete(5, 6);
+
+        IntegrityReport report = verify(START.plusHours(1), START.plusHours(2));
+
+        assertThat(report.valid()).isFalse();
+        assertThat(report.firstSeq()).isEqualTo(5);
+        assertThat(report.violations()).contains(new Violation(5L, "Missing entries up to 6"));
+    }
+
+    @Test
+    void deletedEntriesAtTheStartOfTheChainAreReported() {
+        delete(1, 2);
+
+        IntegrityReport report = verify(START, START.plusHours(3));
+
+        assertThat(report.valid()).isFalse();
+        assertThat(report.violations()).contains(new Violation(1L, "Missing entries up to 2"));
+    }
+
+    @Test
+    void deletedEntriesAtTheEndOfTheRangeAreReported() {
+        delete(8, 8);
+
+        IntegrityReport report = verify(START.plusHours(1), START.plusHours(2));
+
+        assertThat(report.valid()).isFalse();
+        assertThat(report.lastSeq()).isEqualTo(8);
+        assertThat(report.violations()).contains(new Violation(8L, "Missing entries up to 8"));
+    }
+
+    @Test
+    void deletedEndOfTheChainIsReportedEvenWithoutItsBatchRoot() {
+        delete(11, 12);
+        jdbcTemplate.update("DELETE FROM audit_chain_batch WHERE tenant_id = ? AND first_seq = 9", tenant);
+
+        IntegrityReport report = verify(START, START.plusHours(3));
+
+        assertThat(report.valid()).isFalse();
+        assertThat(report.lastSeq()).isEqualTo(10);
+        assertThat(report.violations()).contains(new Violation(11L, "Following entry is missing"));
+    }
+
+    @Test
+    void changedEntryIsReported() {
+        jdbcTemplate.update("UPDATE audit_logs SET description = 'tampered' WHERE tenant_id = ? AND chain_seq = 6",
+            tenant);
+
+        IntegrityReport report = verify(START, START.plusHours(3));
+
+        assertThat(report.valid()).isFalse();
+        assertThat(report.violations()).containsExactly(new Violation(6L, "Entry content does not match its hash"));
+    }
+
+    @Test
+    void startOfTheChainRemovedWithItsBatchRootIsRetention() {
+        // As retention leaves it: the first batch and its root are gone, the monthly partitions remain
+        delete(1, 4);
+        jdbcTemplate.update("DELETE FROM audit_chain_batch WHERE tenant_id = ? AND first_seq = 1", tenant);
+
+        IntegrityReport report = verify(START, START.plusHours(3));
+
+        assertThat(report.violations()).isEmpty();
+        assertThat(report.firstSeq()).isEqualTo(5);
+        assertThat(report.verifiedEntries()).isEqualTo(8);
+    }
+
+    private IntegrityReport verify(LocalDateTime from, LocalDateTime to) {
+        return service.verify(tenant, from, to).orElseThrow();
+    }
+
+    private void delete(long fromSeq, long toSeq) {
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE tenant_id = ? AND chain_seq BETWEEN ? AND ?",
+            tenant, fromSeq, toSeq);
+    }
+
+    private AuditLog log(LocalDateTime timestamp) {
+        // Numbers and key order as jsonb does not keep them: the stored row must hash the same
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("reference", "DI-2024-000042");
+        metadata.put("amount", 12.50);
+        metadata.put("lines", List.of(1, 2.0));
+        return AuditLog.builder()
+            .tenantId(tenant)
+            .userId(UUID.randomUUID())
+            .userName("alice")
+            .action(AuditAction.UPDATE)
+            .category(AuditCategory.DATA_MODIFICATION)
+            .entityType("ImportDeclaration")
+            .serviceName("ms-procedure")
+            .metadata(metadata)
+            .status(AuditStatus.SUCCESS)
+            .timestamp(timestamp)
+            .duration(42L)
+            .build();
+    }
+}
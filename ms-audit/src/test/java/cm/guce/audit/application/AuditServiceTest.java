@@ -0,0 +1,94 @@
+package cm.guce.audit.application;
+
+import cm.guce.audit.adapter.out.persistence.AuditHashChain;
+import cm.guce.audit.adapter.out.persistence.AuditLogBatchWriter;
+import cm.guce.audit.adapter.out.persistence.AuditPartitionManager;
+import cm.guce.audit.adapter.out.persistence.AuditRollupStore;
+import cm.guce.audit.adapter.out.persistence.AuditRollupStore.ActivityRow;
+import cm.guce.audit.domain.port.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Statistics computed from the rollups, and catch-up of the rollup compaction.
+ */
+class AuditServiceTest {
+
+    private static final UUID TENANT = UUID.randomUUID();
+
+    private final AuditRollupStore rollupStore = mock(AuditRollupStore.class);
+    private final AuditService service = new AuditService(mock(AuditLogRepository.class),
+        mock(AuditPartitionManager.class), mock(AuditLogBatchWriter.class), rollupStore, mock(AuditHashChain.class));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "userDetailDays", 35);
+        ReflectionTestUtils.setField(service, "topUsersPerDay", 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void statisticsSumTheRollupsPerDimension() {
+        LocalDate monday = LocalDate.of(2024, 3, 11);
+        LocalDate tuesday = monday.plusDays(1);
+        when(rollupStore.findActivity(eq(TENANT), any())).thenReturn(List.of(
+            new ActivityRow(monday, "CREATE", "DATA_MODIFICATION", "SUCCESS", 5),
+            new ActivityRow(monday, "LOGIN", "AUTHENTICATION", "FAILURE", 2),
+            new ActivityRow(tuesday, "CREATE", "DATA_MODIFICATION", "SUCCESS", 3),
+            new ActivityRow(tuesday, "DELETE", "DATA_MODIFICATION", "", 1)));
+        when(rollupStore.findTopUsers(eq(TENANT), any(), anyInt())).thenReturn(List.of());
+        when(rollupStore.findTopUsersMaxError(eq(TENANT), any())).thenReturn(4L);
+
+        Map<String, Object> stats = service.getStatistics(TENANT, 30);
+
+        assertThat((Map<String, Long>) stats.get("byAction"))
+            .containsExactlyInAnyOrderEntriesOf(Map.of("CREATE", 8L, "LOGIN", 2L, "DELETE", 1L));
+        assertThat((Map<String, Long>) stats.get("byCategory"))
+            .containsExactlyInAnyOrderEntriesOf(Map.of("DATA_MODIFICATION", 9L, "AUTHENTICATION", 2L));
+        // Events without status are counted everywhere except by status
+        assertThat((Map<String, Long>) stats.get("byStatus"))
+            .containsExactlyInAnyOrderEntriesOf(Map.of("SUCCESS", 8L, "FAILURE", 2L));
+        assertThat((List<Map<String, Object>>) stats.get("dailyActivity")).containsExactly(
+            Map.of("date", "2024-03-11", "count", 7L),
+            Map.of("date", "2024-03-12", "count", 4L));
+        assertThat(stats.get("mostActiveUsersMaxError")).isEqualTo(4L);
+    }
+
+    @Test
+    void compactionTrimsEveryDaySinceTheWatermark() {
+        LocalDate to = LocalDate.now().minusDays(35);
+        LocalDate watermark = to.minusDays(20);
+        when(rollupStore.findUntrimmedSince()).thenReturn(Optional.of(watermark));
+
+        service.compactRollups();
+
+        verify(rollupStore).trimUserActivity(watermark, to, 100);
+        verify(rollupStore).markTrimmedUntil(to);
+    }
+
+    @Test
+    void compactionDoesNothingWhenUpToDate() {
+        when(rollupStore.findUntrimmedSince()).thenReturn(Optional.of(LocalDate.now().minusDays(35)));
+
+        service.compactRollups();
+
+        verify(rollupStore, never()).trimUserActivity(any(), any(), anyInt());
+        verify(rollupStore, never()).markTrimmedUntil(any());
+    }
+}
@@ -0,0 +1,120 @@
+package cm.guce.audit.application.export;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static cm.guce.audit.application.export.ExportRows.resultSet;
+import static cm.guce.audit.application.export.ExportRows.row;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compression of exports, which must never close the response stream.
+ */
+class AuditExportServiceTest {
+
+    private static final UUID TENANT = UUID.randomUUID();
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    private final JdbcTemplate cursorTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuditExportService service = new AuditExportService(mock(DataSource.class), meterRegistry, 1000);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "cursorTemplate", cursorTemplate);
+        ReflectionTestUtils.setField(service, "gzipBufferSize", 512);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 1; i <= 3; i++) {
+                handler.processRow(resultSet(row(i)));
+            }
+            return null;
+        }).when(cursorTemplate).query(anyString(), any(RowCallbackHandler.class), eq(TENANT), any(), any());
+    }
+
+    @Test
+    void gzipExportIsCompleteAndLeavesTheResponseOpen() throws Exception {
+        ResponseStream out = new ResponseStream(new ByteArrayOutputStream());
+
+        long rows = service.export(TENANT, FROM, TO, ExportFormat.NDJSON, true, out);
+
+        assertThat(rows).isEqualTo(3);
+        assertThat(out.closed).isFalse();
+        assertThat(out.flushed).isTrue();
+        byte[] gzip = ((ByteArrayOutputStream) out.target()).toByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")).hasSize(3);
+        }
+        assertThat(meterRegistry.get("audit.export.rows").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void clientDisconnectSurfacesTheIOExceptionWithoutClosingTheResponse() {
+        ResponseStream out = new ResponseStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        });
+
+        assertThatThrownBy(() -> service.export(TENANT, FROM, TO, ExportFormat.CSV, true, out))
+            .isInstanceOf(IOException.class)
+            .hasMessage("Broken pipe");
+        assertThat(out.closed).isFalse();
+    }
+
+    /**
+     * Servlet response stream, owned by the container
+     */
+    private static final class ResponseStream extends FilterOutputStream {
+
+        private boolean closed;
+        private boolean flushed;
+
+        ResponseStream(OutputStream target) {
+            super(target);
+        }
+
+        OutputStream target() {
+            return out;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushed = true;
+            super.flush();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
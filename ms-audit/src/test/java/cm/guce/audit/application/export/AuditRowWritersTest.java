@@ -0,0 +1,128 @@
+package cm.guce.audit.application.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static cm.guce.audit.application.export.ExportRows.TIMESTAMP;
+import static cm.guce.audit.application.export.ExportRows.column;
+import static cm.guce.audit.application.export.ExportRows.resultSet;
+import static cm.guce.audit.application.export.ExportRows.row;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encoding of exported rows in each format.
+ */
+class AuditRowWritersTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csvQuotesFieldsWithSeparatorsQuotesAndLineBreaks() throws Exception {
+        Object[] row = row(1);
+        row[column("entity_name")] = "Dupont, Jean";
+        row[column("description")] = "Statut \"VALIDE\"\r\nligne 2";
+        row[column("user_agent")] = "plain";
+        row[column("error_message")] = null;
+
+        String csv = write(ExportFormat.CSV, row).toString(StandardCharsets.UTF_8);
+
+        String[] lines = csv.split("\r\n", 2);
+        assertThat(lines[0]).isEqualTo(String.join(",", AuditRowWriter.COLUMNS));
+        assertThat(lines[1])
+            .contains(",\"Dupont, Jean\",")
+            .contains(",\"Statut \"\"VALIDE\"\"\r\nligne 2\",")
+            .contains(",plain,")
+            .contains(",\"{\"\"status\"\": \"\"DRAFT\"\"}\",")
+            .contains("," + TIMESTAMP + ",")
+            .endsWith("\r\n");
+        assertThat(lines[1]).contains(",SUCCESS,," + TIMESTAMP);
+    }
+
+    @Test
+    void ndjsonEmbedsJsonbColumnsAsJsonValues() throws Exception {
+        Object[] first = row(1);
+        first[column("metadata")] = "{\"amount\": 12.50, \"tags\": [\"a\", \"b\"]}";
+        first[column("changes")] = null;
+        first[column("duration")] = null;
+        Object[] second = row(2);
+
+        String ndjson = write(ExportFormat.NDJSON, first, second).toString(StandardCharsets.UTF_8);
+
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode node = objectMapper.readTree(lines[0]);
+        assertThat(node.get("metadata").isObject()).isTrue();
+        assertThat(node.get("metadata").get("amount").decimalValue()).isEqualByComparingTo("12.50");
+        assertThat(node.get("metadata").get("tags").get(1).asText()).isEqualTo("b");
+        assertThat(node.get("new_value").get("status").asText()).isEqualTo("DRAFT");
+        assertThat(node.get("changes").isNull()).isTrue();
+        assertThat(node.get("duration").isNull()).isTrue();
+        assertThat(node.get("chain_seq").asLong()).isEqualTo(1);
+        assertThat(node.get("timestamp").asText()).isEqualTo(TIMESTAMP.toString());
+        assertThat(objectMapper.readTree(lines[1]).get("chain_seq").asLong()).isEqualTo(2);
+    }
+
+    @Test
+    void arrowStreamRoundTripsAcrossRecordBatches() throws Exception {
+        int count = ArrowAuditRowWriter.BATCH_ROWS + 10;
+        Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            rows[i] = row(i + 1);
+        }
+        rows[count - 1][column("duration")] = null;
+        rows[count - 1][column("description")] = null;
+
+        byte[] stream = write(ExportFormat.ARROW, rows).toByteArray();
+
+        int read = 0;
+        int batches = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getSchema().getFields()).extracting(f -> f.getName())
+                .containsExactlyElementsOf(AuditRowWriter.COLUMNS);
+            while (reader.loadNextBatch()) {
+                batches++;
+                BigIntVector chainSeq = (BigIntVector) root.getVector("chain_seq");
+                BigIntVector duration = (BigIntVector) root.getVector("duration");
+                VarCharVector description = (VarCharVector) root.getVector("description");
+                TimeStampMicroVector timestamp = (TimeStampMicroVector) root.getVector("timestamp");
+                for (int i = 0; i < root.getRowCount(); i++, read++) {
+                    Object[] expected = rows[read];
+                    assertThat(chainSeq.get(i)).isEqualTo(expected[column("chain_seq")]);
+                    assertThat(duration.isNull(i)).isEqualTo(expected[column("duration")] == null);
+                    assertThat(description.getObject(i) == null ? null : description.getObject(i).toString())
+                        .isEqualTo(expected[column("description")]);
+                    assertThat(timestamp.get(i))
+                        .isEqualTo(ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), TIMESTAMP));
+                }
+            }
+        }
+        assertThat(read).isEqualTo(count);
+        assertThat(batches).isEqualTo(2);
+    }
+
+    private static ByteArrayOutputStream write(ExportFormat format, Object[]... rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (AuditRowWriter writer = format.open(out)) {
+            for (Object[] row : rows) {
+                writer.write(resultSet(row));
+            }
+        }
+        return out;
+    }
+}
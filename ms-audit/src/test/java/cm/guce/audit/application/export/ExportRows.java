@@ -0,0 +1,70 @@
+package cm.guce.audit.application.export;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exported audit rows, as read from audit_logs by the export query
+ */
+final class ExportRows {
+
+    static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 3, 11, 9, 30, 15, 123456000);
+
+    private ExportRows() {
+    }
+
+    /**
+     * Row indexed by 0-based column, in the order of AuditRowWriter.COLUMNS
+     */
+    static Object[] row(long chainSeq) {
+        Object[] row = new Object[AuditRowWriter.COLUMNS.size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = AuditRowWriter.COLUMNS.get(i) + "-" + chainSeq;
+        }
+        row[column("old_value")] = null;
+        row[column("new_value")] = "{\"status\": \"DRAFT\"}";
+        row[column("changes")] = "[]";
+        row[column("metadata")] = "{}";
+        row[column("status")] = "SUCCESS";
+        row[column("error_message")] = null;
+        row[column("timestamp")] = TIMESTAMP;
+        row[column("duration")] = 42L;
+        row[column("chain_seq")] = chainSeq;
+        return row;
+    }
+
+    static int column(String name) {
+        return AuditRowWriter.COLUMNS.indexOf(name);
+    }
+
+    /**
+     * ResultSet positioned on the given row, with the JDBC conventions for SQL NULL
+     */
+    static ResultSet resultSet(Object[] row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        boolean[] wasNull = new boolean[1];
+        when(rs.getString(anyInt())).thenAnswer(invocation -> {
+            Object value = row[(int) invocation.getArgument(0) - 1];
+            wasNull[0] = value == null;
+            return value == null ? null : value.toString();
+        });
+        when(rs.getLong(anyInt())).thenAnswer(invocation -> {
+            Object value = row[(int) invocation.getArgument(0) - 1];
+            wasNull[0] = value == null;
+            return value == null ? 0L : (Long) value;
+        });
+        when(rs.getTimestamp(anyInt())).thenAnswer(invocation -> {
+            Object value = row[(int) invocation.getArgument(0) - 1];
+            wasNull[0] = value == null;
+            return value == null ? null : Timestamp.valueOf((LocalDateTime) value);
+        });
+        when(rs.wasNull()).thenAnswer(invocation -> wasNull[0]);
+        return rs;
+    }
+}
@@ -0,0 +1,109 @@
+package cm.guce.audit.config;
+
+import cm.guce.audit.application.AuditEventMapper.AuditEventMappingException;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routing of a failed batch by the error handler: poison events to the dead-letter topic,
+ * anything else back to the consumer for a retry.
+ */
+class AuditKafkaConfigTest {
+
+    private static final String TOPIC = "audit-events";
+    private static final String DEAD_LETTER_TOPIC = "audit-events.DLT";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<Object, Object> deadLetterTemplate = mock(KafkaTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final Consumer<String, Map<String, Object>> consumer = mock(Consumer.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private DefaultErrorHandler errorHandler;
+
+    private final List<ConsumerRecord<String, Map<String, Object>>> records = List.of(
+        new ConsumerRecord<>(TOPIC, 0, 10, null, Map.of("entityId", "a")),
+        new ConsumerRecord<>(TOPIC, 0, 11, null, Map.of("entityId", "poison")),
+        new ConsumerRecord<>(TOPIC, 0, 12, null, Map.of("entityId", "c")));
+
+    @BeforeEach
+    void setUp() {
+        AuditKafkaConfig config = new AuditKafkaConfig();
+        ReflectionTestUtils.setField(config, "deadLetterTopic", DEAD_LETTER_TOPIC);
+        errorHandler = config.errorHandler(deadLetterTemplate);
+        when(deadLetterTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(TOPIC));
+    }
+
+    @Test
+    void unmappableEventGoesToTheDeadLetterTopic() {
+        handle(new AuditEventMappingException("Audit event without entityType or serviceName", null));
+
+        assertThat(deadLettered()).extracting(ProducerRecord::topic, ProducerRecord::value)
+            .containsExactly(DEAD_LETTER_TOPIC, Map.of("entityId", "poison"));
+        verify(consumer).seek(PARTITION, 12);
+    }
+
+    @Test
+    void eventRejectedByTheDatabaseGoesToTheDeadLetterTopic() {
+        handle(new DataIntegrityViolationException("invalid input syntax for type json"));
+        assertThat(deadLettered().value()).isEqualTo(Map.of("entityId", "poison"));
+
+        handle(new IllegalArgumentException("Cannot serialize audit value"));
+        verify(deadLetterTemplate, times(2)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void databaseOutageIsRetriedFromTheFailedEvent() {
+        handle(new DataAccessResourceFailureException("connection refused"));
+
+        verify(deadLetterTemplate, never()).send(any(ProducerRecord.class));
+        verify(consumer).seek(PARTITION, 11);
+    }
+
+    /**
+     * Handles a failure of the second record; the remaining records are always sought back
+     */
+    private void handle(RuntimeException cause) {
+        ConsumerRecords<String, Map<String, Object>> batch = new ConsumerRecords<>(Map.of(PARTITION, records));
+        assertThatThrownBy(() -> errorHandler.handleBatch(new BatchListenerFailedException(cause.getMessage(), cause, 1),
+                batch, consumer, container, () -> { }))
+            .isInstanceOf(KafkaException.class)
+            .hasMessageContaining("Seek to current");
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<Object, Object> deadLettered() {
+        ArgumentCaptor<ProducerRecord<Object, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(deadLetterTemplate).send(sent.capture());
+        return sent.getValue();
+    }
+}
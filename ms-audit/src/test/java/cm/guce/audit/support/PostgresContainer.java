@@ -0,0 +1,47 @@
+package cm.guce.audit.support;
+
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * PostgreSQL container shared by all test classes of the run (started on first use).
+ */
+public final class PostgresContainer {
+
+    private static PostgreSQLContainer<?> container;
+
+    private PostgresContainer() {
+    }
+
+    public static boolean isDockerAvailable() {
+        return DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    private static synchronized PostgreSQLContainer<?> get() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine")
+                .withDatabaseName("guce_audit");
+            container.start();
+        }
+        return container;
+    }
+
+    /**
+     * Points the datasource at the container
+     */
+    public static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            PostgreSQLContainer<?> postgres = get();
+            TestPropertyValues.of(
+                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword()
+            ).applyTo(context);
+        }
+    }
+}
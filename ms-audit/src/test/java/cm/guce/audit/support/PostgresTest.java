@@ -0,0 +1,24 @@
+package cm.guce.audit.support;
+
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JDBC slice on a PostgreSQL container migrated by Liquibase. The audit store relies on
+ * PostgreSQL (partitions, jsonb, ON CONFLICT): these tests are skipped without Docker.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = PostgresContainer.Initializer.class)
+@EnabledIf("cm.guce.audit.support.PostgresContainer#isDockerAvailable")
+public @interface PostgresTest {
+}
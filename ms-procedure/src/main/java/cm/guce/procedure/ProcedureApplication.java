@@ -4,6 +4,7 @@ import io.camunda.zeebe.spring.client.annotation.Deployment;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Application principale du microservice Procédures.
@@ -16,6 +17,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
  */
 @SpringBootApplication(scanBasePackages = {"cm.guce.procedure", "cm.guce.common"})
 @EnableJpaAuditing
+@EnableScheduling
 @Deployment(resources = "classpath*:bpmn/*.bpmn")
 public class ProcedureApplication {
 
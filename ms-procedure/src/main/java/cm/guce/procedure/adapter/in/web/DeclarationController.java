@@ -1,9 +1,12 @@
 package cm.guce.procedure.adapter.in.web;
 
 import cm.guce.common.application.dto.ApiResponse;
+import cm.guce.common.application.dto.CursorPage;
 import cm.guce.common.domain.model.EntityStatus;
 import cm.guce.procedure.application.dto.DeclarationDto;
 import cm.guce.procedure.application.service.DeclarationService;
+import cm.guce.procedure.application.service.DeclarationTaskBatchProcessor;
+import cm.guce.procedure.application.service.DeclarationWorkQueueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -29,6 +32,8 @@ import java.util.UUID;
 public class DeclarationController {
 
     private final DeclarationService declarationService;
+    private final DeclarationTaskBatchProcessor taskBatchProcessor;
+    private final DeclarationWorkQueueService workQueueService;
 
     @GetMapping("/{id}")
     @Operation(summary = "Détail d'une déclaration",
@@ -86,6 +91,54 @@ public class DeclarationController {
         );
     }
 
+    @PostMapping("/search/data")
+    @PreAuthorize("hasAnyRole('AGENT_DOUANE', 'CHEF_BUREAU_DOUANE', 'AGENT_GUCE', 'SUPERVISEUR_GUCE', 'ADMIN_FONCTIONNEL')")
+    @Operation(summary = "Recherche par données de formulaire",
+            description = "Recherche les déclarations d'une procédure par valeurs de champs (chemins dataBinding)")
+    public ApiResponse<List<DeclarationDto.DataMatch>> searchByData(
+            @Valid @RequestBody DeclarationDto.DataSearchRequest request,
+            @PageableDefault(size = 20) Pageable pageable) {
+        Page<DeclarationDto.DataMatch> page = declarationService.searchByData(request, pageable);
+        return ApiResponse.success(
+                page.getContent(),
+                ApiResponse.PaginationInfo.of(page.getNumber(), page.getSize(), page.getTotalElements())
+        );
+    }
+
+    @GetMapping("/operator/{operatorId}/cursor")
+    @Operation(summary = "Déclarations d'un opérateur (curseur)",
+            description = "Récupère les déclarations d'un opérateur par pagination par curseur")
+    public ApiResponse<CursorPage<DeclarationDto.Summary>> findByOperatorCursor(
+            @Parameter(description = "ID de l'opérateur") @PathVariable UUID operatorId,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ApiResponse.success(declarationService.findByOperator(operatorId, cursor, size, includeTotal));
+    }
+
+    @GetMapping("/status/{status}/cursor")
+    @PreAuthorize("hasAnyRole('AGENT_DOUANE', 'CHEF_BUREAU_DOUANE', 'ADMIN_FONCTIONNEL')")
+    @Operation(summary = "Déclarations par statut (curseur)",
+            description = "Récupère les déclarations par statut par pagination par curseur (agents uniquement)")
+    public ApiResponse<CursorPage<DeclarationDto.Summary>> findByStatusCursor(
+            @Parameter(description = "Statut") @PathVariable EntityStatus status,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ApiResponse.success(declarationService.findByStatus(status, cursor, size, includeTotal));
+    }
+
+    @GetMapping("/search/cursor")
+    @Operation(summary = "Recherche de déclarations (curseur)",
+            description = "Recherche de déclarations par référence ou opérateur, pagination par curseur")
+    public ApiResponse<CursorPage<DeclarationDto.Summary>> searchCursor(
+            @Parameter(description = "Terme de recherche") @RequestParam String q,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ApiResponse.success(declarationService.search(q, cursor, size, includeTotal));
+    }
+
     @GetMapping("/statistics")
     @PreAuthorize("hasAnyRole('AGENT_GUCE', 'SUPERVISEUR_GUCE', 'ADMIN_FONCTIONNEL')")
     @Operation(summary = "Statistiques",
@@ -142,4 +195,56 @@ public class DeclarationController {
             @Parameter(description = "Motif de rejet") @RequestParam String reason) {
         return ApiResponse.success(declarationService.reject(id, reason));
     }
+
+    @PostMapping("/batch/approve")
+    @PreAuthorize("hasAnyRole('AGENT_DOUANE', 'CHEF_BUREAU_DOUANE', 'INSPECTEUR_DOUANE')")
+    @Operation(summary = "Approuver un lot de tâches",
+            description = "Approuve jusqu'à 100 déclarations; le résultat est rendu par déclaration")
+    public ApiResponse<DeclarationDto.BatchResult> approveBatch(
+            @Valid @RequestBody DeclarationDto.BatchApproveRequest request) {
+        return ApiResponse.success(taskBatchProcessor.approve(request));
+    }
+
+    @PostMapping("/batch/reject")
+    @PreAuthorize("hasAnyRole('AGENT_DOUANE', 'CHEF_BUREAU_DOUANE', 'INSPECTEUR_DOUANE')")
+    @Operation(summary = "Rejeter un lot de déclarations",
+            description = "Rejette jusqu'à 100 déclarations avec un motif commun; le résultat est rendu par déclaration")
+    public ApiResponse<DeclarationDto.BatchResult> rejectBatch(
+            @Valid @RequestBody DeclarationDto.BatchRejectRequest request) {
+        return ApiResponse.success(taskBatchProcessor.reject(request));
+    }
+
+    @GetMapping("/work-queue/steps/{step}")
+    @PreAuthorize("hasAnyRole('AGENT_DOUANE', 'CHEF_BUREAU_DOUANE', 'INSPECTEUR_DOUANE', 'AGENT_GUCE', 'SUPERVISEUR_GUCE')")
+    @Operation(summary = "Corbeille d'une étape",
+            description = "Déclarations en attente à une étape, urgentes d'abord puis par échéance")
+    public ApiResponse<List<DeclarationDto.WorkItem>> getStepQueue(
+            @Parameter(description = "Code de l'étape") @PathVariable String step,
+            @PageableDefault(size = 20) Pageable pageable) {
+        Page<DeclarationDto.WorkItem> page = workQueueService.getStepQueue(step, pageable);
+        return ApiResponse.success(
+                page.getContent(),
+                ApiResponse.PaginationInfo.of(page.getNumber(), page.getSize(), page.getTotalElements())
+        );
+    }
+
+    @GetMapping("/work-queue/mine")
+    @PreAuthorize("hasAnyRole('AGENT_DOUANE', 'CHEF_BUREAU_DOUANE', 'INSPECTEUR_DOUANE', 'AGENT_GUCE', 'SUPERVISEUR_GUCE')")
+    @Operation(summary = "Ma corbeille",
+            description = "Déclarations en attente assignées à l'agent connecté")
+    public ApiResponse<List<DeclarationDto.WorkItem>> getMyQueue(@PageableDefault(size = 20) Pageable pageable) {
+        Page<DeclarationDto.WorkItem> page = workQueueService.getMyQueue(pageable);
+        return ApiResponse.success(
+                page.getContent(),
+                ApiResponse.PaginationInfo.of(page.getNumber(), page.getSize(), page.getTotalElements())
+        );
+    }
+
+    @GetMapping("/work-queue/counts")
+    @PreAuthorize("hasAnyRole('AGENT_DOUANE', 'CHEF_BUREAU_DOUANE', 'INSPECTEUR_DOUANE', 'AGENT_GUCE', 'SUPERVISEUR_GUCE')")
+    @Operation(summary = "Volumes des corbeilles",
+            description = "Nombre de déclarations en attente par étape (non assignées, urgentes, en retard)")
+    public ApiResponse<List<DeclarationDto.StepCount>> countByStep() {
+        return ApiResponse.success(workQueueService.countByStep());
+    }
 }
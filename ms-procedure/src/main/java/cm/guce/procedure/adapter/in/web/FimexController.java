@@ -1,6 +1,7 @@
 package cm.guce.procedure.adapter.in.web;
 
 import cm.guce.common.application.dto.ApiResponse;
+import cm.guce.common.application.dto.CursorPage;
 import cm.guce.procedure.application.dto.FimexDto;
 import cm.guce.procedure.application.service.FimexService;
 import cm.guce.procedure.domain.model.FimexInscription.FimexStatus;
@@ -14,11 +15,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -111,6 +115,54 @@ public class FimexController {
         return ResponseEntity.ok(ApiResponse.success(info));
     }
 
+    @PostMapping("/verify/batch")
+    @Operation(summary = "Vérifie la validité d'un lot de certificats FIMEX")
+    public ResponseEntity<ApiResponse<List<FimexDto.CertificateInfo>>> verifyCertificates(
+            @Valid @RequestBody FimexDto.BatchVerifyRequest request) {
+        log.debug("REST request to verify {} FIMEX certificates", request.getCertificateNumbers().size());
+        return ResponseEntity.ok(ApiResponse.success(service.verifyCertificates(request.getCertificateNumbers())));
+    }
+
+    // ========================================
+    // LECTURE PAR CURSEUR (KEYSET)
+    // ========================================
+
+    @GetMapping("/niu/{niu}/cursor")
+    @Operation(summary = "Récupère les inscriptions FIMEX d'un opérateur (pagination par curseur)")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OE_DECLARANT', 'OE_ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<FimexDto.Summary>>> getByNiuCursor(
+            @Parameter(description = "NIU de l'opérateur") @PathVariable String niu,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("REST request to get FIMEX inscriptions for NIU {} by cursor", niu);
+        return ResponseEntity.ok(ApiResponse.success(service.findByNiu(niu, cursor, size, includeTotal)));
+    }
+
+    @GetMapping("/status/{status}/cursor")
+    @Operation(summary = "Récupère les inscriptions FIMEX par statut (pagination par curseur)")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GOV_AGENT', 'GOV_SUPERVISOR')")
+    public ResponseEntity<ApiResponse<CursorPage<FimexDto.Summary>>> getByStatusCursor(
+            @Parameter(description = "Statut de l'inscription") @PathVariable FimexStatus status,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("REST request to get FIMEX inscriptions by status {} by cursor", status);
+        return ResponseEntity.ok(ApiResponse.success(service.findByStatus(status, cursor, size, includeTotal)));
+    }
+
+    @GetMapping("/search/cursor")
+    @Operation(summary = "Recherche d'inscriptions FIMEX (pagination par curseur)")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OE_DECLARANT', 'GOV_AGENT', 'GOV_SUPERVISOR')")
+    public ResponseEntity<ApiResponse<CursorPage<FimexDto.Summary>>> searchCursor(
+            @Parameter(description = "Terme de recherche") @RequestParam String query,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("REST request to search FIMEX inscriptions by cursor: {}", query);
+        return ResponseEntity.ok(ApiResponse.success(service.search(query, cursor, size, includeTotal)));
+    }
+
     // ========================================
     // CRÉATION ET MISE À JOUR
     // ========================================
@@ -251,4 +303,27 @@ public class FimexController {
         FimexDto.Statistics stats = service.getStatistics();
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
+
+    @GetMapping("/statistics/trends")
+    @Operation(summary = "Tendances des signatures, rejets et expirations FIMEX par période")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GOV_SUPERVISOR')")
+    public ResponseEntity<ApiResponse<List<FimexDto.TrendPoint>>> getTrends(
+            @Parameter(description = "Date de début (incluse)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Date de fin (incluse)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Granularité: DAY, WEEK ou MONTH")
+            @RequestParam(defaultValue = "DAY") FimexDto.TrendGranularity granularity) {
+        log.debug("REST request to get FIMEX trends from {} to {} by {}", from, to, granularity);
+        return ResponseEntity.ok(ApiResponse.success(service.getTrends(from, to, granularity)));
+    }
+
+    @PostMapping("/statistics/rebuild")
+    @Operation(summary = "Reconstruit les statistiques FIMEX à partir des inscriptions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<FimexDto.Statistics>> rebuildStatistics() {
+        log.info("REST request to rebuild FIMEX statistics");
+        FimexDto.Statistics stats = service.rebuildStatistics();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
 }
@@ -1,6 +1,7 @@
 package cm.guce.procedure.adapter.in.web;
 
 import cm.guce.common.application.dto.ApiResponse;
+import cm.guce.common.application.dto.CursorPage;
 import cm.guce.procedure.application.dto.ImportDeclarationDto;
 import cm.guce.procedure.application.service.ImportDeclarationService;
 import cm.guce.procedure.domain.model.ImportDeclaration.ImportDeclarationStatus;
@@ -21,6 +22,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -113,6 +115,70 @@ public class ImportDeclarationController {
         return ResponseEntity.ok(ApiResponse.success(page));
     }
 
+    // ========================================
+    // LECTURE PAR CURSEUR (KEYSET)
+    // ========================================
+
+    @GetMapping("/importer/{niu}/cursor")
+    @Operation(summary = "Récupère les DI d'un importateur (pagination par curseur)")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OE_DECLARANT', 'OE_ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<ImportDeclarationDto.Summary>>> getByImporterCursor(
+            @Parameter(description = "NIU de l'importateur") @PathVariable String niu,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("REST request to get ImportDeclarations for importer {} by cursor", niu);
+        return ResponseEntity.ok(ApiResponse.success(service.findByImporter(niu, cursor, size, includeTotal)));
+    }
+
+    @GetMapping("/status/{status}/cursor")
+    @Operation(summary = "Récupère les DI par statut (pagination par curseur)")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GOV_AGENT', 'GOV_SUPERVISOR')")
+    public ResponseEntity<ApiResponse<CursorPage<ImportDeclarationDto.Summary>>> getByStatusCursor(
+            @Parameter(description = "Statut de la DI") @PathVariable ImportDeclarationStatus status,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("REST request to get ImportDeclarations by status {} by cursor", status);
+        return ResponseEntity.ok(ApiResponse.success(service.findByStatus(status, cursor, size, includeTotal)));
+    }
+
+    @GetMapping("/sgs/cursor")
+    @Operation(summary = "Récupère les DI routées vers SGS (pagination par curseur)")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GOV_AGENT', 'GOV_SUPERVISOR')")
+    public ResponseEntity<ApiResponse<CursorPage<ImportDeclarationDto.Summary>>> getSgsDeclarationsCursor(
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("REST request to get SGS ImportDeclarations by cursor");
+        return ResponseEntity.ok(ApiResponse.success(
+                service.findByRouting(RoutingDestination.SGS, cursor, size, includeTotal)));
+    }
+
+    @GetMapping("/customs/cursor")
+    @Operation(summary = "Récupère les DI routées vers la Douane (pagination par curseur)")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GOV_AGENT', 'GOV_SUPERVISOR')")
+    public ResponseEntity<ApiResponse<CursorPage<ImportDeclarationDto.Summary>>> getCustomsDeclarationsCursor(
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("REST request to get Customs ImportDeclarations by cursor");
+        return ResponseEntity.ok(ApiResponse.success(
+                service.findByRouting(RoutingDestination.CUSTOMS, cursor, size, includeTotal)));
+    }
+
+    @GetMapping("/search/cursor")
+    @Operation(summary = "Recherche de DI (pagination par curseur)")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OE_DECLARANT', 'GOV_AGENT', 'GOV_SUPERVISOR')")
+    public ResponseEntity<ApiResponse<CursorPage<ImportDeclarationDto.Summary>>> searchCursor(
+            @Parameter(description = "Terme de recherche") @RequestParam String query,
+            @Parameter(description = "Curseur de la page suivante") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Inclure le total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("REST request to search ImportDeclarations by cursor: {}", query);
+        return ResponseEntity.ok(ApiResponse.success(service.search(query, cursor, size, includeTotal)));
+    }
+
     // ========================================
     // CRÉATION ET MISE À JOUR
     // ========================================
@@ -128,6 +194,18 @@ public class ImportDeclarationController {
                 "Déclaration d'importation créée avec succès. Référence: " + response.getReference()));
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Crée un lot de DI (brouillons)",
+            description = "Valide chaque DI individuellement et retourne un rapport ligne par ligne")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OE_DECLARANT')")
+    public ResponseEntity<ApiResponse<ImportDeclarationDto.BulkCreateResult>> createBulk(
+            @RequestBody List<ImportDeclarationDto.CreateRequest> requests) {
+        log.info("REST request to bulk create {} ImportDeclarations", requests.size());
+        ImportDeclarationDto.BulkCreateResult result = service.createBulk(requests);
+        return ResponseEntity.ok(ApiResponse.success(result, String.format(
+                "%d déclaration(s) créée(s), %d rejetée(s)", result.getCreated(), result.getFailed())));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Met à jour une DI (brouillon uniquement)")
     @PreAuthorize("hasAnyRole('ADMIN', 'OE_DECLARANT')")
@@ -277,6 +355,33 @@ public class ImportDeclarationController {
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
+    @GetMapping("/routing-rules")
+    @Operation(summary = "Récupère les règles de routage et de frais en vigueur")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GOV_SUPERVISOR')")
+    public ResponseEntity<ApiResponse<ImportDeclarationDto.RoutingRules>> getRoutingRules() {
+        log.debug("REST request to get ImportDeclaration routing rules");
+        return ResponseEntity.ok(ApiResponse.success(service.getRoutingRules()));
+    }
+
+    @PutMapping("/routing-rules")
+    @Operation(summary = "Remplace et persiste les règles de routage et de frais du tenant")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ImportDeclarationDto.RoutingRules>> updateRoutingRules(
+            @Valid @RequestBody ImportDeclarationDto.RoutingRules rules) {
+        log.info("REST request to update ImportDeclaration routing rules");
+        return ResponseEntity.ok(ApiResponse.success(service.updateRoutingRules(rules),
+                "Règles de routage mises à jour"));
+    }
+
+    @PostMapping("/routing-rules/reload")
+    @Operation(summary = "Recharge les règles de routage et de frais depuis la configuration et la base")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ImportDeclarationDto.RoutingRules>> reloadRoutingRules() {
+        log.info("REST request to reload ImportDeclaration routing rules");
+        return ResponseEntity.ok(ApiResponse.success(service.reloadRoutingRules(),
+                "Règles de routage rechargées"));
+    }
+
     // ========================================
     // STATISTIQUES
     // ========================================
@@ -289,4 +394,13 @@ public class ImportDeclarationController {
         ImportDeclarationDto.Statistics stats = service.getStatistics();
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
+
+    @PostMapping("/statistics/rebuild")
+    @Operation(summary = "Reconstruit les compteurs statistiques des DI à partir des déclarations")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ImportDeclarationDto.Statistics>> rebuildStatistics() {
+        log.info("REST request to rebuild ImportDeclaration statistics counters");
+        ImportDeclarationDto.Statistics stats = service.rebuildStatistics();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
 }
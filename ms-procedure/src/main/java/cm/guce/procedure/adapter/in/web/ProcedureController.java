@@ -2,6 +2,7 @@ package cm.guce.procedure.adapter.in.web;
 
 import cm.guce.common.application.dto.ApiResponse;
 import cm.guce.procedure.application.dto.ProcedureDto;
+import cm.guce.procedure.application.service.ProcedureCatalog;
 import cm.guce.procedure.application.service.ProcedureService;
 import cm.guce.procedure.domain.model.Procedure;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,7 +13,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -32,18 +36,20 @@ public class ProcedureController {
 
     @GetMapping
     @Operation(summary = "Liste des procédures publiées",
-            description = "Récupère la liste des procédures publiées et actives")
-    public ApiResponse<List<ProcedureDto.Summary>> findPublished() {
-        return ApiResponse.success(procedureService.findPublished());
+            description = "Récupère la liste des procédures publiées et actives (ETag, 304 si inchangée)")
+    public ResponseEntity<ApiResponse<List<ProcedureDto.Summary>>> findPublished(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogResponse(procedureService.getCatalog().all(), ifNoneMatch);
     }
 
     @GetMapping("/category/{category}")
     @Operation(summary = "Procédures par catégorie",
-            description = "Récupère les procédures publiées d'une catégorie")
-    public ApiResponse<List<ProcedureDto.Summary>> findByCategory(
+            description = "Récupère les procédures publiées d'une catégorie (ETag, 304 si inchangée)")
+    public ResponseEntity<ApiResponse<List<ProcedureDto.Summary>>> findByCategory(
             @Parameter(description = "Catégorie (IMPORT, EXPORT, TRANSIT, etc.)")
-            @PathVariable Procedure.ProcedureCategory category) {
-        return ApiResponse.success(procedureService.findPublishedByCategory(category));
+            @PathVariable Procedure.ProcedureCategory category,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogResponse(procedureService.getCatalog().category(category), ifNoneMatch);
     }
 
     @GetMapping("/{id}")
@@ -122,4 +128,44 @@ public class ProcedureController {
             @Parameter(description = "ID de la procédure") @PathVariable UUID id) {
         procedureService.archive(id);
     }
+
+    /**
+     * Réponse du catalogue: 304 sans corps si le client détient déjà cette version.
+     * Les clients doivent revalider à chaque utilisation (no-cache).
+     */
+    private static ResponseEntity<ApiResponse<List<ProcedureDto.Summary>>> catalogResponse(
+            ProcedureCatalog.Entry entry, String ifNoneMatch) {
+        if (matches(ifNoneMatch, entry.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(entry.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(entry.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(entry.response());
+    }
+
+    /**
+     * Comparaison faible de If-None-Match (RFC 9110): le préfixe W/ est ignoré.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -2,13 +2,19 @@ package cm.guce.procedure.application.dto;
 
 import cm.guce.common.application.dto.BaseDto;
 import cm.guce.common.domain.model.EntityStatus;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -33,7 +39,14 @@ public class DeclarationDto {
         private String currentStep;
         private String currentStepName;
         private String processInstanceId;
-        private Map<String, Object> data;
+
+        /**
+         * Données du formulaire, restituées telles que stockées (sans analyse JSON).
+         */
+        @JsonRawValue
+        @Schema(type = "object")
+        private String data;
+
         private LocalDateTime submittedAt;
         private LocalDateTime completedAt;
         private LocalDateTime expectedCompletionDate;
@@ -118,6 +131,121 @@ public class DeclarationDto {
         private Map<String, Object> variables;
     }
 
+    @Data
+    public static class BatchTask {
+        @NotNull(message = "L'ID de la déclaration est obligatoire")
+        private UUID declarationId;
+
+        /**
+         * Clé de la tâche Zeebe à compléter (obligatoire pour une approbation).
+         */
+        private String taskId;
+    }
+
+    @Data
+    public static class BatchApproveRequest {
+        @NotEmpty(message = "Au moins une tâche est obligatoire")
+        @Size(max = 100, message = "Un lot ne peut dépasser 100 tâches")
+        private List<@Valid BatchTask> tasks;
+
+        private String comment;
+    }
+
+    @Data
+    public static class BatchRejectRequest {
+        @NotEmpty(message = "Au moins une tâche est obligatoire")
+        @Size(max = 100, message = "Un lot ne peut dépasser 100 tâches")
+        private List<@Valid BatchTask> tasks;
+
+        @NotBlank(message = "Le motif de rejet est obligatoire")
+        private String reason;
+    }
+
+    @Data
+    public static class BatchOutcome {
+        private UUID declarationId;
+        private String reference;
+        private boolean success;
+        private EntityStatus status;
+        private String error;
+
+        public static BatchOutcome success(UUID declarationId, String reference, EntityStatus status) {
+            BatchOutcome outcome = new BatchOutcome();
+            outcome.setDeclarationId(declarationId);
+            outcome.setReference(reference);
+            outcome.setSuccess(true);
+            outcome.setStatus(status);
+            return outcome;
+        }
+
+        public static BatchOutcome failure(UUID declarationId, String reference, String error) {
+            BatchOutcome outcome = new BatchOutcome();
+            outcome.setDeclarationId(declarationId);
+            outcome.setReference(reference);
+            outcome.setError(error);
+            return outcome;
+        }
+    }
+
+    @Data
+    public static class BatchResult {
+        private int succeeded;
+        private int failed;
+        private List<BatchOutcome> outcomes;
+    }
+
+    @Data
+    public static class DataSearchRequest {
+        @NotBlank(message = "Le code de procédure est obligatoire")
+        private String procedureCode;
+
+        /**
+         * Critères chemin (FormField.dataBinding) -> valeur attendue.
+         */
+        @NotEmpty(message = "Au moins un critère est obligatoire")
+        private Map<String, Object> criteria;
+
+        /**
+         * Chemins à restituer pour chaque déclaration trouvée.
+         */
+        private List<String> fields;
+    }
+
+    @Data
+    public static class DataMatch {
+        private Summary declaration;
+        private Map<String, Object> fields;
+    }
+
+    @Data
+    public static class WorkItem {
+        private UUID declarationId;
+        private String reference;
+        private String procedureCode;
+        private String operatorName;
+        private String currentStep;
+        private String currentStepName;
+        private EntityStatus status;
+        private String statusLabel;
+        private String assignedTo;
+        private boolean urgent;
+        private int priority;
+        private LocalDateTime submittedAt;
+        private LocalDateTime stepEnteredAt;
+        private LocalDateTime dueAt;
+        private boolean overdue;
+    }
+
+    @Data
+    public static class StepCount {
+        private String step;
+        private String stepName;
+        private long total;
+        private long unassigned;
+        private long urgent;
+        private long overdue;
+    }
+
     @Data
     public static class Statistics {
         private long totalDraft;
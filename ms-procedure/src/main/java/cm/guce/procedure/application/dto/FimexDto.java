@@ -320,9 +320,31 @@ public class FimexDto {
         private long count;
     }
 
+    public enum TrendGranularity {
+        DAY,
+        WEEK,
+        MONTH
+    }
+
+    @Data
+    public static class TrendPoint {
+        private LocalDate periodStart;
+        private long signed;
+        private long rejected;
+        private long expired;
+    }
+
+    @Data
+    public static class BatchVerifyRequest {
+        @NotEmpty(message = "Au moins un numéro de certificat est requis")
+        @Size(max = 500, message = "500 certificats au maximum par requête")
+        private List<@NotBlank String> certificateNumbers;
+    }
+
     @Data
     public static class CertificateInfo {
         private String certificateNumber;
+        private boolean found;
         private String companyName;
         private String niu;
         private LocalDate issueDate;
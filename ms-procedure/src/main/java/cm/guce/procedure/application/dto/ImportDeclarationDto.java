@@ -424,6 +424,28 @@ public class ImportDeclarationDto {
         private String observations;
     }
 
+    // ========================================
+    // CRÉATION EN MASSE
+    // ========================================
+
+    @Data
+    public static class BulkCreateResult {
+        private int total;
+        private int created;
+        private int failed;
+        private List<BulkRowResult> rows;
+    }
+
+    @Data
+    public static class BulkRowResult {
+        private int index;
+        private boolean success;
+        private UUID id;
+        private String reference;
+        private RoutingDestination routingDestination;
+        private List<String> errors;
+    }
+
     // ========================================
     // STATISTICS
     // ========================================
@@ -481,6 +503,25 @@ public class ImportDeclarationDto {
         private boolean hasSpecialMerchandise;
     }
 
+    /**
+     * Paramètres des règles de routage et de frais; une valeur absente reprend celle par défaut.
+     */
+    @Data
+    public static class RoutingRules {
+        @PositiveOrZero
+        private BigDecimal sgsThreshold;
+        @PositiveOrZero
+        private BigDecimal bankPaymentThreshold;
+        @PositiveOrZero
+        private BigDecimal sgsRate;
+        @PositiveOrZero
+        private BigDecimal sgsMinimumFee;
+        @PositiveOrZero
+        private BigDecimal customsInspectionFee;
+        @PositiveOrZero
+        private BigDecimal fiscalStamp;
+    }
+
     @Data
     public static class FeeCalculation {
         private BigDecimal totalFobValueXaf;
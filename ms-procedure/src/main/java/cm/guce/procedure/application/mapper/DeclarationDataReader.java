@@ -0,0 +1,137 @@
+package cm.guce.procedure.application.mapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Lecture des données de formulaire des déclarations par chemin de champ
+ * (FormField.dataBinding, segments séparés par des points).
+ *
+ * La lecture est faite en flux (JsonParser): seuls les sous-objets menant à un chemin
+ * demandé sont parcourus, les autres branches sont sautées sans construire d'arbre, et
+ * la lecture s'arrête dès que tous les chemins ont été trouvés.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeclarationDataReader {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Extrait les valeurs des chemins donnés. Les chemins absents du document sont
+     * absents de la map.
+     */
+    public Map<String, Object> read(String json, Collection<String> paths) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (json == null || json.isBlank() || paths == null || paths.isEmpty()) {
+            return values;
+        }
+        PathNode root = PathNode.of(paths);
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                readObject(parser, root, values, root.leafCount);
+            }
+        } catch (IOException e) {
+            log.warn("Unreadable declaration data: {}", e.getMessage());
+        }
+        return values;
+    }
+
+    /**
+     * Lit l'ensemble des données dans une map modifiable (évaluation complète à la
+     * soumission).
+     */
+    public Map<String, Object> readAll(String json) {
+        if (json == null || json.isBlank()) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable declaration data: {}", e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Construit le document de containment jsonb ({"a":{"b":valeur}}) correspondant
+     * aux critères chemin -> valeur.
+     */
+    public String toContainment(Map<String, Object> criteria) {
+        ObjectNode root = objectMapper.createObjectNode();
+        criteria.forEach((path, value) -> {
+            String[] segments = path.split("\\.");
+            ObjectNode node = root;
+            for (int i = 0; i < segments.length - 1; i++) {
+                node = node.has(segments[i]) && node.get(segments[i]).isObject()
+                        ? (ObjectNode) node.get(segments[i])
+                        : node.putObject(segments[i]);
+            }
+            node.set(segments[segments.length - 1], objectMapper.valueToTree(value));
+        });
+        try {
+            return objectMapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Critères de recherche non sérialisables", e);
+        }
+    }
+
+    private boolean readObject(JsonParser parser, PathNode node, Map<String, Object> values,
+                               int expected) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            PathNode child = node.children.get(parser.currentName());
+            JsonToken token = parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+            } else if (child.path != null) {
+                values.put(child.path, objectMapper.readValue(parser, Object.class));
+            } else if (token == JsonToken.START_OBJECT) {
+                if (readObject(parser, child, values, expected)) {
+                    return true;
+                }
+            } else {
+                parser.skipChildren();
+            }
+            if (values.size() == expected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Arbre des segments demandés; path est renseigné sur les feuilles.
+     */
+    private static final class PathNode {
+
+        private final Map<String, PathNode> children = new HashMap<>();
+        private String path;
+        private int leafCount;
+
+        static PathNode of(Collection<String> paths) {
+            PathNode root = new PathNode();
+            for (String path : new LinkedHashSet<>(paths)) {
+                PathNode node = root;
+                for (String segment : path.split("\\.")) {
+                    node = node.children.computeIfAbsent(segment, s -> new PathNode());
+                }
+                if (node.path == null) {
+                    node.path = path;
+                    root.leafCount++;
+                }
+            }
+            return root;
+        }
+    }
+}
@@ -2,8 +2,9 @@ package cm.guce.procedure.application.mapper;
 
 import cm.guce.procedure.application.dto.DeclarationDto;
 import cm.guce.procedure.domain.model.Declaration;
+import cm.guce.procedure.domain.model.DeclarationWorkItem;
+import cm.guce.procedure.domain.model.WorkQueueStepCount;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.mapstruct.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,7 +23,7 @@ public abstract class DeclarationMapper {
 
     @Mapping(target = "procedureName", source = "procedure.nameFr")
     @Mapping(target = "statusLabel", expression = "java(declaration.getStatus().getLabel())")
-    @Mapping(target = "data", expression = "java(jsonToMap(declaration.getDataJson()))")
+    @Mapping(target = "data", source = "dataJson")
     public abstract DeclarationDto.Response toResponse(Declaration declaration);
 
     @Mapping(target = "procedureName", source = "procedure.nameFr")
@@ -31,6 +32,13 @@ public abstract class DeclarationMapper {
 
     public abstract List<DeclarationDto.Summary> toSummaryList(List<Declaration> declarations);
 
+    @Mapping(target = "statusLabel", expression = "java(item.getStatus().getLabel())")
+    @Mapping(target = "overdue",
+            expression = "java(item.getDueAt() != null && item.getDueAt().isBefore(java.time.LocalDateTime.now()))")
+    public abstract DeclarationDto.WorkItem toWorkItem(DeclarationWorkItem item);
+
+    public abstract DeclarationDto.StepCount toStepCount(WorkQueueStepCount count);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "reference", ignore = true)
     @Mapping(target = "procedure", ignore = true)
@@ -101,18 +109,7 @@ public abstract class DeclarationMapper {
     @Mapping(target = "dataJson", expression = "java(mapToJson(request.getData()))")
     public abstract void updateEntity(DeclarationDto.UpdateRequest request, @MappingTarget Declaration declaration);
 
-    protected Map<String, Object> jsonToMap(String json) {
-        if (json == null || json.isBlank()) {
-            return null;
-        }
-        try {
-            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
-        } catch (JsonProcessingException e) {
-            return null;
-        }
-    }
-
-    protected String mapToJson(Map<String, Object> map) {
+    public String mapToJson(Map<String, Object> map) {
         if (map == null || map.isEmpty()) {
             return null;
         }
@@ -22,6 +22,8 @@ public interface ProcedureMapper {
 
     List<ProcedureDto.Summary> toSummaryList(List<Procedure> procedures);
 
+    ProcedureDto.Summary toCatalogSummary(ProcedureCatalogEntry entry);
+
     @Mapping(target = "stepType", expression = "java(step.getStepType().name())")
     ProcedureDto.StepSummary toStepSummary(ProcedureStep step);
 
@@ -0,0 +1,89 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.domain.form.CompiledForm;
+import cm.guce.procedure.domain.model.Procedure;
+import cm.guce.procedure.domain.port.ProcedureRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Cache des formulaires compilés, par version de procédure (identifiant de la ligne
+ * Procedure).
+ *
+ * Le formulaire est compilé au premier accès (une requête) puis servi sans accès à la
+ * base. Les entrées sont invalidées après publication, archivage et création de
+ * version; la durée de vie bornée couvre les modifications faites hors de ce service.
+ */
+@Slf4j
+@Component
+public class CompiledFormCache {
+
+    private static final String CACHE_NAME = "compiledForms";
+
+    private final ProcedureRepository procedureRepository;
+    private final Cache<UUID, CompiledForm> cache;
+
+    public CompiledFormCache(ProcedureRepository procedureRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${guce.procedure.forms.cache.max-size:1000}") long maxSize,
+                             @Value("${guce.procedure.forms.cache.ttl-minutes:60}") long ttlMinutes) {
+        this.procedureRepository = procedureRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Retourne le formulaire compilé de la version de procédure.
+     */
+    public CompiledForm get(Procedure procedure) {
+        return cache.get(procedure.getId(), id -> compile(procedure));
+    }
+
+    /**
+     * Compile le formulaire sans passer par le cache (contrôle avant publication).
+     */
+    public CompiledForm compile(Procedure procedure) {
+        CompiledForm form = CompiledForm.compile(procedure,
+                procedureRepository.findSubmissionFormFields(procedure.getId()));
+        if (!form.getCompilationErrors().isEmpty()) {
+            log.warn("Form of procedure {} v{} compiled with {} error(s)",
+                    procedure.getCode(), procedure.getVersionNumber(), form.getCompilationErrors().size());
+        }
+        return form;
+    }
+
+    /**
+     * Invalide les versions données après validation de la transaction courante, ou
+     * immédiatement hors transaction.
+     */
+    public void evictAfterCommit(UUID... procedureIds) {
+        List<UUID> ids = Arrays.stream(procedureIds).filter(Objects::nonNull).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(ids);
+                }
+            });
+        } else {
+            cache.invalidateAll(ids);
+        }
+    }
+}
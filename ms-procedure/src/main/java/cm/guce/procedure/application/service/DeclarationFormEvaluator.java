@@ -0,0 +1,80 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.domain.exception.ValidationException;
+import cm.guce.common.domain.exception.ValidationException.FieldError;
+import cm.guce.procedure.domain.form.CompiledForm;
+import cm.guce.procedure.domain.form.FormEvaluation;
+import cm.guce.procedure.domain.model.Procedure;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Évaluation côté serveur des formulaires de déclaration: formules de calcul et
+ * conditions de visibilité compilées (CompiledFormCache), puis validation.
+ *
+ * À la soumission, les champs calculés sont recalculés et remplacent les valeurs
+ * saisies; les champs masqués ne sont pas contrôlés. La durée d'évaluation est exposée
+ * (guce.procedure.form.evaluation, p50/p99) par phase.
+ */
+@Component
+public class DeclarationFormEvaluator {
+
+    private static final String METRIC_NAME = "guce.procedure.form.evaluation";
+
+    private final CompiledFormCache compiledFormCache;
+    private final Timer draftTimer;
+    private final Timer submitTimer;
+
+    public DeclarationFormEvaluator(CompiledFormCache compiledFormCache, MeterRegistry meterRegistry) {
+        this.compiledFormCache = compiledFormCache;
+        this.draftTimer = evaluationTimer(meterRegistry, "draft");
+        this.submitTimer = evaluationTimer(meterRegistry, "submit");
+    }
+
+    /**
+     * Contrôle les formats des données d'un brouillon.
+     */
+    public void validateDraft(Procedure procedure, Map<String, Object> data) {
+        CompiledForm form = compiledFormCache.get(procedure);
+        List<FieldError> errors = draftTimer.record(() -> form.validate(data, false));
+        throwIfInvalid(errors);
+    }
+
+    /**
+     * Prépare les données d'une soumission: recalcul des champs calculés (reportés dans
+     * data, qui doit être modifiable) et validation complète.
+     *
+     * @return true si des valeurs calculées ont été reportées
+     */
+    public boolean prepareSubmission(Procedure procedure, Map<String, Object> data) {
+        CompiledForm form = compiledFormCache.get(procedure);
+        FormEvaluation evaluation = submitTimer.record(() -> {
+            FormEvaluation result = form.evaluate(data);
+            throwIfInvalid(form.validate(data, result, true));
+            return result;
+        });
+        if (evaluation.getCalculated().isEmpty()) {
+            return false;
+        }
+        form.applyCalculations(data, evaluation);
+        return true;
+    }
+
+    private static void throwIfInvalid(List<FieldError> errors) {
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Données du formulaire invalides", errors);
+        }
+    }
+
+    private static Timer evaluationTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder(METRIC_NAME)
+                .description("Durée d'évaluation des formulaires de déclaration")
+                .tag("phase", phase)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
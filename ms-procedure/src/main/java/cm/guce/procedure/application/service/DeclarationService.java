@@ -1,28 +1,37 @@
 package cm.guce.procedure.application.service;
 
+import cm.guce.common.application.dto.CursorPage;
 import cm.guce.common.domain.exception.BusinessRuleException;
 import cm.guce.common.domain.exception.ResourceNotFoundException;
+import cm.guce.common.domain.exception.ValidationException;
 import cm.guce.common.domain.model.EntityStatus;
+import cm.guce.common.reference.ReferenceGenerator;
 import cm.guce.common.security.SecurityUtils;
 import cm.guce.common.util.StringUtils;
 import cm.guce.procedure.application.dto.DeclarationDto;
+import cm.guce.procedure.application.mapper.DeclarationDataReader;
 import cm.guce.procedure.application.mapper.DeclarationMapper;
 import cm.guce.procedure.domain.model.Declaration;
 import cm.guce.procedure.domain.model.Procedure;
+import cm.guce.procedure.domain.model.ProcessStartOutbox.AggregateType;
 import cm.guce.procedure.domain.port.DeclarationRepository;
 import cm.guce.procedure.domain.port.ProcedureRepository;
-import io.camunda.zeebe.client.ZeebeClient;
-import io.camunda.zeebe.client.api.response.ProcessInstanceEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -37,7 +46,11 @@ public class DeclarationService {
     private final DeclarationRepository declarationRepository;
     private final ProcedureRepository procedureRepository;
     private final DeclarationMapper declarationMapper;
-    private final ZeebeClient zeebeClient;
+    private final DeclarationDataReader dataReader;
+    private final DeclarationFormEvaluator formEvaluator;
+    private final ProcessStartOutboxService outboxService;
+    private final DeclarationWorkQueueService workQueueService;
+    private final ReferenceGenerator referenceGenerator;
 
     /**
      * Récupère une déclaration par son ID.
@@ -82,10 +95,77 @@ public class DeclarationService {
      */
     public Page<DeclarationDto.Summary> search(String query, Pageable pageable) {
         log.debug("Searching declarations with query: {}", query);
-        return declarationRepository.search(query, pageable)
+        // Tri par pertinence imposé par la requête plein texte
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return declarationRepository.search(StringUtils.toSearchTerm(query), unsorted)
                 .map(declarationMapper::toSummary);
     }
 
+    /**
+     * Recherche les déclarations d'une procédure par valeurs de champs de formulaire.
+     * Les chemins doivent être déclarés dans les dataBinding de ses formulaires actifs;
+     * les champs demandés sont extraits en flux des données de chaque déclaration.
+     */
+    public Page<DeclarationDto.DataMatch> searchByData(DeclarationDto.DataSearchRequest request, Pageable pageable) {
+        log.debug("Searching declarations of procedure {} by form data", request.getProcedureCode());
+
+        List<String> fields = request.getFields() != null ? request.getFields() : List.of();
+        validateDataPaths(request.getProcedureCode(), request.getCriteria().keySet(), fields);
+
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return declarationRepository.findByDataContaining(request.getProcedureCode(),
+                        dataReader.toContainment(request.getCriteria()), unsorted)
+                .map(declaration -> {
+                    DeclarationDto.DataMatch match = new DeclarationDto.DataMatch();
+                    match.setDeclaration(declarationMapper.toSummary(declaration));
+                    match.setFields(dataReader.read(declaration.getDataJson(), fields));
+                    return match;
+                });
+    }
+
+    /**
+     * Récupère les déclarations d'un opérateur, page par curseur (keyset).
+     */
+    public CursorPage<DeclarationDto.Summary> findByOperator(UUID operatorId, String cursor,
+                                                             Integer size, boolean includeTotal) {
+        log.debug("Fetching declarations for operator {} after cursor", operatorId);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<Declaration> rows = declarationRepository.findByOperatorIdAfter(
+                operatorId, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, declarationMapper::toSummary,
+                includeTotal ? declarationRepository.countByOperatorId(operatorId) : null);
+    }
+
+    /**
+     * Récupère les déclarations par statut, page par curseur (keyset).
+     */
+    public CursorPage<DeclarationDto.Summary> findByStatus(EntityStatus status, String cursor,
+                                                           Integer size, boolean includeTotal) {
+        log.debug("Fetching declarations with status {} after cursor", status);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<Declaration> rows = declarationRepository.findByStatusAfter(
+                status, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, declarationMapper::toSummary,
+                includeTotal ? declarationRepository.countByStatus(status) : null);
+    }
+
+    /**
+     * Recherche de déclarations, page par curseur (ordre chronologique décroissant).
+     */
+    public CursorPage<DeclarationDto.Summary> search(String query, String cursor,
+                                                     Integer size, boolean includeTotal) {
+        log.debug("Searching declarations with query {} after cursor", query);
+        String term = StringUtils.toSearchTerm(query);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<Declaration> rows = declarationRepository.searchAfter(
+                term, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, declarationMapper::toSummary,
+                includeTotal ? declarationRepository.countSearch(term) : null);
+    }
+
     /**
      * Crée une nouvelle déclaration (brouillon).
      */
@@ -100,6 +180,8 @@ public class DeclarationService {
             throw new BusinessRuleException("La procédure n'est pas publiée");
         }
 
+        formEvaluator.validateDraft(procedure, request.getData());
+
         Declaration declaration = declarationMapper.toEntity(request);
         declaration.setReference(generateReference(procedure.getCode()));
         declaration.setProcedure(procedure);
@@ -132,6 +214,10 @@ public class DeclarationService {
             throw new BusinessRuleException("Seuls les brouillons peuvent être modifiés");
         }
 
+        if (request.getData() != null) {
+            formEvaluator.validateDraft(declaration.getProcedure(), request.getData());
+        }
+
         declarationMapper.updateEntity(request, declaration);
         declaration = declarationRepository.save(declaration);
 
@@ -154,18 +240,12 @@ public class DeclarationService {
         }
 
         Procedure procedure = declaration.getProcedure();
+        // Champs calculés recalculés côté serveur, puis validation complète
+        Map<String, Object> data = dataReader.readAll(declaration.getDataJson());
+        if (formEvaluator.prepareSubmission(procedure, data)) {
+            declaration.setDataJson(declarationMapper.mapToJson(data));
+        }
 
-        // Démarrer le processus Camunda
-        Map<String, Object> variables = buildProcessVariables(declaration);
-
-        ProcessInstanceEvent processInstance = zeebeClient.newCreateInstanceCommand()
-                .bpmnProcessId(procedure.getBpmnProcessId())
-                .latestVersion()
-                .variables(variables)
-                .send()
-                .join();
-
-        declaration.setProcessInstanceId(String.valueOf(processInstance.getProcessInstanceKey()));
         declaration.submit();
 
         // Définir la première étape
@@ -175,8 +255,13 @@ public class DeclarationService {
         }
 
         declaration = declarationRepository.save(declaration);
-        log.info("Declaration submitted: {} - Process Instance: {}",
-                declaration.getReference(), declaration.getProcessInstanceId());
+        workQueueService.record(declaration);
+
+        // Démarrer le processus Camunda (via l'outbox, après validation de la transaction)
+        outboxService.enqueue(AggregateType.DECLARATION, declaration.getId(), declaration.getTenantId(),
+                procedure.getBpmnProcessId(), buildProcessVariables(declaration));
+        log.info("Declaration submitted: {} - Process: {}",
+                declaration.getReference(), procedure.getBpmnProcessId());
 
         return declarationMapper.toResponse(declaration);
     }
@@ -218,11 +303,80 @@ public class DeclarationService {
 
         declaration.reject(reason);
         declaration = declarationRepository.save(declaration);
+        workQueueService.record(declaration);
 
         log.info("Declaration rejected: {}", declaration.getReference());
         return declarationMapper.toResponse(declaration);
     }
 
+    // ========================================
+    // TRAITEMENT PAR LOT
+    // ========================================
+
+    /**
+     * Décision appliquée à un lot de déclarations.
+     */
+    public enum TaskDecision {
+        APPROVE,
+        REJECT
+    }
+
+    /**
+     * Charge en une requête les déclarations d'un lot, indexées par ID.
+     */
+    public Map<UUID, Declaration> findForBatch(Collection<UUID> ids) {
+        Map<UUID, Declaration> declarations = new HashMap<>();
+        for (Declaration declaration : declarationRepository.findAllById(ids)) {
+            declarations.put(declaration.getId(), declaration);
+        }
+        return declarations;
+    }
+
+    /**
+     * Applique une décision à un lot: rechargement en une requête et contrôle du statut
+     * (qui a pu changer depuis le chargement). Comme pour approveTask, une approbation ne
+     * modifie pas la déclaration: elle est portée par la tâche Zeebe, complétée après la
+     * validation de la transaction, et le processus pilote la suite. Un rejet est
+     * enregistré ici; les mises à jour sont regroupées par Hibernate
+     * (hibernate.jdbc.batch_size) à la validation de la transaction.
+     *
+     * @return le résultat par déclaration
+     */
+    @Transactional
+    public Map<UUID, DeclarationDto.BatchOutcome> applyBatch(TaskDecision decision, Collection<UUID> ids,
+                                                            String reason) {
+        Map<UUID, DeclarationDto.BatchOutcome> outcomes = new HashMap<>();
+        List<Declaration> accepted = new ArrayList<>(ids.size());
+
+        for (Declaration declaration : declarationRepository.findAllById(ids)) {
+            if (!declaration.isAwaitingDecision()) {
+                outcomes.put(declaration.getId(), DeclarationDto.BatchOutcome.failure(declaration.getId(),
+                        declaration.getReference(), "Statut incompatible: " + declaration.getStatus()));
+                continue;
+            }
+            if (decision == TaskDecision.REJECT) {
+                declaration.reject(reason);
+            }
+            accepted.add(declaration);
+        }
+
+        if (decision == TaskDecision.REJECT) {
+            declarationRepository.saveAll(accepted);
+            declarationRepository.flush();
+            workQueueService.recordAll(accepted);
+        }
+        for (Declaration declaration : accepted) {
+            outcomes.put(declaration.getId(), DeclarationDto.BatchOutcome.success(declaration.getId(),
+                    declaration.getReference(), declaration.getStatus()));
+        }
+        for (UUID id : ids) {
+            outcomes.putIfAbsent(id, DeclarationDto.BatchOutcome.failure(id, null, "Déclaration introuvable"));
+        }
+
+        log.info("Batch {} applied to {} declaration(s)", decision, accepted.size());
+        return outcomes;
+    }
+
     /**
      * Génère les statistiques des déclarations.
      */
@@ -239,8 +393,26 @@ public class DeclarationService {
         return stats;
     }
 
+    private void validateDataPaths(String procedureCode, Set<String> criteria, List<String> fields) {
+        Set<String> bindings = new HashSet<>(procedureRepository.findDataBindings(procedureCode));
+        ValidationException validationException = new ValidationException("Erreur de validation");
+
+        criteria.stream()
+                .filter(path -> !bindings.contains(path))
+                .forEach(path -> validationException.addFieldError("criteria." + path,
+                        "Chemin non déclaré dans les formulaires de la procédure"));
+        fields.stream()
+                .filter(path -> !bindings.contains(path))
+                .forEach(path -> validationException.addFieldError("fields",
+                        "Chemin non déclaré dans les formulaires de la procédure: " + path));
+
+        if (validationException.hasErrors()) {
+            throw validationException;
+        }
+    }
+
     private String generateReference(String procedureCode) {
-        return StringUtils.generateReference(procedureCode);
+        return referenceGenerator.next(procedureCode);
     }
 
     private Map<String, Object> buildProcessVariables(Declaration declaration) {
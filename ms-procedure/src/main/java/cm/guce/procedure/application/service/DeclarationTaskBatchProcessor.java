@@ -0,0 +1,194 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.domain.exception.ValidationException;
+import cm.guce.common.security.SecurityUtils;
+import cm.guce.procedure.application.dto.DeclarationDto;
+import cm.guce.procedure.application.service.DeclarationService.TaskDecision;
+import cm.guce.procedure.domain.model.Declaration;
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.response.CompleteJobResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Approbation et rejet de déclarations par lot.
+ *
+ * Les déclarations sont chargées en une requête et contrôlées, puis la décision est
+ * appliquée en une transaction (statut recontrôlé, rejets enregistrés). Ce n'est qu'après
+ * sa validation que les tâches Zeebe des déclarations retenues sont complétées, par des
+ * commandes envoyées en parallèle sans connexion base ouverte (délai commun): une tâche
+ * n'est jamais complétée pour une décision qui n'a pas pu être enregistrée. Comme
+ * approveTask, une approbation se limite à compléter la tâche (décision portée par ses
+ * variables) et exige donc sa clé. Le résultat est rendu par déclaration, dans l'ordre
+ * du lot.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeclarationTaskBatchProcessor {
+
+    private final DeclarationService declarationService;
+    private final ZeebeClient zeebeClient;
+
+    @Value("${guce.procedure.task-batch.request-timeout-seconds:10}")
+    private long requestTimeoutSeconds;
+
+    /**
+     * Approuve un lot de tâches.
+     */
+    public DeclarationDto.BatchResult approve(DeclarationDto.BatchApproveRequest request) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("approved", true);
+        variables.put("comment", request.getComment());
+        variables.put("approvedBy", SecurityUtils.getCurrentUserId().orElse("unknown"));
+        return process(request.getTasks(), TaskDecision.APPROVE, variables, null);
+    }
+
+    /**
+     * Rejette un lot de déclarations avec un motif commun.
+     */
+    public DeclarationDto.BatchResult reject(DeclarationDto.BatchRejectRequest request) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("approved", false);
+        variables.put("rejectionReason", request.getReason());
+        variables.put("rejectedBy", SecurityUtils.getCurrentUserId().orElse("unknown"));
+        return process(request.getTasks(), TaskDecision.REJECT, variables, request.getReason());
+    }
+
+    private DeclarationDto.BatchResult process(List<DeclarationDto.BatchTask> tasks, TaskDecision decision,
+                                               Map<String, Object> variables, String reason) {
+        validateUnique(tasks);
+        log.info("Processing batch {} of {} task(s)", decision, tasks.size());
+
+        Map<UUID, DeclarationDto.BatchOutcome> outcomes = new HashMap<>();
+        Map<UUID, Declaration> declarations = declarationService.findForBatch(
+                tasks.stream().map(DeclarationDto.BatchTask::getDeclarationId).toList());
+
+        // Contrôles préalables; les tâches retenues sont indexées par déclaration
+        Map<UUID, Long> jobKeys = new LinkedHashMap<>();
+        List<UUID> ready = new ArrayList<>(tasks.size());
+        for (DeclarationDto.BatchTask task : tasks) {
+            UUID id = task.getDeclarationId();
+            Declaration declaration = declarations.get(id);
+            if (declaration == null) {
+                outcomes.put(id, DeclarationDto.BatchOutcome.failure(id, null, "Déclaration introuvable"));
+            } else if (!declaration.isAwaitingDecision()) {
+                outcomes.put(id, DeclarationDto.BatchOutcome.failure(id, declaration.getReference(),
+                        "Statut incompatible: " + declaration.getStatus()));
+            } else if (task.getTaskId() == null || task.getTaskId().isBlank()) {
+                if (decision == TaskDecision.APPROVE) {
+                    outcomes.put(id, DeclarationDto.BatchOutcome.failure(id, declaration.getReference(),
+                            "Clé de tâche obligatoire pour une approbation"));
+                } else {
+                    ready.add(id);
+                }
+            } else {
+                try {
+                    jobKeys.put(id, Long.parseLong(task.getTaskId().trim()));
+                    ready.add(id);
+                } catch (NumberFormatException e) {
+                    outcomes.put(id, DeclarationDto.BatchOutcome.failure(id, declaration.getReference(),
+                            "Identifiant de tâche invalide: " + task.getTaskId()));
+                }
+            }
+        }
+
+        // Décision enregistrée (transaction validée au retour) avant toute commande Zeebe
+        if (!ready.isEmpty()) {
+            outcomes.putAll(declarationService.applyBatch(decision, ready, reason));
+        }
+        jobKeys.keySet().removeIf(id -> !outcomes.get(id).isSuccess());
+        complete(jobKeys, variables, decision, outcomes);
+
+        List<DeclarationDto.BatchOutcome> ordered = tasks.stream()
+                .map(task -> outcomes.get(task.getDeclarationId()))
+                .toList();
+        DeclarationDto.BatchResult result = new DeclarationDto.BatchResult();
+        result.setOutcomes(ordered);
+        result.setSucceeded((int) ordered.stream().filter(DeclarationDto.BatchOutcome::isSuccess).count());
+        result.setFailed(ordered.size() - result.getSucceeded());
+        log.info("Batch {} done: {} succeeded, {} failed", decision, result.getSucceeded(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Complète les tâches Zeebe en parallèle; les échecs remplacent le résultat de la
+     * déclaration dans outcomes (un rejet reste enregistré, la tâche est à reprendre).
+     */
+    private void complete(Map<UUID, Long> jobKeys, Map<String, Object> variables, TaskDecision decision,
+                          Map<UUID, DeclarationDto.BatchOutcome> outcomes) {
+        Duration timeout = Duration.ofSeconds(requestTimeoutSeconds);
+        Map<UUID, CompletableFuture<CompleteJobResponse>> futures = new LinkedHashMap<>();
+        jobKeys.forEach((id, jobKey) -> futures.put(id, send(jobKey, variables, timeout)));
+
+        long deadline = System.nanoTime() + timeout.plusSeconds(1).toNanos();
+        for (Map.Entry<UUID, CompletableFuture<CompleteJobResponse>> entry : futures.entrySet()) {
+            UUID id = entry.getKey();
+            String error = null;
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                entry.getValue().get(remaining, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                error = String.valueOf(e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                error = "Délai de réponse Zeebe dépassé";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "Interrompu";
+            }
+            if (error != null) {
+                log.warn("Task completion failed for declaration {}: {}", id, error);
+                DeclarationDto.BatchOutcome recorded = outcomes.get(id);
+                DeclarationDto.BatchOutcome failure = DeclarationDto.BatchOutcome.failure(id,
+                        recorded.getReference(), decision == TaskDecision.REJECT
+                                ? "Rejet enregistré, tâche non complétée: " + error
+                                : "Tâche non complétée: " + error);
+                failure.setStatus(recorded.getStatus());
+                outcomes.put(id, failure);
+            }
+        }
+    }
+
+    private CompletableFuture<CompleteJobResponse> send(long jobKey, Map<String, Object> variables,
+                                                        Duration timeout) {
+        try {
+            return zeebeClient.newCompleteCommand(jobKey)
+                    .variables(variables)
+                    .requestTimeout(timeout)
+                    .send()
+                    .toCompletableFuture();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void validateUnique(List<DeclarationDto.BatchTask> tasks) {
+        ValidationException validationException = new ValidationException("Erreur de validation");
+        Set<UUID> seen = new HashSet<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (!seen.add(tasks.get(i).getDeclarationId())) {
+                validationException.addFieldError("tasks[" + i + "].declarationId",
+                        "Déclaration présente plusieurs fois dans le lot");
+            }
+        }
+        if (validationException.hasErrors()) {
+            throw validationException;
+        }
+    }
+}
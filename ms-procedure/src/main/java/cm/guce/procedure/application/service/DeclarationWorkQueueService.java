@@ -0,0 +1,190 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.security.SecurityUtils;
+import cm.guce.procedure.application.dto.DeclarationDto;
+import cm.guce.procedure.application.mapper.DeclarationMapper;
+import cm.guce.procedure.domain.model.Declaration;
+import cm.guce.procedure.domain.model.DeclarationWorkItem;
+import cm.guce.procedure.domain.port.DeclarationWorkItemRepository;
+import cm.guce.procedure.domain.port.ProcedureRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service des corbeilles de travail des déclarations.
+ *
+ * La projection declaration_work_item ne contient que les déclarations en attente de
+ * décision. Elle est maintenue dans la transaction de chaque transition (soumission,
+ * approbation, rejet) et reconstruite chaque nuit; les corbeilles du back-office et
+ * leurs volumes par étape ne parcourent jamais la table declaration.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class DeclarationWorkQueueService {
+
+    private final DeclarationWorkItemRepository workItemRepository;
+    private final ProcedureRepository procedureRepository;
+    private final DeclarationMapper declarationMapper;
+
+    // ========================================
+    // MISE À JOUR INCRÉMENTALE
+    // ========================================
+
+    /**
+     * Reporte l'état d'une déclaration dans la projection.
+     */
+    @Transactional
+    public void record(Declaration declaration) {
+        recordAll(List.of(declaration));
+    }
+
+    /**
+     * Reporte l'état d'un lot de déclarations: lignes existantes chargées en une requête,
+     * sorties de corbeille supprimées en une instruction.
+     */
+    @Transactional
+    public void recordAll(Collection<Declaration> declarations) {
+        Map<UUID, DeclarationWorkItem> existing = new HashMap<>();
+        for (DeclarationWorkItem item : workItemRepository.findAllById(
+                declarations.stream().map(Declaration::getId).toList())) {
+            existing.put(item.getDeclarationId(), item);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<DeclarationWorkItem> upserts = new ArrayList<>();
+        List<UUID> removed = new ArrayList<>();
+        for (Declaration declaration : declarations) {
+            DeclarationWorkItem item = existing.get(declaration.getId());
+            if (!declaration.isAwaitingDecision()) {
+                if (item != null) {
+                    removed.add(declaration.getId());
+                }
+                continue;
+            }
+            if (item == null) {
+                item = new DeclarationWorkItem();
+                item.setDeclarationId(declaration.getId());
+            }
+            apply(item, declaration, now);
+            upserts.add(item);
+        }
+
+        workItemRepository.saveAll(upserts);
+        if (!removed.isEmpty()) {
+            workItemRepository.deleteAllByIdInBatch(removed);
+        }
+    }
+
+    private void apply(DeclarationWorkItem item, Declaration declaration, LocalDateTime now) {
+        String step = declaration.getCurrentStep() != null ? declaration.getCurrentStep() : DeclarationWorkItem.NONE;
+        if (item.getStepEnteredAt() == null || !step.equals(item.getCurrentStep())) {
+            item.setStepEnteredAt(now);
+            item.setDueAt(dueAt(declaration, step, now));
+        }
+        item.setTenantId(declaration.getTenantId());
+        item.setReference(declaration.getReference());
+        item.setProcedureCode(declaration.getProcedureCode());
+        item.setOperatorName(declaration.getOperatorName());
+        item.setCurrentStep(step);
+        item.setCurrentStepName(declaration.getCurrentStepName());
+        item.setStatus(declaration.getStatus());
+        item.setAssignedTo(declaration.getAssignedTo());
+        item.setUrgent(Boolean.TRUE.equals(declaration.getIsUrgent()));
+        item.setPriority(declaration.getPriority() != null ? declaration.getPriority() : 0);
+        item.setSubmittedAt(declaration.getSubmittedAt());
+        item.setUpdatedAt(now);
+    }
+
+    /**
+     * Échéance de l'étape (délai de traitement de l'étape), à défaut date prévue d'achèvement.
+     */
+    private LocalDateTime dueAt(Declaration declaration, String step, LocalDateTime enteredAt) {
+        if (!step.equals(DeclarationWorkItem.NONE)) {
+            Integer hours = procedureRepository.findStepDueDurationHours(declaration.getProcedure().getId(), step)
+                    .orElse(null);
+            if (hours != null) {
+                return enteredAt.plusHours(hours);
+            }
+        }
+        return declaration.getExpectedCompletionDate();
+    }
+
+    // ========================================
+    // CORBEILLES
+    // ========================================
+
+    /**
+     * Corbeille d'une étape du tenant courant.
+     */
+    public Page<DeclarationDto.WorkItem> getStepQueue(String step, Pageable pageable) {
+        // Le Pageable ne doit pas porter de tri: l'ordre est celui de l'index
+        return workItemRepository.findStepQueue(currentTenant(), step,
+                        PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()))
+                .map(declarationMapper::toWorkItem);
+    }
+
+    /**
+     * Corbeille de l'agent courant.
+     */
+    public Page<DeclarationDto.WorkItem> getMyQueue(Pageable pageable) {
+        String userId = SecurityUtils.getCurrentUserId().orElse("unknown");
+        return workItemRepository.findAssigneeQueue(currentTenant(), userId,
+                        PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()))
+                .map(declarationMapper::toWorkItem);
+    }
+
+    /**
+     * Volumes des corbeilles par étape (une requête groupée).
+     */
+    public List<DeclarationDto.StepCount> countByStep() {
+        return workItemRepository.countByStep(currentTenant(), LocalDateTime.now()).stream()
+                .map(declarationMapper::toStepCount)
+                .toList();
+    }
+
+    // ========================================
+    // RECONSTRUCTION
+    // ========================================
+
+    /**
+     * Reconstruit la projection à partir des déclarations (deux instructions, table verrouillée).
+     *
+     * @return le nombre de lignes insérées, mises à jour ou supprimées
+     */
+    @Transactional
+    public int rebuild() {
+        workItemRepository.lockForRebuild();
+        int rows = workItemRepository.upsertAwaitingDecision() + workItemRepository.deleteStale();
+        log.info("Declaration work queue rebuilt: {} row(s)", rows);
+        return rows;
+    }
+
+    /**
+     * Reconstruction planifiée (chaque nuit par défaut).
+     */
+    @Scheduled(cron = "${guce.procedure.work-queue.rebuild-cron:0 30 2 * * ?}")
+    @Transactional
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    private static String currentTenant() {
+        return SecurityUtils.getCurrentTenantId().orElse("default");
+    }
+}
@@ -0,0 +1,92 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.domain.model.ImportDeclaration.ImportDeclarationStatus;
+import cm.guce.procedure.domain.port.FimexRepository;
+import cm.guce.procedure.domain.port.ImportDeclarationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Expiration ensembliste des DI et des certificats FIMEX.
+ *
+ * Chaque appel traite un lot dans sa propre transaction: verrou consultatif, puis
+ * UPDATE ... RETURNING sur au plus "limit" dossiers échus, sans chargement d'entités.
+ * Les compteurs de DI et les statistiques FIMEX sont ajustés dans la même transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExpirySweepService {
+
+    private final ImportDeclarationRepository importDeclarationRepository;
+    private final FimexRepository fimexRepository;
+    private final ImportDeclarationCounterService counterService;
+    private final FimexStatisticsService fimexStatisticsService;
+
+    /**
+     * Dossier expiré par un lot.
+     */
+    public record ExpiredRow(UUID id, String tenantId, String reference, String previousStatus) {
+
+        static ExpiredRow of(Object[] row) {
+            return new ExpiredRow((UUID) row[0], (String) row[1], (String) row[2], (String) row[3]);
+        }
+    }
+
+    /**
+     * Résultat d'un lot: acquired vaut false si une autre instance détient le verrou.
+     */
+    public record SweepChunk(boolean acquired, List<ExpiredRow> rows) {
+
+        static final SweepChunk NOT_ACQUIRED = new SweepChunk(false, List.of());
+    }
+
+    /**
+     * Expire un lot de DI validées ou prorogées arrivées à échéance.
+     */
+    @Transactional
+    public SweepChunk expireImportDeclarations(LocalDate today, int limit) {
+        if (!importDeclarationRepository.tryLockExpirySweep()) {
+            return SweepChunk.NOT_ACQUIRED;
+        }
+        List<ExpiredRow> rows = importDeclarationRepository.expireDue(today, limit).stream()
+                .map(ExpiredRow::of)
+                .toList();
+
+        // Compteurs: une mise à jour par (tenant, statut précédent)
+        Map<String, Map<String, Long>> byTenant = rows.stream().collect(Collectors.groupingBy(
+                ExpiredRow::tenantId,
+                Collectors.groupingBy(ExpiredRow::previousStatus, Collectors.counting())));
+        byTenant.forEach((tenantId, byStatus) -> byStatus.forEach((status, count) ->
+                counterService.recordBulkStatusChange(tenantId, ImportDeclarationStatus.valueOf(status),
+                        ImportDeclarationStatus.EXPIRED, count)));
+
+        return new SweepChunk(true, rows);
+    }
+
+    /**
+     * Expire un lot de certificats FIMEX signés arrivés à échéance.
+     */
+    @Transactional
+    public SweepChunk expireFimexCertificates(LocalDate today, int limit) {
+        if (!fimexRepository.tryLockExpirySweep()) {
+            return SweepChunk.NOT_ACQUIRED;
+        }
+        List<Object[]> expired = fimexRepository.expireDue(today, limit);
+        fimexStatisticsService.recordExpirations(today, expired.stream()
+                .map(row -> FimexStatisticsService.Contribution.of((String) row[1], (String) row[4],
+                        (String) row[5], (String) row[6], (BigDecimal) row[7]))
+                .toList());
+        return new SweepChunk(true, expired.stream().map(ExpiredRow::of).toList());
+    }
+}
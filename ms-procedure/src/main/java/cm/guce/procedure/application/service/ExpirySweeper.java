@@ -0,0 +1,76 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.event.EventPublisher;
+import cm.guce.procedure.application.service.ExpirySweepService.ExpiredRow;
+import cm.guce.procedure.application.service.ExpirySweepService.SweepChunk;
+import cm.guce.procedure.domain.event.ExpiredBatchEvent;
+import cm.guce.procedure.domain.event.ExpiredBatchEvent.ExpiredItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Balayage planifié des expirations (DI et certificats FIMEX).
+ *
+ * Les lots sont traités jusqu'à épuisement; chaque lot validé donne lieu à un
+ * événement groupé par tenant. Plusieurs réplicas peuvent exécuter le job: le verrou
+ * consultatif et FOR UPDATE SKIP LOCKED garantissent qu'un dossier n'est expiré qu'une fois.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpirySweeper {
+
+    private final ExpirySweepService sweepService;
+    private final EventPublisher eventPublisher;
+
+    @Value("${guce.procedure.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${guce.procedure.expiry.cron:0 15 0 * * ?}")
+    public void sweep() {
+        LocalDate today = LocalDate.now();
+        int declarations = sweep(ExpiredBatchEvent.IMPORT_DECLARATION, today, sweepService::expireImportDeclarations);
+        int certificates = sweep(ExpiredBatchEvent.FIMEX_INSCRIPTION, today, sweepService::expireFimexCertificates);
+        if (declarations > 0 || certificates > 0) {
+            log.info("Expiry sweep: {} import declaration(s), {} FIMEX certificate(s) expired",
+                    declarations, certificates);
+        }
+    }
+
+    private int sweep(String aggregateType, LocalDate today,
+                      BiFunction<LocalDate, Integer, SweepChunk> expireChunk) {
+        int total = 0;
+        SweepChunk chunk;
+        do {
+            chunk = expireChunk.apply(today, chunkSize);
+            if (!chunk.acquired()) {
+                log.debug("Expiry sweep for {} already running on another instance", aggregateType);
+                break;
+            }
+            publish(aggregateType, chunk.rows());
+            total += chunk.rows().size();
+        } while (chunk.rows().size() == chunkSize);
+        return total;
+    }
+
+    /**
+     * Publie un événement par tenant pour les dossiers du lot (après validation du lot).
+     */
+    private void publish(String aggregateType, List<ExpiredRow> rows) {
+        Map<String, List<ExpiredItem>> byTenant = rows.stream().collect(Collectors.groupingBy(
+                ExpiredRow::tenantId,
+                Collectors.mapping(row -> new ExpiredItem(row.id(), row.reference(), row.previousStatus()),
+                        Collectors.toList())));
+        byTenant.forEach((tenantId, items) ->
+                eventPublisher.publish(new ExpiredBatchEvent(aggregateType, tenantId, items)));
+    }
+}
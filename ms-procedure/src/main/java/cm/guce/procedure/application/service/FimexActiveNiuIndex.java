@@ -0,0 +1,119 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.domain.port.FimexRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Index en mémoire des NIU disposant d'un certificat FIMEX en cours de validité, par tenant.
+ *
+ * Le contrôle de doublon à la création devient une recherche dans une table de hachage:
+ * la base n'est interrogée que si le NIU figure dans l'index (positif possible).
+ * L'index est construit au démarrage puis chaque nuit, complété localement à chaque
+ * signature et, pour les signatures faites par les autres instances, par un rattrapage
+ * périodique. Une entrée porte la date d'expiration: un certificat expiré cesse de
+ * correspondre sans mise à jour. Tant que l'index n'est pas chargé, tout NIU est
+ * considéré comme un positif possible.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FimexActiveNiuIndex {
+
+    /**
+     * Marge du rattrapage: couvre les transactions validées après leur date de signature.
+     */
+    private static final long REFRESH_OVERLAP_MINUTES = 5;
+
+    private final FimexRepository repository;
+
+    private volatile ConcurrentMap<String, ConcurrentMap<String, LocalDate>> index = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private volatile LocalDateTime watermark;
+
+    /**
+     * Retourne false si le NIU n'a certainement pas de certificat actif dans le tenant.
+     */
+    public boolean mightHaveActive(String tenantId, String niu) {
+        if (!ready) {
+            return true;
+        }
+        Map<String, LocalDate> nius = index.get(tenantId);
+        LocalDate expiry = nius != null ? nius.get(niu) : null;
+        return expiry != null && !expiry.isBefore(LocalDate.now());
+    }
+
+    /**
+     * Ajoute un certificat signé à l'index après validation de la transaction courante.
+     */
+    public void recordSigned(String tenantId, String niu, LocalDate expiryDate) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(index, tenantId, niu, expiryDate);
+                }
+            });
+        } else {
+            put(index, tenantId, niu, expiryDate);
+        }
+    }
+
+    /**
+     * Reconstruit l'index complet (démarrage et chaque nuit): retire les certificats
+     * expirés ou rejetés depuis la construction précédente.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${guce.procedure.fimex.active-niu.rebuild-cron:0 0 3 * * ?}")
+    public void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        ConcurrentMap<String, ConcurrentMap<String, LocalDate>> rebuilt = new ConcurrentHashMap<>();
+        List<Object[]> rows = repository.findActiveNius(LocalDate.now());
+        rows.forEach(row -> put(rebuilt, (String) row[0], (String) row[1], (LocalDate) row[2]));
+
+        index = rebuilt;
+        watermark = startedAt;
+        ready = true;
+        log.info("FIMEX active NIU index rebuilt: {} NIU(s) in {} tenant(s)", rows.size(), rebuilt.size());
+    }
+
+    /**
+     * Rattrape les signatures faites par les autres instances depuis le dernier passage.
+     */
+    @Scheduled(fixedDelayString = "${guce.procedure.fimex.active-niu.refresh-interval:60000}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = watermark.minusMinutes(REFRESH_OVERLAP_MINUTES);
+        List<Object[]> rows = repository.findActiveNiusSignedSince(since, LocalDate.now());
+        rows.forEach(row -> put(index, (String) row[0], (String) row[1], (LocalDate) row[2]));
+        watermark = startedAt;
+        if (!rows.isEmpty()) {
+            log.debug("FIMEX active NIU index refreshed with {} signature(s)", rows.size());
+        }
+    }
+
+    private static void put(ConcurrentMap<String, ConcurrentMap<String, LocalDate>> target,
+                            String tenantId, String niu, LocalDate expiryDate) {
+        if (tenantId == null || niu == null || expiryDate == null) {
+            return;
+        }
+        target.computeIfAbsent(tenantId, t -> new ConcurrentHashMap<>())
+                .merge(niu, expiryDate, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+}
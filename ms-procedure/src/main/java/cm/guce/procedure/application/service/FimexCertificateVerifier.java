@@ -0,0 +1,165 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.domain.model.FimexCertificateView;
+import cm.guce.procedure.domain.model.FimexInscription.FimexStatus;
+import cm.guce.procedure.domain.port.FimexRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Vérification des certificats FIMEX à faible latence.
+ *
+ * Les certificats sont lus par projection compacte et conservés dans un cache borné.
+ * Un certificat signé reste en cache au plus jusqu'au lendemain de sa date d'expiration
+ * (sa validité change à ce moment), et au plus max-ttl dans tous les cas; les numéros
+ * inconnus sont mis en cache négatif pendant negative-ttl. Les entrées sont invalidées
+ * localement après validation des signatures, rejets et renouvellements.
+ */
+@Component
+public class FimexCertificateVerifier {
+
+    private static final String CACHE_NAME = "fimexCertificates";
+    private static final String METRIC_NAME = "guce.fimex.certificate.verification";
+
+    private final FimexRepository repository;
+    private final Cache<String, Lookup> cache;
+    private final Timer singleTimer;
+    private final Timer batchTimer;
+
+    /**
+     * Entrée de cache: view est null pour un numéro inconnu.
+     */
+    private record Lookup(FimexCertificateView view) {
+    }
+
+    public FimexCertificateVerifier(FimexRepository repository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${guce.procedure.fimex.verification.max-size:100000}") long maxSize,
+                                    @Value("${guce.procedure.fimex.verification.max-ttl-seconds:300}") long maxTtlSeconds,
+                                    @Value("${guce.procedure.fimex.verification.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+        this.repository = repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new CertificateExpiry(Duration.ofSeconds(maxTtlSeconds), Duration.ofSeconds(negativeTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.singleTimer = verificationTimer(meterRegistry, "single");
+        this.batchTimer = verificationTimer(meterRegistry, "batch");
+    }
+
+    /**
+     * Retourne le certificat, ou vide s'il est inconnu.
+     */
+    public Optional<FimexCertificateView> verify(String certificateNumber) {
+        return singleTimer.record(() -> Optional.ofNullable(
+                cache.get(certificateNumber, number -> new Lookup(repository.findCertificateView(number).orElse(null)))
+                        .view()));
+    }
+
+    /**
+     * Retourne les certificats d'un lot (une seule requête pour les numéros absents du
+     * cache). Les numéros inconnus sont absents de la map.
+     */
+    public Map<String, FimexCertificateView> verifyAll(Collection<String> certificateNumbers) {
+        return batchTimer.record(() -> {
+            Map<String, Lookup> lookups = cache.getAll(new LinkedHashSet<>(certificateNumbers), this::loadAll);
+            Map<String, FimexCertificateView> views = new LinkedHashMap<>();
+            lookups.forEach((number, lookup) -> {
+                if (lookup.view() != null) {
+                    views.put(number, lookup.view());
+                }
+            });
+            return views;
+        });
+    }
+
+    /**
+     * Invalide les numéros donnés après validation de la transaction courante (pour
+     * qu'une lecture concurrente ne remette pas en cache l'état précédent), ou
+     * immédiatement hors transaction.
+     */
+    public void invalidateAfterCommit(String... certificateNumbers) {
+        List<String> numbers = Arrays.stream(certificateNumbers).filter(Objects::nonNull).toList();
+        if (numbers.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(numbers);
+                }
+            });
+        } else {
+            cache.invalidateAll(numbers);
+        }
+    }
+
+    private Map<String, Lookup> loadAll(Set<? extends String> numbers) {
+        Map<String, Lookup> loaded = new HashMap<>();
+        for (FimexCertificateView view : repository.findCertificateViews(new ArrayList<>(numbers))) {
+            loaded.put(view.certificateNumber(), new Lookup(view));
+        }
+        for (String number : numbers) {
+            loaded.putIfAbsent(number, new Lookup(null));
+        }
+        return loaded;
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder(METRIC_NAME)
+                .description("Durée de vérification des certificats FIMEX")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Durée de vie d'une entrée: bornée par max-ttl et, pour un certificat signé, par le
+     * début du jour suivant sa date d'expiration.
+     */
+    private record CertificateExpiry(Duration maxTtl, Duration negativeTtl) implements Expiry<String, Lookup> {
+
+        @Override
+        public long expireAfterCreate(String key, Lookup lookup, long currentTime) {
+            FimexCertificateView view = lookup.view();
+            if (view == null) {
+                return negativeTtl.toNanos();
+            }
+            if (view.status() == FimexStatus.SIGNED && view.expiryDate() != null) {
+                ZonedDateTime now = ZonedDateTime.now();
+                ZonedDateTime validityEnd = view.expiryDate().plusDays(1).atStartOfDay(ZoneId.systemDefault());
+                Duration untilExpiry = Duration.between(now, validityEnd);
+                if (untilExpiry.isNegative()) {
+                    return 0;
+                }
+                return Math.min(untilExpiry.toNanos(), maxTtl.toNanos());
+            }
+            return maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Lookup lookup, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, lookup, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Lookup lookup, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
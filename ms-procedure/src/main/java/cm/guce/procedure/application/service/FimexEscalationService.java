@@ -0,0 +1,170 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.event.EventPublisher;
+import cm.guce.procedure.domain.event.ProcessingEscalationEvent;
+import cm.guce.procedure.domain.event.ProcessingEscalationEvent.EscalatedItem;
+import cm.guce.procedure.domain.model.StaleFimexInscription;
+import cm.guce.procedure.domain.port.FimexRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Escalade des inscriptions FIMEX restées en traitement au-delà du délai (SLA).
+ *
+ * Les inscriptions en retard sont escaladées par lots (projection, sans chargement
+ * d'entités), chaque lot dans sa propre transaction: marquage ensembliste (escalated_at),
+ * commit, puis un événement par tenant. Un événement n'annonce donc jamais un marquage
+ * annulé. Une inscription déjà escaladée ne l'est à nouveau qu'après reescalate-hours,
+ * y compris si l'instance s'arrête entre le commit d'un lot et sa publication. Le volume
+ * en traitement et en retard est exposé en jauges Micrometer par tenant, recalculées
+ * périodiquement (jamais à la lecture des métriques).
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class FimexEscalationService {
+
+    private final FimexRepository repository;
+    private final EventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MultiGauge backlogGauge;
+    private final MultiGauge staleGauge;
+    private final MultiGauge oldestAgeGauge;
+
+    @Value("${guce.procedure.fimex.escalation.processing-sla-hours:72}")
+    private long processingSlaHours;
+
+    @Value("${guce.procedure.fimex.escalation.reescalate-hours:24}")
+    private long reescalateHours;
+
+    @Value("${guce.procedure.fimex.escalation.batch-size:200}")
+    private int batchSize;
+
+    public FimexEscalationService(FimexRepository repository, EventPublisher eventPublisher,
+                                  TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.backlogGauge = MultiGauge.builder("guce.fimex.processing.backlog")
+                .description("Inscriptions FIMEX en traitement")
+                .register(meterRegistry);
+        this.staleGauge = MultiGauge.builder("guce.fimex.processing.stale")
+                .description("Inscriptions FIMEX en traitement au-delà du délai")
+                .register(meterRegistry);
+        this.oldestAgeGauge = MultiGauge.builder("guce.fimex.processing.oldest.age")
+                .description("Ancienneté du plus ancien traitement FIMEX en cours")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // ========================================
+    // ESCALADE
+    // ========================================
+
+    /**
+     * Lot escaladé et validé: nombre d'inscriptions et événements à publier.
+     */
+    private record EscalatedBatch(int size, List<ProcessingEscalationEvent> events) {
+    }
+
+    /**
+     * Escalade les inscriptions en retard (toutes les heures par défaut), une transaction
+     * par lot. Un lot n'est escaladé que par une seule instance à la fois.
+     */
+    @Scheduled(cron = "${guce.procedure.fimex.escalation.cron:0 0 * * * ?}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int escalateStaleProcessing() {
+        LocalDateTime now = LocalDateTime.now();
+        int escalated = 0;
+        EscalatedBatch batch;
+        do {
+            batch = transactionTemplate.execute(status -> escalateNextBatch(now));
+            if (batch == null) {
+                log.debug("FIMEX escalation already running on another instance");
+                break;
+            }
+            // Publication après le commit du lot
+            batch.events().forEach(eventPublisher::publish);
+            escalated += batch.size();
+        } while (batch.size() == batchSize);
+
+        if (escalated > 0) {
+            log.info("Escalated {} stale FIMEX inscription(s) in processing", escalated);
+        }
+        return escalated;
+    }
+
+    /**
+     * Marque le lot suivant; null si une autre instance tient le verrou d'escalade. Les
+     * inscriptions marquées sortent de la sélection: le lot suivant repart de la page 0.
+     */
+    private EscalatedBatch escalateNextBatch(LocalDateTime now) {
+        if (!repository.tryLockEscalation()) {
+            return null;
+        }
+        List<StaleFimexInscription> batch = repository.findStaleProcessing(
+                now.minusHours(processingSlaHours), now.minusHours(reescalateHours), PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return new EscalatedBatch(0, List.of());
+        }
+        repository.markEscalated(batch.stream().map(StaleFimexInscription::id).toList(), now);
+
+        Map<String, List<EscalatedItem>> byTenant = batch.stream().collect(Collectors.groupingBy(
+                StaleFimexInscription::tenantId,
+                Collectors.mapping(inscription -> toItem(inscription, now), Collectors.toList())));
+        List<ProcessingEscalationEvent> events = byTenant.entrySet().stream()
+                .map(entry -> new ProcessingEscalationEvent(entry.getKey(), entry.getValue()))
+                .toList();
+        return new EscalatedBatch(batch.size(), events);
+    }
+
+    private static EscalatedItem toItem(StaleFimexInscription inscription, LocalDateTime now) {
+        int previous = inscription.escalationCount() != null ? inscription.escalationCount() : 0;
+        return new EscalatedItem(inscription.id(), inscription.reference(), inscription.niu(),
+                inscription.companyName(), inscription.processedBy(), inscription.processedAt(),
+                Duration.between(inscription.processedAt(), now).toHours(), previous + 1);
+    }
+
+    // ========================================
+    // JAUGES
+    // ========================================
+
+    /**
+     * Recalcule les jauges de traitement par tenant (une requête groupée).
+     */
+    @Scheduled(fixedDelayString = "${guce.procedure.fimex.escalation.gauge-refresh-interval:60000}")
+    public void refreshBacklogGauges() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = repository.summarizeProcessingBacklog(now.minusHours(processingSlaHours));
+
+        List<MultiGauge.Row<?>> backlog = new ArrayList<>();
+        List<MultiGauge.Row<?>> stale = new ArrayList<>();
+        List<MultiGauge.Row<?>> oldestAge = new ArrayList<>();
+        for (Object[] row : rows) {
+            Tags tags = Tags.of("tenant", (String) row[0]);
+            backlog.add(MultiGauge.Row.of(tags, ((Number) row[1]).longValue()));
+            stale.add(MultiGauge.Row.of(tags, row[2] != null ? ((Number) row[2]).longValue() : 0L));
+            LocalDateTime oldest = (LocalDateTime) row[3];
+            oldestAge.add(MultiGauge.Row.of(tags, oldest != null ? Duration.between(oldest, now).toSeconds() : 0L));
+        }
+        backlogGauge.register(backlog, true);
+        staleGauge.register(stale, true);
+        oldestAgeGauge.register(oldestAge, true);
+    }
+}
@@ -1,19 +1,22 @@
 package cm.guce.procedure.application.service;
 
+import cm.guce.common.application.dto.CursorPage;
 import cm.guce.common.domain.exception.BusinessRuleException;
 import cm.guce.common.domain.exception.ResourceNotFoundException;
+import cm.guce.common.reference.ReferenceGenerator;
 import cm.guce.common.security.SecurityUtils;
 import cm.guce.common.util.StringUtils;
 import cm.guce.procedure.application.dto.FimexDto;
+import cm.guce.procedure.domain.model.FimexCertificateView;
 import cm.guce.procedure.domain.model.FimexDocument;
 import cm.guce.procedure.domain.model.FimexInscription;
 import cm.guce.procedure.domain.model.FimexInscription.*;
+import cm.guce.procedure.domain.model.ProcessStartOutbox.AggregateType;
 import cm.guce.procedure.domain.port.FimexRepository;
-import io.camunda.zeebe.client.ZeebeClient;
-import io.camunda.zeebe.client.api.response.ProcessInstanceEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,7 +40,11 @@ import java.util.stream.Collectors;
 public class FimexService {
 
     private final FimexRepository repository;
-    private final ZeebeClient zeebeClient;
+    private final ProcessStartOutboxService outboxService;
+    private final FimexStatisticsService statisticsService;
+    private final FimexCertificateVerifier certificateVerifier;
+    private final FimexActiveNiuIndex activeNiuIndex;
+    private final ReferenceGenerator referenceGenerator;
 
     // Constantes des frais
     private static final BigDecimal CNCC_FEE = new BigDecimal("10000");
@@ -48,6 +55,9 @@ public class FimexService {
     private static final String BPMN_FIMEX_INSCRIPTION = "fimex-inscription";
     private static final String BPMN_FIMEX_RENOUVELLEMENT = "fimex-renouvellement";
 
+    private static final String ACTIVE_INSCRIPTION_EXISTS =
+            "Une inscription FIMEX active existe déjà pour ce NIU. Utilisez le renouvellement si nécessaire.";
+
     // ========================================
     // LECTURE
     // ========================================
@@ -105,38 +115,89 @@ public class FimexService {
      */
     public Page<FimexDto.Summary> search(String query, Pageable pageable) {
         log.debug("Searching FIMEX inscriptions with query: {}", query);
-        return repository.search(query, pageable)
+        // Tri par pertinence imposé par la requête plein texte
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return repository.search(StringUtils.toSearchTerm(query), unsorted)
                 .map(this::toSummary);
     }
 
+    // ========================================
+    // LECTURE PAR CURSEUR (KEYSET)
+    // ========================================
+
+    /**
+     * Récupère les inscriptions FIMEX d'un opérateur, page par curseur.
+     */
+    public CursorPage<FimexDto.Summary> findByNiu(String niu, String cursor, Integer size, boolean includeTotal) {
+        log.debug("Fetching FIMEX inscriptions for NIU {} after cursor", niu);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<FimexInscription> rows = repository.findByNiuAfter(
+                niu, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, this::toSummary,
+                includeTotal ? repository.countByNiu(niu) : null);
+    }
+
+    /**
+     * Récupère les inscriptions FIMEX par statut, page par curseur.
+     */
+    public CursorPage<FimexDto.Summary> findByStatus(FimexStatus status, String cursor,
+                                                     Integer size, boolean includeTotal) {
+        log.debug("Fetching FIMEX inscriptions with status {} after cursor", status);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<FimexInscription> rows = repository.findByStatusAfter(
+                status, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, this::toSummary,
+                includeTotal ? repository.countByStatus(status) : null);
+    }
+
+    /**
+     * Recherche d'inscriptions FIMEX, page par curseur (ordre chronologique décroissant).
+     */
+    public CursorPage<FimexDto.Summary> search(String query, String cursor, Integer size, boolean includeTotal) {
+        log.debug("Searching FIMEX inscriptions with query {} after cursor", query);
+        String term = StringUtils.toSearchTerm(query);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<FimexInscription> rows = repository.searchAfter(
+                term, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, this::toSummary,
+                includeTotal ? repository.countSearch(term) : null);
+    }
+
     /**
-     * Vérifie la validité d'un certificat FIMEX.
+     * Vérifie la validité d'un certificat FIMEX (projection compacte, en cache).
      */
     public FimexDto.CertificateInfo verifyCertificate(String certificateNumber) {
         log.debug("Verifying FIMEX certificate: {}", certificateNumber);
 
-        FimexInscription inscription = repository.findByCertificateNumber(certificateNumber)
+        FimexCertificateView certificate = certificateVerifier.verify(certificateNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Certificat FIMEX", certificateNumber));
 
-        FimexDto.CertificateInfo info = new FimexDto.CertificateInfo();
-        info.setCertificateNumber(inscription.getCertificateNumber());
-        info.setCompanyName(inscription.getCompanyName());
-        info.setNiu(inscription.getNiu());
-        info.setIssueDate(inscription.getCertificateIssueDate());
-        info.setExpiryDate(inscription.getCertificateExpiryDate());
-
-        LocalDate today = LocalDate.now();
-        boolean isValid = inscription.getStatus() == FimexStatus.SIGNED &&
-                          inscription.getCertificateExpiryDate() != null &&
-                          !inscription.getCertificateExpiryDate().isBefore(today);
-
-        info.setValid(isValid);
+        return toCertificateInfo(certificate, LocalDate.now());
+    }
 
-        if (inscription.getCertificateExpiryDate() != null) {
-            info.setDaysUntilExpiry((int) ChronoUnit.DAYS.between(today, inscription.getCertificateExpiryDate()));
-        }
+    /**
+     * Vérifie un lot de certificats FIMEX. Le résultat suit l'ordre de la demande;
+     * un numéro inconnu est retourné avec found = false.
+     */
+    public List<FimexDto.CertificateInfo> verifyCertificates(List<String> certificateNumbers) {
+        log.debug("Verifying {} FIMEX certificates", certificateNumbers.size());
 
-        return info;
+        Map<String, FimexCertificateView> certificates = certificateVerifier.verifyAll(certificateNumbers);
+        LocalDate today = LocalDate.now();
+        return certificateNumbers.stream()
+                .map(number -> {
+                    FimexCertificateView certificate = certificates.get(number);
+                    if (certificate != null) {
+                        return toCertificateInfo(certificate, today);
+                    }
+                    FimexDto.CertificateInfo info = new FimexDto.CertificateInfo();
+                    info.setCertificateNumber(number);
+                    return info;
+                })
+                .toList();
     }
 
     // ========================================
@@ -150,24 +211,21 @@ public class FimexService {
     public FimexDto.Response create(FimexDto.CreateRequest request) {
         log.info("Creating FIMEX inscription for NIU: {}", request.getNiu());
 
+        String tenantId = SecurityUtils.getCurrentTenantId().orElse("default");
+
         // Vérifier si une inscription active existe déjà
         if (request.getRequestType() == RequestType.INSCRIPTION) {
-            Optional<FimexInscription> existing = repository.findActiveByNiu(request.getNiu());
-            if (existing.isPresent()) {
-                throw new BusinessRuleException(
-                        "Une inscription FIMEX active existe déjà pour ce NIU. " +
-                        "Utilisez le renouvellement si nécessaire.");
-            }
+            ensureNoActiveInscription(tenantId, request.getNiu());
         }
 
         FimexInscription inscription = new FimexInscription();
 
         // Générer la référence
         String prefix = request.getRequestType() == RequestType.INSCRIPTION ? "FIMEX-INS" : "FIMEX-REN";
-        inscription.setReference(StringUtils.generateReference(prefix));
+        inscription.setReference(referenceGenerator.next(prefix));
         inscription.setStatus(FimexStatus.DRAFT);
         inscription.setRequestType(request.getRequestType());
-        inscription.setTenantId(SecurityUtils.getCurrentTenantId().orElse("default"));
+        inscription.setTenantId(tenantId);
 
         // Informations société
         inscription.setNiu(request.getNiu());
@@ -282,21 +340,9 @@ public class FimexService {
         String bpmnProcessId = inscription.getRequestType() == RequestType.INSCRIPTION ?
                 BPMN_FIMEX_INSCRIPTION : BPMN_FIMEX_RENOUVELLEMENT;
 
-        try {
-            Map<String, Object> variables = buildProcessVariables(inscription);
-            ProcessInstanceEvent processInstance = zeebeClient.newCreateInstanceCommand()
-                    .bpmnProcessId(bpmnProcessId)
-                    .latestVersion()
-                    .variables(variables)
-                    .send()
-                    .join();
-
-            inscription.setProcessInstanceId(String.valueOf(processInstance.getProcessInstanceKey()));
-        } catch (Exception e) {
-            log.warn("Could not start workflow process: {}", e.getMessage());
-        }
-
         inscription = repository.save(inscription);
+        outboxService.enqueue(AggregateType.FIMEX_INSCRIPTION, inscription.getId(),
+                inscription.getTenantId(), bpmnProcessId, buildProcessVariables(inscription));
         log.info("FIMEX inscription submitted: {}", inscription.getReference());
 
         return toResponse(inscription);
@@ -441,6 +487,12 @@ public class FimexService {
             throw new BusinessRuleException("Cette demande n'a pas été approuvée");
         }
 
+        // Contrôle définitif: un certificat a pu être signé pour ce NIU depuis la création
+        if (inscription.getRequestType() == RequestType.INSCRIPTION
+                && repository.existsActiveByNiu(inscription.getTenantId(), inscription.getNiu(), LocalDate.now())) {
+            throw new BusinessRuleException(ACTIVE_INSCRIPTION_EXISTS);
+        }
+
         String currentUser = SecurityUtils.getCurrentUserId().orElse("system");
         String certificateNumber = inscription.generateCertificateNumber();
         inscription.signCertificate(currentUser, certificateNumber);
@@ -449,6 +501,10 @@ public class FimexService {
         inscription.notifySgs();
 
         inscription = repository.save(inscription);
+        statisticsService.recordSigned(inscription);
+        certificateVerifier.invalidateAfterCommit(certificateNumber, inscription.getPreviousCertificateNumber());
+        activeNiuIndex.recordSigned(inscription.getTenantId(), inscription.getNiu(),
+                inscription.getCertificateExpiryDate());
         log.info("Certificate signed for FIMEX inscription: {} - Certificate: {}",
                 inscription.getReference(), certificateNumber);
 
@@ -465,9 +521,12 @@ public class FimexService {
         FimexInscription inscription = repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inscription FIMEX", id));
 
+        FimexStatus previousStatus = inscription.getStatus();
         String currentUser = SecurityUtils.getCurrentUserId().orElse("system");
         inscription.reject(currentUser, request.getReason());
         inscription = repository.save(inscription);
+        statisticsService.recordRejected(inscription, previousStatus);
+        certificateVerifier.invalidateAfterCommit(inscription.getCertificateNumber());
 
         log.info("FIMEX inscription rejected: {}", inscription.getReference());
         return toResponse(inscription);
@@ -494,13 +553,45 @@ public class FimexService {
         stats.setTotalRejected(repository.countByStatusAndTenant(FimexStatus.REJECTED, tenantId));
         stats.setTotalExpired(repository.countByStatusAndTenant(FimexStatus.EXPIRED, tenantId));
 
+        // Répartitions et chiffre d'affaires (agrégats matérialisés)
+        statisticsService.fill(stats, tenantId);
+
         return stats;
     }
 
+    /**
+     * Tendances des signatures, rejets et expirations sur une période.
+     */
+    public List<FimexDto.TrendPoint> getTrends(LocalDate from, LocalDate to, FimexDto.TrendGranularity granularity) {
+        String tenantId = SecurityUtils.getCurrentTenantId().orElse("default");
+        return statisticsService.getTrends(tenantId, from, to, granularity);
+    }
+
+    /**
+     * Reconstruit les agrégats statistiques du tenant courant puis retourne les statistiques.
+     */
+    @Transactional
+    public FimexDto.Statistics rebuildStatistics() {
+        String tenantId = SecurityUtils.getCurrentTenantId().orElse("default");
+        statisticsService.rebuild(tenantId);
+        return getStatistics();
+    }
+
     // ========================================
     // MÉTHODES PRIVÉES
     // ========================================
 
+    /**
+     * Refuse une nouvelle inscription si le NIU a déjà un certificat actif dans le tenant.
+     * La base n'est interrogée que si l'index en mémoire signale un positif possible.
+     */
+    private void ensureNoActiveInscription(String tenantId, String niu) {
+        if (activeNiuIndex.mightHaveActive(tenantId, niu)
+                && repository.existsActiveByNiu(tenantId, niu, LocalDate.now())) {
+            throw new BusinessRuleException(ACTIVE_INSCRIPTION_EXISTS);
+        }
+    }
+
     private void validateMandatoryDocuments(FimexInscription inscription) {
         List<FimexDocument.DocumentType> mandatoryTypes = Arrays.stream(FimexDocument.DocumentType.values())
                 .filter(FimexDocument.DocumentType::isMandatory)
@@ -534,6 +625,22 @@ public class FimexService {
         return variables;
     }
 
+    private FimexDto.CertificateInfo toCertificateInfo(FimexCertificateView certificate, LocalDate today) {
+        FimexDto.CertificateInfo info = new FimexDto.CertificateInfo();
+        info.setCertificateNumber(certificate.certificateNumber());
+        info.setFound(true);
+        info.setCompanyName(certificate.companyName());
+        info.setNiu(certificate.niu());
+        info.setIssueDate(certificate.issueDate());
+        info.setExpiryDate(certificate.expiryDate());
+        info.setValid(certificate.isValidOn(today));
+
+        if (certificate.expiryDate() != null) {
+            info.setDaysUntilExpiry((int) ChronoUnit.DAYS.between(today, certificate.expiryDate()));
+        }
+        return info;
+    }
+
     private FimexDto.Response toResponse(FimexInscription inscription) {
         FimexDto.Response response = new FimexDto.Response();
         response.setId(inscription.getId());
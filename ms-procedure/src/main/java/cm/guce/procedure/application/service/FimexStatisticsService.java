@@ -0,0 +1,262 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.domain.exception.ValidationException;
+import cm.guce.procedure.application.dto.FimexDto;
+import cm.guce.procedure.application.dto.FimexDto.TrendGranularity;
+import cm.guce.procedure.domain.model.FimexActiveStatistic;
+import cm.guce.procedure.domain.model.FimexInscription;
+import cm.guce.procedure.domain.model.FimexInscription.FimexStatus;
+import cm.guce.procedure.domain.model.FimexInscription.LegalForm;
+import cm.guce.procedure.domain.port.FimexActiveStatisticRepository;
+import cm.guce.procedure.domain.port.FimexDailyStatisticRepository;
+import cm.guce.procedure.domain.port.FimexRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service des statistiques FIMEX matérialisées.
+ *
+ * Deux agrégats sont maintenus dans la transaction de chaque transition (signature,
+ * rejet, expiration): les certificats en cours de validité par région/activité/forme
+ * juridique, et les volumes journaliers pour les tendances. La lecture ne parcourt
+ * jamais fimex_inscription; une reconstruction complète est planifiée chaque nuit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class FimexStatisticsService {
+
+    private final FimexActiveStatisticRepository activeRepository;
+    private final FimexDailyStatisticRepository dailyRepository;
+    private final FimexRepository inscriptionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Dimensions et chiffre d'affaires d'une inscription comptée.
+     */
+    public record Contribution(String tenantId, String region, String mainActivity,
+                               String legalForm, BigDecimal revenue) {
+
+        public static Contribution of(FimexInscription inscription) {
+            return of(inscription.getTenantId(), inscription.getRegion(), inscription.getMainActivity(),
+                    inscription.getLegalForm() != null ? inscription.getLegalForm().name() : null,
+                    inscription.getAnnualRevenue());
+        }
+
+        public static Contribution of(String tenantId, String region, String mainActivity,
+                                      String legalForm, BigDecimal revenue) {
+            return new Contribution(tenantId, normalize(region), normalize(mainActivity), normalize(legalForm),
+                    revenue != null ? revenue : BigDecimal.ZERO);
+        }
+
+        private static String normalize(String value) {
+            return value != null ? value : FimexActiveStatistic.NONE;
+        }
+
+        private DimensionKey key() {
+            return new DimensionKey(tenantId, region, mainActivity, legalForm);
+        }
+    }
+
+    private record DimensionKey(String tenantId, String region, String mainActivity, String legalForm) {
+    }
+
+    // ========================================
+    // MISE À JOUR INCRÉMENTALE
+    // ========================================
+
+    /**
+     * Enregistre la signature d'un certificat.
+     */
+    @Transactional
+    public void recordSigned(FimexInscription inscription) {
+        Contribution c = Contribution.of(inscription);
+        activeRepository.increment(c.tenantId(), c.region(), c.mainActivity(), c.legalForm(), 1, c.revenue());
+        dailyRepository.increment(c.tenantId(), LocalDate.now(), c.region(), c.mainActivity(), c.legalForm(),
+                1, 0, 0);
+    }
+
+    /**
+     * Enregistre le rejet d'une demande (retire le certificat des actifs s'il était signé).
+     */
+    @Transactional
+    public void recordRejected(FimexInscription inscription, FimexStatus previousStatus) {
+        Contribution c = Contribution.of(inscription);
+        if (previousStatus == FimexStatus.SIGNED) {
+            activeRepository.increment(c.tenantId(), c.region(), c.mainActivity(), c.legalForm(),
+                    -1, c.revenue().negate());
+        }
+        dailyRepository.increment(c.tenantId(), LocalDate.now(), c.region(), c.mainActivity(), c.legalForm(),
+                0, 1, 0);
+    }
+
+    /**
+     * Enregistre l'expiration d'un lot de certificats: une mise à jour par combinaison
+     * de dimensions plutôt que deux par certificat.
+     */
+    @Transactional
+    public void recordExpirations(LocalDate day, List<Contribution> expired) {
+        Map<DimensionKey, List<Contribution>> grouped = expired.stream()
+                .collect(Collectors.groupingBy(Contribution::key));
+        grouped.forEach((key, contributions) -> {
+            long count = contributions.size();
+            BigDecimal revenue = contributions.stream()
+                    .map(Contribution::revenue)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            activeRepository.increment(key.tenantId(), key.region(), key.mainActivity(), key.legalForm(),
+                    -count, revenue.negate());
+            dailyRepository.increment(key.tenantId(), day, key.region(), key.mainActivity(), key.legalForm(),
+                    0, 0, count);
+        });
+    }
+
+    // ========================================
+    // LECTURE
+    // ========================================
+
+    /**
+     * Complète les statistiques d'un tenant (répartitions, chiffre d'affaires, certificats
+     * du mois) à partir des agrégats.
+     */
+    public void fill(FimexDto.Statistics stats, String tenantId) {
+        List<FimexActiveStatistic> rows = activeRepository.findByTenantId(tenantId);
+
+        Map<String, List<FimexActiveStatistic>> byRegion = group(rows, FimexActiveStatistic::getRegion);
+        stats.setByRegion(byRegion.entrySet().stream()
+                .map(e -> {
+                    FimexDto.RegionStatistic stat = new FimexDto.RegionStatistic();
+                    stat.setRegion(valueOrNull(e.getKey()));
+                    stat.setCount(count(e.getValue()));
+                    stat.setTotalRevenue(revenue(e.getValue()));
+                    return stat;
+                })
+                .filter(stat -> stat.getCount() > 0)
+                .sorted(Comparator.comparingLong(FimexDto.RegionStatistic::getCount).reversed())
+                .toList());
+
+        stats.setByActivity(group(rows, FimexActiveStatistic::getMainActivity).entrySet().stream()
+                .map(e -> {
+                    FimexDto.ActivityStatistic stat = new FimexDto.ActivityStatistic();
+                    stat.setActivity(valueOrNull(e.getKey()));
+                    stat.setCount(count(e.getValue()));
+                    return stat;
+                })
+                .filter(stat -> stat.getCount() > 0)
+                .sorted(Comparator.comparingLong(FimexDto.ActivityStatistic::getCount).reversed())
+                .toList());
+
+        stats.setByLegalForm(group(rows, FimexActiveStatistic::getLegalForm).entrySet().stream()
+                .map(e -> {
+                    FimexDto.LegalFormStatistic stat = new FimexDto.LegalFormStatistic();
+                    String legalForm = valueOrNull(e.getKey());
+                    stat.setLegalForm(legalForm != null ? LegalForm.valueOf(legalForm) : null);
+                    stat.setCount(count(e.getValue()));
+                    return stat;
+                })
+                .filter(stat -> stat.getCount() > 0)
+                .sorted(Comparator.comparingLong(FimexDto.LegalFormStatistic::getCount).reversed())
+                .toList());
+
+        stats.setTotalAnnualRevenue(revenue(rows));
+
+        LocalDate today = LocalDate.now();
+        stats.setCertificatesIssuedThisMonth(
+                dailyRepository.sumSigned(tenantId, today.withDayOfMonth(1), today));
+    }
+
+    /**
+     * Tendances (signatures, rejets, expirations) par jour, semaine ou mois sur une période.
+     */
+    public List<FimexDto.TrendPoint> getTrends(String tenantId, LocalDate from, LocalDate to,
+                                               TrendGranularity granularity) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("Période invalide")
+                    .addFieldError("from", "La date de début doit précéder la date de fin");
+        }
+
+        Map<LocalDate, FimexDto.TrendPoint> points = new LinkedHashMap<>();
+        for (Object[] row : dailyRepository.sumByDay(tenantId, from, to)) {
+            LocalDate periodStart = periodStart((LocalDate) row[0], granularity);
+            FimexDto.TrendPoint point = points.computeIfAbsent(periodStart, start -> {
+                FimexDto.TrendPoint p = new FimexDto.TrendPoint();
+                p.setPeriodStart(start);
+                return p;
+            });
+            point.setSigned(point.getSigned() + ((Number) row[1]).longValue());
+            point.setRejected(point.getRejected() + ((Number) row[2]).longValue());
+            point.setExpired(point.getExpired() + ((Number) row[3]).longValue());
+        }
+        return new ArrayList<>(points.values());
+    }
+
+    private static LocalDate periodStart(LocalDate day, TrendGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    private static Map<String, List<FimexActiveStatistic>> group(List<FimexActiveStatistic> rows,
+                                                                 Function<FimexActiveStatistic, String> dimension) {
+        return rows.stream().collect(Collectors.groupingBy(dimension));
+    }
+
+    private static long count(List<FimexActiveStatistic> rows) {
+        return rows.stream().mapToLong(FimexActiveStatistic::getActiveCount).sum();
+    }
+
+    private static BigDecimal revenue(List<FimexActiveStatistic> rows) {
+        return rows.stream().map(FimexActiveStatistic::getActiveRevenue).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static String valueOrNull(String value) {
+        return FimexActiveStatistic.NONE.equals(value) ? null : value;
+    }
+
+    // ========================================
+    // RECONSTRUCTION
+    // ========================================
+
+    /**
+     * Reconstruit les agrégats d'un tenant à partir de fimex_inscription.
+     */
+    @Transactional
+    public int rebuild(String tenantId) {
+        log.info("Rebuilding FIMEX statistics for tenant: {}", tenantId);
+
+        activeRepository.lockForRebuild();
+        activeRepository.deleteByTenantId(tenantId);
+        dailyRepository.deleteByTenantId(tenantId);
+        int rows = activeRepository.rebuild(tenantId) + dailyRepository.rebuild(tenantId);
+
+        log.info("Rebuilt {} FIMEX statistics rows for tenant: {}", rows, tenantId);
+        return rows;
+    }
+
+    /**
+     * Reconstruit les agrégats de tous les tenants (chaque nuit par défaut), une transaction
+     * par tenant: le verrou de reconstruction est relâché entre deux tenants.
+     */
+    @Scheduled(cron = "${guce.procedure.statistics.fimex-rebuild-cron:0 45 2 * * ?}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildAll() {
+        for (String tenantId : inscriptionRepository.findDistinctTenantIds()) {
+            transactionTemplate.executeWithoutResult(status -> rebuild(tenantId));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.application.dto.ImportDeclarationDto;
+import cm.guce.procedure.domain.model.ImportDeclaration;
+import cm.guce.procedure.domain.model.ImportDeclaration.*;
+import cm.guce.procedure.domain.model.ImportDeclarationCounter;
+import cm.guce.procedure.domain.model.ImportDeclarationCounter.CounterDimension;
+import cm.guce.procedure.domain.port.ImportDeclarationCounterRepository;
+import cm.guce.procedure.domain.port.ImportDeclarationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Service de maintenance des compteurs agrégés de DI.
+ *
+ * Les compteurs sont mis à jour dans la même transaction que la DI à chaque transition
+ * (création, soumission, paiement, validation, rejet, prorogation...). La lecture des
+ * statistiques devient ainsi indépendante du volume de DI. Une reconstruction complète
+ * à partir de import_declaration est disponible à la demande et planifiée chaque nuit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ImportDeclarationCounterService {
+
+    private final ImportDeclarationCounterRepository counterRepository;
+    private final ImportDeclarationRepository declarationRepository;
+    private final ImportDeclarationStatisticsEngine statisticsEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Valeurs des dimensions comptées d'une DI à un instant donné.
+     */
+    public record CounterSnapshot(RoutingDestination routing,
+                                  ImportDeclarationStatus status,
+                                  TransportMode transportMode,
+                                  ImportType importType) {
+
+        public static CounterSnapshot of(ImportDeclaration declaration) {
+            return new CounterSnapshot(declaration.getRoutingDestination(), declaration.getStatus(),
+                    declaration.getTransportMode(), declaration.getImportType());
+        }
+    }
+
+    // ========================================
+    // MISE À JOUR INCRÉMENTALE
+    // ========================================
+
+    /**
+     * Capture l'état compté d'une DI avant sa modification.
+     */
+    public CounterSnapshot snapshot(ImportDeclaration declaration) {
+        return CounterSnapshot.of(declaration);
+    }
+
+    /**
+     * Enregistre la création d'une DI.
+     */
+    @Transactional
+    public void recordCreation(ImportDeclaration declaration) {
+        recordTransition(declaration.getTenantId(), null, CounterSnapshot.of(declaration));
+    }
+
+    /**
+     * Enregistre la création d'un lot de DI: une mise à jour par valeur de dimension
+     * plutôt que quatre par DI.
+     */
+    @Transactional
+    public void recordCreations(String tenantId, List<ImportDeclaration> declarations) {
+        ImportDeclarationStatisticsEngine.Counters delta = new ImportDeclarationStatisticsEngine.Counters();
+        for (ImportDeclaration declaration : declarations) {
+            delta.add(declaration.getRoutingDestination(), declaration.getStatus(),
+                    declaration.getTransportMode(), declaration.getImportType(), 1);
+        }
+        incrementAll(tenantId, CounterDimension.ROUTING, delta.getByRouting());
+        incrementAll(tenantId, CounterDimension.STATUS, delta.getByStatus());
+        incrementAll(tenantId, CounterDimension.TRANSPORT_MODE, delta.getByTransportMode());
+        incrementAll(tenantId, CounterDimension.IMPORT_TYPE, delta.getByImportType());
+    }
+
+    /**
+     * Enregistre une transition: seules les dimensions modifiées sont mises à jour.
+     */
+    @Transactional
+    public void recordTransition(ImportDeclaration declaration, CounterSnapshot before) {
+        recordTransition(declaration.getTenantId(), before, CounterSnapshot.of(declaration));
+    }
+
+    @Transactional
+    public void recordTransition(String tenantId, CounterSnapshot before, CounterSnapshot after) {
+        apply(tenantId, CounterDimension.ROUTING,
+                before != null ? before.routing() : null, after != null ? after.routing() : null);
+        apply(tenantId, CounterDimension.STATUS,
+                before != null ? before.status() : null, after != null ? after.status() : null);
+        apply(tenantId, CounterDimension.TRANSPORT_MODE,
+                before != null ? before.transportMode() : null, after != null ? after.transportMode() : null);
+        apply(tenantId, CounterDimension.IMPORT_TYPE,
+                before != null ? before.importType() : null, after != null ? after.importType() : null);
+    }
+
+    /**
+     * Applique un changement de statut en masse (ex: expiration de plusieurs DI).
+     */
+    @Transactional
+    public void recordBulkStatusChange(String tenantId, ImportDeclarationStatus from,
+                                       ImportDeclarationStatus to, long count) {
+        if (count == 0 || from == to) {
+            return;
+        }
+        counterRepository.increment(tenantId, CounterDimension.STATUS.name(), from.name(), -count);
+        counterRepository.increment(tenantId, CounterDimension.STATUS.name(), to.name(), count);
+    }
+
+    private void incrementAll(String tenantId, CounterDimension dimension, Map<? extends Enum<?>, Long> deltas) {
+        deltas.forEach((value, count) ->
+                counterRepository.increment(tenantId, dimension.name(), value.name(), count));
+    }
+
+    private void apply(String tenantId, CounterDimension dimension, Enum<?> oldValue, Enum<?> newValue) {
+        if (Objects.equals(oldValue, newValue)) {
+            return;
+        }
+        if (oldValue != null) {
+            counterRepository.increment(tenantId, dimension.name(), oldValue.name(), -1);
+        }
+        if (newValue != null) {
+            counterRepository.increment(tenantId, dimension.name(), newValue.name(), 1);
+        }
+    }
+
+    // ========================================
+    // LECTURE
+    // ========================================
+
+    /**
+     * Retourne les statistiques d'un tenant à partir des compteurs (sans parcours de table).
+     * Les compteurs sont initialisés par la migration à partir des DI existantes; un tenant
+     * sans compteur n'a encore aucune DI (le parcours groupé renvoie alors des zéros).
+     */
+    public ImportDeclarationDto.Statistics getStatistics(String tenantId) {
+        List<ImportDeclarationCounter> counters = counterRepository.findByTenantId(tenantId);
+        if (counters.isEmpty()) {
+            log.debug("No counters for tenant {}, falling back to grouped scan", tenantId);
+            return statisticsEngine.compute(tenantId);
+        }
+
+        ImportDeclarationStatisticsEngine.Counters aggregated = new ImportDeclarationStatisticsEngine.Counters();
+        for (ImportDeclarationCounter counter : counters) {
+            aggregated.add(counter.getDimension(), counter.getDimensionValue(), counter.getCounterValue());
+        }
+        return aggregated.toStatistics();
+    }
+
+    // ========================================
+    // RECONSTRUCTION
+    // ========================================
+
+    /**
+     * Reconstruit les compteurs d'un tenant à partir de import_declaration.
+     */
+    @Transactional
+    public int rebuild(String tenantId) {
+        log.info("Rebuilding import declaration counters for tenant: {}", tenantId);
+
+        counterRepository.lockForRebuild();
+        ImportDeclarationStatisticsEngine.Counters aggregated = statisticsEngine.aggregate(tenantId);
+        counterRepository.deleteByTenantId(tenantId);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ImportDeclarationCounter> rows = new ArrayList<>();
+        addRows(rows, tenantId, CounterDimension.ROUTING, aggregated.getByRouting(), now);
+        addRows(rows, tenantId, CounterDimension.STATUS, aggregated.getByStatus(), now);
+        addRows(rows, tenantId, CounterDimension.TRANSPORT_MODE, aggregated.getByTransportMode(), now);
+        addRows(rows, tenantId, CounterDimension.IMPORT_TYPE, aggregated.getByImportType(), now);
+        counterRepository.saveAll(rows);
+
+        log.info("Rebuilt {} import declaration counters for tenant: {}", rows.size(), tenantId);
+        return rows.size();
+    }
+
+    /**
+     * Reconstruit les compteurs de tous les tenants (chaque nuit par défaut), une transaction
+     * par tenant: le verrou de reconstruction est relâché entre deux tenants.
+     */
+    @Scheduled(cron = "${guce.procedure.statistics.rebuild-cron:0 30 2 * * ?}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildAll() {
+        for (String tenantId : declarationRepository.findDistinctTenantIds()) {
+            transactionTemplate.executeWithoutResult(status -> rebuild(tenantId));
+        }
+    }
+
+    private void addRows(List<ImportDeclarationCounter> rows, String tenantId, CounterDimension dimension,
+                         Map<? extends Enum<?>, Long> values, LocalDateTime now) {
+        values.forEach((value, count) -> {
+            ImportDeclarationCounter counter = new ImportDeclarationCounter();
+            counter.setTenantId(tenantId);
+            counter.setDimension(dimension);
+            counter.setDimensionValue(value.name());
+            counter.setCounterValue(count);
+            counter.setUpdatedAt(now);
+            rows.add(counter);
+        });
+    }
+}
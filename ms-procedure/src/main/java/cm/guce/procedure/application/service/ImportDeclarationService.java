@@ -1,28 +1,33 @@
 package cm.guce.procedure.application.service;
 
+import cm.guce.common.application.dto.CursorPage;
 import cm.guce.common.domain.exception.BusinessRuleException;
 import cm.guce.common.domain.exception.ResourceNotFoundException;
+import cm.guce.common.domain.exception.ValidationException;
+import cm.guce.common.reference.ReferenceGenerator;
 import cm.guce.common.security.SecurityUtils;
 import cm.guce.common.util.StringUtils;
 import cm.guce.procedure.application.dto.ImportDeclarationDto;
 import cm.guce.procedure.domain.model.*;
 import cm.guce.procedure.domain.model.ImportDeclaration.*;
+import cm.guce.procedure.domain.model.ProcessStartOutbox.AggregateType;
 import cm.guce.procedure.domain.port.ImportDeclarationRepository;
-import io.camunda.zeebe.client.ZeebeClient;
-import io.camunda.zeebe.client.api.response.ProcessInstanceEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service de gestion des Déclarations d'Importation (DI).
@@ -36,18 +41,21 @@ import java.util.stream.Collectors;
 public class ImportDeclarationService {
 
     private final ImportDeclarationRepository repository;
-    private final ZeebeClient zeebeClient;
-
-    // Constantes des règles métier
-    private static final BigDecimal SGS_THRESHOLD_XAF = new BigDecimal("1000000");
-    private static final BigDecimal BANK_PAYMENT_THRESHOLD_XAF = new BigDecimal("2000000");
-    private static final BigDecimal SGS_RATE = new BigDecimal("0.0095"); // 0.95%
-    private static final BigDecimal SGS_MINIMUM_FEE = new BigDecimal("110000");
-    private static final BigDecimal CUSTOMS_INSPECTION_FEE = new BigDecimal("6000");
-    private static final BigDecimal FISCAL_STAMP = new BigDecimal("1500");
+    private final ProcessStartOutboxService outboxService;
+    private final ImportDeclarationCounterService counterService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ReferenceGenerator referenceGenerator;
+    private final ImportRoutingRuleEngine ruleEngine;
+
+    // Constantes des règles métier (routage et frais: voir ImportRoutingRuleEngine)
     private static final int VALIDITY_MONTHS = 9;
     private static final int PROROGATION_MONTHS = 3;
 
+    // Création en masse
+    private static final int BULK_MAX_ROWS = 1000;
+    private static final int BULK_FLUSH_SIZE = 50;
+
     // BPMN Process IDs
     private static final String BPMN_DI_CLASSIQUE = "import-declaration-classique";
     private static final String BPMN_DI_GROUPAGE = "import-declaration-groupage";
@@ -63,7 +71,7 @@ public class ImportDeclarationService {
      */
     public ImportDeclarationDto.Response findById(UUID id) {
         log.debug("Fetching import declaration by id: {}", id);
-        ImportDeclaration declaration = repository.findById(id)
+        ImportDeclaration declaration = repository.findFullById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
         return toResponse(declaration);
     }
@@ -73,7 +81,7 @@ public class ImportDeclarationService {
      */
     public ImportDeclarationDto.Response findByReference(String reference) {
         log.debug("Fetching import declaration by reference: {}", reference);
-        ImportDeclaration declaration = repository.findByReference(reference)
+        ImportDeclaration declaration = repository.findFullByReference(reference)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", reference));
         return toResponse(declaration);
     }
@@ -119,10 +127,73 @@ public class ImportDeclarationService {
      */
     public Page<ImportDeclarationDto.Summary> search(String query, Pageable pageable) {
         log.debug("Searching import declarations with query: {}", query);
-        return repository.search(query, pageable)
+        // Tri par pertinence imposé par la requête plein texte
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return repository.search(StringUtils.toSearchTerm(query), unsorted)
                 .map(this::toSummary);
     }
 
+    // ========================================
+    // LECTURE PAR CURSEUR (KEYSET)
+    // ========================================
+
+    /**
+     * Récupère les DI d'un importateur, page par curseur.
+     */
+    public CursorPage<ImportDeclarationDto.Summary> findByImporter(String importerNiu, String cursor,
+                                                                   Integer size, boolean includeTotal) {
+        log.debug("Fetching import declarations for importer {} after cursor", importerNiu);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<ImportDeclaration> rows = repository.findByImporterNiuAfter(
+                importerNiu, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, this::toSummary,
+                includeTotal ? repository.countByImporterNiu(importerNiu) : null);
+    }
+
+    /**
+     * Récupère les DI par statut, page par curseur.
+     */
+    public CursorPage<ImportDeclarationDto.Summary> findByStatus(ImportDeclarationStatus status, String cursor,
+                                                                 Integer size, boolean includeTotal) {
+        log.debug("Fetching import declarations with status {} after cursor", status);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<ImportDeclaration> rows = repository.findByStatusAfter(
+                status, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, this::toSummary,
+                includeTotal ? repository.countByStatus(status) : null);
+    }
+
+    /**
+     * Récupère les DI d'une destination de routage (SGS ou Douane), page par curseur.
+     */
+    public CursorPage<ImportDeclarationDto.Summary> findByRouting(RoutingDestination routing, String cursor,
+                                                                  Integer size, boolean includeTotal) {
+        log.debug("Fetching {} import declarations after cursor", routing);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<ImportDeclaration> rows = repository.findByRoutingDestinationAfter(
+                routing, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, this::toSummary,
+                includeTotal ? repository.countByRoutingDestination(routing) : null);
+    }
+
+    /**
+     * Recherche de DI, page par curseur (ordre chronologique décroissant).
+     */
+    public CursorPage<ImportDeclarationDto.Summary> search(String query, String cursor,
+                                                           Integer size, boolean includeTotal) {
+        log.debug("Searching import declarations with query {} after cursor", query);
+        String term = StringUtils.toSearchTerm(query);
+        CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+        List<ImportDeclaration> rows = repository.searchAfter(
+                term, position.createdAt(), position.id(), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, this::toSummary,
+                includeTotal ? repository.countSearch(term) : null);
+    }
+
     // ========================================
     // CRÉATION
     // ========================================
@@ -134,13 +205,130 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response create(ImportDeclarationDto.CreateRequest request) {
         log.info("Creating import declaration for importer: {}", request.getImporterNiu());
 
+        ImportDeclaration declaration = buildDeclaration(request,
+                SecurityUtils.getCurrentTenantId().orElse("default"));
+
+        declaration = repository.save(declaration);
+        counterService.recordCreation(declaration);
+        log.info("Import declaration created with reference: {}", declaration.getReference());
+
+        return toResponse(declaration);
+    }
+
+    /**
+     * Crée un lot de DI (brouillons).
+     *
+     * Les demandes sont validées en parallèle (Bean Validation, sans accès base), puis les
+     * DI valides sont préparées séquentiellement (allocation des références) et insérées par
+     * lots JDBC dans une seule transaction. Le rapport indique, ligne par ligne, la référence
+     * créée ou les erreurs de validation.
+     */
+    @Transactional
+    public ImportDeclarationDto.BulkCreateResult createBulk(List<ImportDeclarationDto.CreateRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ValidationException("Le lot de déclarations est vide");
+        }
+        if (requests.size() > BULK_MAX_ROWS) {
+            throw new BusinessRuleException(
+                    "Un lot ne peut pas dépasser " + BULK_MAX_ROWS + " déclarations");
+        }
+        log.info("Bulk creating {} import declarations", requests.size());
+        String tenantId = SecurityUtils.getCurrentTenantId().orElse("default");
+
+        // Validation parallèle: le Validator est thread-safe et n'accède pas à la base
+        List<List<String>> violations = IntStream.range(0, requests.size())
+                .parallel()
+                .mapToObj(i -> validate(requests.get(i)))
+                .toList();
+
+        // Préparation séquentielle: ReferenceGenerator sert les références depuis un bloc en
+        // mémoire, seul le renouvellement d'un bloc ouvre une transaction (REQUIRES_NEW).
+        List<BulkRow> rows = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            rows.add(prepareBulkRow(i, requests.get(i), violations.get(i), tenantId));
+        }
+
+        // Insertion par lots: flush/clear aligné sur hibernate.jdbc.batch_size
+        List<ImportDeclaration> created = new ArrayList<>();
+        for (BulkRow row : rows) {
+            if (row.declaration() == null) {
+                continue;
+            }
+            entityManager.persist(row.declaration());
+            created.add(row.declaration());
+            if (created.size() % BULK_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        counterService.recordCreations(tenantId, created);
+
+        ImportDeclarationDto.BulkCreateResult result = new ImportDeclarationDto.BulkCreateResult();
+        result.setTotal(rows.size());
+        result.setCreated(created.size());
+        result.setFailed(rows.size() - created.size());
+        result.setRows(rows.stream().map(BulkRow::toResult).toList());
+
+        log.info("Bulk creation done: {} created, {} rejected", result.getCreated(), result.getFailed());
+        return result;
+    }
+
+    private List<String> validate(ImportDeclarationDto.CreateRequest request) {
+        if (request == null) {
+            return List.of("Déclaration absente");
+        }
+        return validator.validate(request).stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private BulkRow prepareBulkRow(int index, ImportDeclarationDto.CreateRequest request,
+                                   List<String> errors, String tenantId) {
+        if (!errors.isEmpty()) {
+            return new BulkRow(index, null, errors);
+        }
+        try {
+            return new BulkRow(index, buildDeclaration(request, tenantId), List.of());
+        } catch (RuntimeException e) {
+            log.debug("Bulk row {} rejected: {}", index, e.getMessage());
+            return new BulkRow(index, null, List.of(String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Ligne d'un lot: la DI préparée, ou les erreurs qui l'ont rejetée.
+     */
+    private record BulkRow(int index, ImportDeclaration declaration, List<String> errors) {
+
+        ImportDeclarationDto.BulkRowResult toResult() {
+            ImportDeclarationDto.BulkRowResult result = new ImportDeclarationDto.BulkRowResult();
+            result.setIndex(index);
+            result.setSuccess(declaration != null);
+            if (declaration != null) {
+                result.setId(declaration.getId());
+                result.setReference(declaration.getReference());
+                result.setRoutingDestination(declaration.getRoutingDestination());
+            } else {
+                result.setErrors(errors);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Construit une DI brouillon à partir d'une demande, sans la persister.
+     */
+    private ImportDeclaration buildDeclaration(ImportDeclarationDto.CreateRequest request, String tenantId) {
         ImportDeclaration declaration = new ImportDeclaration();
 
         // Générer la référence
         declaration.setReference(generateReference(request.getImportType()));
         declaration.setStatus(ImportDeclarationStatus.DRAFT);
         declaration.setImportType(request.getImportType());
-        declaration.setTenantId(SecurityUtils.getCurrentTenantId().orElse("default"));
+        declaration.setTenantId(tenantId);
 
         // Importateur
         declaration.setImporterNiu(request.getImporterNiu());
@@ -205,21 +393,16 @@ public class ImportDeclarationService {
             int itemNumber = 1;
             for (ImportDeclarationDto.ItemRequest itemRequest : request.getItems()) {
                 ImportDeclarationItem item = createItem(itemRequest, itemNumber++);
+                item.setTenantId(tenantId);
                 declaration.addItem(item);
             }
         }
 
         // Recalculer les totaux et déterminer le routage préliminaire
         declaration.recalculateTotals();
-        declaration.setRoutingDestination(declaration.determineRouting());
-        declaration.setInspectionFee(declaration.calculateInspectionFee());
-        declaration.setTotalFees(declaration.calculateTotalFees());
-        declaration.setPaymentChannel(declaration.determinePaymentChannel());
-
-        declaration = repository.save(declaration);
-        log.info("Import declaration created with reference: {}", declaration.getReference());
+        declaration.applyRoutingRules(ruleEngine.forTenant(declaration.getTenantId()));
 
-        return toResponse(declaration);
+        return declaration;
     }
 
     // ========================================
@@ -233,13 +416,15 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response update(UUID id, ImportDeclarationDto.UpdateRequest request) {
         log.info("Updating import declaration: {}", id);
 
-        ImportDeclaration declaration = repository.findById(id)
+        ImportDeclaration declaration = repository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
 
         if (declaration.getStatus() != ImportDeclarationStatus.DRAFT) {
             throw new BusinessRuleException("Seuls les brouillons peuvent être modifiés");
         }
 
+        ImportDeclarationCounterService.CounterSnapshot before = counterService.snapshot(declaration);
+
         // Mise à jour des champs modifiables
         if (request.getImporterAddress() != null) declaration.setImporterAddress(request.getImporterAddress());
         if (request.getImporterPhone() != null) declaration.setImporterPhone(request.getImporterPhone());
@@ -265,18 +450,17 @@ public class ImportDeclarationService {
             int itemNumber = 1;
             for (ImportDeclarationDto.ItemRequest itemRequest : request.getItems()) {
                 ImportDeclarationItem item = createItem(itemRequest, itemNumber++);
+                item.setTenantId(declaration.getTenantId());
                 declaration.addItem(item);
             }
         }
 
         // Recalculer les totaux
         declaration.recalculateTotals();
-        declaration.setRoutingDestination(declaration.determineRouting());
-        declaration.setInspectionFee(declaration.calculateInspectionFee());
-        declaration.setTotalFees(declaration.calculateTotalFees());
-        declaration.setPaymentChannel(declaration.determinePaymentChannel());
+        declaration.applyRoutingRules(ruleEngine.forTenant(declaration.getTenantId()));
 
         declaration = repository.save(declaration);
+        counterService.recordTransition(declaration, before);
         log.info("Import declaration updated: {}", declaration.getReference());
 
         return toResponse(declaration);
@@ -293,7 +477,7 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response submit(UUID id) {
         log.info("Submitting import declaration: {}", id);
 
-        ImportDeclaration declaration = repository.findById(id)
+        ImportDeclaration declaration = repository.findFullById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
 
         if (declaration.getStatus() != ImportDeclarationStatus.DRAFT) {
@@ -303,27 +487,19 @@ public class ImportDeclarationService {
         // Validation des pièces obligatoires
         validateMandatoryDocuments(declaration);
 
+        ImportDeclarationCounterService.CounterSnapshot before = counterService.snapshot(declaration);
+
         // Soumettre la déclaration
-        declaration.submit();
+        declaration.submit(ruleEngine.forTenant(declaration.getTenantId()));
 
         // Démarrer le processus Camunda approprié
         String bpmnProcessId = getBpmnProcessId(declaration.getImportType());
         Map<String, Object> variables = buildProcessVariables(declaration);
 
-        try {
-            ProcessInstanceEvent processInstance = zeebeClient.newCreateInstanceCommand()
-                    .bpmnProcessId(bpmnProcessId)
-                    .latestVersion()
-                    .variables(variables)
-                    .send()
-                    .join();
-
-            declaration.setProcessInstanceId(String.valueOf(processInstance.getProcessInstanceKey()));
-        } catch (Exception e) {
-            log.warn("Could not start workflow process, continuing without it: {}", e.getMessage());
-        }
-
         declaration = repository.save(declaration);
+        outboxService.enqueue(AggregateType.IMPORT_DECLARATION, declaration.getId(),
+                declaration.getTenantId(), bpmnProcessId, variables);
+        counterService.recordTransition(declaration, before);
         log.info("Import declaration submitted: {} - Routing: {}",
                 declaration.getReference(), declaration.getRoutingDestination());
 
@@ -341,7 +517,7 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response recordPayment(UUID id, String paymentReference) {
         log.info("Recording payment for import declaration: {}", id);
 
-        ImportDeclaration declaration = repository.findById(id)
+        ImportDeclaration declaration = repository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
 
         if (declaration.getStatus() != ImportDeclarationStatus.SUBMITTED &&
@@ -349,8 +525,10 @@ public class ImportDeclarationService {
             throw new BusinessRuleException("Cette DI ne peut pas recevoir de paiement dans son état actuel");
         }
 
+        ImportDeclarationCounterService.CounterSnapshot before = counterService.snapshot(declaration);
         declaration.markAsPaid(paymentReference);
         declaration = repository.save(declaration);
+        counterService.recordTransition(declaration, before);
 
         log.info("Payment recorded for import declaration: {}", declaration.getReference());
         return toResponse(declaration);
@@ -367,7 +545,7 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response validate(UUID id) {
         log.info("Validating import declaration: {}", id);
 
-        ImportDeclaration declaration = repository.findById(id)
+        ImportDeclaration declaration = repository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
 
         String currentUser = SecurityUtils.getCurrentUserId().orElse("system");
@@ -378,8 +556,10 @@ public class ImportDeclarationService {
             throw new BusinessRuleException("Le visa technique MINSANTE est requis pour les médicaments");
         }
 
+        ImportDeclarationCounterService.CounterSnapshot before = counterService.snapshot(declaration);
         declaration.validate(currentUser);
         declaration = repository.save(declaration);
+        counterService.recordTransition(declaration, before);
 
         log.info("Import declaration validated: {}", declaration.getReference());
         return toResponse(declaration);
@@ -392,12 +572,14 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response reject(UUID id, String reason) {
         log.info("Rejecting import declaration: {}", id);
 
-        ImportDeclaration declaration = repository.findById(id)
+        ImportDeclaration declaration = repository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
 
         String currentUser = SecurityUtils.getCurrentUserId().orElse("system");
+        ImportDeclarationCounterService.CounterSnapshot before = counterService.snapshot(declaration);
         declaration.reject(currentUser, reason);
         declaration = repository.save(declaration);
+        counterService.recordTransition(declaration, before);
 
         log.info("Import declaration rejected: {}", declaration.getReference());
         return toResponse(declaration);
@@ -414,7 +596,7 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response signVisaTechnique(UUID id, ImportDeclarationDto.VisaTechniqueRequest request) {
         log.info("Signing visa technique for import declaration: {}", id);
 
-        ImportDeclaration declaration = repository.findById(id)
+        ImportDeclaration declaration = repository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
 
         if (!Boolean.TRUE.equals(declaration.getIsMedication())) {
@@ -425,11 +607,13 @@ public class ImportDeclarationService {
             throw new BusinessRuleException("Cette DI n'est pas en attente de visa technique");
         }
 
+        ImportDeclarationCounterService.CounterSnapshot before = counterService.snapshot(declaration);
         declaration.setVisaTechniqueNumber(request.getVisaTechniqueNumber());
         declaration.setVisaTechniqueDate(request.getVisaTechniqueDate());
         declaration.setStatus(ImportDeclarationStatus.VISA_TECHNIQUE_SIGNED);
 
         declaration = repository.save(declaration);
+        counterService.recordTransition(declaration, before);
         log.info("Visa technique signed for import declaration: {}", declaration.getReference());
 
         return toResponse(declaration);
@@ -446,7 +630,7 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response prorogateDI(UUID id, ImportDeclarationDto.ProrogationRequest request) {
         log.info("Prorogating import declaration: {}", id);
 
-        ImportDeclaration declaration = repository.findById(id)
+        ImportDeclaration declaration = repository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
 
         if (!declaration.canBeProrogated()) {
@@ -454,8 +638,10 @@ public class ImportDeclarationService {
                     "Condition: DI expirée et non encore prorogée.");
         }
 
+        ImportDeclarationCounterService.CounterSnapshot before = counterService.snapshot(declaration);
         declaration.prorogateDI();
         declaration = repository.save(declaration);
+        counterService.recordTransition(declaration, before);
 
         log.info("Import declaration prorogated: {} - New validity: {}",
                 declaration.getReference(), declaration.getProrogationEndDate());
@@ -474,7 +660,7 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response createAmendment(UUID id, ImportDeclarationDto.AmendmentRequest request) {
         log.info("Creating amendment for import declaration: {}", id);
 
-        ImportDeclaration original = repository.findById(id)
+        ImportDeclaration original = repository.findFullById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
 
         if (original.getStatus() != ImportDeclarationStatus.VALIDATED) {
@@ -541,7 +727,7 @@ public class ImportDeclarationService {
     public ImportDeclarationDto.Response assignToCad(UUID id, UUID cadId, String cadNiu, String cadName) {
         log.info("Assigning import declaration {} to CAD: {}", id, cadNiu);
 
-        ImportDeclaration declaration = repository.findById(id)
+        ImportDeclaration declaration = repository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Déclaration d'importation", id));
 
         // Règle RM04: Un dossier NE peut PAS être coté à deux CAD simultanément
@@ -570,21 +756,18 @@ public class ImportDeclarationService {
             boolean hasUsedVehicles, boolean hasPoultry, boolean hasEggs, boolean isPviExempt) {
 
         ImportDeclarationDto.RoutingResult result = new ImportDeclarationDto.RoutingResult();
+        ImportRoutingRules rules = currentRules();
 
         // Déterminer le routage
-        RoutingDestination destination;
-        String routingReason;
         boolean hasSpecialMerchandise = hasUsedVehicles || hasPoultry || hasEggs;
-
+        RoutingDestination destination = rules.route(totalFobValueXaf, hasSpecialMerchandise);
+        String routingReason;
         if (hasSpecialMerchandise) {
-            destination = RoutingDestination.CUSTOMS;
             routingReason = "Marchandise spéciale (véhicules d'occasion, poussins ou œufs)";
-        } else if (totalFobValueXaf.compareTo(SGS_THRESHOLD_XAF) > 0) {
-            destination = RoutingDestination.SGS;
-            routingReason = "Valeur FOB > 1 000 000 FCFA";
+        } else if (destination == RoutingDestination.SGS) {
+            routingReason = "Valeur FOB > " + rules.getSgsThreshold().toPlainString() + " FCFA";
         } else {
-            destination = RoutingDestination.CUSTOMS;
-            routingReason = "Valeur FOB <= 1 000 000 FCFA";
+            routingReason = "Valeur FOB <= " + rules.getSgsThreshold().toPlainString() + " FCFA";
         }
 
         result.setDestination(destination);
@@ -593,23 +776,13 @@ public class ImportDeclarationService {
         result.setHasSpecialMerchandise(hasSpecialMerchandise);
 
         // Calculer les frais
-        BigDecimal inspectionFee;
-        if (isPviExempt) {
-            inspectionFee = BigDecimal.ZERO;
-        } else if (destination == RoutingDestination.SGS) {
-            BigDecimal calculated = totalFobValueXaf.multiply(SGS_RATE).setScale(0, RoundingMode.HALF_UP);
-            inspectionFee = calculated.max(SGS_MINIMUM_FEE);
-        } else {
-            inspectionFee = CUSTOMS_INSPECTION_FEE;
-        }
-
+        BigDecimal inspectionFee = rules.inspectionFee(destination, totalFobValueXaf, isPviExempt);
         result.setInspectionFee(inspectionFee);
-        result.setFiscalStamp(FISCAL_STAMP);
-        result.setTotalFees(inspectionFee.add(FISCAL_STAMP));
+        result.setFiscalStamp(rules.getFiscalStamp());
+        result.setTotalFees(rules.totalFees(inspectionFee));
 
         // Déterminer le canal de paiement
-        PaymentChannel paymentChannel = totalFobValueXaf.compareTo(BANK_PAYMENT_THRESHOLD_XAF) >= 0
-                ? PaymentChannel.BANK_PAYONLINE : PaymentChannel.CAMPOST;
+        PaymentChannel paymentChannel = rules.paymentChannel(totalFobValueXaf);
         result.setPaymentChannel(paymentChannel);
         result.setPaymentChannelLabel(paymentChannel == PaymentChannel.BANK_PAYONLINE
                 ? "Banque (PayOnline)" : "Campost / CNCC");
@@ -624,71 +797,77 @@ public class ImportDeclarationService {
             RoutingDestination destination, boolean isPviExempt) {
 
         ImportDeclarationDto.FeeCalculation calc = new ImportDeclarationDto.FeeCalculation();
+        ImportRoutingRules rules = currentRules();
         calc.setTotalFobValueXaf(totalFobValueXaf);
 
         if (isPviExempt) {
             calc.setInspectionFeeApplied(BigDecimal.ZERO);
             calc.setCalculationDetails("Exempté du Programme de Vérification des Importations (PVI)");
         } else if (destination == RoutingDestination.SGS) {
-            calc.setInspectionFeeRate(SGS_RATE);
-            BigDecimal calculated = totalFobValueXaf.multiply(SGS_RATE).setScale(0, RoundingMode.HALF_UP);
-            calc.setInspectionFeeCalculated(calculated);
-            calc.setInspectionFeeMinimum(SGS_MINIMUM_FEE);
-            calc.setInspectionFeeApplied(calculated.max(SGS_MINIMUM_FEE));
-            calc.setCalculationDetails(String.format(
-                    "SGS: MAX(0.95%% × %s FCFA, 110 000 FCFA) = %s FCFA",
-                    totalFobValueXaf.toPlainString(),
-                    calc.getInspectionFeeApplied().toPlainString()));
+            calc.setInspectionFeeRate(rules.getSgsRate());
+            calc.setInspectionFeeCalculated(rules.sgsPercentageFee(totalFobValueXaf));
+            calc.setInspectionFeeMinimum(rules.getSgsMinimumFee());
+            calc.setInspectionFeeApplied(rules.inspectionFee(destination, totalFobValueXaf, false));
+            calc.setCalculationDetails(rules.describeSgsFee(totalFobValueXaf, calc.getInspectionFeeApplied()));
         } else {
-            calc.setInspectionFeeApplied(CUSTOMS_INSPECTION_FEE);
-            calc.setCalculationDetails("Douane: Taxe fixe de 6 000 FCFA");
+            calc.setInspectionFeeApplied(rules.getCustomsInspectionFee());
+            calc.setCalculationDetails(rules.describeCustomsFee());
         }
 
-        calc.setFiscalStamp(FISCAL_STAMP);
-        calc.setTotalFees(calc.getInspectionFeeApplied().add(FISCAL_STAMP));
+        calc.setFiscalStamp(rules.getFiscalStamp());
+        calc.setTotalFees(rules.totalFees(calc.getInspectionFeeApplied()));
 
         return calc;
     }
 
+    /**
+     * Règles de routage et de frais en vigueur pour le tenant courant.
+     */
+    public ImportDeclarationDto.RoutingRules getRoutingRules() {
+        return ImportRoutingRuleEngine.describe(currentRules());
+    }
+
+    /**
+     * Remplace et persiste les règles de routage et de frais du tenant courant.
+     */
+    @Transactional
+    public ImportDeclarationDto.RoutingRules updateRoutingRules(ImportDeclarationDto.RoutingRules rules) {
+        String tenantId = SecurityUtils.getCurrentTenantId().orElse("default");
+        return ImportRoutingRuleEngine.describe(ruleEngine.replace(tenantId, rules));
+    }
+
+    /**
+     * Recharge les règles de routage et de frais depuis la configuration et la base.
+     */
+    public ImportDeclarationDto.RoutingRules reloadRoutingRules() {
+        ruleEngine.reload();
+        return getRoutingRules();
+    }
+
+    private ImportRoutingRules currentRules() {
+        return ruleEngine.forTenant(SecurityUtils.getCurrentTenantId().orElse("default"));
+    }
+
     // ========================================
     // STATISTIQUES
     // ========================================
 
     /**
-     * Génère les statistiques des DI.
+     * Génère les statistiques des DI à partir des compteurs maintenus incrémentalement.
      */
     public ImportDeclarationDto.Statistics getStatistics() {
         String tenantId = SecurityUtils.getCurrentTenantId().orElse("default");
-        ImportDeclarationDto.Statistics stats = new ImportDeclarationDto.Statistics();
-
-        // Par routage
-        stats.setTotalSgsDeclarations(repository.countByRoutingDestinationAndTenant(
-                RoutingDestination.SGS, tenantId));
-        stats.setTotalCustomsDeclarations(repository.countByRoutingDestinationAndTenant(
-                RoutingDestination.CUSTOMS, tenantId));
-
-        // Par statut
-        stats.setTotalDraft(repository.countByStatusAndTenant(ImportDeclarationStatus.DRAFT, tenantId));
-        stats.setTotalSubmitted(repository.countByStatusAndTenant(ImportDeclarationStatus.SUBMITTED, tenantId));
-        stats.setTotalPendingPayment(repository.countByStatusAndTenant(ImportDeclarationStatus.PENDING_PAYMENT, tenantId));
-        stats.setTotalValidated(repository.countByStatusAndTenant(ImportDeclarationStatus.VALIDATED, tenantId));
-        stats.setTotalRejected(repository.countByStatusAndTenant(ImportDeclarationStatus.REJECTED, tenantId));
-        stats.setTotalExpired(repository.countByStatusAndTenant(ImportDeclarationStatus.EXPIRED, tenantId));
-
-        // Par mode de transport
-        stats.setTotalMaritime(repository.countByTransportModeAndTenant(TransportMode.MARITIME, tenantId));
-        stats.setTotalAerien(repository.countByTransportModeAndTenant(TransportMode.AERIEN, tenantId));
-        stats.setTotalRoutier(repository.countByTransportModeAndTenant(TransportMode.ROUTIER, tenantId));
-        stats.setTotalFerroviaire(repository.countByTransportModeAndTenant(TransportMode.FERROVIAIRE, tenantId));
-        stats.setTotalMultimodal(repository.countByTransportModeAndTenant(TransportMode.MULTIMODAL, tenantId));
-
-        // Par type d'importation
-        stats.setTotalClassique(repository.countByImportTypeAndTenant(ImportType.CLASSIQUE, tenantId));
-        stats.setTotalGroupage(repository.countByImportTypeAndTenant(ImportType.GROUPAGE, tenantId));
-        stats.setTotalMedicaments(repository.countByImportTypeAndTenant(ImportType.MEDICAMENTS, tenantId));
-        stats.setTotalTransit(repository.countByImportTypeAndTenant(ImportType.TRANSIT, tenantId));
-
-        return stats;
+        return counterService.getStatistics(tenantId);
+    }
+
+    /**
+     * Reconstruit les compteurs statistiques du tenant courant à partir des DI.
+     */
+    @Transactional
+    public ImportDeclarationDto.Statistics rebuildStatistics() {
+        String tenantId = SecurityUtils.getCurrentTenantId().orElse("default");
+        counterService.rebuild(tenantId);
+        return counterService.getStatistics(tenantId);
     }
 
     // ========================================
@@ -702,7 +881,7 @@ public class ImportDeclarationService {
             case MEDICAMENTS -> "DIM";
             case TRANSIT -> "DIT";
         };
-        return StringUtils.generateReference(prefix);
+        return referenceGenerator.next(prefix);
     }
 
     private String getBpmnProcessId(ImportType importType) {
@@ -0,0 +1,144 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.application.dto.ImportDeclarationDto;
+import cm.guce.procedure.domain.model.ImportDeclaration.*;
+import cm.guce.procedure.domain.model.ImportDeclarationCounter.CounterDimension;
+import cm.guce.procedure.domain.port.ImportDeclarationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moteur de statistiques des Déclarations d'Importation.
+ *
+ * Calcule l'ensemble des compteurs (routage, statut, mode de transport, type d'importation)
+ * à partir d'un unique parcours groupé de la table import_declaration, au lieu d'une
+ * requête COUNT par compteur.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ImportDeclarationStatisticsEngine {
+
+    private final ImportDeclarationRepository repository;
+
+    /**
+     * Calcule les statistiques d'un tenant en une seule requête.
+     */
+    public ImportDeclarationDto.Statistics compute(String tenantId) {
+        log.debug("Computing import declaration statistics for tenant: {}", tenantId);
+        Counters counters = aggregate(tenantId);
+        return counters.toStatistics();
+    }
+
+    /**
+     * Agrège les compteurs d'un tenant à partir du parcours groupé.
+     */
+    public Counters aggregate(String tenantId) {
+        return Counters.fromGroupedRows(repository.countGroupedByDimensions(tenantId));
+    }
+
+    /**
+     * Compteurs par dimension, indexés par énumération.
+     */
+    public static final class Counters {
+
+        private final Map<RoutingDestination, Long> byRouting = new EnumMap<>(RoutingDestination.class);
+        private final Map<ImportDeclarationStatus, Long> byStatus = new EnumMap<>(ImportDeclarationStatus.class);
+        private final Map<TransportMode, Long> byTransportMode = new EnumMap<>(TransportMode.class);
+        private final Map<ImportType, Long> byImportType = new EnumMap<>(ImportType.class);
+
+        /**
+         * Construit les compteurs à partir des lignes
+         * [routage, statut, mode de transport, type, nombre].
+         */
+        public static Counters fromGroupedRows(List<Object[]> rows) {
+            Counters counters = new Counters();
+            for (Object[] row : rows) {
+                long count = ((Number) row[4]).longValue();
+                counters.add((RoutingDestination) row[0], (ImportDeclarationStatus) row[1],
+                        (TransportMode) row[2], (ImportType) row[3], count);
+            }
+            return counters;
+        }
+
+        public void add(RoutingDestination routing, ImportDeclarationStatus status,
+                        TransportMode transportMode, ImportType importType, long count) {
+            if (routing != null) byRouting.merge(routing, count, Long::sum);
+            if (status != null) byStatus.merge(status, count, Long::sum);
+            if (transportMode != null) byTransportMode.merge(transportMode, count, Long::sum);
+            if (importType != null) byImportType.merge(importType, count, Long::sum);
+        }
+
+        /**
+         * Ajoute la valeur d'un compteur persisté (dimension + nom de l'énumération).
+         */
+        public void add(CounterDimension dimension, String value, long count) {
+            switch (dimension) {
+                case ROUTING -> byRouting.merge(RoutingDestination.valueOf(value), count, Long::sum);
+                case STATUS -> byStatus.merge(ImportDeclarationStatus.valueOf(value), count, Long::sum);
+                case TRANSPORT_MODE -> byTransportMode.merge(TransportMode.valueOf(value), count, Long::sum);
+                case IMPORT_TYPE -> byImportType.merge(ImportType.valueOf(value), count, Long::sum);
+            }
+        }
+
+        public Map<RoutingDestination, Long> getByRouting() {
+            return byRouting;
+        }
+
+        public Map<ImportDeclarationStatus, Long> getByStatus() {
+            return byStatus;
+        }
+
+        public Map<TransportMode, Long> getByTransportMode() {
+            return byTransportMode;
+        }
+
+        public Map<ImportType, Long> getByImportType() {
+            return byImportType;
+        }
+
+        public ImportDeclarationDto.Statistics toStatistics() {
+            ImportDeclarationDto.Statistics stats = new ImportDeclarationDto.Statistics();
+
+            // Par routage
+            stats.setTotalSgsDeclarations(byRouting.getOrDefault(RoutingDestination.SGS, 0L));
+            stats.setTotalCustomsDeclarations(byRouting.getOrDefault(RoutingDestination.CUSTOMS, 0L));
+
+            // Par statut
+            stats.setTotalDraft(status(ImportDeclarationStatus.DRAFT));
+            stats.setTotalSubmitted(status(ImportDeclarationStatus.SUBMITTED));
+            stats.setTotalPendingPayment(status(ImportDeclarationStatus.PENDING_PAYMENT));
+            stats.setTotalProcessing(status(ImportDeclarationStatus.PROCESSING_SGS)
+                    + status(ImportDeclarationStatus.PROCESSING_CUSTOMS));
+            stats.setTotalValidated(status(ImportDeclarationStatus.VALIDATED));
+            stats.setTotalRejected(status(ImportDeclarationStatus.REJECTED));
+            stats.setTotalExpired(status(ImportDeclarationStatus.EXPIRED));
+
+            // Par mode de transport
+            stats.setTotalMaritime(byTransportMode.getOrDefault(TransportMode.MARITIME, 0L));
+            stats.setTotalAerien(byTransportMode.getOrDefault(TransportMode.AERIEN, 0L));
+            stats.setTotalRoutier(byTransportMode.getOrDefault(TransportMode.ROUTIER, 0L));
+            stats.setTotalFerroviaire(byTransportMode.getOrDefault(TransportMode.FERROVIAIRE, 0L));
+            stats.setTotalMultimodal(byTransportMode.getOrDefault(TransportMode.MULTIMODAL, 0L));
+
+            // Par type d'importation
+            stats.setTotalClassique(byImportType.getOrDefault(ImportType.CLASSIQUE, 0L));
+            stats.setTotalGroupage(byImportType.getOrDefault(ImportType.GROUPAGE, 0L));
+            stats.setTotalMedicaments(byImportType.getOrDefault(ImportType.MEDICAMENTS, 0L));
+            stats.setTotalTransit(byImportType.getOrDefault(ImportType.TRANSIT, 0L));
+
+            return stats;
+        }
+
+        private long status(ImportDeclarationStatus status) {
+            return byStatus.getOrDefault(status, 0L);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.domain.exception.ValidationException;
+import cm.guce.common.security.SecurityUtils;
+import cm.guce.procedure.application.dto.ImportDeclarationDto.RoutingRules;
+import cm.guce.procedure.domain.model.ImportRoutingRuleOverride;
+import cm.guce.procedure.domain.model.ImportRoutingRules;
+import cm.guce.procedure.domain.port.ImportRoutingRuleRepository;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Moteur de règles de routage et de frais des DI.
+ *
+ * Les règles sont lues dans la configuration (guce.procedure.import-rules: valeurs par
+ * défaut et surcharges par tenant) puis dans la table import_routing_rule (surcharges
+ * modifiées à chaud), compilées en tables de décision immuables et publiées atomiquement;
+ * les calculs en cours terminent sur l'ancienne version. Une mise à jour est persistée puis
+ * republiée après validation; les autres instances la reprennent au rechargement périodique.
+ */
+@Slf4j
+@Component
+public class ImportRoutingRuleEngine {
+
+    private static final String PROPERTY_PREFIX = "guce.procedure.import-rules";
+
+    private final Environment environment;
+    private final ImportRoutingRuleRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<CompiledRules> current = new AtomicReference<>();
+
+    public ImportRoutingRuleEngine(Environment environment, ImportRoutingRuleRepository repository,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.environment = environment;
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        // Configuration seule jusqu'au premier rechargement depuis la base
+        publish(List.of());
+    }
+
+    /**
+     * Signale la mise à jour des règles d'un tenant.
+     */
+    public record Changed(String tenantId) {
+    }
+
+    /**
+     * Retourne la table de décision d'un tenant (ou celle par défaut).
+     */
+    public ImportRoutingRules forTenant(String tenantId) {
+        CompiledRules rules = current.get();
+        return rules.byTenant().getOrDefault(tenantId, rules.defaults());
+    }
+
+    /**
+     * Recharge et recompile toutes les règles depuis la configuration et la base: au
+     * démarrage puis périodiquement (mises à jour faites par les autres instances).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${guce.procedure.import-rules.refresh-interval:60000}",
+            initialDelayString = "${guce.procedure.import-rules.refresh-interval:60000}")
+    public void reload() {
+        publish(repository.findAll());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChanged(Changed event) {
+        log.debug("Import routing rules changed for tenant: {}", event.tenantId());
+        reload();
+    }
+
+    /**
+     * Remplace et persiste les règles d'un tenant. La nouvelle table est publiée après
+     * validation de la transaction.
+     */
+    @Transactional
+    public ImportRoutingRules replace(String tenantId, RoutingRules set) {
+        ImportRoutingRules compiled = compile(merge(merge(set, configuredSet(tenantId)), current.get().defaultSet()));
+
+        ImportRoutingRuleOverride override = repository.findById(tenantId)
+                .orElseGet(() -> new ImportRoutingRuleOverride(tenantId));
+        override.setSgsThreshold(set.getSgsThreshold());
+        override.setBankPaymentThreshold(set.getBankPaymentThreshold());
+        override.setSgsRate(set.getSgsRate());
+        override.setSgsMinimumFee(set.getSgsMinimumFee());
+        override.setCustomsInspectionFee(set.getCustomsInspectionFee());
+        override.setFiscalStamp(set.getFiscalStamp());
+        override.setUpdatedAt(LocalDateTime.now());
+        override.setUpdatedBy(SecurityUtils.getCurrentUsername().orElse(null));
+        repository.save(override);
+
+        eventPublisher.publishEvent(new Changed(tenantId));
+        log.info("Import routing rules replaced for tenant: {}", tenantId);
+        return compiled;
+    }
+
+    private void publish(List<ImportRoutingRuleOverride> overrides) {
+        RulesConfiguration configuration = configuration();
+        RoutingRules defaultSet = merge(configuration.getDefaults(), builtIn());
+
+        Map<String, RoutingRules> sets = new HashMap<>(configuration.getTenants());
+        for (ImportRoutingRuleOverride override : overrides) {
+            sets.put(override.getTenantId(), merge(toRules(override), sets.get(override.getTenantId())));
+        }
+        Map<String, ImportRoutingRules> byTenant = new HashMap<>();
+        sets.forEach((tenantId, set) -> byTenant.put(tenantId, compile(merge(set, defaultSet))));
+
+        current.set(new CompiledRules(defaultSet, compile(defaultSet), Map.copyOf(byTenant)));
+        log.info("Import routing rules compiled: defaults + {} tenant override(s), {} from database",
+                byTenant.size(), overrides.size());
+    }
+
+    private RulesConfiguration configuration() {
+        return Binder.get(environment)
+                .bind(PROPERTY_PREFIX, RulesConfiguration.class)
+                .orElseGet(RulesConfiguration::new);
+    }
+
+    private RoutingRules configuredSet(String tenantId) {
+        return configuration().getTenants().get(tenantId);
+    }
+
+    private static RoutingRules toRules(ImportRoutingRuleOverride override) {
+        RoutingRules set = new RoutingRules();
+        set.setSgsThreshold(override.getSgsThreshold());
+        set.setBankPaymentThreshold(override.getBankPaymentThreshold());
+        set.setSgsRate(override.getSgsRate());
+        set.setSgsMinimumFee(override.getSgsMinimumFee());
+        set.setCustomsInspectionFee(override.getCustomsInspectionFee());
+        set.setFiscalStamp(override.getFiscalStamp());
+        return set;
+    }
+
+    /**
+     * Convertit une table de décision en paramètres (pour consultation).
+     */
+    public static RoutingRules describe(ImportRoutingRules rules) {
+        RoutingRules set = new RoutingRules();
+        set.setSgsThreshold(rules.getSgsThreshold());
+        set.setBankPaymentThreshold(rules.getBankPaymentThreshold());
+        set.setSgsRate(rules.getSgsRate());
+        set.setSgsMinimumFee(rules.getSgsMinimumFee());
+        set.setCustomsInspectionFee(rules.getCustomsInspectionFee());
+        set.setFiscalStamp(rules.getFiscalStamp());
+        return set;
+    }
+
+    private ImportRoutingRules compile(RoutingRules set) {
+        try {
+            return new ImportRoutingRules(set.getSgsThreshold(), set.getBankPaymentThreshold(), set.getSgsRate(),
+                    set.getSgsMinimumFee(), set.getCustomsInspectionFee(), set.getFiscalStamp());
+        } catch (RuntimeException e) {
+            throw new ValidationException("Règles de routage invalides: " + e.getMessage());
+        }
+    }
+
+    private static RoutingRules merge(RoutingRules set, RoutingRules fallback) {
+        if (set == null) {
+            return fallback;
+        }
+        if (fallback == null) {
+            return set;
+        }
+        RoutingRules merged = new RoutingRules();
+        merged.setSgsThreshold(pick(set.getSgsThreshold(), fallback.getSgsThreshold()));
+        merged.setBankPaymentThreshold(pick(set.getBankPaymentThreshold(), fallback.getBankPaymentThreshold()));
+        merged.setSgsRate(pick(set.getSgsRate(), fallback.getSgsRate()));
+        merged.setSgsMinimumFee(pick(set.getSgsMinimumFee(), fallback.getSgsMinimumFee()));
+        merged.setCustomsInspectionFee(pick(set.getCustomsInspectionFee(), fallback.getCustomsInspectionFee()));
+        merged.setFiscalStamp(pick(set.getFiscalStamp(), fallback.getFiscalStamp()));
+        return merged;
+    }
+
+    private static BigDecimal pick(BigDecimal value, BigDecimal fallback) {
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Valeurs réglementaires GUCE Cameroun.
+     */
+    private static RoutingRules builtIn() {
+        RoutingRules set = new RoutingRules();
+        set.setSgsThreshold(new BigDecimal("1000000"));
+        set.setBankPaymentThreshold(new BigDecimal("2000000"));
+        set.setSgsRate(new BigDecimal("0.0095"));
+        set.setSgsMinimumFee(new BigDecimal("110000"));
+        set.setCustomsInspectionFee(new BigDecimal("6000"));
+        set.setFiscalStamp(new BigDecimal("1500"));
+        return set;
+    }
+
+    private record CompiledRules(RoutingRules defaultSet,
+                                 ImportRoutingRules defaults,
+                                 Map<String, ImportRoutingRules> byTenant) {
+    }
+
+    @Data
+    public static class RulesConfiguration {
+        private RoutingRules defaults;
+        private Map<String, RoutingRules> tenants = new HashMap<>();
+    }
+}
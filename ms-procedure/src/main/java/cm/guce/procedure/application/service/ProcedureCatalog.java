@@ -0,0 +1,146 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.application.dto.ApiResponse;
+import cm.guce.procedure.application.dto.ProcedureDto;
+import cm.guce.procedure.application.mapper.ProcedureMapper;
+import cm.guce.procedure.domain.model.Procedure.ProcedureCategory;
+import cm.guce.procedure.domain.port.ProcedureRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Catalogue des procédures publiées, conservé en mémoire.
+ *
+ * L'instantané est construit en une requête au démarrage, reconstruit après chaque
+ * publication, archivage ou nouvelle version (événement {@link Changed}, après
+ * validation) et périodiquement pour les changements faits par les autres instances.
+ * Chaque liste (catalogue complet et par catégorie) est une réponse figée, sans
+ * métadonnées variables, accompagnée d'un ETag fort calculé sur son contenu sérialisé:
+ * deux instances servant le même contenu produisent le même ETag.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProcedureCatalog {
+
+    private final ProcedureRepository procedureRepository;
+    private final ProcedureMapper procedureMapper;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Signale une modification du catalogue (publication, archivage, nouvelle version).
+     */
+    public record Changed(UUID procedureId) {
+    }
+
+    /**
+     * Réponse figée et son ETag.
+     */
+    public record Entry(ApiResponse<List<ProcedureDto.Summary>> response, String etag) {
+
+        public List<ProcedureDto.Summary> procedures() {
+            return response.getData();
+        }
+    }
+
+    /**
+     * Instantané du catalogue; version croît à chaque changement de contenu.
+     */
+    public record Snapshot(long version, LocalDateTime builtAt, Entry all, Map<ProcedureCategory, Entry> byCategory) {
+
+        public Entry category(ProcedureCategory category) {
+            return byCategory.get(category);
+        }
+    }
+
+    /**
+     * Retourne l'instantané courant (construit au premier appel si nécessaire).
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChanged(Changed event) {
+        log.debug("Procedure catalog changed by procedure: {}", event.procedureId());
+        rebuild();
+    }
+
+    /**
+     * Reconstruction au démarrage et périodique (changements des autres instances).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${guce.procedure.catalog.refresh-interval:60000}",
+            initialDelayString = "${guce.procedure.catalog.refresh-interval:60000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruit l'instantané; l'instantané courant est conservé si le contenu est inchangé.
+     */
+    public synchronized Snapshot rebuild() {
+        List<ProcedureDto.Summary> procedures = procedureRepository.findCatalogEntries().stream()
+                .map(procedureMapper::toCatalogSummary)
+                .toList();
+        Entry all = entry(procedures);
+
+        Snapshot previous = snapshot;
+        if (previous != null && previous.all().etag().equals(all.etag())) {
+            return previous;
+        }
+
+        Map<ProcedureCategory, Entry> byCategory = new EnumMap<>(ProcedureCategory.class);
+        for (ProcedureCategory category : ProcedureCategory.values()) {
+            byCategory.put(category, entry(procedures.stream()
+                    .filter(procedure -> procedure.getCategory() == category)
+                    .toList()));
+        }
+
+        Snapshot next = new Snapshot(previous != null ? previous.version() + 1 : 1, LocalDateTime.now(),
+                all, byCategory);
+        snapshot = next;
+        log.info("Procedure catalog rebuilt: version {}, {} procedure(s)", next.version(), procedures.size());
+        return next;
+    }
+
+    private Entry entry(List<ProcedureDto.Summary> procedures) {
+        ApiResponse<List<ProcedureDto.Summary>> response = ApiResponse.<List<ProcedureDto.Summary>>builder()
+                .success(true)
+                .data(procedures)
+                .build();
+        try {
+            return new Entry(response, etag(objectMapper.writeValueAsBytes(response)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Catalogue des procédures non sérialisable", e);
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import cm.guce.procedure.domain.model.Procedure;
 import cm.guce.procedure.domain.port.ProcedureRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -28,21 +29,29 @@ public class ProcedureService {
 
     private final ProcedureRepository procedureRepository;
     private final ProcedureMapper procedureMapper;
+    private final CompiledFormCache compiledFormCache;
+    private final ProcedureCatalog procedureCatalog;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     /**
-     * Récupère toutes les procédures publiées.
+     * Récupère toutes les procédures publiées (catalogue en mémoire).
      */
     public List<ProcedureDto.Summary> findPublished() {
-        log.debug("Fetching published procedures");
-        return procedureMapper.toSummaryList(procedureRepository.findPublished());
+        return procedureCatalog.current().all().procedures();
     }
 
     /**
-     * Récupère les procédures publiées par catégorie.
+     * Récupère les procédures publiées par catégorie (catalogue en mémoire).
      */
     public List<ProcedureDto.Summary> findPublishedByCategory(Procedure.ProcedureCategory category) {
-        log.debug("Fetching published procedures for category: {}", category);
-        return procedureMapper.toSummaryList(procedureRepository.findPublishedByCategory(category));
+        return procedureCatalog.current().category(category).procedures();
+    }
+
+    /**
+     * Instantané du catalogue des procédures publiées, avec ETag.
+     */
+    public ProcedureCatalog.Snapshot getCatalog() {
+        return procedureCatalog.current();
     }
 
     /**
@@ -130,6 +139,8 @@ public class ProcedureService {
         procedure.setStatus(Procedure.ProcedureStatus.PUBLISHED);
         procedure.setPublishedVersion(procedure.getVersionNumber());
         procedure = procedureRepository.save(procedure);
+        compiledFormCache.evictAfterCommit(procedure.getId());
+        applicationEventPublisher.publishEvent(new ProcedureCatalog.Changed(procedure.getId()));
 
         log.info("Procedure published: {}", procedure.getId());
         return procedureMapper.toResponse(procedure);
@@ -148,6 +159,8 @@ public class ProcedureService {
         procedure.setStatus(Procedure.ProcedureStatus.ARCHIVED);
         procedure.setIsActive(false);
         procedureRepository.save(procedure);
+        compiledFormCache.evictAfterCommit(id);
+        applicationEventPublisher.publishEvent(new ProcedureCatalog.Changed(id));
 
         log.info("Procedure archived: {}", id);
     }
@@ -174,6 +187,8 @@ public class ProcedureService {
         newVersion.setPublishedVersion(null);
 
         newVersion = procedureRepository.save(newVersion);
+        compiledFormCache.evictAfterCommit(original.getId(), newVersion.getId());
+        applicationEventPublisher.publishEvent(new ProcedureCatalog.Changed(original.getId()));
         log.info("New version created: {} v{}", newVersion.getCode(), newVersion.getVersionNumber());
 
         return procedureMapper.toResponse(newVersion);
@@ -202,6 +217,10 @@ public class ProcedureService {
             validationException.addFieldError("bpmnProcessId", "Le processus BPMN doit être défini");
         }
 
+        // Motifs et expressions du formulaire de soumission
+        compiledFormCache.compile(procedure).getCompilationErrors()
+                .forEach(error -> validationException.addFieldError("forms." + error.field(), error.message()));
+
         if (validationException.hasErrors()) {
             throw validationException;
         }
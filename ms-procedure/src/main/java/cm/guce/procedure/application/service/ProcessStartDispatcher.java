@@ -0,0 +1,94 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.application.service.ProcessStartOutboxService.DispatchResult;
+import cm.guce.procedure.domain.model.ProcessStartOutbox;
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.response.ProcessInstanceEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Distributeur des démarrages de processus Camunda enregistrés dans l'outbox.
+ *
+ * À chaque passage: réservation d'un lot (transaction courte), envoi de toutes les
+ * commandes Zeebe en parallèle sans connexion base ouverte, puis enregistrement des
+ * résultats (transaction courte). Les échecs sont retentés avec un délai exponentiel.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProcessStartDispatcher {
+
+    private final ProcessStartOutboxService outboxService;
+    private final ZeebeClient zeebeClient;
+
+    @Value("${guce.procedure.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${guce.procedure.outbox.request-timeout-seconds:10}")
+    private long requestTimeoutSeconds;
+
+    @Scheduled(fixedDelayString = "${guce.procedure.outbox.poll-interval:1000}")
+    public void dispatch() {
+        List<ProcessStartOutbox> batch;
+        do {
+            batch = outboxService.claim(batchSize);
+            if (!batch.isEmpty()) {
+                outboxService.complete(start(batch));
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private List<DispatchResult> start(List<ProcessStartOutbox> batch) {
+        Duration timeout = Duration.ofSeconds(requestTimeoutSeconds);
+        List<CompletableFuture<ProcessInstanceEvent>> futures = new ArrayList<>(batch.size());
+        for (ProcessStartOutbox entry : batch) {
+            futures.add(send(entry, timeout));
+        }
+
+        long deadline = System.nanoTime() + timeout.plusSeconds(1).toNanos();
+        List<DispatchResult> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            ProcessStartOutbox entry = batch.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                ProcessInstanceEvent event = futures.get(i).get(remaining, TimeUnit.NANOSECONDS);
+                results.add(DispatchResult.success(entry.getId(), event.getProcessInstanceKey()));
+            } catch (ExecutionException e) {
+                results.add(DispatchResult.failure(entry.getId(), String.valueOf(e.getCause().getMessage())));
+            } catch (TimeoutException e) {
+                results.add(DispatchResult.failure(entry.getId(), "Délai de réponse Zeebe dépassé"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(DispatchResult.failure(entry.getId(), "Interrompu"));
+            }
+        }
+        log.debug("Dispatched {} process start(s)", results.size());
+        return results;
+    }
+
+    private CompletableFuture<ProcessInstanceEvent> send(ProcessStartOutbox entry, Duration timeout) {
+        try {
+            return zeebeClient.newCreateInstanceCommand()
+                    .bpmnProcessId(entry.getBpmnProcessId())
+                    .latestVersion()
+                    .variables(entry.getVariables())
+                    .requestTimeout(timeout)
+                    .send()
+                    .toCompletableFuture();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
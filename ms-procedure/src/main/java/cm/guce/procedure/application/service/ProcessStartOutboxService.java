@@ -0,0 +1,180 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.domain.model.ProcessStartOutbox;
+import cm.guce.procedure.domain.model.ProcessStartOutbox.AggregateType;
+import cm.guce.procedure.domain.model.ProcessStartOutbox.OutboxStatus;
+import cm.guce.procedure.domain.port.DeclarationRepository;
+import cm.guce.procedure.domain.port.FimexRepository;
+import cm.guce.procedure.domain.port.ImportDeclarationRepository;
+import cm.guce.procedure.domain.port.ProcessStartOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service de l'outbox des démarrages de processus Camunda.
+ *
+ * Les soumissions (DI, FIMEX, déclarations) n'appellent plus Zeebe: elles enregistrent
+ * une demande dans la transaction métier. ProcessStartDispatcher réserve ensuite les
+ * demandes par lots, démarre les processus hors transaction et enregistre le résultat.
+ * Une demande réservée mais jamais conclue (arrêt de l'instance) redevient éligible à
+ * l'expiration de sa réservation: la livraison est "au moins une fois". Les demandes
+ * démarrées sont purgées chaque nuit au-delà de la rétention; les échecs sont conservés.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ProcessStartOutboxService {
+
+    private final ProcessStartOutboxRepository outboxRepository;
+    private final ImportDeclarationRepository importDeclarationRepository;
+    private final FimexRepository fimexRepository;
+    private final DeclarationRepository declarationRepository;
+
+    @Value("${guce.procedure.outbox.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${guce.procedure.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${guce.procedure.outbox.backoff-initial-seconds:5}")
+    private long backoffInitialSeconds;
+
+    @Value("${guce.procedure.outbox.backoff-max-seconds:600}")
+    private long backoffMaxSeconds;
+
+    @Value("${guce.procedure.outbox.retention-days:7}")
+    private long retentionDays;
+
+    /**
+     * Résultat du démarrage d'un processus: clé de l'instance, ou erreur.
+     */
+    public record DispatchResult(UUID outboxId, Long processInstanceKey, String error) {
+
+        public static DispatchResult success(UUID outboxId, long processInstanceKey) {
+            return new DispatchResult(outboxId, processInstanceKey, null);
+        }
+
+        public static DispatchResult failure(UUID outboxId, String error) {
+            return new DispatchResult(outboxId, null, error);
+        }
+    }
+
+    /**
+     * Enregistre une demande de démarrage dans la transaction courante.
+     */
+    @Transactional
+    public void enqueue(AggregateType aggregateType, UUID aggregateId, String tenantId,
+                        String bpmnProcessId, Map<String, Object> variables) {
+        LocalDateTime now = LocalDateTime.now();
+        ProcessStartOutbox entry = new ProcessStartOutbox();
+        entry.setAggregateType(aggregateType);
+        entry.setAggregateId(aggregateId);
+        entry.setTenantId(tenantId);
+        entry.setBpmnProcessId(bpmnProcessId);
+        entry.setVariables(new HashMap<>(variables));
+        entry.setCreatedAt(now);
+        entry.setNextAttemptAt(now);
+        outboxRepository.save(entry);
+        log.debug("Process start queued for {} {} ({})", aggregateType, aggregateId, bpmnProcessId);
+    }
+
+    /**
+     * Réserve un lot de demandes échues: elles restent invisibles aux autres instances
+     * jusqu'à la fin de la réservation.
+     */
+    @Transactional
+    public List<ProcessStartOutbox> claim(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProcessStartOutbox> batch = outboxRepository.findDueForUpdate(
+                OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+        for (ProcessStartOutbox entry : batch) {
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setNextAttemptAt(leaseUntil);
+        }
+        return batch;
+    }
+
+    /**
+     * Enregistre les résultats d'un lot et reporte l'identifiant d'instance sur les dossiers.
+     */
+    @Transactional
+    public void complete(List<DispatchResult> results) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, ProcessStartOutbox> entries = new HashMap<>();
+        outboxRepository.findAllById(results.stream().map(DispatchResult::outboxId).toList())
+                .forEach(entry -> entries.put(entry.getId(), entry));
+
+        for (DispatchResult result : results) {
+            ProcessStartOutbox entry = entries.get(result.outboxId());
+            if (entry == null) {
+                continue;
+            }
+            if (result.error() == null) {
+                entry.setStatus(OutboxStatus.DISPATCHED);
+                entry.setProcessInstanceKey(result.processInstanceKey());
+                entry.setDispatchedAt(now);
+                entry.setLastError(null);
+                writeBack(entry);
+            } else if (entry.getAttempts() >= maxAttempts) {
+                entry.setStatus(OutboxStatus.FAILED);
+                entry.setLastError(result.error());
+                log.error("Process start abandoned for {} {} after {} attempts: {}",
+                        entry.getAggregateType(), entry.getAggregateId(), entry.getAttempts(), result.error());
+            } else {
+                entry.setLastError(result.error());
+                entry.setNextAttemptAt(now.plus(backoff(entry.getAttempts())));
+                log.warn("Process start failed for {} {} (attempt {}), retrying at {}: {}",
+                        entry.getAggregateType(), entry.getAggregateId(), entry.getAttempts(),
+                        entry.getNextAttemptAt(), result.error());
+            }
+        }
+    }
+
+    /**
+     * Purge les demandes démarrées depuis plus de retention-days (chaque nuit par défaut).
+     */
+    @Scheduled(cron = "${guce.procedure.outbox.purge-cron:0 0 4 * * ?}")
+    @Transactional
+    public int purgeDispatched() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int deleted = outboxRepository.deleteByStatusAndDispatchedAtBefore(OutboxStatus.DISPATCHED, cutoff);
+        if (deleted > 0) {
+            log.info("Purged {} dispatched process start(s) older than {}", deleted, cutoff);
+        }
+        return deleted;
+    }
+
+    /**
+     * Délai exponentiel borné: initial × 2^(tentative - 1).
+     */
+    private Duration backoff(int attempts) {
+        long seconds = backoffInitialSeconds << Math.min(attempts - 1, 20);
+        return Duration.ofSeconds(Math.min(seconds, backoffMaxSeconds));
+    }
+
+    private void writeBack(ProcessStartOutbox entry) {
+        String processInstanceId = String.valueOf(entry.getProcessInstanceKey());
+        switch (entry.getAggregateType()) {
+            case IMPORT_DECLARATION ->
+                    importDeclarationRepository.updateProcessInstanceId(entry.getAggregateId(), processInstanceId);
+            case FIMEX_INSCRIPTION ->
+                    fimexRepository.updateProcessInstanceId(entry.getAggregateId(), processInstanceId);
+            case DECLARATION ->
+                    declarationRepository.updateProcessInstanceId(entry.getAggregateId(), processInstanceId);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cm.guce.procedure.domain.event;
+
+import cm.guce.common.event.DomainEvent;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Événement d'expiration groupé: tous les dossiers d'un tenant expirés par un même lot
+ * du balayage (DI ou certificats FIMEX).
+ * Topic: guce.{importdeclaration|fimexinscription}.expiredbatch
+ */
+@Getter
+@Setter
+public class ExpiredBatchEvent extends DomainEvent {
+
+    public static final String IMPORT_DECLARATION = "ImportDeclaration";
+    public static final String FIMEX_INSCRIPTION = "FimexInscription";
+
+    private String aggregateType;
+    private List<ExpiredItem> items = new ArrayList<>();
+
+    public ExpiredBatchEvent() {
+        super();
+    }
+
+    public ExpiredBatchEvent(String aggregateType, String tenantId, List<ExpiredItem> items) {
+        super();
+        this.aggregateType = aggregateType;
+        this.items = items;
+        setTenantId(tenantId);
+    }
+
+    /**
+     * Clé de partitionnement: le tenant, pour conserver l'ordre par tenant.
+     */
+    @Override
+    public String getAggregateId() {
+        return getTenantId();
+    }
+
+    @Override
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public record ExpiredItem(UUID id, String reference, String previousStatus) {
+    }
+}
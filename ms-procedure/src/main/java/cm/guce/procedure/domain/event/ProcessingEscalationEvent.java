@@ -0,0 +1,55 @@
+package cm.guce.procedure.domain.event;
+
+import cm.guce.common.event.DomainEvent;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Événement d'escalade groupé: inscriptions FIMEX d'un tenant en traitement au-delà du
+ * délai, détectées par un même lot.
+ * Topic: guce.fimexinscription.processingescalation
+ */
+@Getter
+@Setter
+public class ProcessingEscalationEvent extends DomainEvent {
+
+    private List<EscalatedItem> items = new ArrayList<>();
+
+    public ProcessingEscalationEvent() {
+        super();
+    }
+
+    public ProcessingEscalationEvent(String tenantId, List<EscalatedItem> items) {
+        super();
+        this.items = items;
+        setTenantId(tenantId);
+    }
+
+    /**
+     * Clé de partitionnement: le tenant, pour conserver l'ordre par tenant.
+     */
+    @Override
+    public String getAggregateId() {
+        return getTenantId();
+    }
+
+    @Override
+    public String getAggregateType() {
+        return "FimexInscription";
+    }
+
+    public record EscalatedItem(UUID id,
+                                String reference,
+                                String niu,
+                                String companyName,
+                                String processedBy,
+                                LocalDateTime processedAt,
+                                long hoursInProcessing,
+                                int escalationLevel) {
+    }
+}
@@ -0,0 +1,22 @@
+package cm.guce.procedure.domain.form;
+
+import java.util.List;
+
+/**
+ * Expression de formulaire compilée en arbre de fermetures: l'évaluation ne relit ni
+ * ne réanalyse le texte de l'expression.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+    Object evaluate(Values values);
+
+    /**
+     * Valeurs des champs pendant une évaluation.
+     */
+    @FunctionalInterface
+    interface Values {
+
+        Object get(String path, List<String> segments);
+    }
+}
@@ -0,0 +1,52 @@
+package cm.guce.procedure.domain.form;
+
+import cm.guce.procedure.domain.model.FormField.FieldType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Champ de formulaire compilé (immuable): contraintes converties, motif compilé et
+ * expressions compilées une fois pour toutes.
+ *
+ * @param path              chemin de la valeur dans les données (dataBinding, à défaut code)
+ * @param segments          segments du chemin
+ * @param visibility        condition de visibilité du champ, ou null
+ * @param sectionVisibility condition de visibilité de la section, ou null
+ * @param calculation       formule de calcul, ou null
+ */
+public record CompiledField(
+        String code,
+        String path,
+        List<String> segments,
+        FieldType fieldType,
+        String sectionCode,
+        boolean required,
+        boolean readonly,
+        boolean hidden,
+        Integer minLength,
+        Integer maxLength,
+        BigDecimal minValue,
+        BigDecimal maxValue,
+        Pattern pattern,
+        String patternErrorMessage,
+        List<String> dependsOn,
+        CompiledExpression visibility,
+        CompiledExpression sectionVisibility,
+        CompiledExpression calculation) {
+
+    public boolean isNumeric() {
+        return switch (fieldType) {
+            case NUMBER, INTEGER, DECIMAL, CURRENCY, PERCENTAGE -> true;
+            default -> false;
+        };
+    }
+
+    public boolean isText() {
+        return switch (fieldType) {
+            case TEXT, TEXTAREA, RICH_TEXT, EMAIL, PHONE, URL, PASSWORD -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,438 @@
+package cm.guce.procedure.domain.form;
+
+import cm.guce.common.domain.exception.ValidationException.FieldError;
+import cm.guce.procedure.domain.model.FormField;
+import cm.guce.procedure.domain.model.FormField.FieldType;
+import cm.guce.procedure.domain.model.FormSection;
+import cm.guce.procedure.domain.model.Procedure;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Formulaire de soumission compilé d'une version de procédure (immuable).
+ *
+ * Construit une fois à partir du graphe FormDefinition / FormSection / FormField, il
+ * évalue les formules de calcul (dans l'ordre de leurs dépendances) et les conditions
+ * de visibilité, puis valide les données d'une déclaration sans accès à la base et sans
+ * allocation hors erreurs. Les motifs et expressions invalides (ainsi que les calculs
+ * circulaires) sont ignorés à l'évaluation et signalés dans compilationErrors
+ * (contrôlés à la publication).
+ */
+@Getter
+public final class CompiledForm {
+
+    private static final Set<FieldType> DISPLAY_ONLY = EnumSet.of(FieldType.LABEL, FieldType.DIVIDER, FieldType.SPACER);
+
+    /**
+     * Bornes des valeurs numériques acceptées (chiffres significatifs, exposant décimal):
+     * au-delà, une valeur saisie comme "1e999999999" rendrait les opérations arbitrairement
+     * coûteuses (addition, arrondi).
+     */
+    static final int MAX_PRECISION = 64;
+    static final int MAX_SCALE = 64;
+    private static final int MAX_NUMERIC_TEXT_LENGTH = 128;
+
+    private final UUID procedureId;
+    private final String procedureCode;
+    private final Integer versionNumber;
+    private final UUID formId;
+    private final List<CompiledField> fields;
+    private final Map<String, CompiledField> fieldsByCode;
+    private final List<FieldError> compilationErrors;
+
+    /**
+     * Champs calculés, dépendances avant dépendants.
+     */
+    private final List<CompiledField> calculationOrder;
+
+    private CompiledForm(Procedure procedure, UUID formId, List<CompiledField> fields,
+                         List<CompiledField> calculationOrder, List<FieldError> compilationErrors) {
+        this.procedureId = procedure.getId();
+        this.procedureCode = procedure.getCode();
+        this.versionNumber = procedure.getVersionNumber();
+        this.formId = formId;
+        this.fields = List.copyOf(fields);
+        Map<String, CompiledField> byCode = new LinkedHashMap<>();
+        fields.forEach(field -> byCode.putIfAbsent(field.code(), field));
+        this.fieldsByCode = Collections.unmodifiableMap(byCode);
+        this.calculationOrder = List.copyOf(calculationOrder);
+        this.compilationErrors = List.copyOf(compilationErrors);
+    }
+
+    // ========================================
+    // COMPILATION
+    // ========================================
+
+    /**
+     * Compile les champs du formulaire de soumission le plus récent. Les champs doivent
+     * être triés par version de formulaire décroissante puis par ordre d'affichage.
+     */
+    public static CompiledForm compile(Procedure procedure, List<FormField> formFields) {
+        if (formFields.isEmpty()) {
+            return new CompiledForm(procedure, null, List.of(), List.of(), List.of());
+        }
+        UUID formId = formFields.get(0).getForm().getId();
+        List<FormField> retained = formFields.stream()
+                .filter(field -> formId.equals(field.getForm().getId()))
+                .filter(field -> !DISPLAY_ONLY.contains(field.getFieldType()))
+                .toList();
+
+        // Les expressions référencent les champs par code ou par chemin
+        Map<String, String> pathsByCode = new HashMap<>();
+        retained.forEach(field -> pathsByCode.putIfAbsent(field.getCode(), pathOf(field)));
+        Function<String, String> pathOf = reference -> pathsByCode.getOrDefault(reference, reference);
+
+        List<CompiledField> fields = new ArrayList<>();
+        List<FieldError> errors = new ArrayList<>();
+        Map<UUID, CompiledExpression> sectionConditions = new HashMap<>();
+        Map<String, Set<String>> calculationReferences = new HashMap<>();
+
+        for (FormField field : retained) {
+            String prefix = "fields." + field.getCode();
+            String path = pathOf(field);
+            FormSection section = field.getSection();
+            if (section != null && !sectionConditions.containsKey(section.getId())) {
+                sectionConditions.put(section.getId(), expression(section.getVisibilityCondition(),
+                        "sections." + section.getCode() + ".visibilityCondition", pathOf, null, errors));
+            }
+            Set<String> references = new HashSet<>();
+            CompiledExpression calculation = expression(field.getCalculationFormula(),
+                    prefix + ".calculationFormula", pathOf, references, errors);
+            if (calculation != null) {
+                calculationReferences.put(path, references);
+            }
+
+            fields.add(new CompiledField(
+                    field.getCode(),
+                    path,
+                    List.of(path.split("\\.")),
+                    field.getFieldType(),
+                    section != null ? section.getCode() : null,
+                    Boolean.TRUE.equals(field.getIsRequired()),
+                    Boolean.TRUE.equals(field.getIsReadonly()),
+                    Boolean.TRUE.equals(field.getIsHidden()),
+                    field.getMinLength(),
+                    field.getMaxLength(),
+                    decimal(field.getMinValue()),
+                    decimal(field.getMaxValue()),
+                    pattern(field.getPattern(), prefix + ".pattern", errors),
+                    field.getPatternErrorMessageFr(),
+                    dependsOn(field.getDependsOn()),
+                    expression(field.getVisibilityCondition(), prefix + ".visibilityCondition", pathOf, null, errors),
+                    section != null ? sectionConditions.get(section.getId()) : null,
+                    calculation));
+        }
+        return new CompiledForm(procedure, formId, fields,
+                calculationOrder(fields, calculationReferences, pathOf, errors), errors);
+    }
+
+    private static String pathOf(FormField field) {
+        return field.getDataBinding() != null && !field.getDataBinding().isBlank()
+                ? field.getDataBinding().trim()
+                : field.getCode();
+    }
+
+    private static CompiledExpression expression(String expression, String field, Function<String, String> pathOf,
+                                                 Set<String> references, List<FieldError> errors) {
+        if (expression == null || expression.isBlank()) {
+            return null;
+        }
+        try {
+            FormExpression tree = FormExpressionParser.parse(expression);
+            if (references != null) {
+                tree.collectReferences(references);
+            }
+            return FormExpressionCompiler.compile(tree, pathOf);
+        } catch (FormExpressionException e) {
+            errors.add(new FieldError(field, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Tri topologique des champs calculés; les champs pris dans un cycle sont écartés.
+     */
+    private static List<CompiledField> calculationOrder(List<CompiledField> fields,
+                                                        Map<String, Set<String>> references,
+                                                        Function<String, String> pathOf,
+                                                        List<FieldError> errors) {
+        Map<String, CompiledField> calculated = new LinkedHashMap<>();
+        fields.stream()
+                .filter(field -> field.calculation() != null)
+                .forEach(field -> calculated.putIfAbsent(field.path(), field));
+
+        List<CompiledField> order = new ArrayList<>();
+        Map<String, Boolean> state = new HashMap<>(); // false: en cours, true: ordonné
+        for (CompiledField field : calculated.values()) {
+            if (!visit(field.path(), calculated, references, pathOf, state, order)) {
+                errors.add(new FieldError("fields." + field.code() + ".calculationFormula",
+                        "Référence circulaire entre champs calculés"));
+            }
+        }
+        return order;
+    }
+
+    private static boolean visit(String path, Map<String, CompiledField> calculated,
+                                 Map<String, Set<String>> references, Function<String, String> pathOf,
+                                 Map<String, Boolean> state, List<CompiledField> order) {
+        Boolean current = state.get(path);
+        if (current != null) {
+            return current;
+        }
+        state.put(path, false);
+        for (String reference : references.getOrDefault(path, Set.of())) {
+            String dependency = pathOf.apply(reference);
+            if (calculated.containsKey(dependency) && !visit(dependency, calculated, references, pathOf, state, order)) {
+                return false;
+            }
+        }
+        state.put(path, true);
+        order.add(calculated.get(path));
+        return true;
+    }
+
+    private static Pattern pattern(String regex, String field, List<FieldError> errors) {
+        if (regex == null || regex.isBlank()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            errors.add(new FieldError(field, "Expression régulière invalide: " + e.getDescription()));
+            return null;
+        }
+    }
+
+    private static BigDecimal decimal(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            // Borne non numérique (date, ...): non contrôlée ici
+            return null;
+        }
+    }
+
+    private static List<String> dependsOn(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(code -> !code.isEmpty())
+                .toList();
+    }
+
+    // ========================================
+    // ÉVALUATION
+    // ========================================
+
+    /**
+     * Évalue les formules de calcul puis les conditions de visibilité (qui peuvent
+     * dépendre des valeurs calculées). Une expression en erreur vaut null.
+     */
+    public FormEvaluation evaluate(Map<String, Object> data) {
+        Map<String, Object> calculated = calculationOrder.isEmpty() ? Map.of() : new LinkedHashMap<>();
+        CompiledExpression.Values values = (path, segments) -> calculated.containsKey(path)
+                ? calculated.get(path)
+                : valueAt(data, path, segments);
+
+        for (CompiledField field : calculationOrder) {
+            calculated.put(field.path(), evaluate(field.calculation(), values));
+        }
+
+        boolean[] visible = new boolean[fields.size()];
+        for (int i = 0; i < visible.length; i++) {
+            CompiledField field = fields.get(i);
+            visible[i] = (field.sectionVisibility() == null
+                    || FormExpressionCompiler.truthy(evaluate(field.sectionVisibility(), values)))
+                    && (field.visibility() == null
+                    || FormExpressionCompiler.truthy(evaluate(field.visibility(), values)));
+        }
+        return new FormEvaluation(calculated, visible);
+    }
+
+    private static Object evaluate(CompiledExpression expression, CompiledExpression.Values values) {
+        try {
+            return expression.evaluate(values);
+        } catch (ArithmeticException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reporte les valeurs calculées dans les données (qui doivent être modifiables),
+     * en remplaçant les valeurs saisies.
+     */
+    @SuppressWarnings("unchecked")
+    public void applyCalculations(Map<String, Object> data, FormEvaluation evaluation) {
+        for (CompiledField field : calculationOrder) {
+            Object value = evaluation.calculatedValue(field.path());
+            if (field.segments().size() == 1 || data.containsKey(field.path())) {
+                data.put(field.path(), value);
+                continue;
+            }
+            Map<String, Object> target = data;
+            List<String> segments = field.segments();
+            for (int i = 0; i < segments.size() - 1; i++) {
+                Object child = target.get(segments.get(i));
+                if (!(child instanceof Map<?, ?>)) {
+                    child = new LinkedHashMap<String, Object>();
+                    target.put(segments.get(i), child);
+                }
+                target = (Map<String, Object>) child;
+            }
+            target.put(segments.get(segments.size() - 1), value);
+        }
+    }
+
+    // ========================================
+    // VALIDATION
+    // ========================================
+
+    /**
+     * Valide les données d'une déclaration. complete vaut true à la soumission
+     * (contrôle des champs obligatoires), false pour un brouillon (formats seulement).
+     */
+    public List<FieldError> validate(Map<String, Object> data, boolean complete) {
+        return validate(data, evaluate(data), complete);
+    }
+
+    /**
+     * Valide les données avec une évaluation déjà faite: les champs masqués ne sont pas
+     * contrôlés, les champs calculés le sont sur leur valeur recalculée.
+     */
+    public List<FieldError> validate(Map<String, Object> data, FormEvaluation evaluation, boolean complete) {
+        List<FieldError> errors = null;
+        for (int i = 0; i < fields.size(); i++) {
+            if (!evaluation.isVisible(i)) {
+                continue;
+            }
+            CompiledField field = fields.get(i);
+            Object value = evaluation.isCalculated(field.path())
+                    ? evaluation.calculatedValue(field.path())
+                    : valueAt(data, field.path(), field.segments());
+            String message = check(field, value, complete);
+            if (message != null) {
+                if (errors == null) {
+                    errors = new ArrayList<>();
+                }
+                errors.add(new FieldError("data." + field.path(), message));
+            }
+        }
+        return errors != null ? errors : List.of();
+    }
+
+    /**
+     * Valeur d'un champ: clé plate égale au chemin, sinon parcours des objets imbriqués.
+     */
+    public static Object valueAt(Map<String, Object> data, String path, List<String> segments) {
+        if (data == null) {
+            return null;
+        }
+        Object direct = data.get(path);
+        if (direct != null || segments.size() == 1) {
+            return direct;
+        }
+        Object current = data;
+        for (String segment : segments) {
+            if (!(current instanceof Map<?, ?> map)) {
+                return null;
+            }
+            current = map.get(segment);
+        }
+        return current;
+    }
+
+    private static String check(CompiledField field, Object value, boolean complete) {
+        if (isEmpty(value)) {
+            boolean mandatory = field.required() && !field.hidden() && field.calculation() == null;
+            return complete && mandatory ? "Ce champ est obligatoire" : null;
+        }
+
+        if (field.isNumeric()) {
+            BigDecimal number = toDecimal(value);
+            if (number == null) {
+                return "Valeur numérique attendue";
+            }
+            if (field.minValue() != null && number.compareTo(field.minValue()) < 0) {
+                return "La valeur doit être supérieure ou égale à " + field.minValue().toPlainString();
+            }
+            if (field.maxValue() != null && number.compareTo(field.maxValue()) > 0) {
+                return "La valeur doit être inférieure ou égale à " + field.maxValue().toPlainString();
+            }
+            return null;
+        }
+
+        if (value instanceof String text) {
+            if (field.minLength() != null && text.length() < field.minLength()) {
+                return "Au moins " + field.minLength() + " caractères attendus";
+            }
+            if (field.maxLength() != null && text.length() > field.maxLength()) {
+                return "Au plus " + field.maxLength() + " caractères autorisés";
+            }
+            if (field.pattern() != null && !field.pattern().matcher(text).matches()) {
+                return field.patternErrorMessage() != null ? field.patternErrorMessage() : "Format invalide";
+            }
+        }
+        return null;
+    }
+
+    static boolean isEmpty(Object value) {
+        return value == null
+                || (value instanceof String text && text.isBlank())
+                || (value instanceof Collection<?> collection && collection.isEmpty())
+                || (value instanceof Map<?, ?> map && map.isEmpty());
+    }
+
+    /**
+     * Conversion numérique d'une valeur de formulaire (nombre JSON ou chaîne), null si
+     * la valeur n'est pas numérique ou hors des bornes {@link #MAX_PRECISION} / {@link #MAX_SCALE}.
+     */
+    public static BigDecimal toDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return bounded(decimal);
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            return Double.isFinite(number) ? bounded(BigDecimal.valueOf(number)) : null;
+        }
+        if (value instanceof Number number) {
+            return bounded(new BigDecimal(number.toString()));
+        }
+        if (value instanceof String text && text.length() <= MAX_NUMERIC_TEXT_LENGTH && looksNumeric(text)) {
+            try {
+                return bounded(new BigDecimal(text.trim()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static BigDecimal bounded(BigDecimal decimal) {
+        return decimal.precision() <= MAX_PRECISION && Math.abs(decimal.scale()) <= MAX_SCALE ? decimal : null;
+    }
+
+    /**
+     * Filtre rapide évitant une exception par chaîne non numérique.
+     */
+    private static boolean looksNumeric(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return false;
+        }
+        char first = trimmed.charAt(0);
+        return Character.isDigit(first) || first == '-' || first == '+' || first == '.';
+    }
+}
@@ -0,0 +1,36 @@
+package cm.guce.procedure.domain.form;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Résultat de l'évaluation d'un formulaire compilé sur des données: valeurs des champs
+ * calculés (par chemin, dans l'ordre de calcul) et visibilité de chaque champ (par
+ * position dans {@link CompiledForm#getFields()}).
+ */
+public final class FormEvaluation {
+
+    private final Map<String, Object> calculated;
+    private final boolean[] visible;
+
+    FormEvaluation(Map<String, Object> calculated, boolean[] visible) {
+        this.calculated = calculated;
+        this.visible = visible;
+    }
+
+    public Map<String, Object> getCalculated() {
+        return Collections.unmodifiableMap(calculated);
+    }
+
+    public boolean isVisible(int fieldIndex) {
+        return visible[fieldIndex];
+    }
+
+    boolean isCalculated(String path) {
+        return calculated.containsKey(path);
+    }
+
+    Object calculatedValue(String path) {
+        return calculated.get(path);
+    }
+}
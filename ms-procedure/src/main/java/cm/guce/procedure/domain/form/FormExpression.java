@@ -0,0 +1,85 @@
+package cm.guce.procedure.domain.form;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Arbre syntaxique d'une expression de formulaire (calculationFormula,
+ * visibilityCondition), produit par {@link FormExpressionParser}.
+ */
+public sealed interface FormExpression {
+
+    /**
+     * Ajoute les chemins de champs référencés par l'expression.
+     */
+    void collectReferences(Set<String> references);
+
+    record Literal(Object value) implements FormExpression {
+
+        @Override
+        public void collectReferences(Set<String> references) {
+        }
+    }
+
+    /**
+     * Référence à un champ, par code ou par chemin (segments séparés par des points).
+     */
+    record FieldRef(String path) implements FormExpression {
+
+        @Override
+        public void collectReferences(Set<String> references) {
+            references.add(path);
+        }
+    }
+
+    record Unary(UnaryOperator operator, FormExpression operand) implements FormExpression {
+
+        @Override
+        public void collectReferences(Set<String> references) {
+            operand.collectReferences(references);
+        }
+    }
+
+    record Binary(BinaryOperator operator, FormExpression left, FormExpression right) implements FormExpression {
+
+        @Override
+        public void collectReferences(Set<String> references) {
+            left.collectReferences(references);
+            right.collectReferences(references);
+        }
+    }
+
+    record Conditional(FormExpression condition, FormExpression whenTrue,
+                       FormExpression whenFalse) implements FormExpression {
+
+        @Override
+        public void collectReferences(Set<String> references) {
+            condition.collectReferences(references);
+            whenTrue.collectReferences(references);
+            whenFalse.collectReferences(references);
+        }
+    }
+
+    record Call(String function, List<FormExpression> arguments) implements FormExpression {
+
+        public Call {
+            arguments = List.copyOf(arguments);
+        }
+
+        @Override
+        public void collectReferences(Set<String> references) {
+            arguments.forEach(argument -> argument.collectReferences(references));
+        }
+    }
+
+    enum UnaryOperator {
+        NOT,
+        NEGATE
+    }
+
+    enum BinaryOperator {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE, MODULO,
+        EQ, NE, LT, LE, GT, GE,
+        AND, OR
+    }
+}
@@ -0,0 +1,306 @@
+package cm.guce.procedure.domain.form;
+
+import cm.guce.procedure.domain.form.FormExpression.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Compilation d'un arbre {@link FormExpression} en fermetures ({@link CompiledExpression}).
+ *
+ * Sémantique: arithmétique décimale (BigDecimal: DECIMAL128 pour l'addition et la
+ * soustraction, DECIMAL64 sinon; opérandes bornés par {@link CompiledForm#toDecimal}),
+ * une opération sur une valeur absente ou non numérique vaut null (division par zéro
+ * comprise), + concatène dès qu'un opérande est une chaîne non numérique, les
+ * comparaisons sont numériques si les deux opérandes le sont, && / || sont
+ * court-circuités. Fonctions: min, max, sum, abs, round(x[, décimales de 0 à 10]), floor,
+ * ceil, if(c, a, b), coalesce, empty, length, contains. Une fonction inconnue ou une
+ * arité invalide est refusée à la compilation.
+ */
+public final class FormExpressionCompiler {
+
+    private static final MathContext MATH = MathContext.DECIMAL64;
+    private static final MathContext ADDITION = MathContext.DECIMAL128;
+    private static final BigDecimal MAX_ROUNDING_SCALE = BigDecimal.TEN;
+
+    private FormExpressionCompiler() {
+    }
+
+    /**
+     * @param pathOf résout une référence (code de champ ou chemin) en chemin de données
+     */
+    public static CompiledExpression compile(FormExpression expression, Function<String, String> pathOf) {
+        return switch (expression) {
+            case Literal literal -> {
+                Object value = literal.value();
+                yield values -> value;
+            }
+            case FieldRef ref -> {
+                String path = pathOf.apply(ref.path());
+                List<String> segments = List.of(path.split("\\."));
+                yield values -> values.get(path, segments);
+            }
+            case Unary unary -> unary(unary.operator(), compile(unary.operand(), pathOf));
+            case Binary binary -> binary(binary.operator(),
+                    compile(binary.left(), pathOf), compile(binary.right(), pathOf));
+            case Conditional conditional -> {
+                CompiledExpression condition = compile(conditional.condition(), pathOf);
+                CompiledExpression whenTrue = compile(conditional.whenTrue(), pathOf);
+                CompiledExpression whenFalse = compile(conditional.whenFalse(), pathOf);
+                yield values -> truthy(condition.evaluate(values))
+                        ? whenTrue.evaluate(values)
+                        : whenFalse.evaluate(values);
+            }
+            case Call call -> call(call, call.arguments().stream()
+                    .map(argument -> compile(argument, pathOf))
+                    .toArray(CompiledExpression[]::new));
+        };
+    }
+
+    // ========================================
+    // OPÉRATEURS
+    // ========================================
+
+    private static CompiledExpression unary(UnaryOperator operator, CompiledExpression operand) {
+        return switch (operator) {
+            case NOT -> values -> !truthy(operand.evaluate(values));
+            case NEGATE -> values -> {
+                BigDecimal number = CompiledForm.toDecimal(operand.evaluate(values));
+                return number != null ? number.negate() : null;
+            };
+        };
+    }
+
+    private static CompiledExpression binary(BinaryOperator operator, CompiledExpression left,
+                                             CompiledExpression right) {
+        return switch (operator) {
+            case AND -> values -> truthy(left.evaluate(values)) && truthy(right.evaluate(values));
+            case OR -> values -> truthy(left.evaluate(values)) || truthy(right.evaluate(values));
+            case ADD -> values -> add(left.evaluate(values), right.evaluate(values));
+            case SUBTRACT -> arithmetic(left, right, (a, b) -> a.subtract(b, ADDITION));
+            case MULTIPLY -> arithmetic(left, right, (a, b) -> a.multiply(b, MATH));
+            case DIVIDE -> arithmetic(left, right, (a, b) -> b.signum() == 0 ? null : a.divide(b, MATH));
+            case MODULO -> arithmetic(left, right, (a, b) -> b.signum() == 0 ? null : a.remainder(b, MATH));
+            case EQ -> values -> equal(left.evaluate(values), right.evaluate(values));
+            case NE -> values -> !equal(left.evaluate(values), right.evaluate(values));
+            case LT -> comparison(left, right, c -> c < 0);
+            case LE -> comparison(left, right, c -> c <= 0);
+            case GT -> comparison(left, right, c -> c > 0);
+            case GE -> comparison(left, right, c -> c >= 0);
+        };
+    }
+
+    @FunctionalInterface
+    private interface DecimalOperation {
+        BigDecimal apply(BigDecimal left, BigDecimal right);
+    }
+
+    @FunctionalInterface
+    private interface ComparisonTest {
+        boolean test(int comparison);
+    }
+
+    private static CompiledExpression arithmetic(CompiledExpression left, CompiledExpression right,
+                                                 DecimalOperation operation) {
+        return values -> {
+            BigDecimal a = CompiledForm.toDecimal(left.evaluate(values));
+            if (a == null) {
+                return null;
+            }
+            BigDecimal b = CompiledForm.toDecimal(right.evaluate(values));
+            return b != null ? operation.apply(a, b) : null;
+        };
+    }
+
+    private static CompiledExpression comparison(CompiledExpression left, CompiledExpression right,
+                                                 ComparisonTest test) {
+        return values -> {
+            Object a = left.evaluate(values);
+            Object b = right.evaluate(values);
+            if (a == null || b == null) {
+                return false;
+            }
+            BigDecimal x = CompiledForm.toDecimal(a);
+            BigDecimal y = x != null ? CompiledForm.toDecimal(b) : null;
+            return test.test(y != null ? x.compareTo(y) : a.toString().compareTo(b.toString()));
+        };
+    }
+
+    private static Object add(Object a, Object b) {
+        BigDecimal x = CompiledForm.toDecimal(a);
+        BigDecimal y = CompiledForm.toDecimal(b);
+        if (x != null && y != null) {
+            return x.add(y, ADDITION);
+        }
+        if (a instanceof String || b instanceof String) {
+            return Objects.toString(a, "") + Objects.toString(b, "");
+        }
+        return null;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        if (a instanceof Boolean || b instanceof Boolean) {
+            return truthy(a) == truthy(b);
+        }
+        BigDecimal x = CompiledForm.toDecimal(a);
+        BigDecimal y = x != null ? CompiledForm.toDecimal(b) : null;
+        return y != null ? x.compareTo(y) == 0 : a.toString().equals(b.toString());
+    }
+
+    /**
+     * Valeur de vérité d'une valeur de formulaire.
+     */
+    public static boolean truthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.signum() != 0;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue() != 0;
+        }
+        if (value instanceof String text) {
+            return !text.isBlank() && !"false".equalsIgnoreCase(text.trim());
+        }
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return !map.isEmpty();
+        }
+        return true;
+    }
+
+    // ========================================
+    // FONCTIONS
+    // ========================================
+
+    private static CompiledExpression call(Call call, CompiledExpression[] args) {
+        String name = call.function().toLowerCase();
+        return switch (name) {
+            case "min", "max" -> {
+                arity(call, args, 1, Integer.MAX_VALUE);
+                boolean min = name.equals("min");
+                yield values -> {
+                    BigDecimal result = null;
+                    for (CompiledExpression arg : args) {
+                        BigDecimal number = CompiledForm.toDecimal(arg.evaluate(values));
+                        if (number != null && (result == null || (min ? number.compareTo(result) < 0
+                                : number.compareTo(result) > 0))) {
+                            result = number;
+                        }
+                    }
+                    return result;
+                };
+            }
+            case "sum" -> {
+                arity(call, args, 1, Integer.MAX_VALUE);
+                yield values -> {
+                    BigDecimal total = BigDecimal.ZERO;
+                    for (CompiledExpression arg : args) {
+                        total = total.add(sumOf(arg.evaluate(values)), ADDITION);
+                    }
+                    return total;
+                };
+            }
+            case "abs" -> {
+                arity(call, args, 1, 1);
+                yield values -> {
+                    BigDecimal number = CompiledForm.toDecimal(args[0].evaluate(values));
+                    return number != null ? number.abs() : null;
+                };
+            }
+            case "round", "floor", "ceil" -> {
+                arity(call, args, 1, 2);
+                RoundingMode mode = switch (name) {
+                    case "floor" -> RoundingMode.FLOOR;
+                    case "ceil" -> RoundingMode.CEILING;
+                    default -> RoundingMode.HALF_UP;
+                };
+                yield values -> {
+                    BigDecimal number = CompiledForm.toDecimal(args[0].evaluate(values));
+                    BigDecimal scale = args.length > 1 ? CompiledForm.toDecimal(args[1].evaluate(values)) : BigDecimal.ZERO;
+                    if (number == null || scale == null) {
+                        return null;
+                    }
+                    return number.setScale(scale.max(BigDecimal.ZERO).min(MAX_ROUNDING_SCALE).intValue(), mode);
+                };
+            }
+            case "if" -> {
+                arity(call, args, 3, 3);
+                yield values -> truthy(args[0].evaluate(values))
+                        ? args[1].evaluate(values)
+                        : args[2].evaluate(values);
+            }
+            case "coalesce" -> {
+                arity(call, args, 1, Integer.MAX_VALUE);
+                yield values -> {
+                    for (CompiledExpression arg : args) {
+                        Object value = arg.evaluate(values);
+                        if (value != null && !(value instanceof String text && text.isEmpty())) {
+                            return value;
+                        }
+                    }
+                    return null;
+                };
+            }
+            case "empty" -> {
+                arity(call, args, 1, 1);
+                yield values -> CompiledForm.isEmpty(args[0].evaluate(values));
+            }
+            case "length" -> {
+                arity(call, args, 1, 1);
+                yield values -> {
+                    Object value = args[0].evaluate(values);
+                    if (value instanceof Collection<?> collection) {
+                        return BigDecimal.valueOf(collection.size());
+                    }
+                    return value != null ? BigDecimal.valueOf(value.toString().length()) : BigDecimal.ZERO;
+                };
+            }
+            case "contains" -> {
+                arity(call, args, 2, 2);
+                yield values -> {
+                    Object container = args[0].evaluate(values);
+                    Object item = args[1].evaluate(values);
+                    if (container instanceof Collection<?> collection) {
+                        return collection.stream().anyMatch(element -> equal(element, item));
+                    }
+                    return container != null && item != null && container.toString().contains(item.toString());
+                };
+            }
+            default -> throw new FormExpressionException("Fonction inconnue '" + call.function() + "'");
+        };
+    }
+
+    private static BigDecimal sumOf(Object value) {
+        if (value instanceof Collection<?> collection) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (Object element : collection) {
+                total = total.add(sumOf(element), ADDITION);
+            }
+            return total;
+        }
+        BigDecimal number = CompiledForm.toDecimal(value);
+        return number != null ? number : BigDecimal.ZERO;
+    }
+
+    private static void arity(Call call, CompiledExpression[] args, int min, int max) {
+        if (args.length < min || args.length > max) {
+            throw new FormExpressionException("Nombre d'arguments invalide pour '" + call.function() + "'");
+        }
+    }
+}
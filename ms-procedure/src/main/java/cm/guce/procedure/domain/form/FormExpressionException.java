@@ -0,0 +1,15 @@
+package cm.guce.procedure.domain.form;
+
+/**
+ * Expression de formulaire syntaxiquement invalide.
+ */
+public class FormExpressionException extends IllegalArgumentException {
+
+    public FormExpressionException(String message) {
+        super(message);
+    }
+
+    public FormExpressionException(String message, String expression, int position) {
+        super(message + " (position " + position + ") dans: " + expression);
+    }
+}
@@ -0,0 +1,300 @@
+package cm.guce.procedure.domain.form;
+
+import cm.guce.procedure.domain.form.FormExpression.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analyseur (descente récursive) des expressions de formulaire.
+ *
+ * Syntaxe: nombres, chaînes ('...' ou "..."), true/false/null, références de champs
+ * (code ou chemin pointé), appels de fonction f(a, b), opérateurs + - * / %,
+ * == (ou =) != &lt; &lt;= &gt; &gt;=, && (and) || (or) ! (not), condition ? a : b et parenthèses.
+ *
+ * La profondeur de l'arbre (parenthèses, opérateurs enchaînés, unaires répétés) est bornée:
+ * l'analyse, la compilation et l'évaluation sont récursives et une expression saisie ne doit
+ * pas pouvoir épuiser la pile.
+ */
+public final class FormExpressionParser {
+
+    static final int MAX_DEPTH = 256;
+
+    private final String source;
+    private int position;
+    private int depth;
+
+    private FormExpressionParser(String source) {
+        this.source = source;
+    }
+
+    public static FormExpression parse(String expression) {
+        FormExpressionParser parser = new FormExpressionParser(expression);
+        FormExpression result = parser.conditional();
+        parser.skipWhitespace();
+        if (parser.position < expression.length()) {
+            throw parser.error("Caractère inattendu '" + expression.charAt(parser.position) + "'");
+        }
+        return result;
+    }
+
+    private FormExpression conditional() {
+        enter();
+        FormExpression result = or();
+        if (accept("?")) {
+            FormExpression whenTrue = conditional();
+            expect(":");
+            FormExpression whenFalse = conditional();
+            result = new Conditional(result, whenTrue, whenFalse);
+        }
+        depth--;
+        return result;
+    }
+
+    private FormExpression or() {
+        int start = depth;
+        FormExpression left = and();
+        while (accept("||") || acceptKeyword("or")) {
+            enter();
+            left = new Binary(BinaryOperator.OR, left, and());
+        }
+        depth = start;
+        return left;
+    }
+
+    private FormExpression and() {
+        int start = depth;
+        FormExpression left = equality();
+        while (accept("&&") || acceptKeyword("and")) {
+            enter();
+            left = new Binary(BinaryOperator.AND, left, equality());
+        }
+        depth = start;
+        return left;
+    }
+
+    private FormExpression equality() {
+        int start = depth;
+        FormExpression left = comparison();
+        BinaryOperator operator;
+        while ((operator = accept("==") ? BinaryOperator.EQ
+                : accept("!=") ? BinaryOperator.NE
+                : accept("=") ? BinaryOperator.EQ
+                : null) != null) {
+            enter();
+            left = new Binary(operator, left, comparison());
+        }
+        depth = start;
+        return left;
+    }
+
+    private FormExpression comparison() {
+        int start = depth;
+        FormExpression left = additive();
+        BinaryOperator operator;
+        while ((operator = accept("<=") ? BinaryOperator.LE
+                : accept(">=") ? BinaryOperator.GE
+                : accept("<") ? BinaryOperator.LT
+                : accept(">") ? BinaryOperator.GT
+                : null) != null) {
+            enter();
+            left = new Binary(operator, left, additive());
+        }
+        depth = start;
+        return left;
+    }
+
+    private FormExpression additive() {
+        int start = depth;
+        FormExpression left = multiplicative();
+        BinaryOperator operator;
+        while ((operator = accept("+") ? BinaryOperator.ADD
+                : accept("-") ? BinaryOperator.SUBTRACT
+                : null) != null) {
+            enter();
+            left = new Binary(operator, left, multiplicative());
+        }
+        depth = start;
+        return left;
+    }
+
+    private FormExpression multiplicative() {
+        int start = depth;
+        FormExpression left = unary();
+        BinaryOperator operator;
+        while ((operator = accept("*") ? BinaryOperator.MULTIPLY
+                : accept("/") ? BinaryOperator.DIVIDE
+                : accept("%") ? BinaryOperator.MODULO
+                : null) != null) {
+            enter();
+            left = new Binary(operator, left, unary());
+        }
+        depth = start;
+        return left;
+    }
+
+    private FormExpression unary() {
+        UnaryOperator operator = accept("!") || acceptKeyword("not") ? UnaryOperator.NOT
+                : accept("-") ? UnaryOperator.NEGATE
+                : null;
+        if (operator == null) {
+            return primary();
+        }
+        enter();
+        FormExpression operand = unary();
+        depth--;
+        return new Unary(operator, operand);
+    }
+
+    /**
+     * Descend d'un niveau dans l'arbre; refuse au-delà de {@link #MAX_DEPTH}.
+     */
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Expression trop imbriquée (profondeur maximale " + MAX_DEPTH + ")");
+        }
+    }
+
+    private FormExpression primary() {
+        skipWhitespace();
+        if (position >= source.length()) {
+            throw error("Fin d'expression inattendue");
+        }
+        char c = source.charAt(position);
+        if (c == '(') {
+            position++;
+            FormExpression inner = conditional();
+            expect(")");
+            return inner;
+        }
+        if (c == '\'' || c == '"') {
+            return new Literal(string(c));
+        }
+        if (Character.isDigit(c) || (c == '.' && position + 1 < source.length()
+                && Character.isDigit(source.charAt(position + 1)))) {
+            return new Literal(number());
+        }
+        if (Character.isLetter(c) || c == '_') {
+            String identifier = identifier();
+            switch (identifier) {
+                case "true":
+                    return new Literal(Boolean.TRUE);
+                case "false":
+                    return new Literal(Boolean.FALSE);
+                case "null":
+                    return new Literal(null);
+                default:
+                    break;
+            }
+            if (accept("(")) {
+                return new Call(identifier, arguments());
+            }
+            return new FieldRef(identifier);
+        }
+        throw error("Caractère inattendu '" + c + "'");
+    }
+
+    private List<FormExpression> arguments() {
+        List<FormExpression> arguments = new ArrayList<>();
+        if (accept(")")) {
+            return arguments;
+        }
+        do {
+            arguments.add(conditional());
+        } while (accept(","));
+        expect(")");
+        return arguments;
+    }
+
+    private String string(char quote) {
+        int start = ++position;
+        StringBuilder value = new StringBuilder();
+        while (position < source.length()) {
+            char c = source.charAt(position++);
+            if (c == quote) {
+                return value.toString();
+            }
+            if (c == '\\' && position < source.length()) {
+                c = source.charAt(position++);
+            }
+            value.append(c);
+        }
+        position = start - 1;
+        throw error("Chaîne non terminée");
+    }
+
+    private BigDecimal number() {
+        int start = position;
+        while (position < source.length()
+                && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            position++;
+        }
+        try {
+            return new BigDecimal(source.substring(start, position));
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("Nombre invalide");
+        }
+    }
+
+    private String identifier() {
+        int start = position;
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                position++;
+            } else if (c == '.' && position + 1 < source.length()
+                    && (Character.isLetter(source.charAt(position + 1)) || source.charAt(position + 1) == '_')) {
+                position++;
+            } else {
+                break;
+            }
+        }
+        return source.substring(start, position);
+    }
+
+    private boolean accept(String token) {
+        if (peek(token)) {
+            position += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean peek(String token) {
+        skipWhitespace();
+        return source.startsWith(token, position);
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        skipWhitespace();
+        int end = position + keyword.length();
+        if (source.regionMatches(true, position, keyword, 0, keyword.length())
+                && (end == source.length() || !isIdentifierPart(source.charAt(end)))) {
+            position = end;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("'" + token + "' attendu");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+    }
+
+    private FormExpressionException error(String message) {
+        return new FormExpressionException(message, source, position);
+    }
+}
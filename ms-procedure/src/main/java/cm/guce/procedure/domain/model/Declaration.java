@@ -6,6 +6,8 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -64,7 +66,11 @@ public class Declaration extends BaseEntity {
     @Column(name = "process_instance_id")
     private String processInstanceId;
 
-    @Column(name = "data_json", columnDefinition = "TEXT")
+    /**
+     * Données du formulaire dynamique (jsonb, indexé GIN), conservées en texte JSON brut.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "data_json", columnDefinition = "jsonb")
     private String dataJson;
 
     @Column(name = "submitted_at")
@@ -147,6 +153,15 @@ public class Declaration extends BaseEntity {
         this.completedAt = LocalDateTime.now();
     }
 
+    /**
+     * Indique si la déclaration est en cours de traitement (approbation ou rejet possible).
+     */
+    public boolean isAwaitingDecision() {
+        return status == EntityStatus.SUBMITTED
+                || status == EntityStatus.IN_PROGRESS
+                || status == EntityStatus.VALIDATED;
+    }
+
     /**
      * Rejette la déclaration.
      */
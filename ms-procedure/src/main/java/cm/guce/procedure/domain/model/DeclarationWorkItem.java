@@ -0,0 +1,75 @@
+package cm.guce.procedure.domain.model;
+
+import cm.guce.common.domain.model.EntityStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ligne de corbeille de travail: projection d'une déclaration en attente de décision
+ * (étape courante, statut, agent assigné, échéance de l'étape).
+ *
+ * Maintenue à chaque transition de la déclaration et reconstruite chaque nuit, afin que
+ * les corbeilles du back-office ne parcourent jamais la table declaration.
+ * Une étape non renseignée est stockée sous la valeur "" (NONE).
+ */
+@Entity
+@Table(name = "declaration_work_item")
+@Getter
+@Setter
+@NoArgsConstructor
+public class DeclarationWorkItem {
+
+    public static final String NONE = "";
+
+    @Id
+    @Column(name = "declaration_id", nullable = false)
+    private UUID declarationId;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "reference", nullable = false, length = 50)
+    private String reference;
+
+    @Column(name = "procedure_code", nullable = false)
+    private String procedureCode;
+
+    @Column(name = "operator_name")
+    private String operatorName;
+
+    @Column(name = "current_step", nullable = false)
+    private String currentStep;
+
+    @Column(name = "current_step_name")
+    private String currentStepName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private EntityStatus status;
+
+    @Column(name = "assigned_to")
+    private String assignedTo;
+
+    @Column(name = "is_urgent", nullable = false)
+    private boolean urgent;
+
+    @Column(name = "priority", nullable = false)
+    private int priority;
+
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+
+    @Column(name = "step_entered_at", nullable = false)
+    private LocalDateTime stepEnteredAt;
+
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,62 @@
+package cm.guce.procedure.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agrégat des certificats FIMEX en cours de validité (statut SIGNED), par tenant,
+ * région, secteur d'activité et forme juridique.
+ *
+ * Maintenu de manière incrémentale à la signature, au rejet et à l'expiration, afin que
+ * les statistiques par région/activité/forme juridique ne parcourent jamais fimex_inscription.
+ * Une dimension non renseignée est stockée sous la valeur "" (NONE).
+ */
+@Entity
+@Table(name = "fimex_active_statistic")
+@IdClass(FimexActiveStatistic.StatisticId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class FimexActiveStatistic {
+
+    public static final String NONE = "";
+
+    @Id
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Id
+    @Column(name = "region", nullable = false, length = 100)
+    private String region;
+
+    @Id
+    @Column(name = "main_activity", nullable = false, length = 200)
+    private String mainActivity;
+
+    @Id
+    @Column(name = "legal_form", nullable = false, length = 30)
+    private String legalForm;
+
+    @Column(name = "active_count", nullable = false)
+    private long activeCount;
+
+    @Column(name = "active_revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal activeRevenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatisticId implements Serializable {
+        private String tenantId;
+        private String region;
+        private String mainActivity;
+        private String legalForm;
+    }
+}
@@ -0,0 +1,24 @@
+package cm.guce.procedure.domain.model;
+
+import cm.guce.procedure.domain.model.FimexInscription.FimexStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Projection compacte d'un certificat FIMEX pour la vérification (douane, banques, SGS):
+ * seules les colonnes nécessaires sont lues, sans charger l'inscription.
+ */
+public record FimexCertificateView(String certificateNumber,
+                                   String companyName,
+                                   String niu,
+                                   FimexStatus status,
+                                   LocalDate issueDate,
+                                   LocalDate expiryDate) {
+
+    /**
+     * Vrai si le certificat est signé et non expiré à la date donnée.
+     */
+    public boolean isValidOn(LocalDate day) {
+        return status == FimexStatus.SIGNED && expiryDate != null && !expiryDate.isBefore(day);
+    }
+}
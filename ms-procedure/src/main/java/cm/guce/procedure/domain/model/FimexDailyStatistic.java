@@ -0,0 +1,65 @@
+package cm.guce.procedure.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Nombre de certificats FIMEX signés, de demandes rejetées et de certificats expirés
+ * par jour, tenant, région, secteur d'activité et forme juridique (tendances).
+ * Une dimension non renseignée est stockée sous la valeur "" (FimexActiveStatistic.NONE).
+ */
+@Entity
+@Table(name = "fimex_daily_statistic")
+@IdClass(FimexDailyStatistic.StatisticId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class FimexDailyStatistic {
+
+    @Id
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Id
+    @Column(name = "stat_day", nullable = false)
+    private LocalDate statDay;
+
+    @Id
+    @Column(name = "region", nullable = false, length = 100)
+    private String region;
+
+    @Id
+    @Column(name = "main_activity", nullable = false, length = 200)
+    private String mainActivity;
+
+    @Id
+    @Column(name = "legal_form", nullable = false, length = 30)
+    private String legalForm;
+
+    @Column(name = "signed_count", nullable = false)
+    private long signedCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private long rejectedCount;
+
+    @Column(name = "expired_count", nullable = false)
+    private long expiredCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatisticId implements Serializable {
+        private String tenantId;
+        private LocalDate statDay;
+        private String region;
+        private String mainActivity;
+        private String legalForm;
+    }
+}
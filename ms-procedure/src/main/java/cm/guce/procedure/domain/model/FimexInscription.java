@@ -192,6 +192,15 @@ public class FimexInscription extends BaseEntity {
     @Column(name = "rejection_reason", columnDefinition = "TEXT")
     private String rejectionReason;
 
+    @Column(name = "expired_on")
+    private LocalDate expiredOn;
+
+    @Column(name = "escalated_at")
+    private LocalDateTime escalatedAt;
+
+    @Column(name = "escalation_count")
+    private Integer escalationCount = 0;
+
     // ========================================
     // COMPLÉMENT D'INFORMATION
     // ========================================
@@ -338,6 +347,8 @@ public class FimexInscription extends BaseEntity {
         this.status = FimexStatus.PROCESSING;
         this.processedBy = processor;
         this.processedAt = LocalDateTime.now();
+        this.escalatedAt = null;
+        this.escalationCount = 0;
     }
 
     /**
@@ -1,10 +1,12 @@
 package cm.guce.procedure.domain.model;
 
 import cm.guce.common.domain.model.BaseEntity;
+import cm.guce.common.domain.model.TimeOrderedIds;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -20,6 +22,7 @@ import java.util.UUID;
  * selon les règles métier définies dans les spécifications fonctionnelles.
  */
 @Entity
+@TimeOrderedIds
 @Table(name = "import_declaration", indexes = {
         @Index(name = "idx_import_decl_reference", columnList = "reference"),
         @Index(name = "idx_import_decl_importer", columnList = "importer_niu"),
@@ -27,11 +30,20 @@ import java.util.UUID;
         @Index(name = "idx_import_decl_routing", columnList = "routing_destination"),
         @Index(name = "idx_import_decl_type", columnList = "import_type")
 })
+@NamedEntityGraph(name = ImportDeclaration.GRAPH_DETAIL,
+        attributeNodes = @NamedAttributeNode("items"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class ImportDeclaration extends BaseEntity {
 
+    /**
+     * Profil de chargement "détail": la DI et ses articles en une requête.
+     * Les documents (second bag) ne sont jamais joints dans la même requête pour éviter
+     * le produit cartésien articles x documents.
+     */
+    public static final String GRAPH_DETAIL = "ImportDeclaration.detail";
+
     // ========================================
     // RÉFÉRENCE ET STATUT
     // ========================================
@@ -322,9 +334,11 @@ public class ImportDeclaration extends BaseEntity {
     // ========================================
 
     @OneToMany(mappedBy = "importDeclaration", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<ImportDeclarationItem> items = new ArrayList<>();
 
     @OneToMany(mappedBy = "importDeclaration", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<ImportDeclarationDocument> documents = new ArrayList<>();
 
     // ========================================
@@ -427,21 +441,14 @@ public class ImportDeclaration extends BaseEntity {
     }
 
     /**
-     * Détermine le routage automatique (SGS ou Douane) selon les règles métier.
+     * Applique les règles de routage et de frais (RM01 à RM06) à la DI.
      */
-    public RoutingDestination determineRouting() {
-        // Règle RM02: Véhicules d'occasion, poussins, œufs → DOUANE
-        if (containsSpecialMerchandise()) {
-            return RoutingDestination.CUSTOMS;
-        }
-
-        // Règle RM01/RM02: Valeur FOB > 1M FCFA → SGS, sinon DOUANE
-        BigDecimal threshold = new BigDecimal("1000000");
-        if (totalFobValueXaf != null && totalFobValueXaf.compareTo(threshold) > 0) {
-            return RoutingDestination.SGS;
-        }
-
-        return RoutingDestination.CUSTOMS;
+    public void applyRoutingRules(ImportRoutingRules rules) {
+        this.routingDestination = rules.route(totalFobValueXaf, containsSpecialMerchandise());
+        this.inspectionFee = rules.inspectionFee(routingDestination, totalFobValueXaf, Boolean.TRUE.equals(isPviExempt));
+        this.fiscalStamp = rules.getFiscalStamp();
+        this.totalFees = rules.totalFees(inspectionFee);
+        this.paymentChannel = rules.paymentChannel(totalFobValueXaf);
     }
 
     /**
@@ -455,46 +462,6 @@ public class ImportDeclaration extends BaseEntity {
             item.isUsedVehicle() || item.isPoultryChicks() || item.isEggs());
     }
 
-    /**
-     * Calcule la taxe d'inspection selon le routage.
-     */
-    public BigDecimal calculateInspectionFee() {
-        if (isPviExempt != null && isPviExempt) {
-            return BigDecimal.ZERO;
-        }
-
-        if (routingDestination == RoutingDestination.SGS) {
-            // Règle RM04: SGS = MAX(0.95% × Valeur FOB, 110 000 FCFA)
-            BigDecimal percentage = totalFobValueXaf.multiply(new BigDecimal("0.0095"));
-            BigDecimal minimum = new BigDecimal("110000");
-            return percentage.max(minimum);
-        } else {
-            // Règle RM05: Douane = 6 000 FCFA
-            return new BigDecimal("6000");
-        }
-    }
-
-    /**
-     * Calcule le total des frais (inspection + timbre fiscal).
-     */
-    public BigDecimal calculateTotalFees() {
-        BigDecimal inspection = calculateInspectionFee();
-        BigDecimal stamp = fiscalStamp != null ? fiscalStamp : new BigDecimal("1500");
-        return inspection.add(stamp);
-    }
-
-    /**
-     * Détermine le canal de paiement approprié.
-     */
-    public PaymentChannel determinePaymentChannel() {
-        // Règle RM06: Valeur < 2M FCFA → Campost/CNCC, sinon Banque
-        BigDecimal threshold = new BigDecimal("2000000");
-        if (totalFobValueXaf != null && totalFobValueXaf.compareTo(threshold) >= 0) {
-            return PaymentChannel.BANK_PAYONLINE;
-        }
-        return PaymentChannel.CAMPOST;
-    }
-
     /**
      * Vérifie si la DI peut être prorogée.
      */
@@ -519,13 +486,10 @@ public class ImportDeclaration extends BaseEntity {
     /**
      * Soumet la déclaration.
      */
-    public void submit() {
+    public void submit(ImportRoutingRules rules) {
         this.status = ImportDeclarationStatus.SUBMITTED;
         this.submittedAt = LocalDateTime.now();
-        this.routingDestination = determineRouting();
-        this.inspectionFee = calculateInspectionFee();
-        this.totalFees = calculateTotalFees();
-        this.paymentChannel = determinePaymentChannel();
+        applyRoutingRules(rules);
 
         // Validité initiale: 9 mois
         this.validityStartDate = LocalDate.now();
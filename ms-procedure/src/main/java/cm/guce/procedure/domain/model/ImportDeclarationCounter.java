@@ -0,0 +1,57 @@
+package cm.guce.procedure.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Compteur agrégé des Déclarations d'Importation par tenant et par dimension.
+ *
+ * Maintenu de manière incrémentale à chaque changement de statut, de routage ou de type
+ * d'une DI, afin que le tableau de bord n'ait jamais à parcourir la table import_declaration.
+ */
+@Entity
+@Table(name = "import_declaration_counter")
+@IdClass(ImportDeclarationCounter.CounterId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportDeclarationCounter {
+
+    @Id
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false, length = 30)
+    private CounterDimension dimension;
+
+    @Id
+    @Column(name = "dimension_value", nullable = false, length = 50)
+    private String dimensionValue;
+
+    @Column(name = "counter_value", nullable = false)
+    private long counterValue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum CounterDimension {
+        ROUTING,            // RoutingDestination
+        STATUS,             // ImportDeclarationStatus
+        TRANSPORT_MODE,     // TransportMode
+        IMPORT_TYPE         // ImportType
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CounterId implements Serializable {
+        private String tenantId;
+        private CounterDimension dimension;
+        private String dimensionValue;
+    }
+}
@@ -1,6 +1,7 @@
 package cm.guce.procedure.domain.model;
 
 import cm.guce.common.domain.model.BaseEntity;
+import cm.guce.common.domain.model.TimeOrderedIds;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
  * Entité document attaché à une Déclaration d'Importation.
  */
 @Entity
+@TimeOrderedIds
 @Table(name = "import_declaration_document", indexes = {
         @Index(name = "idx_import_doc_decl", columnList = "import_declaration_id"),
         @Index(name = "idx_import_doc_type", columnList = "document_type")
@@ -1,6 +1,7 @@
 package cm.guce.procedure.domain.model;
 
 import cm.guce.common.domain.model.BaseEntity;
+import cm.guce.common.domain.model.TimeOrderedIds;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,6 +14,7 @@ import java.math.BigDecimal;
  * Conforme au dictionnaire de données GUCE.
  */
 @Entity
+@TimeOrderedIds
 @Table(name = "import_declaration_item", indexes = {
         @Index(name = "idx_import_item_decl", columnList = "import_declaration_id"),
         @Index(name = "idx_import_item_hs", columnList = "hs_code")
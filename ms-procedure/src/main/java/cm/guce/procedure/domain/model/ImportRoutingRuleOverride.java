@@ -0,0 +1,59 @@
+package cm.guce.procedure.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Surcharge persistée des règles de routage et de frais d'un tenant.
+ *
+ * Une valeur nulle reprend celle de la configuration (guce.procedure.import-rules).
+ * Partagée entre les instances: chacune recompile ses tables de décision à partir de cette table.
+ */
+@Entity
+@Table(name = "import_routing_rule")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportRoutingRuleOverride {
+
+    @Id
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "sgs_threshold", precision = 18, scale = 2)
+    private BigDecimal sgsThreshold;
+
+    @Column(name = "bank_payment_threshold", precision = 18, scale = 2)
+    private BigDecimal bankPaymentThreshold;
+
+    @Column(name = "sgs_rate", precision = 10, scale = 6)
+    private BigDecimal sgsRate;
+
+    @Column(name = "sgs_minimum_fee", precision = 18, scale = 2)
+    private BigDecimal sgsMinimumFee;
+
+    @Column(name = "customs_inspection_fee", precision = 18, scale = 2)
+    private BigDecimal customsInspectionFee;
+
+    @Column(name = "fiscal_stamp", precision = 18, scale = 2)
+    private BigDecimal fiscalStamp;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "updated_by")
+    private String updatedBy;
+
+    public ImportRoutingRuleOverride(String tenantId) {
+        this.tenantId = tenantId;
+    }
+}
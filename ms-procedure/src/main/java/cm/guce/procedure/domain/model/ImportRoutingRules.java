@@ -0,0 +1,125 @@
+package cm.guce.procedure.domain.model;
+
+import cm.guce.procedure.domain.model.ImportDeclaration.PaymentChannel;
+import cm.guce.procedure.domain.model.ImportDeclaration.RoutingDestination;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Table de décision compilée des règles de routage et de frais des DI (RM01 à RM06).
+ *
+ * Immuable: toutes les constantes sont construites une seule fois à la compilation des
+ * règles d'un tenant, puis partagées entre les chemins de simulation et de persistance.
+ */
+public final class ImportRoutingRules {
+
+    private final BigDecimal sgsThreshold;
+    private final BigDecimal bankPaymentThreshold;
+    private final BigDecimal sgsRate;
+    private final BigDecimal sgsMinimumFee;
+    private final BigDecimal customsInspectionFee;
+    private final BigDecimal fiscalStamp;
+    private final String sgsFeeFormula;
+    private final String customsFeeLabel;
+
+    public ImportRoutingRules(BigDecimal sgsThreshold, BigDecimal bankPaymentThreshold, BigDecimal sgsRate,
+                              BigDecimal sgsMinimumFee, BigDecimal customsInspectionFee, BigDecimal fiscalStamp) {
+        this.sgsThreshold = Objects.requireNonNull(sgsThreshold, "sgsThreshold");
+        this.bankPaymentThreshold = Objects.requireNonNull(bankPaymentThreshold, "bankPaymentThreshold");
+        this.sgsRate = Objects.requireNonNull(sgsRate, "sgsRate");
+        this.sgsMinimumFee = Objects.requireNonNull(sgsMinimumFee, "sgsMinimumFee");
+        this.customsInspectionFee = Objects.requireNonNull(customsInspectionFee, "customsInspectionFee");
+        this.fiscalStamp = Objects.requireNonNull(fiscalStamp, "fiscalStamp");
+        if (sgsRate.signum() < 0 || sgsThreshold.signum() < 0 || bankPaymentThreshold.signum() < 0
+                || sgsMinimumFee.signum() < 0 || customsInspectionFee.signum() < 0 || fiscalStamp.signum() < 0) {
+            throw new IllegalArgumentException("Les seuils, taux et frais doivent être positifs");
+        }
+        this.sgsFeeFormula = "SGS: MAX(" + sgsRate.movePointRight(2).stripTrailingZeros().toPlainString()
+                + "%% × %s FCFA, " + sgsMinimumFee.toPlainString() + " FCFA) = %s FCFA";
+        this.customsFeeLabel = "Douane: Taxe fixe de " + customsInspectionFee.toPlainString() + " FCFA";
+    }
+
+    /**
+     * Règles RM01/RM02: marchandise spéciale → Douane; valeur FOB > seuil → SGS; sinon Douane.
+     */
+    public RoutingDestination route(BigDecimal totalFobValueXaf, boolean hasSpecialMerchandise) {
+        if (hasSpecialMerchandise) {
+            return RoutingDestination.CUSTOMS;
+        }
+        if (totalFobValueXaf != null && totalFobValueXaf.compareTo(sgsThreshold) > 0) {
+            return RoutingDestination.SGS;
+        }
+        return RoutingDestination.CUSTOMS;
+    }
+
+    /**
+     * Règles RM04/RM05: SGS = MAX(taux × FOB, minimum) arrondi au franc; Douane = taxe fixe.
+     */
+    public BigDecimal inspectionFee(RoutingDestination destination, BigDecimal totalFobValueXaf, boolean pviExempt) {
+        if (pviExempt) {
+            return BigDecimal.ZERO;
+        }
+        if (destination == RoutingDestination.SGS) {
+            return sgsPercentageFee(totalFobValueXaf).max(sgsMinimumFee);
+        }
+        return customsInspectionFee;
+    }
+
+    /**
+     * Part proportionnelle des frais SGS (avant application du minimum).
+     */
+    public BigDecimal sgsPercentageFee(BigDecimal totalFobValueXaf) {
+        if (totalFobValueXaf == null) {
+            return BigDecimal.ZERO;
+        }
+        return totalFobValueXaf.multiply(sgsRate).setScale(0, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal totalFees(BigDecimal inspectionFee) {
+        return inspectionFee.add(fiscalStamp);
+    }
+
+    /**
+     * Règle RM06: valeur FOB ≥ seuil → Banque (PayOnline), sinon Campost/CNCC.
+     */
+    public PaymentChannel paymentChannel(BigDecimal totalFobValueXaf) {
+        if (totalFobValueXaf != null && totalFobValueXaf.compareTo(bankPaymentThreshold) >= 0) {
+            return PaymentChannel.BANK_PAYONLINE;
+        }
+        return PaymentChannel.CAMPOST;
+    }
+
+    public String describeSgsFee(BigDecimal totalFobValueXaf, BigDecimal applied) {
+        return String.format(sgsFeeFormula, totalFobValueXaf.toPlainString(), applied.toPlainString());
+    }
+
+    public String describeCustomsFee() {
+        return customsFeeLabel;
+    }
+
+    public BigDecimal getSgsThreshold() {
+        return sgsThreshold;
+    }
+
+    public BigDecimal getBankPaymentThreshold() {
+        return bankPaymentThreshold;
+    }
+
+    public BigDecimal getSgsRate() {
+        return sgsRate;
+    }
+
+    public BigDecimal getSgsMinimumFee() {
+        return sgsMinimumFee;
+    }
+
+    public BigDecimal getCustomsInspectionFee() {
+        return customsInspectionFee;
+    }
+
+    public BigDecimal getFiscalStamp() {
+        return fiscalStamp;
+    }
+}
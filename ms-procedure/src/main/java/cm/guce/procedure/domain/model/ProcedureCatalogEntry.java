@@ -0,0 +1,26 @@
+package cm.guce.procedure.domain.model;
+
+import cm.guce.procedure.domain.model.Procedure.ProcedureCategory;
+import cm.guce.procedure.domain.model.Procedure.ProcedureStatus;
+import cm.guce.procedure.domain.model.Procedure.ProcedureType;
+
+import java.util.UUID;
+
+/**
+ * Projection d'une procédure publiée pour le catalogue du portail: colonnes affichées
+ * et nombre d'étapes, lus en une seule requête.
+ */
+public record ProcedureCatalogEntry(UUID id,
+                                    String code,
+                                    String nameFr,
+                                    String nameEn,
+                                    String descriptionFr,
+                                    ProcedureCategory category,
+                                    ProcedureType procedureType,
+                                    String icon,
+                                    String color,
+                                    Integer expectedDurationHours,
+                                    Boolean requiresPayment,
+                                    ProcedureStatus status,
+                                    Integer stepsCount) {
+}
@@ -0,0 +1,88 @@
+package cm.guce.procedure.domain.model;
+
+import cm.guce.common.domain.model.TimeOrderedUuid;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Demande de démarrage de processus Camunda (outbox transactionnelle).
+ *
+ * Enregistrée dans la même transaction que la soumission du dossier, puis traitée
+ * par ProcessStartDispatcher: le démarrage du processus ne bloque plus la requête ni
+ * la connexion base, et n'est jamais perdu en cas d'indisponibilité de Zeebe.
+ */
+@Entity
+@Table(name = "process_start_outbox", indexes = {
+        @Index(name = "idx_process_outbox_pending", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_process_outbox_dispatched", columnList = "status, dispatched_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessStartOutbox {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 30)
+    private AggregateType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+
+    @Column(name = "bpmn_process_id", nullable = false, length = 100)
+    private String bpmnProcessId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "variables", columnDefinition = "jsonb")
+    private Map<String, Object> variables = new HashMap<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "process_instance_key")
+    private Long processInstanceKey;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+
+    public enum AggregateType {
+        IMPORT_DECLARATION,
+        FIMEX_INSCRIPTION,
+        DECLARATION
+    }
+
+    public enum OutboxStatus {
+        PENDING,        // À démarrer (ou en cours de démarrage jusqu'à next_attempt_at)
+        DISPATCHED,     // Processus démarré
+        FAILED          // Nombre maximal de tentatives atteint
+    }
+}
@@ -0,0 +1,18 @@
+package cm.guce.procedure.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection d'une inscription FIMEX en traitement au-delà du délai (escalade),
+ * lue sans charger l'entité.
+ */
+public record StaleFimexInscription(UUID id,
+                                    String tenantId,
+                                    String reference,
+                                    String niu,
+                                    String companyName,
+                                    String processedBy,
+                                    LocalDateTime processedAt,
+                                    Integer escalationCount) {
+}
@@ -0,0 +1,14 @@
+package cm.guce.procedure.domain.model;
+
+/**
+ * Volume d'une corbeille d'étape (requête groupée sur declaration_work_item).
+ *
+ * @param overdue lignes dont l'échéance est dépassée
+ */
+public record WorkQueueStepCount(String step,
+                                 String stepName,
+                                 Long total,
+                                 Long unassigned,
+                                 Long urgent,
+                                 Long overdue) {
+}
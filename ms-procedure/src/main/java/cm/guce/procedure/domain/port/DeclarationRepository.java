@@ -5,6 +5,7 @@ import cm.guce.procedure.domain.model.Declaration;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -45,17 +46,71 @@ public interface DeclarationRepository extends JpaRepository<Declaration, UUID>
             @Param("status") EntityStatus status,
             Pageable pageable);
 
+    /**
+     * Liste non bornée d'entités complètes: les corbeilles du back-office passent par
+     * DeclarationWorkItemRepository (paginé et indexé).
+     */
     @Query("SELECT d FROM Declaration d WHERE d.currentStep = :stepCode AND d.status IN :statuses")
     List<Declaration> findByCurrentStepAndStatusIn(
             @Param("stepCode") String stepCode,
             @Param("statuses") List<EntityStatus> statuses);
 
-    @Query("SELECT d FROM Declaration d WHERE " +
-            "(LOWER(d.reference) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(d.operatorName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(d.operatorNiu) LIKE LOWER(CONCAT('%', :query, '%')))")
+    /**
+     * Recherche plein texte servie par l'index trigramme idx_declaration_search_trgm.
+     * Le terme doit être normalisé (StringUtils.toSearchTerm); les résultats sont classés
+     * par pertinence puis par date de création. Le Pageable ne doit pas porter de tri.
+     */
+    @Query(value = "SELECT d.* FROM {h-schema}declaration d " +
+            "WHERE lower(d.reference || ' ' || coalesce(d.operator_name, '') || ' ' || " +
+            "coalesce(d.operator_niu, '')) LIKE '%' || :query || '%' " +
+            "ORDER BY word_similarity(:query, lower(d.reference || ' ' || coalesce(d.operator_name, '') || ' ' || " +
+            "coalesce(d.operator_niu, ''))) DESC, d.created_at DESC",
+            countQuery = "SELECT COUNT(*) FROM {h-schema}declaration d " +
+            "WHERE lower(d.reference || ' ' || coalesce(d.operator_name, '') || ' ' || " +
+            "coalesce(d.operator_niu, '')) LIKE '%' || :query || '%'",
+            nativeQuery = true)
     Page<Declaration> search(@Param("query") String query, Pageable pageable);
 
+    // Pagination par curseur (keyset): lignes strictement après (createdAt, id) en ordre décroissant.
+    // Le Pageable ne sert qu'à limiter le nombre de lignes (page 0, taille + 1).
+
+    @Query("SELECT d FROM Declaration d WHERE d.operatorId = :operatorId AND " +
+            "d.createdAt <= :createdAt AND (d.createdAt < :createdAt OR d.id < :id) " +
+            "ORDER BY d.createdAt DESC, d.id DESC")
+    List<Declaration> findByOperatorIdAfter(@Param("operatorId") UUID operatorId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") UUID id,
+                                            Pageable limit);
+
+    @Query("SELECT d FROM Declaration d WHERE d.status = :status AND " +
+            "d.createdAt <= :createdAt AND (d.createdAt < :createdAt OR d.id < :id) " +
+            "ORDER BY d.createdAt DESC, d.id DESC")
+    List<Declaration> findByStatusAfter(@Param("status") EntityStatus status,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") UUID id,
+                                        Pageable limit);
+
+    @Query(value = "SELECT d.* FROM {h-schema}declaration d " +
+            "WHERE lower(d.reference || ' ' || coalesce(d.operator_name, '') || ' ' || " +
+            "coalesce(d.operator_niu, '')) LIKE '%' || :query || '%' " +
+            "AND (d.created_at, d.id) < (:createdAt, :id) " +
+            "ORDER BY d.created_at DESC, d.id DESC",
+            nativeQuery = true)
+    List<Declaration> searchAfter(@Param("query") String query,
+                                  @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") UUID id,
+                                  Pageable limit);
+
+    long countByOperatorId(UUID operatorId);
+
+    long countByStatus(EntityStatus status);
+
+    @Query(value = "SELECT COUNT(*) FROM {h-schema}declaration d " +
+            "WHERE lower(d.reference || ' ' || coalesce(d.operator_name, '') || ' ' || " +
+            "coalesce(d.operator_niu, '')) LIKE '%' || :query || '%'",
+            nativeQuery = true)
+    long countSearch(@Param("query") String query);
+
     @Query("SELECT d FROM Declaration d WHERE d.submittedAt >= :startDate AND d.submittedAt <= :endDate")
     List<Declaration> findBySubmittedAtBetween(
             @Param("startDate") LocalDateTime startDate,
@@ -70,4 +125,35 @@ public interface DeclarationRepository extends JpaRepository<Declaration, UUID>
     boolean existsByReference(String reference);
 
     Optional<Declaration> findByProcessInstanceId(String processInstanceId);
+
+    // ========================================
+    // DONNÉES DE FORMULAIRE
+    // ========================================
+
+    /**
+     * Déclarations d'une procédure dont les données de formulaire contiennent le document
+     * JSON donné (opérateur @>, servi par l'index GIN idx_declaration_data_gin).
+     * Le Pageable ne doit pas porter de tri.
+     */
+    @Query(value = "SELECT d.* FROM {h-schema}declaration d " +
+            "WHERE d.procedure_code = :procedureCode AND d.data_json @> CAST(:criteria AS jsonb) " +
+            "ORDER BY d.created_at DESC, d.id DESC",
+            countQuery = "SELECT COUNT(*) FROM {h-schema}declaration d " +
+            "WHERE d.procedure_code = :procedureCode AND d.data_json @> CAST(:criteria AS jsonb)",
+            nativeQuery = true)
+    Page<Declaration> findByDataContaining(@Param("procedureCode") String procedureCode,
+                                           @Param("criteria") String criteria,
+                                           Pageable pageable);
+
+    // ========================================
+    // PROCESSUS CAMUNDA
+    // ========================================
+
+    /**
+     * Reporte l'identifiant d'instance de processus (outbox), sans passer par le
+     * verrou optimiste: le dossier a pu évoluer depuis la soumission.
+     */
+    @Modifying
+    @Query("UPDATE Declaration d SET d.processInstanceId = :processInstanceId WHERE d.id = :id")
+    int updateProcessInstanceId(@Param("id") UUID id, @Param("processInstanceId") String processInstanceId);
 }
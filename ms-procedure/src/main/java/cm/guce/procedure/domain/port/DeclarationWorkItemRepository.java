@@ -0,0 +1,102 @@
+package cm.guce.procedure.domain.port;
+
+import cm.guce.procedure.domain.model.DeclarationWorkItem;
+import cm.guce.procedure.domain.model.WorkQueueStepCount;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository des corbeilles de travail des déclarations.
+ *
+ * Les corbeilles sont triées urgentes d'abord, puis par échéance (index
+ * idx_work_item_step_queue et idx_work_item_assignee_queue). Le Pageable ne doit pas
+ * porter de tri.
+ */
+@Repository
+public interface DeclarationWorkItemRepository extends JpaRepository<DeclarationWorkItem, UUID> {
+
+    @Query("SELECT w FROM DeclarationWorkItem w WHERE w.tenantId = :tenantId AND w.currentStep = :step " +
+            "ORDER BY w.urgent DESC, w.dueAt ASC NULLS LAST, w.declarationId")
+    Page<DeclarationWorkItem> findStepQueue(@Param("tenantId") String tenantId,
+                                            @Param("step") String step,
+                                            Pageable pageable);
+
+    @Query("SELECT w FROM DeclarationWorkItem w WHERE w.tenantId = :tenantId AND w.assignedTo = :assignee " +
+            "ORDER BY w.urgent DESC, w.dueAt ASC NULLS LAST, w.declarationId")
+    Page<DeclarationWorkItem> findAssigneeQueue(@Param("tenantId") String tenantId,
+                                                @Param("assignee") String assignee,
+                                                Pageable pageable);
+
+    /**
+     * Volumes de toutes les corbeilles d'étape d'un tenant, en une requête groupée.
+     */
+    @Query("SELECT new cm.guce.procedure.domain.model.WorkQueueStepCount(" +
+            "w.currentStep, MAX(w.currentStepName), COUNT(w), " +
+            "SUM(CASE WHEN w.assignedTo IS NULL THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN w.urgent = true THEN 1L ELSE 0L END), " +
+            "SUM(CASE WHEN w.dueAt < :now THEN 1L ELSE 0L END)) " +
+            "FROM DeclarationWorkItem w WHERE w.tenantId = :tenantId " +
+            "GROUP BY w.currentStep ORDER BY w.currentStep")
+    List<WorkQueueStepCount> countByStep(@Param("tenantId") String tenantId, @Param("now") LocalDateTime now);
+
+    // ========================================
+    // RECONSTRUCTION
+    // ========================================
+
+    /**
+     * Insère ou met à jour la ligne de chaque déclaration en attente de décision (une
+     * instruction). L'entrée dans l'étape et l'échéance sont conservées si l'étape est inchangée.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}declaration_work_item " +
+                   "(declaration_id, tenant_id, reference, procedure_code, operator_name, current_step, " +
+                   "current_step_name, status, assigned_to, is_urgent, priority, submitted_at, " +
+                   "step_entered_at, due_at, updated_at) " +
+                   "SELECT d.id, d.tenant_id, d.reference, d.procedure_code, d.operator_name, " +
+                   "COALESCE(d.current_step, ''), d.current_step_name, d.status, d.assigned_to, " +
+                   "COALESCE(d.is_urgent, false), COALESCE(d.priority, 0), d.submitted_at, " +
+                   "COALESCE(d.submitted_at, now()), " +
+                   "COALESCE(COALESCE(d.submitted_at, now()) + s.due_duration_hours * INTERVAL '1 hour', " +
+                   "d.expected_completion_date), now() " +
+                   "FROM {h-schema}declaration d " +
+                   "LEFT JOIN {h-schema}procedure_step s ON s.procedure_id = d.procedure_id AND s.code = d.current_step " +
+                   "WHERE d.status IN ('SUBMITTED', 'IN_PROGRESS', 'VALIDATED') " +
+                   "ON CONFLICT (declaration_id) DO UPDATE SET " +
+                   "operator_name = EXCLUDED.operator_name, current_step_name = EXCLUDED.current_step_name, " +
+                   "status = EXCLUDED.status, assigned_to = EXCLUDED.assigned_to, " +
+                   "is_urgent = EXCLUDED.is_urgent, priority = EXCLUDED.priority, " +
+                   "step_entered_at = CASE WHEN {h-schema}declaration_work_item.current_step = EXCLUDED.current_step " +
+                   "THEN {h-schema}declaration_work_item.step_entered_at ELSE now() END, " +
+                   "due_at = CASE WHEN {h-schema}declaration_work_item.current_step = EXCLUDED.current_step " +
+                   "THEN {h-schema}declaration_work_item.due_at ELSE EXCLUDED.due_at END, " +
+                   "current_step = EXCLUDED.current_step, updated_at = now()",
+           nativeQuery = true)
+    int upsertAwaitingDecision();
+
+    /**
+     * Supprime les lignes des déclarations qui ne sont plus en attente de décision.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}declaration_work_item w WHERE NOT EXISTS (" +
+                   "SELECT 1 FROM {h-schema}declaration d WHERE d.id = w.declaration_id " +
+                   "AND d.status IN ('SUBMITTED', 'IN_PROGRESS', 'VALIDATED'))",
+           nativeQuery = true)
+    int deleteStale();
+
+    /**
+     * Verrouille la table pendant une reconstruction: les transitions concurrentes
+     * attendent la fin de la reconstruction au lieu d'être écrasées.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE {h-schema}declaration_work_item IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+}
@@ -0,0 +1,67 @@
+package cm.guce.procedure.domain.port;
+
+import cm.guce.procedure.domain.model.FimexActiveStatistic;
+import cm.guce.procedure.domain.model.FimexActiveStatistic.StatisticId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository de l'agrégat des certificats FIMEX en cours de validité.
+ */
+@Repository
+public interface FimexActiveStatisticRepository extends JpaRepository<FimexActiveStatistic, StatisticId> {
+
+    List<FimexActiveStatistic> findByTenantId(String tenantId);
+
+    /**
+     * Ajoute atomiquement un delta (nombre et chiffre d'affaires), en créant la ligne si nécessaire.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}fimex_active_statistic " +
+                   "(tenant_id, region, main_activity, legal_form, active_count, active_revenue, updated_at) " +
+                   "VALUES (:tenantId, :region, :activity, :legalForm, :count, :revenue, now()) " +
+                   "ON CONFLICT (tenant_id, region, main_activity, legal_form) DO UPDATE SET " +
+                   "active_count = {h-schema}fimex_active_statistic.active_count + EXCLUDED.active_count, " +
+                   "active_revenue = {h-schema}fimex_active_statistic.active_revenue + EXCLUDED.active_revenue, " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    int increment(@Param("tenantId") String tenantId,
+                  @Param("region") String region,
+                  @Param("activity") String activity,
+                  @Param("legalForm") String legalForm,
+                  @Param("count") long count,
+                  @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("DELETE FROM FimexActiveStatistic s WHERE s.tenantId = :tenantId")
+    int deleteByTenantId(@Param("tenantId") String tenantId);
+
+    /**
+     * Recalcule l'agrégat d'un tenant à partir des inscriptions signées (une instruction).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}fimex_active_statistic " +
+                   "(tenant_id, region, main_activity, legal_form, active_count, active_revenue, updated_at) " +
+                   "SELECT tenant_id, COALESCE(region, ''), COALESCE(main_activity, ''), COALESCE(legal_form, ''), " +
+                   "COUNT(*), COALESCE(SUM(annual_revenue), 0), now() " +
+                   "FROM {h-schema}fimex_inscription " +
+                   "WHERE tenant_id = :tenantId AND status = 'SIGNED' " +
+                   "GROUP BY tenant_id, COALESCE(region, ''), COALESCE(main_activity, ''), COALESCE(legal_form, '')",
+           nativeQuery = true)
+    int rebuild(@Param("tenantId") String tenantId);
+
+    /**
+     * Verrouille les tables d'agrégats FIMEX pendant une reconstruction: les transitions
+     * concurrentes attendent la fin de la reconstruction au lieu d'être perdues.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE {h-schema}fimex_active_statistic, {h-schema}fimex_daily_statistic " +
+                   "IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+}
@@ -0,0 +1,90 @@
+package cm.guce.procedure.domain.port;
+
+import cm.guce.procedure.domain.model.FimexDailyStatistic;
+import cm.guce.procedure.domain.model.FimexDailyStatistic.StatisticId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository des statistiques FIMEX journalières.
+ */
+@Repository
+public interface FimexDailyStatisticRepository extends JpaRepository<FimexDailyStatistic, StatisticId> {
+
+    /**
+     * Totaux par jour sur une période (toutes dimensions confondues):
+     * (jour, signés, rejetés, expirés), par jour croissant.
+     */
+    @Query("SELECT s.statDay, SUM(s.signedCount), SUM(s.rejectedCount), SUM(s.expiredCount) " +
+           "FROM FimexDailyStatistic s WHERE s.tenantId = :tenantId AND s.statDay BETWEEN :from AND :to " +
+           "GROUP BY s.statDay ORDER BY s.statDay")
+    List<Object[]> sumByDay(@Param("tenantId") String tenantId,
+                            @Param("from") LocalDate from,
+                            @Param("to") LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(s.signedCount), 0) FROM FimexDailyStatistic s " +
+           "WHERE s.tenantId = :tenantId AND s.statDay BETWEEN :from AND :to")
+    long sumSigned(@Param("tenantId") String tenantId,
+                   @Param("from") LocalDate from,
+                   @Param("to") LocalDate to);
+
+    /**
+     * Ajoute atomiquement des deltas à la ligne d'un jour, en la créant si nécessaire.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}fimex_daily_statistic " +
+                   "(tenant_id, stat_day, region, main_activity, legal_form, " +
+                   "signed_count, rejected_count, expired_count, updated_at) " +
+                   "VALUES (:tenantId, :day, :region, :activity, :legalForm, :signed, :rejected, :expired, now()) " +
+                   "ON CONFLICT (tenant_id, stat_day, region, main_activity, legal_form) DO UPDATE SET " +
+                   "signed_count = {h-schema}fimex_daily_statistic.signed_count + EXCLUDED.signed_count, " +
+                   "rejected_count = {h-schema}fimex_daily_statistic.rejected_count + EXCLUDED.rejected_count, " +
+                   "expired_count = {h-schema}fimex_daily_statistic.expired_count + EXCLUDED.expired_count, " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    int increment(@Param("tenantId") String tenantId,
+                  @Param("day") LocalDate day,
+                  @Param("region") String region,
+                  @Param("activity") String activity,
+                  @Param("legalForm") String legalForm,
+                  @Param("signed") long signed,
+                  @Param("rejected") long rejected,
+                  @Param("expired") long expired);
+
+    @Modifying
+    @Query("DELETE FROM FimexDailyStatistic s WHERE s.tenantId = :tenantId")
+    int deleteByTenantId(@Param("tenantId") String tenantId);
+
+    /**
+     * Recalcule les statistiques journalières d'un tenant à partir des dates de signature,
+     * de rejet et d'expiration (expired_on, posé par le balayage).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}fimex_daily_statistic " +
+                   "(tenant_id, stat_day, region, main_activity, legal_form, " +
+                   "signed_count, rejected_count, expired_count, updated_at) " +
+                   "SELECT tenant_id, stat_day, region, main_activity, legal_form, " +
+                   "SUM(signed), SUM(rejected), SUM(expired), now() FROM (" +
+                   "  SELECT tenant_id, CAST(signed_at AS DATE) AS stat_day, COALESCE(region, '') AS region, " +
+                   "  COALESCE(main_activity, '') AS main_activity, COALESCE(legal_form, '') AS legal_form, " +
+                   "  1 AS signed, 0 AS rejected, 0 AS expired " +
+                   "  FROM {h-schema}fimex_inscription WHERE tenant_id = :tenantId AND signed_at IS NOT NULL " +
+                   "  UNION ALL " +
+                   "  SELECT tenant_id, CAST(rejected_at AS DATE), COALESCE(region, ''), " +
+                   "  COALESCE(main_activity, ''), COALESCE(legal_form, ''), 0, 1, 0 " +
+                   "  FROM {h-schema}fimex_inscription WHERE tenant_id = :tenantId AND rejected_at IS NOT NULL " +
+                   "  UNION ALL " +
+                   "  SELECT tenant_id, expired_on, COALESCE(region, ''), " +
+                   "  COALESCE(main_activity, ''), COALESCE(legal_form, ''), 0, 0, 1 " +
+                   "  FROM {h-schema}fimex_inscription WHERE tenant_id = :tenantId AND status = 'EXPIRED' " +
+                   "  AND expired_on IS NOT NULL" +
+                   ") events GROUP BY tenant_id, stat_day, region, main_activity, legal_form",
+           nativeQuery = true)
+    int rebuild(@Param("tenantId") String tenantId);
+}
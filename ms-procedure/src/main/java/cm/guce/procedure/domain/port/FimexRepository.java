@@ -1,15 +1,20 @@
 package cm.guce.procedure.domain.port;
 
+import cm.guce.procedure.domain.model.FimexCertificateView;
 import cm.guce.procedure.domain.model.FimexInscription;
 import cm.guce.procedure.domain.model.FimexInscription.*;
+import cm.guce.procedure.domain.model.StaleFimexInscription;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,6 +29,16 @@ public interface FimexRepository extends JpaRepository<FimexInscription, UUID> {
 
     Optional<FimexInscription> findByCertificateNumber(String certificateNumber);
 
+    @Query("SELECT new cm.guce.procedure.domain.model.FimexCertificateView(" +
+           "f.certificateNumber, f.companyName, f.niu, f.status, f.certificateIssueDate, f.certificateExpiryDate) " +
+           "FROM FimexInscription f WHERE f.certificateNumber = :certificateNumber")
+    Optional<FimexCertificateView> findCertificateView(@Param("certificateNumber") String certificateNumber);
+
+    @Query("SELECT new cm.guce.procedure.domain.model.FimexCertificateView(" +
+           "f.certificateNumber, f.companyName, f.niu, f.status, f.certificateIssueDate, f.certificateExpiryDate) " +
+           "FROM FimexInscription f WHERE f.certificateNumber IN :certificateNumbers")
+    List<FimexCertificateView> findCertificateViews(@Param("certificateNumbers") Collection<String> certificateNumbers);
+
     Page<FimexInscription> findByNiu(String niu, Pageable pageable);
 
     Page<FimexInscription> findByStatus(FimexStatus status, Pageable pageable);
@@ -36,17 +51,87 @@ public interface FimexRepository extends JpaRepository<FimexInscription, UUID> {
 
     Page<FimexInscription> findByLegalForm(LegalForm legalForm, Pageable pageable);
 
-    @Query("SELECT f FROM FimexInscription f WHERE " +
-           "(LOWER(f.reference) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(f.companyName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(f.niu) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(f.certificateNumber) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-           "ORDER BY f.createdAt DESC")
+    /**
+     * Recherche plein texte servie par l'index trigramme idx_fimex_search_trgm.
+     * Le terme doit être normalisé (StringUtils.toSearchTerm); les résultats sont classés
+     * par pertinence puis par date de création. Le Pageable ne doit pas porter de tri.
+     */
+    @Query(value = "SELECT f.* FROM {h-schema}fimex_inscription f " +
+                   "WHERE lower(f.reference || ' ' || f.company_name || ' ' || f.niu || ' ' || " +
+                   "coalesce(f.certificate_number, '')) LIKE '%' || :query || '%' " +
+                   "ORDER BY word_similarity(:query, lower(f.reference || ' ' || f.company_name || ' ' || " +
+                   "f.niu || ' ' || coalesce(f.certificate_number, ''))) DESC, f.created_at DESC",
+           countQuery = "SELECT COUNT(*) FROM {h-schema}fimex_inscription f " +
+                   "WHERE lower(f.reference || ' ' || f.company_name || ' ' || f.niu || ' ' || " +
+                   "coalesce(f.certificate_number, '')) LIKE '%' || :query || '%'",
+           nativeQuery = true)
     Page<FimexInscription> search(@Param("query") String query, Pageable pageable);
 
-    @Query("SELECT f FROM FimexInscription f WHERE f.niu = :niu AND f.status = 'SIGNED' " +
-           "AND f.certificateExpiryDate >= CURRENT_DATE ORDER BY f.certificateExpiryDate DESC")
-    Optional<FimexInscription> findActiveByNiu(@Param("niu") String niu);
+    // ========================================
+    // PAGINATION PAR CURSEUR (KEYSET)
+    // ========================================
+    // Lignes strictement après le curseur (createdAt, id) en ordre décroissant.
+    // La borne createdAt <= :createdAt (JPQL) ou la comparaison de tuples (SQL natif) donne
+    // une seule plage de parcours sur l'index (..., created_at DESC, id DESC).
+    // Le Pageable ne sert qu'à limiter le nombre de lignes (page 0, taille + 1).
+
+    @Query("SELECT f FROM FimexInscription f WHERE f.niu = :niu AND " +
+           "f.createdAt <= :createdAt AND (f.createdAt < :createdAt OR f.id < :id) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FimexInscription> findByNiuAfter(@Param("niu") String niu,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") UUID id,
+                                          Pageable limit);
+
+    @Query("SELECT f FROM FimexInscription f WHERE f.status = :status AND " +
+           "f.createdAt <= :createdAt AND (f.createdAt < :createdAt OR f.id < :id) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FimexInscription> findByStatusAfter(@Param("status") FimexStatus status,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") UUID id,
+                                             Pageable limit);
+
+    @Query(value = "SELECT f.* FROM {h-schema}fimex_inscription f " +
+                   "WHERE lower(f.reference || ' ' || f.company_name || ' ' || f.niu || ' ' || " +
+                   "coalesce(f.certificate_number, '')) LIKE '%' || :query || '%' " +
+                   "AND (f.created_at, f.id) < (:createdAt, :id) " +
+                   "ORDER BY f.created_at DESC, f.id DESC",
+           nativeQuery = true)
+    List<FimexInscription> searchAfter(@Param("query") String query,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") UUID id,
+                                       Pageable limit);
+
+    long countByNiu(String niu);
+
+    long countByStatus(FimexStatus status);
+
+    @Query(value = "SELECT COUNT(*) FROM {h-schema}fimex_inscription f " +
+                   "WHERE lower(f.reference || ' ' || f.company_name || ' ' || f.niu || ' ' || " +
+                   "coalesce(f.certificate_number, '')) LIKE '%' || :query || '%'",
+           nativeQuery = true)
+    long countSearch(@Param("query") String query);
+
+    @Query("SELECT COUNT(f) > 0 FROM FimexInscription f WHERE f.tenantId = :tenantId AND f.niu = :niu " +
+           "AND f.status = 'SIGNED' AND f.certificateExpiryDate >= :today")
+    boolean existsActiveByNiu(@Param("tenantId") String tenantId,
+                              @Param("niu") String niu,
+                              @Param("today") LocalDate today);
+
+    /**
+     * Certificats en cours de validité: (tenant_id, niu, date d'expiration).
+     */
+    @Query("SELECT f.tenantId, f.niu, f.certificateExpiryDate FROM FimexInscription f " +
+           "WHERE f.status = 'SIGNED' AND f.certificateExpiryDate >= :today")
+    List<Object[]> findActiveNius(@Param("today") LocalDate today);
+
+    /**
+     * Certificats en cours de validité signés depuis une date: (tenant_id, niu, date d'expiration).
+     */
+    @Query("SELECT f.tenantId, f.niu, f.certificateExpiryDate FROM FimexInscription f " +
+           "WHERE f.status = 'SIGNED' AND f.certificateExpiryDate >= :today AND f.signedAt >= :since")
+    List<Object[]> findActiveNiusSignedSince(@Param("since") LocalDateTime since,
+                                             @Param("today") LocalDate today);
 
     // ========================================
     // STATISTIQUES
@@ -71,6 +156,9 @@ public interface FimexRepository extends JpaRepository<FimexInscription, UUID> {
     // REQUÊTES SPÉCIFIQUES
     // ========================================
 
+    @Query("SELECT DISTINCT f.tenantId FROM FimexInscription f")
+    List<String> findDistinctTenantIds();
+
     List<FimexInscription> findByStatusAndCertificateExpiryDateBefore(FimexStatus status, LocalDate date);
 
     @Query("SELECT f FROM FimexInscription f WHERE f.status = 'SIGNED' " +
@@ -79,9 +167,41 @@ public interface FimexRepository extends JpaRepository<FimexInscription, UUID> {
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
 
-    @Query("SELECT f FROM FimexInscription f WHERE f.status = 'PROCESSING' " +
-           "AND f.processedAt < :date")
-    List<FimexInscription> findStaleProcessingInscriptions(@Param("date") java.time.LocalDateTime date);
+    // ========================================
+    // ESCALADE DES TRAITEMENTS EN RETARD
+    // ========================================
+
+    /**
+     * Premières inscriptions (par date de traitement) en traitement depuis avant "date" et
+     * non escaladées depuis "escalatedBefore" (projection, sans chargement d'entités).
+     */
+    @Query("SELECT new cm.guce.procedure.domain.model.StaleFimexInscription(" +
+           "f.id, f.tenantId, f.reference, f.niu, f.companyName, f.processedBy, f.processedAt, f.escalationCount) " +
+           "FROM FimexInscription f WHERE f.status = 'PROCESSING' AND f.processedAt < :date " +
+           "AND (f.escalatedAt IS NULL OR f.escalatedAt < :escalatedBefore) ORDER BY f.processedAt")
+    List<StaleFimexInscription> findStaleProcessing(@Param("date") LocalDateTime date,
+                                                    @Param("escalatedBefore") LocalDateTime escalatedBefore,
+                                                    Pageable limit);
+
+    @Modifying
+    @Query("UPDATE FimexInscription f SET f.escalatedAt = :now, " +
+           "f.escalationCount = COALESCE(f.escalationCount, 0) + 1 WHERE f.id IN :ids")
+    int markEscalated(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Verrou consultatif de la transaction courante réservant l'escalade à une seule instance.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('procedure.fimex_inscription.escalation'))",
+           nativeQuery = true)
+    boolean tryLockEscalation();
+
+    /**
+     * Inscriptions en traitement par tenant: (tenant_id, total, en retard, plus ancienne date de traitement).
+     */
+    @Query("SELECT f.tenantId, COUNT(f), " +
+           "SUM(CASE WHEN f.processedAt < :staleBefore THEN 1 ELSE 0 END), MIN(f.processedAt) " +
+           "FROM FimexInscription f WHERE f.status = 'PROCESSING' GROUP BY f.tenantId")
+    List<Object[]> summarizeProcessingBacklog(@Param("staleBefore") LocalDateTime staleBefore);
 
     // ========================================
     // STATISTIQUES PAR RÉGION ET ACTIVITÉ
@@ -101,4 +221,45 @@ public interface FimexRepository extends JpaRepository<FimexInscription, UUID> {
            "WHERE f.tenantId = :tenantId AND f.status = 'SIGNED' " +
            "GROUP BY f.legalForm ORDER BY COUNT(f) DESC")
     List<Object[]> getStatisticsByLegalForm(@Param("tenantId") String tenantId);
+
+    // ========================================
+    // EXPIRATION
+    // ========================================
+
+    /**
+     * Verrou consultatif de la transaction courante réservant le balayage d'expiration
+     * à une seule instance. Retourne false s'il est déjà détenu.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('procedure.fimex_inscription.expiry'))",
+           nativeQuery = true)
+    boolean tryLockExpirySweep();
+
+    /**
+     * Expire un lot de certificats signés arrivés à échéance, en une instruction.
+     * Retourne (id, tenant_id, reference, statut précédent, region, main_activity, legal_form,
+     * annual_revenue) des inscriptions expirées.
+     */
+    @Query(value = "WITH due AS (" +
+                   "  SELECT id, status AS previous_status FROM {h-schema}fimex_inscription " +
+                   "  WHERE status = 'SIGNED' AND certificate_expiry_date < :today " +
+                   "  ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "UPDATE {h-schema}fimex_inscription f SET status = 'EXPIRED', expired_on = :today, updated_at = now(), " +
+                   "version = COALESCE(f.version, 0) + 1 " +
+                   "FROM due WHERE f.id = due.id " +
+                   "RETURNING f.id, f.tenant_id, f.reference, due.previous_status, " +
+                   "f.region, f.main_activity, f.legal_form, f.annual_revenue",
+           nativeQuery = true)
+    List<Object[]> expireDue(@Param("today") LocalDate today, @Param("limit") int limit);
+
+    // ========================================
+    // PROCESSUS CAMUNDA
+    // ========================================
+
+    /**
+     * Reporte l'identifiant d'instance de processus (outbox), sans passer par le
+     * verrou optimiste: le dossier a pu évoluer depuis la soumission.
+     */
+    @Modifying
+    @Query("UPDATE FimexInscription f SET f.processInstanceId = :processInstanceId WHERE f.id = :id")
+    int updateProcessInstanceId(@Param("id") UUID id, @Param("processInstanceId") String processInstanceId);
 }
@@ -0,0 +1,48 @@
+package cm.guce.procedure.domain.port;
+
+import cm.guce.procedure.domain.model.ImportDeclarationCounter;
+import cm.guce.procedure.domain.model.ImportDeclarationCounter.CounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository des compteurs agrégés de Déclarations d'Importation.
+ */
+@Repository
+public interface ImportDeclarationCounterRepository extends JpaRepository<ImportDeclarationCounter, CounterId> {
+
+    List<ImportDeclarationCounter> findByTenantId(String tenantId);
+
+    /**
+     * Incrémente (ou décrémente) atomiquement un compteur, en le créant si nécessaire.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}import_declaration_counter " +
+                   "(tenant_id, dimension, dimension_value, counter_value, updated_at) " +
+                   "VALUES (:tenantId, :dimension, :value, :delta, now()) " +
+                   "ON CONFLICT (tenant_id, dimension, dimension_value) DO UPDATE SET " +
+                   "counter_value = {h-schema}import_declaration_counter.counter_value + EXCLUDED.counter_value, " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    int increment(@Param("tenantId") String tenantId,
+                  @Param("dimension") String dimension,
+                  @Param("value") String value,
+                  @Param("delta") long delta);
+
+    @Modifying
+    @Query("DELETE FROM ImportDeclarationCounter c WHERE c.tenantId = :tenantId")
+    int deleteByTenantId(@Param("tenantId") String tenantId);
+
+    /**
+     * Verrouille la table des compteurs pendant une reconstruction: les transitions
+     * concurrentes attendent la fin de la reconstruction au lieu d'être perdues.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE {h-schema}import_declaration_counter IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+}
@@ -4,12 +4,16 @@ import cm.guce.procedure.domain.model.ImportDeclaration;
 import cm.guce.procedure.domain.model.ImportDeclaration.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,6 +26,40 @@ public interface ImportDeclarationRepository extends JpaRepository<ImportDeclara
 
     Optional<ImportDeclaration> findByReference(String reference);
 
+    // ========================================
+    // PROFILS DE CHARGEMENT
+    // ========================================
+    // summary: colonnes de la DI uniquement (listes, requêtes paginées ci-dessous).
+    // detail : DI + articles en une requête; documents chargés à la demande par lot (@BatchSize).
+    // full   : detail + documents initialisés par une seconde requête (2 requêtes au total,
+    //          sans produit cartésien entre les deux collections).
+
+    @EntityGraph(ImportDeclaration.GRAPH_DETAIL)
+    @Query("SELECT d FROM ImportDeclaration d WHERE d.id = :id")
+    Optional<ImportDeclaration> findDetailById(@Param("id") UUID id);
+
+    @EntityGraph(ImportDeclaration.GRAPH_DETAIL)
+    @Query("SELECT d FROM ImportDeclaration d WHERE d.reference = :reference")
+    Optional<ImportDeclaration> findDetailByReference(@Param("reference") String reference);
+
+    /**
+     * Initialise la collection documents des DI déjà présentes dans le contexte de persistance.
+     */
+    @Query("SELECT DISTINCT d FROM ImportDeclaration d LEFT JOIN FETCH d.documents WHERE d.id IN :ids")
+    List<ImportDeclaration> fetchDocuments(@Param("ids") Collection<UUID> ids);
+
+    default Optional<ImportDeclaration> findFullById(UUID id) {
+        Optional<ImportDeclaration> declaration = findDetailById(id);
+        declaration.ifPresent(d -> fetchDocuments(List.of(d.getId())));
+        return declaration;
+    }
+
+    default Optional<ImportDeclaration> findFullByReference(String reference) {
+        Optional<ImportDeclaration> declaration = findDetailByReference(reference);
+        declaration.ifPresent(d -> fetchDocuments(List.of(d.getId())));
+        return declaration;
+    }
+
     Page<ImportDeclaration> findByImporterNiu(String importerNiu, Pageable pageable);
 
     Page<ImportDeclaration> findByStatus(ImportDeclarationStatus status, Pageable pageable);
@@ -32,14 +70,77 @@ public interface ImportDeclarationRepository extends JpaRepository<ImportDeclara
 
     Page<ImportDeclaration> findByTransportMode(TransportMode transportMode, Pageable pageable);
 
-    @Query("SELECT d FROM ImportDeclaration d WHERE " +
-           "(LOWER(d.reference) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(d.importerName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(d.importerNiu) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(d.supplierName) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-           "ORDER BY d.createdAt DESC")
+    /**
+     * Recherche plein texte servie par l'index trigramme idx_import_decl_search_trgm.
+     * Le terme doit être normalisé (StringUtils.toSearchTerm); les résultats sont classés
+     * par pertinence puis par date de création. Le Pageable ne doit pas porter de tri.
+     */
+    @Query(value = "SELECT d.* FROM {h-schema}import_declaration d " +
+                   "WHERE lower(d.reference || ' ' || d.importer_name || ' ' || d.importer_niu || ' ' || d.supplier_name) " +
+                   "LIKE '%' || :query || '%' " +
+                   "ORDER BY word_similarity(:query, lower(d.reference || ' ' || d.importer_name || ' ' || " +
+                   "d.importer_niu || ' ' || d.supplier_name)) DESC, d.created_at DESC",
+           countQuery = "SELECT COUNT(*) FROM {h-schema}import_declaration d " +
+                   "WHERE lower(d.reference || ' ' || d.importer_name || ' ' || d.importer_niu || ' ' || d.supplier_name) " +
+                   "LIKE '%' || :query || '%'",
+           nativeQuery = true)
     Page<ImportDeclaration> search(@Param("query") String query, Pageable pageable);
 
+    // ========================================
+    // PAGINATION PAR CURSEUR (KEYSET)
+    // ========================================
+    // Lignes strictement après le curseur (createdAt, id) en ordre décroissant.
+    // La borne createdAt <= :createdAt (JPQL) ou la comparaison de tuples (SQL natif) donne
+    // une seule plage de parcours sur l'index (..., created_at DESC, id DESC).
+    // Le Pageable ne sert qu'à limiter le nombre de lignes (page 0, taille + 1).
+
+    @Query("SELECT d FROM ImportDeclaration d WHERE d.importerNiu = :importerNiu AND " +
+           "d.createdAt <= :createdAt AND (d.createdAt < :createdAt OR d.id < :id) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    List<ImportDeclaration> findByImporterNiuAfter(@Param("importerNiu") String importerNiu,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") UUID id,
+                                                   Pageable limit);
+
+    @Query("SELECT d FROM ImportDeclaration d WHERE d.status = :status AND " +
+           "d.createdAt <= :createdAt AND (d.createdAt < :createdAt OR d.id < :id) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    List<ImportDeclaration> findByStatusAfter(@Param("status") ImportDeclarationStatus status,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") UUID id,
+                                              Pageable limit);
+
+    @Query("SELECT d FROM ImportDeclaration d WHERE d.routingDestination = :routing AND " +
+           "d.createdAt <= :createdAt AND (d.createdAt < :createdAt OR d.id < :id) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    List<ImportDeclaration> findByRoutingDestinationAfter(@Param("routing") RoutingDestination routing,
+                                                          @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("id") UUID id,
+                                                          Pageable limit);
+
+    @Query(value = "SELECT d.* FROM {h-schema}import_declaration d " +
+                   "WHERE lower(d.reference || ' ' || d.importer_name || ' ' || d.importer_niu || ' ' || d.supplier_name) " +
+                   "LIKE '%' || :query || '%' " +
+                   "AND (d.created_at, d.id) < (:createdAt, :id) " +
+                   "ORDER BY d.created_at DESC, d.id DESC",
+           nativeQuery = true)
+    List<ImportDeclaration> searchAfter(@Param("query") String query,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") UUID id,
+                                        Pageable limit);
+
+    long countByImporterNiu(String importerNiu);
+
+    long countByStatus(ImportDeclarationStatus status);
+
+    long countByRoutingDestination(RoutingDestination routingDestination);
+
+    @Query(value = "SELECT COUNT(*) FROM {h-schema}import_declaration d " +
+                   "WHERE lower(d.reference || ' ' || d.importer_name || ' ' || d.importer_niu || ' ' || d.supplier_name) " +
+                   "LIKE '%' || :query || '%'",
+           nativeQuery = true)
+    long countSearch(@Param("query") String query);
+
     // ========================================
     // STATISTIQUES
     // ========================================
@@ -62,6 +163,19 @@ public interface ImportDeclarationRepository extends JpaRepository<ImportDeclara
     @Query("SELECT SUM(d.totalFees) FROM ImportDeclaration d WHERE d.isPaid = true AND d.tenantId = :tenantId")
     java.math.BigDecimal sumTotalFeesCollectedByTenant(@Param("tenantId") String tenantId);
 
+    /**
+     * Compte les DI d'un tenant en un seul parcours, groupées par routage, statut,
+     * mode de transport et type d'importation.
+     * Chaque ligne: [RoutingDestination, ImportDeclarationStatus, TransportMode, ImportType, Long].
+     */
+    @Query("SELECT d.routingDestination, d.status, d.transportMode, d.importType, COUNT(d) " +
+           "FROM ImportDeclaration d WHERE d.tenantId = :tenantId " +
+           "GROUP BY d.routingDestination, d.status, d.transportMode, d.importType")
+    List<Object[]> countGroupedByDimensions(@Param("tenantId") String tenantId);
+
+    @Query("SELECT DISTINCT d.tenantId FROM ImportDeclaration d")
+    List<String> findDistinctTenantIds();
+
     // ========================================
     // REQUÊTES SPÉCIFIQUES
     // ========================================
@@ -94,4 +208,45 @@ public interface ImportDeclarationRepository extends JpaRepository<ImportDeclara
     @Query("SELECT d.supplierCountry, COUNT(d), SUM(d.totalFobValueXaf) FROM ImportDeclaration d " +
            "WHERE d.tenantId = :tenantId GROUP BY d.supplierCountry ORDER BY COUNT(d) DESC")
     List<Object[]> getStatisticsBySupplierCountry(@Param("tenantId") String tenantId);
+
+    // ========================================
+    // EXPIRATION
+    // ========================================
+
+    /**
+     * Verrou consultatif de la transaction courante réservant le balayage d'expiration
+     * à une seule instance. Retourne false s'il est déjà détenu.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('procedure.import_declaration.expiry'))",
+           nativeQuery = true)
+    boolean tryLockExpirySweep();
+
+    /**
+     * Expire un lot de DI échues en une instruction: validées dont la validité est
+     * dépassée, ou prorogées dont la prorogation est dépassée.
+     * Retourne (id, tenant_id, reference, statut précédent) des DI expirées.
+     */
+    @Query(value = "WITH due AS (" +
+                   "  SELECT id, status AS previous_status FROM {h-schema}import_declaration " +
+                   "  WHERE (status = 'VALIDATED' AND validity_end_date < :today) " +
+                   "     OR (status = 'PROROGATED' AND prorogation_end_date < :today) " +
+                   "  ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "UPDATE {h-schema}import_declaration d SET status = 'EXPIRED', updated_at = now(), " +
+                   "version = COALESCE(d.version, 0) + 1 " +
+                   "FROM due WHERE d.id = due.id " +
+                   "RETURNING d.id, d.tenant_id, d.reference, due.previous_status",
+           nativeQuery = true)
+    List<Object[]> expireDue(@Param("today") LocalDate today, @Param("limit") int limit);
+
+    // ========================================
+    // PROCESSUS CAMUNDA
+    // ========================================
+
+    /**
+     * Reporte l'identifiant d'instance de processus (outbox), sans passer par le
+     * verrou optimiste: le dossier a pu évoluer depuis la soumission.
+     */
+    @Modifying
+    @Query("UPDATE ImportDeclaration d SET d.processInstanceId = :processInstanceId WHERE d.id = :id")
+    int updateProcessInstanceId(@Param("id") UUID id, @Param("processInstanceId") String processInstanceId);
 }
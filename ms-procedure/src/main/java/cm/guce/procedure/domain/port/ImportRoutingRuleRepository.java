@@ -0,0 +1,12 @@
+package cm.guce.procedure.domain.port;
+
+import cm.guce.procedure.domain.model.ImportRoutingRuleOverride;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository des surcharges par tenant des règles de routage et de frais des DI.
+ */
+@Repository
+public interface ImportRoutingRuleRepository extends JpaRepository<ImportRoutingRuleOverride, String> {
+}
@@ -1,6 +1,8 @@
 package cm.guce.procedure.domain.port;
 
+import cm.guce.procedure.domain.model.FormField;
 import cm.guce.procedure.domain.model.Procedure;
+import cm.guce.procedure.domain.model.ProcedureCatalogEntry;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -33,6 +35,16 @@ public interface ProcedureRepository extends JpaRepository<Procedure, UUID> {
             "AND p.category = :category")
     List<Procedure> findPublishedByCategory(@Param("category") Procedure.ProcedureCategory category);
 
+    /**
+     * Catalogue des procédures publiées (nombre d'étapes en sous-requête), ordre stable
+     * pour un contenu et donc un ETag identiques d'une instance à l'autre.
+     */
+    @Query("SELECT new cm.guce.procedure.domain.model.ProcedureCatalogEntry(p.id, p.code, p.nameFr, p.nameEn, " +
+            "p.descriptionFr, p.category, p.procedureType, p.icon, p.color, p.expectedDurationHours, " +
+            "p.requiresPayment, p.status, SIZE(p.steps)) " +
+            "FROM Procedure p WHERE p.status = 'PUBLISHED' AND p.isActive = true ORDER BY p.code")
+    List<ProcedureCatalogEntry> findCatalogEntries();
+
     @Query("SELECT p FROM Procedure p WHERE " +
             "(LOWER(p.nameFr) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(p.nameEn) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
@@ -50,4 +62,26 @@ public interface ProcedureRepository extends JpaRepository<Procedure, UUID> {
 
     @Query("SELECT p FROM Procedure p LEFT JOIN FETCH p.requiredDocuments WHERE p.id = :id")
     Optional<Procedure> findByIdWithDocuments(@Param("id") UUID id);
+
+    /**
+     * Chemins de liaison (dataBinding) des champs des formulaires actifs d'une procédure.
+     */
+    @Query("SELECT DISTINCT f.dataBinding FROM FormField f WHERE f.form.procedure.code = :procedureCode " +
+            "AND f.form.isActive = true AND f.dataBinding IS NOT NULL")
+    List<String> findDataBindings(@Param("procedureCode") String procedureCode);
+
+    /**
+     * Champs des formulaires de soumission actifs d'une procédure (formulaire et section
+     * chargés dans la même requête), du formulaire le plus récent au plus ancien.
+     */
+    @Query("SELECT f FROM FormField f JOIN FETCH f.form d LEFT JOIN FETCH f.section " +
+            "WHERE d.procedure.id = :procedureId AND d.formType = 'CREATE' AND d.isActive = true " +
+            "ORDER BY d.versionNumber DESC, d.id, f.orderIndex ASC")
+    List<FormField> findSubmissionFormFields(@Param("procedureId") UUID procedureId);
+
+    /**
+     * Délai de traitement (heures) d'une étape de procédure, pour l'échéance des corbeilles.
+     */
+    @Query("SELECT s.dueDurationHours FROM ProcedureStep s WHERE s.procedure.id = :procedureId AND s.code = :code")
+    Optional<Integer> findStepDueDurationHours(@Param("procedureId") UUID procedureId, @Param("code") String code);
 }
@@ -0,0 +1,47 @@
+package cm.guce.procedure.domain.port;
+
+import cm.guce.procedure.domain.model.ProcessStartOutbox;
+import cm.guce.procedure.domain.model.ProcessStartOutbox.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository de l'outbox des démarrages de processus.
+ */
+@Repository
+public interface ProcessStartOutboxRepository extends JpaRepository<ProcessStartOutbox, UUID> {
+
+    /**
+     * Sélectionne les demandes échues en ignorant celles déjà verrouillées par une autre
+     * instance (FOR UPDATE SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM ProcessStartOutbox o WHERE o.status = :status AND o.nextAttemptAt <= :now " +
+           "ORDER BY o.nextAttemptAt")
+    List<ProcessStartOutbox> findDueForUpdate(@Param("status") OutboxStatus status,
+                                              @Param("now") LocalDateTime now,
+                                              Pageable limit);
+
+    long countByStatus(OutboxStatus status);
+
+    /**
+     * Supprime les demandes d'un statut conclues avant la date limite (rétention).
+     */
+    @Modifying
+    @Query("DELETE FROM ProcessStartOutbox o WHERE o.status = :status AND o.dispatchedAt < :cutoff")
+    int deleteByStatusAndDispatchedAtBefore(@Param("status") OutboxStatus status,
+                                            @Param("cutoff") LocalDateTime cutoff);
+}
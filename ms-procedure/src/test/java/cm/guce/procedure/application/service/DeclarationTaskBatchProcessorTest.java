@@ -0,0 +1,122 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.domain.model.EntityStatus;
+import cm.guce.procedure.application.dto.DeclarationDto;
+import cm.guce.procedure.application.service.DeclarationService.TaskDecision;
+import cm.guce.procedure.domain.model.Declaration;
+import io.camunda.zeebe.client.ZeebeClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lots d'approbation et de rejet: la décision est enregistrée avant que les tâches Zeebe
+ * ne soient complétées, et une approbation exige la clé de sa tâche.
+ */
+class DeclarationTaskBatchProcessorTest {
+
+    private final DeclarationService declarationService = mock(DeclarationService.class);
+    private final ZeebeClient zeebeClient = mock(ZeebeClient.class, RETURNS_DEEP_STUBS);
+    private final DeclarationTaskBatchProcessor processor =
+            new DeclarationTaskBatchProcessor(declarationService, zeebeClient);
+
+    private final Declaration first = declaration("DEC-1");
+    private final Declaration second = declaration("DEC-2");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(processor, "requestTimeoutSeconds", 1L);
+        when(declarationService.findForBatch(any())).thenReturn(Map.of(first.getId(), first, second.getId(), second));
+        when(zeebeClient.newCompleteCommand(anyLong()).variables(anyMap()).requestTimeout(any()).send()
+                .toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void approvalRecordsTheDecisionBeforeCompletingJobs() {
+        when(declarationService.applyBatch(eq(TaskDecision.APPROVE), any(), any()))
+                .thenReturn(Map.of(first.getId(), success(first, EntityStatus.SUBMITTED)));
+
+        DeclarationDto.BatchResult result = processor.approve(approveRequest(task(first, "42"), task(second, " ")));
+
+        InOrder order = inOrder(declarationService, zeebeClient);
+        order.verify(declarationService).applyBatch(TaskDecision.APPROVE, List.of(first.getId()), null);
+        order.verify(zeebeClient).newCompleteCommand(42L);
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getOutcomes().get(1).getError()).isEqualTo("Clé de tâche obligatoire pour une approbation");
+    }
+
+    @Test
+    void jobsAreNotCompletedWhenTheRecheckFails() {
+        when(declarationService.applyBatch(eq(TaskDecision.REJECT), any(), any()))
+                .thenReturn(Map.of(first.getId(), DeclarationDto.BatchOutcome.failure(first.getId(),
+                        first.getReference(), "Statut incompatible: APPROVED")));
+
+        DeclarationDto.BatchRejectRequest request = new DeclarationDto.BatchRejectRequest();
+        request.setTasks(List.of(task(first, "42")));
+        request.setReason("Pièces manquantes");
+        DeclarationDto.BatchResult result = processor.reject(request);
+
+        verify(zeebeClient, never()).newCompleteCommand(42L);
+        assertThat(result.getFailed()).isEqualTo(1);
+    }
+
+    @Test
+    void failedJobCompletionIsReportedAfterTheRejection() {
+        when(declarationService.applyBatch(eq(TaskDecision.REJECT), any(), any()))
+                .thenReturn(Map.of(first.getId(), success(first, EntityStatus.REJECTED)));
+        when(zeebeClient.newCompleteCommand(anyLong()).variables(anyMap()).requestTimeout(any()).send()
+                .toCompletableFuture()).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("NOT_FOUND")));
+
+        DeclarationDto.BatchRejectRequest request = new DeclarationDto.BatchRejectRequest();
+        request.setTasks(List.of(task(first, "42")));
+        request.setReason("Pièces manquantes");
+        DeclarationDto.BatchOutcome outcome = processor.reject(request).getOutcomes().get(0);
+
+        assertThat(outcome.isSuccess()).isFalse();
+        assertThat(outcome.getStatus()).isEqualTo(EntityStatus.REJECTED);
+        assertThat(outcome.getError()).isEqualTo("Rejet enregistré, tâche non complétée: NOT_FOUND");
+    }
+
+    private static Declaration declaration(String reference) {
+        Declaration declaration = new Declaration();
+        declaration.setId(UUID.randomUUID());
+        declaration.setReference(reference);
+        declaration.setStatus(EntityStatus.SUBMITTED);
+        return declaration;
+    }
+
+    private static DeclarationDto.BatchOutcome success(Declaration declaration, EntityStatus status) {
+        return DeclarationDto.BatchOutcome.success(declaration.getId(), declaration.getReference(), status);
+    }
+
+    private static DeclarationDto.BatchTask task(Declaration declaration, String taskId) {
+        DeclarationDto.BatchTask task = new DeclarationDto.BatchTask();
+        task.setDeclarationId(declaration.getId());
+        task.setTaskId(taskId);
+        return task;
+    }
+
+    private static DeclarationDto.BatchApproveRequest approveRequest(DeclarationDto.BatchTask... tasks) {
+        DeclarationDto.BatchApproveRequest request = new DeclarationDto.BatchApproveRequest();
+        request.setTasks(List.of(tasks));
+        return request;
+    }
+}
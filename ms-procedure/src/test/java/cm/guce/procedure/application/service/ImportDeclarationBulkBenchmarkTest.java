@@ -0,0 +1,168 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.reference.ReferenceGenerator;
+import cm.guce.procedure.application.dto.ImportDeclarationDto;
+import cm.guce.procedure.domain.model.ImportDeclaration.*;
+import cm.guce.procedure.domain.model.ImportRoutingRules;
+import cm.guce.procedure.support.PersistenceTest;
+import cm.guce.procedure.support.StatementCounter;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Banc d'essai de la création en lot: N appels à create (un flush par DI, comme N requêtes
+ * HTTP) contre un appel à createBulk (validation parallèle, insertions JDBC par lots). Le
+ * nombre de requêtes est vérifié; les débits (H2, indicatifs) sont journalisés.
+ */
+@Slf4j
+@PersistenceTest
+@Import({ImportDeclarationService.class, ValidationAutoConfiguration.class})
+class ImportDeclarationBulkBenchmarkTest {
+
+    private static final int DECLARATIONS = 200;
+    private static final int ITEMS = 3;
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 5;
+
+    @Autowired
+    private ImportDeclarationService service;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private ProcessStartOutboxService outboxService;
+
+    @MockBean
+    private ImportDeclarationCounterService counterService;
+
+    @MockBean
+    private ReferenceGenerator referenceGenerator;
+
+    @MockBean
+    private ImportRoutingRuleEngine ruleEngine;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private StatementCounter statements;
+
+    @BeforeEach
+    void setUp() {
+        when(referenceGenerator.next(anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(0) + "-" + sequence.incrementAndGet());
+        when(ruleEngine.forTenant(anyString())).thenReturn(new ImportRoutingRules(
+                new BigDecimal("2000000"), new BigDecimal("1000000"), new BigDecimal("0.0095"),
+                new BigDecimal("110000"), new BigDecimal("6000"), new BigDecimal("1500")));
+        statements = new StatementCounter(entityManager);
+        statements.reset();
+    }
+
+    @Test
+    void bulkCreationBatchesInsertsAcrossDeclarations() {
+        List<ImportDeclarationDto.CreateRequest> requests = requests(DECLARATIONS);
+        requests.set(7, new ImportDeclarationDto.CreateRequest());
+
+        createOneByOne(requests);
+        long singleStatements = statements.count();
+        statements.reset();
+
+        ImportDeclarationDto.BulkCreateResult result = service.createBulk(requests);
+        long bulkStatements = statements.count();
+
+        assertThat(result.getCreated()).isEqualTo(DECLARATIONS - 1);
+        assertThat(result.getRows().get(7).isSuccess()).isFalse();
+        assertThat(result.getRows().get(7).getErrors()).isNotEmpty();
+        assertThat(result.getRows()).extracting(ImportDeclarationDto.BulkRowResult::getIndex)
+                .containsExactlyElementsOf(IntStream.range(0, DECLARATIONS).boxed().toList());
+        // Une instruction par table et par lot de 50, contre une par table et par DI
+        assertThat(bulkStatements * 10).isLessThanOrEqualTo(singleStatements);
+
+        double singleMillis = medianMillis(() -> createOneByOne(requests));
+        double bulkMillis = medianMillis(() -> service.createBulk(requests));
+        log.info("Création de {} DI: unitaire {} requêtes, {} DI/s; lot {} requêtes, {} DI/s (x{})",
+                DECLARATIONS, singleStatements, String.format("%.0f", DECLARATIONS * 1000 / singleMillis),
+                bulkStatements, String.format("%.0f", DECLARATIONS * 1000 / bulkMillis),
+                String.format("%.1f", singleMillis / bulkMillis));
+    }
+
+    /**
+     * Chemin unitaire: un appel à create par DI, chacun suivi de son flush (commit HTTP).
+     */
+    private void createOneByOne(List<ImportDeclarationDto.CreateRequest> requests) {
+        for (ImportDeclarationDto.CreateRequest request : requests) {
+            if (request.getImportType() == null) {
+                continue;
+            }
+            service.create(request);
+            entityManager.flush();
+        }
+        entityManager.clear();
+    }
+
+    private static List<ImportDeclarationDto.CreateRequest> requests(int count) {
+        List<ImportDeclarationDto.CreateRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ImportDeclarationDto.CreateRequest request = new ImportDeclarationDto.CreateRequest();
+            request.setImportType(ImportType.CLASSIQUE);
+            request.setImporterNiu("M0123456789" + (i % 10));
+            request.setImporterName("Importateur " + i);
+            request.setImporterPhone("+237600000000");
+            request.setSupplierName("Fournisseur " + i);
+            request.setSupplierCountry("FR");
+            request.setSupplierCity("Marseille");
+            request.setOriginCountry("FR");
+            request.setProvenanceCountry("FR");
+            request.setUnloadingPlace("Douala");
+            request.setTransportMode(TransportMode.MARITIME);
+            request.setProformaNumber("PF-" + i);
+            request.setProformaDate(LocalDate.of(2024, 1, 15));
+            request.setCurrency(Currency.EUR);
+            request.setIncoterm(Incoterm.FOB);
+            request.setFobCharges(BigDecimal.ZERO);
+            request.setExchangeRate(new BigDecimal("655.957"));
+            List<ImportDeclarationDto.ItemRequest> items = new ArrayList<>(ITEMS);
+            for (int j = 0; j < ITEMS; j++) {
+                ImportDeclarationDto.ItemRequest item = new ImportDeclarationDto.ItemRequest();
+                item.setHsCode("8471300000");
+                item.setDesignation("Article " + j);
+                item.setQuantity(BigDecimal.TEN);
+                item.setUnitFobValue(new BigDecimal("150.00"));
+                items.add(item);
+            }
+            request.setItems(items);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private static double medianMillis(Runnable task) {
+        for (int i = 0; i < WARMUP; i++) {
+            task.run();
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[ITERATIONS / 2] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,119 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.reference.ReferenceGenerator;
+import cm.guce.procedure.application.dto.ImportDeclarationDto;
+import cm.guce.procedure.domain.model.ImportDeclaration;
+import cm.guce.procedure.domain.port.ImportDeclarationRepository;
+import cm.guce.procedure.support.PersistenceTest;
+import cm.guce.procedure.support.StatementCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.UUID;
+
+import static cm.guce.procedure.support.ImportDeclarationFixtures.declaration;
+import static cm.guce.procedure.support.ImportDeclarationFixtures.withItemsAndDocuments;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Nombre de requêtes SQL par profil de chargement des DI (statistiques Hibernate).
+ */
+@PersistenceTest
+@Import(ImportDeclarationService.class)
+class ImportDeclarationFetchProfileTest {
+
+    private static final int ITEMS = 5;
+    private static final int DOCUMENTS = 3;
+
+    @Autowired
+    private ImportDeclarationService service;
+
+    @Autowired
+    private ImportDeclarationRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private ProcessStartOutboxService outboxService;
+
+    @MockBean
+    private ImportDeclarationCounterService counterService;
+
+    @MockBean
+    private Validator validator;
+
+    @MockBean
+    private ReferenceGenerator referenceGenerator;
+
+    @MockBean
+    private ImportRoutingRuleEngine ruleEngine;
+
+    private StatementCounter statements;
+    private UUID id;
+    private String reference;
+
+    @BeforeEach
+    void setUp() {
+        ImportDeclaration saved = repository.save(withItemsAndDocuments(declaration("tenant-a"), ITEMS, DOCUMENTS));
+        id = saved.getId();
+        reference = saved.getReference();
+        statements = new StatementCounter(entityManager);
+        statements.reset();
+    }
+
+    @Test
+    void lazyLoadingWalksEachCollectionSeparately() {
+        ImportDeclaration loaded = repository.findById(id).orElseThrow();
+        loaded.getItems().size();
+        loaded.getDocuments().size();
+
+        // DI + articles + documents
+        assertThat(statements.count()).isEqualTo(3);
+    }
+
+    @Test
+    void detailProfileLoadsItemsWithTheDeclaration() {
+        ImportDeclaration loaded = repository.findDetailById(id).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(loaded.getItems())).isTrue();
+        assertThat(Hibernate.isInitialized(loaded.getDocuments())).isFalse();
+        assertThat(loaded.getItems()).hasSize(ITEMS);
+        assertThat(statements.count()).isEqualTo(1);
+    }
+
+    @Test
+    void fullProfileLoadsBothCollectionsWithoutCartesianProduct() {
+        ImportDeclaration loaded = repository.findFullById(id).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(loaded.getItems())).isTrue();
+        assertThat(Hibernate.isInitialized(loaded.getDocuments())).isTrue();
+        assertThat(loaded.getItems()).hasSize(ITEMS);
+        assertThat(loaded.getDocuments()).hasSize(DOCUMENTS);
+        assertThat(statements.count()).isEqualTo(2);
+    }
+
+    @Test
+    void findByIdEndpointIssuesTwoStatements() {
+        ImportDeclarationDto.Response response = service.findById(id);
+
+        assertThat(response.getItems()).hasSize(ITEMS);
+        assertThat(response.getDocuments()).hasSize(DOCUMENTS);
+        assertThat(statements.count()).isEqualTo(2);
+    }
+
+    @Test
+    void findByReferenceEndpointIssuesTwoStatements() {
+        ImportDeclarationDto.Response response = service.findByReference(reference);
+
+        assertThat(response.getItems()).hasSize(ITEMS);
+        assertThat(response.getDocuments()).hasSize(DOCUMENTS);
+        assertThat(statements.count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,133 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.application.dto.ImportDeclarationDto;
+import cm.guce.procedure.domain.model.ImportDeclaration;
+import cm.guce.procedure.domain.model.ImportDeclaration.*;
+import cm.guce.procedure.domain.port.ImportDeclarationRepository;
+import cm.guce.procedure.support.PersistenceTest;
+import cm.guce.procedure.support.StatementCounter;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static cm.guce.procedure.support.ImportDeclarationFixtures.declaration;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banc d'essai des statistiques des DI: 17 COUNT (ancien getStatistics) contre le parcours
+ * groupé du moteur. Le nombre de requêtes est vérifié; les latences (H2, indicatives) sont
+ * journalisées.
+ */
+@Slf4j
+@PersistenceTest
+@Import(ImportDeclarationStatisticsEngine.class)
+class ImportDeclarationStatisticsBenchmarkTest {
+
+    private static final String TENANT = "tenant-bench";
+    private static final int DECLARATIONS = 2_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 25;
+
+    @Autowired
+    private ImportDeclarationStatisticsEngine engine;
+
+    @Autowired
+    private ImportDeclarationRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private StatementCounter statements;
+
+    @BeforeEach
+    void seed() {
+        ImportDeclarationStatus[] statuses = ImportDeclarationStatus.values();
+        RoutingDestination[] routings = RoutingDestination.values();
+        TransportMode[] modes = TransportMode.values();
+        ImportType[] types = ImportType.values();
+        List<ImportDeclaration> batch = new ArrayList<>();
+        for (int i = 0; i < DECLARATIONS; i++) {
+            batch.add(declaration(TENANT, statuses[i % statuses.length], routings[i % routings.length],
+                    modes[i % modes.length], types[(i / 7) % types.length]));
+            if (batch.size() == 500) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+        // Bruit d'un autre tenant, exclu des deux calculs
+        repository.save(declaration("tenant-other"));
+        statements = new StatementCounter(entityManager);
+        statements.reset();
+    }
+
+    @Test
+    void groupedScanReplacesSeventeenCountQueries() {
+        ImportDeclarationDto.Statistics before = legacyStatistics();
+        long legacyStatements = statements.count();
+        statements.reset();
+
+        ImportDeclarationDto.Statistics after = engine.compute(TENANT);
+        long engineStatements = statements.count();
+
+        assertThat(legacyStatements).isEqualTo(17);
+        assertThat(engineStatements).isEqualTo(1);
+        assertThat(after).usingRecursiveComparison()
+                .ignoringFields("totalProcessing")
+                .isEqualTo(before);
+        assertThat(after.getTotalDraft() + after.getTotalSubmitted()).isPositive();
+
+        double legacyMillis = medianMillis(this::legacyStatistics);
+        double engineMillis = medianMillis(() -> engine.compute(TENANT));
+        log.info("Statistiques DI sur {} DI: avant {} requêtes, médiane {} ms; après {} requête, médiane {} ms",
+                DECLARATIONS, legacyStatements, String.format("%.3f", legacyMillis),
+                engineStatements, String.format("%.3f", engineMillis));
+    }
+
+    /**
+     * Ancienne implémentation de getStatistics: un COUNT par compteur.
+     */
+    private ImportDeclarationDto.Statistics legacyStatistics() {
+        ImportDeclarationDto.Statistics stats = new ImportDeclarationDto.Statistics();
+        stats.setTotalSgsDeclarations(repository.countByRoutingDestinationAndTenant(RoutingDestination.SGS, TENANT));
+        stats.setTotalCustomsDeclarations(repository.countByRoutingDestinationAndTenant(RoutingDestination.CUSTOMS, TENANT));
+        stats.setTotalDraft(repository.countByStatusAndTenant(ImportDeclarationStatus.DRAFT, TENANT));
+        stats.setTotalSubmitted(repository.countByStatusAndTenant(ImportDeclarationStatus.SUBMITTED, TENANT));
+        stats.setTotalPendingPayment(repository.countByStatusAndTenant(ImportDeclarationStatus.PENDING_PAYMENT, TENANT));
+        stats.setTotalValidated(repository.countByStatusAndTenant(ImportDeclarationStatus.VALIDATED, TENANT));
+        stats.setTotalRejected(repository.countByStatusAndTenant(ImportDeclarationStatus.REJECTED, TENANT));
+        stats.setTotalExpired(repository.countByStatusAndTenant(ImportDeclarationStatus.EXPIRED, TENANT));
+        stats.setTotalMaritime(repository.countByTransportModeAndTenant(TransportMode.MARITIME, TENANT));
+        stats.setTotalAerien(repository.countByTransportModeAndTenant(TransportMode.AERIEN, TENANT));
+        stats.setTotalRoutier(repository.countByTransportModeAndTenant(TransportMode.ROUTIER, TENANT));
+        stats.setTotalFerroviaire(repository.countByTransportModeAndTenant(TransportMode.FERROVIAIRE, TENANT));
+        stats.setTotalMultimodal(repository.countByTransportModeAndTenant(TransportMode.MULTIMODAL, TENANT));
+        stats.setTotalClassique(repository.countByImportTypeAndTenant(ImportType.CLASSIQUE, TENANT));
+        stats.setTotalGroupage(repository.countByImportTypeAndTenant(ImportType.GROUPAGE, TENANT));
+        stats.setTotalMedicaments(repository.countByImportTypeAndTenant(ImportType.MEDICAMENTS, TENANT));
+        stats.setTotalTransit(repository.countByImportTypeAndTenant(ImportType.TRANSIT, TENANT));
+        return stats;
+    }
+
+    private static double medianMillis(Supplier<?> task) {
+        for (int i = 0; i < WARMUP; i++) {
+            task.get();
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            task.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[ITERATIONS / 2] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,123 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.common.domain.exception.ValidationException;
+import cm.guce.common.reference.ReferenceGenerator;
+import cm.guce.procedure.application.dto.ImportDeclarationDto;
+import cm.guce.procedure.domain.model.ImportDeclaration.PaymentChannel;
+import cm.guce.procedure.domain.model.ImportDeclaration.RoutingDestination;
+import cm.guce.procedure.domain.model.ImportRoutingRules;
+import cm.guce.procedure.domain.port.ImportRoutingRuleRepository;
+import cm.guce.procedure.support.PersistenceTest;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Règles de routage et de frais: surcharges persistées partagées entre instances, et débit
+ * de simulateRouting sur la table de décision compilée (journalisé, indicatif).
+ */
+@Slf4j
+@PersistenceTest
+@Import({ImportRoutingRuleEngine.class, ImportDeclarationService.class})
+class ImportRoutingRuleEngineTest {
+
+    private static final String TENANT = "default";
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    @Autowired
+    private ImportRoutingRuleEngine engine;
+
+    @Autowired
+    private ImportDeclarationService service;
+
+    @Autowired
+    private ImportRoutingRuleRepository repository;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private ProcessStartOutboxService outboxService;
+
+    @MockBean
+    private ImportDeclarationCounterService counterService;
+
+    @MockBean
+    private Validator validator;
+
+    @MockBean
+    private ReferenceGenerator referenceGenerator;
+
+    @Test
+    void defaultsApplyWithoutOverride() {
+        ImportRoutingRules rules = engine.forTenant("tenant-without-override");
+
+        assertThat(rules.getSgsThreshold()).isEqualByComparingTo("1000000");
+        assertThat(rules.getSgsRate()).isEqualByComparingTo("0.0095");
+        assertThat(rules.getFiscalStamp()).isEqualByComparingTo("1500");
+    }
+
+    @Test
+    void replacedRulesArePersistedForOtherInstances() {
+        ImportDeclarationDto.RoutingRules set = new ImportDeclarationDto.RoutingRules();
+        set.setSgsRate(new BigDecimal("0.0120"));
+        engine.replace("tenant-a", set);
+        entityManager.flush();
+
+        // Une autre instance ne voit la surcharge qu'après rechargement depuis la base
+        ImportRoutingRuleEngine otherInstance = new ImportRoutingRuleEngine(environment, repository, event -> {
+        });
+        assertThat(otherInstance.forTenant("tenant-a").getSgsRate()).isEqualByComparingTo("0.0095");
+
+        otherInstance.reload();
+        ImportRoutingRules rules = otherInstance.forTenant("tenant-a");
+        assertThat(rules.getSgsRate()).isEqualByComparingTo("0.0120");
+        assertThat(rules.getSgsMinimumFee()).isEqualByComparingTo("110000");
+        assertThat(otherInstance.forTenant("tenant-b").getSgsRate()).isEqualByComparingTo("0.0095");
+    }
+
+    @Test
+    void invalidRulesAreRejectedAndNotPersisted() {
+        ImportDeclarationDto.RoutingRules set = new ImportDeclarationDto.RoutingRules();
+        set.setFiscalStamp(new BigDecimal("-1"));
+
+        assertThatThrownBy(() -> engine.replace("tenant-a", set)).isInstanceOf(ValidationException.class);
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void simulateRoutingThroughput() {
+        BigDecimal fob = new BigDecimal("5000000");
+        for (int i = 0; i < WARMUP; i++) {
+            service.simulateRouting(fob, false, false, false, false);
+        }
+
+        ImportDeclarationDto.RoutingResult result = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            result = service.simulateRouting(fob, false, false, false, false);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(result.getDestination()).isEqualTo(RoutingDestination.SGS);
+        assertThat(result.getInspectionFee()).isEqualByComparingTo("110000");
+        assertThat(result.getTotalFees()).isEqualByComparingTo("111500");
+        assertThat(result.getPaymentChannel()).isEqualTo(PaymentChannel.BANK_PAYONLINE);
+        log.info("simulateRouting ({}): {} appels, {} ns/appel, {} appels/s", TENANT, ITERATIONS,
+                elapsed / ITERATIONS, String.format("%.0f", ITERATIONS * 1e9 / elapsed));
+    }
+}
@@ -0,0 +1,190 @@
+package cm.guce.procedure.application.service;
+
+import cm.guce.procedure.application.service.ProcessStartOutboxService.DispatchResult;
+import cm.guce.procedure.domain.model.ImportDeclaration;
+import cm.guce.procedure.domain.model.ProcessStartOutbox;
+import cm.guce.procedure.domain.model.ProcessStartOutbox.AggregateType;
+import cm.guce.procedure.domain.model.ProcessStartOutbox.OutboxStatus;
+import cm.guce.procedure.domain.port.ImportDeclarationRepository;
+import cm.guce.procedure.domain.port.ProcessStartOutboxRepository;
+import cm.guce.procedure.support.PersistenceTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static cm.guce.procedure.support.ImportDeclarationFixtures.declaration;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Cycle de vie de l'outbox des démarrages de processus: réservation, expiration de la
+ * réservation, reprise avec délai exponentiel, abandon et purge.
+ */
+@PersistenceTest
+@Import(ProcessStartOutboxService.class)
+@TestPropertySource(properties = {
+        "guce.procedure.outbox.lease-seconds=60",
+        "guce.procedure.outbox.max-attempts=3",
+        "guce.procedure.outbox.backoff-initial-seconds=5",
+        "guce.procedure.outbox.backoff-max-seconds=600",
+        "guce.procedure.outbox.retention-days=7"
+})
+class ProcessStartOutboxServiceTest {
+
+    private static final String TENANT = "tenant-outbox";
+    private static final String BPMN = "process-di-classique";
+
+    @Autowired
+    private ProcessStartOutboxService service;
+
+    @Autowired
+    private ProcessStartOutboxRepository outboxRepository;
+
+    @Autowired
+    private ImportDeclarationRepository declarationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void claimReservesDueEntriesUntilTheLeaseExpires() {
+        enqueue(UUID.randomUUID());
+        enqueue(UUID.randomUUID());
+        UUID notDue = enqueue(UUID.randomUUID());
+        update(notDue, entry -> entry.setNextAttemptAt(LocalDateTime.now().plusMinutes(5)));
+
+        List<ProcessStartOutbox> claimed = service.claim(10);
+        LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(60);
+
+        assertThat(claimed).hasSize(2)
+                .allSatisfy(entry -> {
+                    assertThat(entry.getAttempts()).isEqualTo(1);
+                    assertThat(entry.getNextAttemptAt()).isCloseTo(leaseUntil, within(5, ChronoUnit.SECONDS));
+                });
+        flushAndClear();
+
+        // Réservation en cours: invisible aux autres passages
+        assertThat(service.claim(10)).isEmpty();
+
+        // Instance arrêtée avant complete: la réservation expire, la demande est reprise
+        UUID abandoned = claimed.get(0).getId();
+        update(abandoned, entry -> entry.setNextAttemptAt(LocalDateTime.now().minusSeconds(1)));
+
+        List<ProcessStartOutbox> reclaimed = service.claim(10);
+        assertThat(reclaimed).extracting(ProcessStartOutbox::getId).containsExactly(abandoned);
+        assertThat(reclaimed.get(0).getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void claimHonoursTheBatchSizeInDueOrder() {
+        UUID first = enqueue(UUID.randomUUID());
+        UUID second = enqueue(UUID.randomUUID());
+        enqueue(UUID.randomUUID());
+        update(first, entry -> entry.setNextAttemptAt(LocalDateTime.now().minusMinutes(2)));
+        update(second, entry -> entry.setNextAttemptAt(LocalDateTime.now().minusMinutes(1)));
+
+        assertThat(service.claim(2)).extracting(ProcessStartOutbox::getId).containsExactly(first, second);
+        flushAndClear();
+        assertThat(service.claim(2)).hasSize(1);
+    }
+
+    @Test
+    void failedStartsAreRetriedWithExponentialBackoffThenAbandoned() {
+        UUID id = enqueue(UUID.randomUUID());
+
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            assertThat(service.claim(10)).hasSize(1);
+            service.complete(List.of(DispatchResult.failure(id, "Zeebe indisponible")));
+            flushAndClear();
+
+            ProcessStartOutbox entry = outboxRepository.findById(id).orElseThrow();
+            assertThat(entry.getStatus()).isEqualTo(OutboxStatus.PENDING);
+            assertThat(entry.getLastError()).isEqualTo("Zeebe indisponible");
+            assertThat(entry.getNextAttemptAt()).isCloseTo(
+                    LocalDateTime.now().plusSeconds(5L << (attempt - 1)), within(2, ChronoUnit.SECONDS));
+            assertThat(service.claim(10)).isEmpty();
+
+            update(id, due -> due.setNextAttemptAt(LocalDateTime.now().minusSeconds(1)));
+        }
+
+        assertThat(service.claim(10)).hasSize(1);
+        service.complete(List.of(DispatchResult.failure(id, "Zeebe indisponible")));
+        flushAndClear();
+
+        ProcessStartOutbox failed = outboxRepository.findById(id).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(3);
+        assertThat(service.claim(10)).isEmpty();
+    }
+
+    @Test
+    void successfulStartIsRecordedOnTheDeclaration() {
+        ImportDeclaration declaration = declarationRepository.save(declaration(TENANT));
+        UUID id = enqueue(declaration.getId());
+
+        assertThat(service.claim(10)).hasSize(1);
+        service.complete(List.of(DispatchResult.success(id, 2251799813685249L)));
+        flushAndClear();
+
+        ProcessStartOutbox entry = outboxRepository.findById(id).orElseThrow();
+        assertThat(entry.getStatus()).isEqualTo(OutboxStatus.DISPATCHED);
+        assertThat(entry.getDispatchedAt()).isNotNull();
+        assertThat(declarationRepository.findById(declaration.getId()).orElseThrow().getProcessInstanceId())
+                .isEqualTo("2251799813685249");
+    }
+
+    @Test
+    void purgeRemovesOnlyDispatchedEntriesPastRetention() {
+        UUID expired = enqueue(UUID.randomUUID());
+        UUID recent = enqueue(UUID.randomUUID());
+        UUID failed = enqueue(UUID.randomUUID());
+        UUID pending = enqueue(UUID.randomUUID());
+        LocalDateTime old = LocalDateTime.now().minusDays(8);
+        update(expired, entry -> {
+            entry.setStatus(OutboxStatus.DISPATCHED);
+            entry.setDispatchedAt(old);
+        });
+        update(recent, entry -> {
+            entry.setStatus(OutboxStatus.DISPATCHED);
+            entry.setDispatchedAt(LocalDateTime.now().minusDays(1));
+        });
+        update(failed, entry -> {
+            entry.setStatus(OutboxStatus.FAILED);
+            entry.setDispatchedAt(old);
+        });
+        update(pending, entry -> entry.setCreatedAt(old));
+
+        assertThat(service.purgeDispatched()).isEqualTo(1);
+        flushAndClear();
+
+        assertThat(outboxRepository.findAll()).extracting(ProcessStartOutbox::getId)
+                .containsExactlyInAnyOrder(recent, failed, pending);
+    }
+
+    private UUID enqueue(UUID aggregateId) {
+        service.enqueue(AggregateType.IMPORT_DECLARATION, aggregateId, TENANT, BPMN, Map.of("declarationId", aggregateId));
+        flushAndClear();
+        return outboxRepository.findAll().stream()
+                .filter(entry -> entry.getAggregateId().equals(aggregateId))
+                .findFirst().orElseThrow().getId();
+    }
+
+    private void update(UUID id, Consumer<ProcessStartOutbox> change) {
+        change.accept(outboxRepository.findById(id).orElseThrow());
+        flushAndClear();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,100 @@
+package cm.guce.procedure.domain.form;
+
+import cm.guce.procedure.domain.model.FormDefinition;
+import cm.guce.procedure.domain.model.FormField;
+import cm.guce.procedure.domain.model.FormField.FieldType;
+import cm.guce.procedure.domain.model.Procedure;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banc d'essai de l'évaluation d'un formulaire compilé de 200 champs (saisies, formules
+ * de calcul chaînées et conditions de visibilité): la médiane doit rester sous la milliseconde.
+ */
+@Slf4j
+class CompiledFormBenchmarkTest {
+
+    private static final int INPUTS = 120;
+    private static final int CALCULATIONS = 50;
+    private static final int CONDITIONAL = 30;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 501;
+
+    @Test
+    void evaluatesTwoHundredFieldsUnderOneMillisecond() {
+        CompiledForm form = CompiledForm.compile(new Procedure(), fields());
+        Map<String, Object> data = data();
+
+        assertThat(form.getCompilationErrors()).isEmpty();
+        FormEvaluation evaluation = form.evaluate(data);
+        assertThat(evaluation.getCalculated()).hasSize(CALCULATIONS);
+        assertThat((BigDecimal) evaluation.getCalculated().get("c1")).isEqualByComparingTo("3.14");
+
+        for (int i = 0; i < WARMUP; i++) {
+            form.evaluate(data);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            form.evaluate(data);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double medianMillis = nanos[ITERATIONS / 2] / 1_000_000.0;
+        log.info("Évaluation d'un formulaire de {} champs: médiane {} ms",
+                INPUTS + CALCULATIONS + CONDITIONAL, String.format("%.4f", medianMillis));
+
+        assertThat(medianMillis).isLessThan(1.0);
+    }
+
+    private static List<FormField> fields() {
+        FormDefinition definition = new FormDefinition();
+        definition.setId(UUID.randomUUID());
+        List<FormField> fields = new ArrayList<>();
+        for (int i = 1; i <= INPUTS; i++) {
+            fields.add(field(definition, "f" + i, null, null));
+        }
+        // Chaque calcul dépend du précédent: l'ordre topologique est exercé
+        fields.add(field(definition, "c1", "round(f1 * f2 + f3 / 7, 2)", null));
+        for (int i = 2; i <= CALCULATIONS; i++) {
+            fields.add(field(definition, "c" + i,
+                    "c" + (i - 1) + " + max(f" + i + ", f" + (i + 1) + ") - min(0, f" + (i + 2) + ") * 1.5", null));
+        }
+        for (int i = 1; i <= CONDITIONAL; i++) {
+            fields.add(field(definition, "v" + i, null,
+                    "c" + i + " > 100 && (f" + i + " != null || empty(f" + (i + 1) + "))"));
+        }
+        return fields;
+    }
+
+    private static FormField field(FormDefinition definition, String code, String calculation, String visibility) {
+        FormField field = new FormField();
+        field.setForm(definition);
+        field.setCode(code);
+        field.setFieldType(FieldType.NUMBER);
+        field.setCalculationFormula(calculation);
+        field.setVisibilityCondition(visibility);
+        return field;
+    }
+
+    private static Map<String, Object> data() {
+        Map<String, Object> data = new HashMap<>();
+        for (int i = 1; i <= INPUTS; i++) {
+            data.put("f" + i, i % 3 == 0 ? String.valueOf(i * 1.25) : i);
+        }
+        data.put("f1", 1);
+        data.put("f2", 2);
+        data.put("f3", "7.98");
+        return data;
+    }
+}
@@ -0,0 +1,154 @@
+package cm.guce.procedure.domain.form;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Compilation et évaluation des expressions de formulaire, y compris les valeurs numériques
+ * hors bornes qui rendraient l'arithmétique décimale arbitrairement coûteuse.
+ */
+class FormExpressionCompilerTest {
+
+    private static final Duration FAST = Duration.ofSeconds(1);
+
+    @Test
+    void evaluatesArithmeticWithOperatorPrecedence() {
+        Object result = evaluate("a + b * 2", Map.of("a", 1, "b", "2.5"));
+
+        assertThat((BigDecimal) result).isEqualByComparingTo("6");
+    }
+
+    @Test
+    void missingOrNonNumericOperandsAndDivisionByZeroYieldNull() {
+        assertThat(evaluate("a * 2", Map.of())).isNull();
+        assertThat(evaluate("a - 1", Map.of("a", "abc"))).isNull();
+        assertThat(evaluate("a / 0", Map.of("a", 5))).isNull();
+        assertThat(evaluate("a % 0", Map.of("a", 5))).isNull();
+    }
+
+    @Test
+    void plusConcatenatesStrings() {
+        assertThat(evaluate("'DI-' + ref", Map.of("ref", "001"))).isEqualTo("DI-001");
+    }
+
+    @Test
+    void comparesNumericallyWhenBothOperandsAreNumbers() {
+        assertThat(evaluate("a > b", Map.of("a", "10", "b", "9"))).isEqualTo(true);
+        assertThat(evaluate("a > b", Map.of("a", "abc", "b", "abd"))).isEqualTo(false);
+        assertThat(evaluate("a == 2", Map.of("a", "2.00"))).isEqualTo(true);
+        assertThat(evaluate("a != null", Map.of())).isEqualTo(false);
+    }
+
+    @Test
+    void logicalOperatorsShortCircuit() {
+        assertThat(evaluate("false && missing.path / 0 > 1", Map.of())).isEqualTo(false);
+        assertThat(evaluate("true || missing.path / 0 > 1", Map.of())).isEqualTo(true);
+        assertThat(evaluate("a > 0 ? 'positif' : 'négatif'", Map.of("a", -1))).isEqualTo("négatif");
+    }
+
+    @Test
+    void resolvesNestedPaths() {
+        Map<String, Object> data = Map.of("importer", Map.of("address", Map.of("city", "Douala")));
+
+        assertThat(evaluate("importer.address.city == 'Douala'", data)).isEqualTo(true);
+    }
+
+    @Test
+    void evaluatesFunctions() {
+        Map<String, Object> data = Map.of("items", List.of(1, "2.5", 3), "x", "2.345", "name", "GUCE");
+
+        assertThat((BigDecimal) evaluate("sum(items, 1)", data)).isEqualByComparingTo("7.5");
+        assertThat((BigDecimal) evaluate("min(3, x, 7)", data)).isEqualByComparingTo("2.345");
+        assertThat((BigDecimal) evaluate("max(3, x, 7)", data)).isEqualByComparingTo("7");
+        assertThat(evaluate("round(x, 2)", data)).isEqualTo(new BigDecimal("2.35"));
+        assertThat(evaluate("floor(x)", data)).isEqualTo(new BigDecimal("2"));
+        assertThat(evaluate("ceil(x)", data)).isEqualTo(new BigDecimal("3"));
+        assertThat(evaluate("abs(-x)", data)).isEqualTo(new BigDecimal("2.345"));
+        assertThat(evaluate("coalesce(missing, '', name)", data)).isEqualTo("GUCE");
+        assertThat(evaluate("empty(missing)", data)).isEqualTo(true);
+        assertThat((BigDecimal) evaluate("length(name)", data)).isEqualByComparingTo("4");
+        assertThat(evaluate("contains(items, 3)", data)).isEqualTo(true);
+        assertThat(evaluate("if(contains(name, 'UC'), 1, 2)", data)).isEqualTo(BigDecimal.ONE);
+    }
+
+    @Test
+    void rejectsUnknownFunctionsAndInvalidArity() {
+        assertThatThrownBy(() -> compile("unknown(1)"))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Fonction inconnue");
+        assertThatThrownBy(() -> compile("abs(1, 2)"))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Nombre d'arguments invalide");
+    }
+
+    // ========================================
+    // VALEURS HORS BORNES
+    // ========================================
+
+    @Test
+    void hugeExponentsAreNotNumeric() {
+        assertThat(CompiledForm.toDecimal("1e999999999")).isNull();
+        assertThat(CompiledForm.toDecimal("1e-999999999")).isNull();
+        assertThat(CompiledForm.toDecimal(new BigDecimal("1e999999999"))).isNull();
+        assertThat(CompiledForm.toDecimal(1e300)).isNull();
+        assertThat(CompiledForm.toDecimal("1" + "0".repeat(200))).isNull();
+        assertThat(CompiledForm.toDecimal("1e60")).isEqualByComparingTo("1e60");
+        assertThat(CompiledForm.toDecimal("123456.789")).isEqualByComparingTo("123456.789");
+    }
+
+    @Test
+    void arithmeticOnHugeExponentsReturnsQuickly() {
+        Map<String, Object> data = Map.of("big", "1e999999999", "tiny", "1e-999999999", "one", 1);
+
+        assertTimeoutPreemptively(FAST, () -> {
+            // Hors bornes, la valeur n'est pas numérique: '+' retombe sur la concaténation
+            assertThat(evaluate("big + one", data)).isEqualTo("1e9999999991");
+            assertThat(evaluate("one - tiny", data)).isNull();
+            assertThat(evaluate("round(big, 2)", data)).isNull();
+            assertThat(evaluate("sum(big, tiny, one)", data)).isEqualTo(BigDecimal.ONE);
+        });
+    }
+
+    @Test
+    void additionIsRoundedToDecimal128() {
+        Map<String, Object> data = Map.of("large", "1e60", "small", "1e-60");
+
+        BigDecimal sum = (BigDecimal) evaluate("large + small", data);
+        BigDecimal difference = (BigDecimal) evaluate("large - small", data);
+
+        assertThat(sum.precision()).isLessThanOrEqualTo(34);
+        assertThat(difference.precision()).isLessThanOrEqualTo(34);
+        assertThat(sum).isEqualByComparingTo("1e60");
+    }
+
+    @Test
+    void roundingScaleIsClampedBetweenZeroAndTen() {
+        Map<String, Object> data = Map.of("x", "1.23456789012345", "digits", "1e9");
+
+        assertTimeoutPreemptively(FAST, () -> {
+            assertThat(((BigDecimal) evaluate("round(x, digits)", data)).scale()).isEqualTo(10);
+            assertThat(((BigDecimal) evaluate("round(x, 999999999)", data)).scale()).isEqualTo(10);
+            assertThat(evaluate("round(x, -5)", data)).isEqualTo(BigDecimal.ONE);
+            assertThat(evaluate("ceil(x, 0 - 3)", data)).isEqualTo(new BigDecimal("2"));
+        });
+    }
+
+    private static CompiledExpression compile(String expression) {
+        return FormExpressionCompiler.compile(FormExpressionParser.parse(expression), Function.identity());
+    }
+
+    private static Object evaluate(String expression, Map<String, Object> data) {
+        Map<String, Object> copy = new HashMap<>(data);
+        return compile(expression).evaluate((path, segments) -> CompiledForm.valueAt(copy, path, segments));
+    }
+}
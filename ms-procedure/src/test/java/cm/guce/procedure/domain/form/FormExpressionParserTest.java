@@ -0,0 +1,145 @@
+package cm.guce.procedure.domain.form;
+
+import cm.guce.procedure.domain.form.FormExpression.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Analyse des expressions de formulaire: priorités, littéraux, erreurs et profondeur bornée.
+ */
+class FormExpressionParserTest {
+
+    @Test
+    void multiplicationBindsTighterThanAddition() {
+        FormExpression expression = FormExpressionParser.parse("a + b * 2");
+
+        assertThat(expression).isEqualTo(new Binary(BinaryOperator.ADD, new FieldRef("a"),
+                new Binary(BinaryOperator.MULTIPLY, new FieldRef("b"), new Literal(new BigDecimal("2")))));
+    }
+
+    @Test
+    void binaryOperatorsAreLeftAssociative() {
+        FormExpression expression = FormExpressionParser.parse("10 - 4 - 3");
+
+        assertThat(expression).isEqualTo(new Binary(BinaryOperator.SUBTRACT,
+                new Binary(BinaryOperator.SUBTRACT, new Literal(new BigDecimal("10")), new Literal(new BigDecimal("4"))),
+                new Literal(new BigDecimal("3"))));
+    }
+
+    @Test
+    void parsesKeywordsConditionalsAndCalls() {
+        FormExpression expression = FormExpressionParser.parse("not a and b or c ? max(x, 1) : 'n/a'");
+
+        assertThat(expression).isEqualTo(new Conditional(
+                new Binary(BinaryOperator.OR,
+                        new Binary(BinaryOperator.AND, new Unary(UnaryOperator.NOT, new FieldRef("a")), new FieldRef("b")),
+                        new FieldRef("c")),
+                new Call("max", List.of(new FieldRef("x"), new Literal(BigDecimal.ONE))),
+                new Literal("n/a")));
+    }
+
+    @Test
+    void singleEqualsIsEquality() {
+        assertThat(FormExpressionParser.parse("type = 'A'"))
+                .isEqualTo(FormExpressionParser.parse("type == 'A'"));
+    }
+
+    @Test
+    void parsesLiteralsAndDottedPaths() {
+        assertThat(FormExpressionParser.parse("true")).isEqualTo(new Literal(Boolean.TRUE));
+        assertThat(FormExpressionParser.parse("null")).isEqualTo(new Literal(null));
+        assertThat(FormExpressionParser.parse(".5")).isEqualTo(new Literal(new BigDecimal(".5")));
+        assertThat(FormExpressionParser.parse("'l\\'eau'")).isEqualTo(new Literal("l'eau"));
+        assertThat(FormExpressionParser.parse("importer.address.city"))
+                .isEqualTo(new FieldRef("importer.address.city"));
+    }
+
+    @Test
+    void collectsReferencedPaths() {
+        Set<String> references = new HashSet<>();
+        FormExpressionParser.parse("if(a > 0, b.c, sum(d, 1))").collectReferences(references);
+
+        assertThat(references).containsExactlyInAnyOrder("a", "b.c", "d");
+    }
+
+    @Test
+    void reportsSyntaxErrorsWithPosition() {
+        assertThatThrownBy(() -> FormExpressionParser.parse("a + "))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Fin d'expression inattendue");
+        assertThatThrownBy(() -> FormExpressionParser.parse("(a + b"))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("')' attendu");
+        assertThatThrownBy(() -> FormExpressionParser.parse("'abc"))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Chaîne non terminée");
+        assertThatThrownBy(() -> FormExpressionParser.parse("a # b"))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("position 2");
+        assertThatThrownBy(() -> FormExpressionParser.parse("1.2.3"))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Nombre invalide");
+    }
+
+    @Test
+    void acceptsNestingUpToTheLimit() {
+        int levels = FormExpressionParser.MAX_DEPTH - 1;
+        String expression = "(".repeat(levels) + "a" + ")".repeat(levels);
+
+        assertThat(FormExpressionParser.parse(expression)).isEqualTo(new FieldRef("a"));
+    }
+
+    @Test
+    void rejectsDeepParenthesisNestingWithoutStackOverflow() {
+        String expression = "(".repeat(100_000) + "a" + ")".repeat(100_000);
+
+        assertThatThrownBy(() -> FormExpressionParser.parse(expression))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Expression trop imbriquée");
+    }
+
+    @Test
+    void rejectsDeepCallNesting() {
+        String expression = "abs(".repeat(10_000) + "a" + ")".repeat(10_000);
+
+        assertThatThrownBy(() -> FormExpressionParser.parse(expression))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Expression trop imbriquée");
+    }
+
+    @Test
+    void rejectsRepeatedUnaryOperators() {
+        assertThatThrownBy(() -> FormExpressionParser.parse("!".repeat(100_000) + "a"))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Expression trop imbriquée");
+        assertThatThrownBy(() -> FormExpressionParser.parse("-".repeat(100_000) + "1"))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Expression trop imbriquée");
+    }
+
+    @Test
+    void boundsOperatorChainsThatBuildDeepTrees() {
+        String accepted = String.join(" + ", Collections.nCopies(FormExpressionParser.MAX_DEPTH - 1, "a"));
+        String rejected = String.join(" + ", Collections.nCopies(50_000, "a"));
+
+        assertThat(FormExpressionParser.parse(accepted)).isInstanceOf(Binary.class);
+        assertThatThrownBy(() -> FormExpressionParser.parse(rejected))
+                .isInstanceOf(FormExpressionException.class)
+                .hasMessageContaining("Expression trop imbriquée");
+    }
+
+    @Test
+    void siblingArgumentsDoNotAccumulateDepth() {
+        String expression = "sum(" + String.join(", ", Collections.nCopies(5_000, "(a + b)")) + ")";
+
+        assertThat(FormExpressionParser.parse(expression)).isInstanceOf(Call.class);
+    }
+}
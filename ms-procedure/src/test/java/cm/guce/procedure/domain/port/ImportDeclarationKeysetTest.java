@@ -0,0 +1,85 @@
+package cm.guce.procedure.domain.port;
+
+import cm.guce.procedure.domain.model.ImportDeclaration;
+import cm.guce.procedure.support.PersistenceTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+import static cm.guce.procedure.support.ImportDeclarationFixtures.declaration;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pagination par curseur (createdAt, id): parcours complet sans doublon ni trou,
+ * y compris lorsque plusieurs DI partagent le même createdAt.
+ */
+@PersistenceTest
+class ImportDeclarationKeysetTest {
+
+    private static final int DECLARATIONS = 7;
+    private static final int PAGE_SIZE = 2;
+    private static final String NIU = "M012345678901A";
+    private static final LocalDateTime START = LocalDateTime.of(2099, 1, 1, 0, 0);
+    private static final UUID START_ID = new UUID(-1L, -1L);
+
+    @Autowired
+    private ImportDeclarationRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < DECLARATIONS; i++) {
+            repository.save(declaration("tenant-a"));
+        }
+        entityManager.flush();
+        // Ex aequo sur createdAt: seul l'id départage les lignes
+        entityManager.createNativeQuery("UPDATE {h-schema}import_declaration SET created_at = :createdAt")
+                .setParameter("createdAt", LocalDateTime.of(2024, 6, 1, 12, 0))
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    @Test
+    void jpqlKeysetWalksEveryRowOnce() {
+        assertWalksEveryRowOnce((createdAt, id) ->
+                repository.findByImporterNiuAfter(NIU, createdAt, id, PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void nativeKeysetWalksEveryRowOnce() {
+        assertWalksEveryRowOnce((createdAt, id) ->
+                repository.searchAfter("importateur", createdAt, id, PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    private void assertWalksEveryRowOnce(BiFunction<LocalDateTime, UUID, List<ImportDeclaration>> page) {
+        List<UUID> walked = new ArrayList<>();
+        LocalDateTime createdAt = START;
+        UUID id = START_ID;
+        List<ImportDeclaration> rows;
+        do {
+            rows = page.apply(createdAt, id);
+            for (ImportDeclaration row : rows) {
+                walked.add(row.getId());
+                createdAt = row.getCreatedAt();
+                id = row.getId();
+            }
+        } while (rows.size() == PAGE_SIZE);
+
+        List<UUID> expected = repository.findByImporterNiuAfter(NIU, START, START_ID,
+                PageRequest.of(0, DECLARATIONS + 1)).stream().map(ImportDeclaration::getId).toList();
+
+        assertThat(new HashSet<>(walked)).hasSize(DECLARATIONS);
+        assertThat(walked).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,73 @@
+package cm.guce.procedure.support;
+
+import cm.guce.procedure.domain.model.ImportDeclaration;
+import cm.guce.procedure.domain.model.ImportDeclaration.*;
+import cm.guce.procedure.domain.model.ImportDeclarationDocument;
+import cm.guce.procedure.domain.model.ImportDeclarationDocument.DocumentType;
+import cm.guce.procedure.domain.model.ImportDeclarationItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DI minimales valides pour les tests de persistance.
+ */
+public final class ImportDeclarationFixtures {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private ImportDeclarationFixtures() {
+    }
+
+    public static ImportDeclaration declaration(String tenantId, ImportDeclarationStatus status,
+                                                RoutingDestination routing, TransportMode transportMode,
+                                                ImportType importType) {
+        ImportDeclaration declaration = new ImportDeclaration();
+        declaration.setTenantId(tenantId);
+        declaration.setReference("DI-TEST-" + SEQUENCE.incrementAndGet());
+        declaration.setStatus(status);
+        declaration.setRoutingDestination(routing);
+        declaration.setTransportMode(transportMode);
+        declaration.setImportType(importType);
+        declaration.setImporterNiu("M012345678901A");
+        declaration.setImporterName("Importateur Test");
+        declaration.setSupplierName("Fournisseur Test");
+        declaration.setSupplierCountry("FR");
+        declaration.setOriginCountry("FR");
+        declaration.setProvenanceCountry("FR");
+        declaration.setUnloadingPlace("Douala");
+        declaration.setProformaNumber("PF-" + SEQUENCE.get());
+        declaration.setProformaDate(LocalDate.now());
+        declaration.setTotalFobValue(new BigDecimal("1500000"));
+        return declaration;
+    }
+
+    public static ImportDeclaration declaration(String tenantId) {
+        return declaration(tenantId, ImportDeclarationStatus.DRAFT, RoutingDestination.SGS,
+                TransportMode.MARITIME, ImportType.CLASSIQUE);
+    }
+
+    public static ImportDeclaration withItemsAndDocuments(ImportDeclaration declaration, int items, int documents) {
+        for (int i = 1; i <= items; i++) {
+            ImportDeclarationItem item = new ImportDeclarationItem();
+            item.setTenantId(declaration.getTenantId());
+            item.setItemNumber(i);
+            item.setHsCode("8471300000");
+            item.setDesignation("Article " + i);
+            item.setQuantity(BigDecimal.ONE);
+            declaration.addItem(item);
+        }
+        for (int i = 1; i <= documents; i++) {
+            ImportDeclarationDocument document = new ImportDeclarationDocument();
+            document.setTenantId(declaration.getTenantId());
+            document.setImportDeclaration(declaration);
+            document.setDocumentType(DocumentType.FACTURE_PROFORMA);
+            document.setDocumentName("Document " + i);
+            document.setFileName("document-" + i + ".pdf");
+            document.setFilePath("/documents/document-" + i + ".pdf");
+            declaration.getDocuments().add(document);
+        }
+        return declaration;
+    }
+}
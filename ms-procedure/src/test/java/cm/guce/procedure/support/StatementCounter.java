@@ -0,0 +1,32 @@
+package cm.guce.procedure.support;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Compte les requêtes SQL préparées par Hibernate (statistiques de la SessionFactory).
+ */
+public final class StatementCounter {
+
+    private final EntityManager entityManager;
+    private final Statistics statistics;
+
+    public StatementCounter(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Vide le contexte de persistance et remet les compteurs à zéro.
+     */
+    public void reset() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    public long count() {
+        return statistics.getPrepareStatementCount();
+    }
+}